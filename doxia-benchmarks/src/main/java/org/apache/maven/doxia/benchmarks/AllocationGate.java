@@ -0,0 +1,407 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import org.apache.maven.doxia.parser.ParseException;
+import org.apache.maven.doxia.parser.Parser;
+import org.apache.maven.doxia.sink.Sink;
+import org.apache.maven.doxia.sink.impl.SinkAdapter;
+
+/**
+ * Measures the bytes allocated by every parser and sink pair, per byte of source and per sink event,
+ * and compares them with a stored baseline.
+ * <p>
+ * The allocations are counted by the JVM for the current thread, see
+ * {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)}, after the parsers and sinks
+ * have been warmed up, so that the numbers are stable from one run to the next on the same JVM version.
+ * Baselines are only compared when they were measured with the same Java specification version.
+ * <p>
+ * To refresh the baseline after a deliberate change:
+ *
+ * <pre>
+ * mvn test -pl doxia-benchmarks -Dtest=AllocationGateTest -Ddoxia.allocation.update
+ * </pre>
+ *
+ * or <code>java -cp benchmarks.jar org.apache.maven.doxia.benchmarks.AllocationGate --update &lt;file&gt;</code>.
+ */
+public final class AllocationGate {
+    /** The sink id of the pairs that parse into a sink ignoring all events. */
+    public static final String NO_SINK = "none";
+
+    /** The key of the Java specification version in the baseline. */
+    static final String JAVA_VERSION = "java.specification.version";
+
+    /** The header of the baseline file. */
+    private static final String[] LICENSE = {
+        "#",
+        "# Licensed to the Apache Software Foundation (ASF) under one",
+        "# or more contributor license agreements.  See the NOTICE file",
+        "# distributed with this work for additional information",
+        "# regarding copyright ownership.  The ASF licenses this file",
+        "# to you under the Apache License, Version 2.0 (the",
+        "# \"License\"); you may not use this file except in compliance",
+        "# with the License.  You may obtain a copy of the License at",
+        "#",
+        "#   http://www.apache.org/licenses/LICENSE-2.0",
+        "#",
+        "# Unless required by applicable law or agreed to in writing,",
+        "# software distributed under the License is distributed on an",
+        "# \"AS IS\" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY",
+        "# KIND, either express or implied.  See the License for the",
+        "# specific language governing permissions and limitations",
+        "# under the License.",
+    };
+
+    private static final String BYTES_PER_INPUT_BYTE = "bytesPerInputByte";
+
+    private static final String BYTES_PER_EVENT = "bytesPerEvent";
+
+    private static final String[] PARSERS = {"apt", "xdoc", "fml", "xhtml", "markdown"};
+
+    private static final String[] SINKS = {NO_SINK, "xhtml", "markdown", "apt"};
+
+    private static final OutputStream NULL_OUTPUT = new OutputStream() {
+        @Override
+        public void write(int b) {
+            // discarded
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            // discarded
+        }
+    };
+
+    private final int scale;
+
+    private final int warmups;
+
+    private final int iterations;
+
+    /**
+     * @param scale the number of repetitions of the sample document.
+     * @param warmups the number of parses of every pair before measuring.
+     * @param iterations the number of parses of each of the three measuring rounds, the lowest round is kept.
+     */
+    public AllocationGate(int scale, int warmups, int iterations) {
+        this.scale = scale;
+        this.warmups = warmups;
+        this.iterations = iterations;
+    }
+
+    /**
+     * The allocations of one parser and sink pair.
+     */
+    public static final class Allocation {
+        private final double bytesPerInputByte;
+
+        private final double bytesPerEvent;
+
+        Allocation(double bytesPerInputByte, double bytesPerEvent) {
+            this.bytesPerInputByte = bytesPerInputByte;
+            this.bytesPerEvent = bytesPerEvent;
+        }
+
+        /**
+         * @return the bytes allocated per byte of UTF-8 encoded source.
+         */
+        public double getBytesPerInputByte() {
+            return bytesPerInputByte;
+        }
+
+        /**
+         * @return the bytes allocated per event received by the sink.
+         */
+        public double getBytesPerEvent() {
+            return bytesPerEvent;
+        }
+    }
+
+    /**
+     * Returns true if the JVM counts the bytes allocated by a thread.
+     *
+     * @return true if allocations can be measured.
+     */
+    public static boolean isSupported() {
+        return ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                        .isThreadAllocatedMemorySupported();
+    }
+
+    /**
+     * Measures all parser and sink pairs.
+     *
+     * @return the allocations keyed by <code>parser-&gt;sink</code>, in alphabetical order.
+     * @throws IOException if a sink cannot be created.
+     * @throws ParseException if a document cannot be parsed.
+     */
+    public Map<String, Allocation> measure() throws IOException, ParseException {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long threadId = Thread.currentThread().getId();
+
+        // warm up all pairs first, so that no pair is measured while the code it shares with others is recompiled
+        for (String parserId : PARSERS) {
+            Parser parser = Components.parser(parserId);
+            String source = Documents.get(Format.of(parserId), "sample", scale);
+            for (int i = 0; i < warmups; i++) {
+                for (String sinkId : SINKS) {
+                    parse(parser, source, sinkId);
+                }
+            }
+        }
+
+        Map<String, Allocation> allocations = new TreeMap<>();
+        for (String parserId : PARSERS) {
+            Parser parser = Components.parser(parserId);
+            String source = Documents.get(Format.of(parserId), "sample", scale);
+            long inputBytes = source.getBytes(StandardCharsets.UTF_8).length;
+            long events = countEvents(parser, source);
+
+            for (String sinkId : SINKS) {
+                long lowest = Long.MAX_VALUE;
+                for (int round = 0; round < 3; round++) {
+                    long start = threads.getThreadAllocatedBytes(threadId);
+                    for (int i = 0; i < iterations; i++) {
+                        parse(parser, source, sinkId);
+                    }
+                    lowest = Math.min(lowest, threads.getThreadAllocatedBytes(threadId) - start);
+                }
+
+                double perParse = (double) lowest / iterations;
+                allocations.put(key(parserId, sinkId), new Allocation(perParse / inputBytes, perParse / events));
+            }
+        }
+        return allocations;
+    }
+
+    private static void parse(Parser parser, String source, String sinkId) throws IOException, ParseException {
+        Sink sink = NO_SINK.equals(sinkId)
+                ? new SinkAdapter()
+                : Components.sinkFactory(sinkId).createSink(NULL_OUTPUT);
+        parser.parse(new StringReader(source), sink);
+        sink.close();
+    }
+
+    private static long countEvents(Parser parser, String source) throws ParseException {
+        long[] events = new long[1];
+        Sink sink = (Sink) Proxy.newProxyInstance(
+                AllocationGate.class.getClassLoader(), new Class<?>[] {Sink.class}, (proxy, method, args) -> {
+                    if (method.getDeclaringClass() == Object.class) {
+                        switch (method.getName()) {
+                            case "equals":
+                                return proxy == args[0];
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            default:
+                                return "EventCounter";
+                        }
+                    }
+                    events[0]++;
+                    return null;
+                });
+        parser.parse(new StringReader(source), sink);
+        return Math.max(1, events[0]);
+    }
+
+    private static String key(String parserId, String sinkId) {
+        return parserId + "->" + sinkId;
+    }
+
+    /**
+     * Compares the measured allocations with a baseline.
+     *
+     * @param baseline the baseline.
+     * @param current the measured allocations.
+     * @param threshold the tolerated increase, e.g. <code>0.1</code> for 10%.
+     * @return a readable table of the pairs that allocate more than tolerated, or of the pairs
+     * missing from the baseline, or <code>null</code> if there is none.
+     */
+    public static String compare(Map<String, Allocation> baseline, Map<String, Allocation> current, double threshold) {
+        List<String> lines = new ArrayList<>();
+        for (Map.Entry<String, Allocation> entry : current.entrySet()) {
+            Allocation before = baseline.get(entry.getKey());
+            Allocation after = entry.getValue();
+            if (before == null) {
+                lines.add(String.format(Locale.ROOT, "  %-22s missing from the baseline", entry.getKey()));
+                continue;
+            }
+            addIfRegressed(
+                    lines,
+                    entry.getKey(),
+                    "B/input byte",
+                    before.bytesPerInputByte,
+                    after.bytesPerInputByte,
+                    threshold);
+            addIfRegressed(lines, entry.getKey(), "B/sink event", before.bytesPerEvent, after.bytesPerEvent, threshold);
+        }
+        if (lines.isEmpty()) {
+            return null;
+        }
+
+        StringBuilder diff = new StringBuilder();
+        diff.append(String.format(Locale.ROOT, "Allocations increased by more than %.0f%%:%n", threshold * 100));
+        diff.append(String.format(
+                Locale.ROOT,
+                "  %-22s %-20s %12s %12s %8s%n",
+                "parser->sink",
+                "metric",
+                "baseline",
+                "current",
+                "change"));
+        for (String line : lines) {
+            diff.append(line).append(System.lineSeparator());
+        }
+        diff.append("Fix the regression, or refresh the baseline if the increase is deliberate, see ")
+                .append(AllocationGate.class.getName())
+                .append('.');
+        return diff.toString();
+    }
+
+    private static void addIfRegressed(
+            List<String> lines, String key, String metric, double before, double after, double threshold) {
+        if (after > before * (1 + threshold)) {
+            lines.add(String.format(
+                    Locale.ROOT,
+                    "  %-22s %-20s %12.1f %12.1f %+7.1f%%",
+                    key,
+                    metric,
+                    before,
+                    after,
+                    (after - before) * 100 / before));
+        }
+    }
+
+    /**
+     * Loads a baseline stored by {@link #store(Path, Map)}.
+     *
+     * @param file the baseline file.
+     * @return the allocations, or <code>null</code> if the file does not exist or was measured with another
+     * Java specification version.
+     * @throws IOException if the file cannot be read.
+     */
+    public static Map<String, Allocation> load(Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        }
+        if (!System.getProperty(JAVA_VERSION).equals(properties.getProperty(JAVA_VERSION))) {
+            return null;
+        }
+
+        Map<String, Allocation> baseline = new TreeMap<>();
+        for (String name : properties.stringPropertyNames()) {
+            if (name.endsWith('.' + BYTES_PER_INPUT_BYTE)) {
+                String key = name.substring(0, name.length() - BYTES_PER_INPUT_BYTE.length() - 1);
+                baseline.put(
+                        key,
+                        new Allocation(
+                                Double.parseDouble(properties.getProperty(name)),
+                                Double.parseDouble(properties.getProperty(key + '.' + BYTES_PER_EVENT))));
+            }
+        }
+        return baseline;
+    }
+
+    /**
+     * Stores a baseline, with the Java specification version it was measured with.
+     *
+     * @param file the baseline file.
+     * @param allocations the allocations.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void store(Path file, Map<String, Allocation> allocations) throws IOException {
+        if (file.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+        }
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.ISO_8859_1)) {
+            for (String line : LICENSE) {
+                writer.write(line + '\n');
+            }
+            writer.write('\n');
+            writer.write("# Bytes allocated by every parser and sink pair, see " + AllocationGate.class.getName()
+                    + " to refresh.\n");
+            writer.write(JAVA_VERSION + '=' + System.getProperty(JAVA_VERSION) + '\n');
+            for (Map.Entry<String, Allocation> entry : new TreeMap<>(allocations).entrySet()) {
+                String key = entry.getKey();
+                writer.write(String.format(
+                        Locale.ROOT,
+                        "%s.%s=%.2f%n%s.%s=%.2f%n",
+                        key,
+                        BYTES_PER_INPUT_BYTE,
+                        entry.getValue().bytesPerInputByte,
+                        key,
+                        BYTES_PER_EVENT,
+                        entry.getValue().bytesPerEvent));
+            }
+        }
+    }
+
+    /**
+     * Measures all pairs and compares them with a baseline, or refreshes the baseline.
+     *
+     * @param args <code>[--update] &lt;baseline file&gt;</code>.
+     * @throws Exception if the allocations cannot be measured or the baseline cannot be read or written.
+     */
+    public static void main(String[] args) throws Exception {
+        boolean update = args.length > 0 && "--update".equals(args[0]);
+        if (args.length != (update ? 2 : 1)) {
+            System.err.println("Usage: " + AllocationGate.class.getName() + " [--update] <baseline file>");
+            System.exit(2);
+        }
+        Path file = Paths.get(args[args.length - 1]);
+
+        Map<String, Allocation> current = new AllocationGate(4, 50, 20).measure();
+        if (update) {
+            store(file, current);
+            System.out.println("Baseline written to " + file.toAbsolutePath());
+            return;
+        }
+
+        Map<String, Allocation> baseline = load(file);
+        if (baseline == null) {
+            System.err.println("No baseline for Java " + System.getProperty(JAVA_VERSION) + " in " + file);
+            System.exit(2);
+        }
+        String diff = compare(baseline, current, 0.1);
+        System.out.println(diff == null ? "No allocation regression." : diff);
+        System.exit(diff == null ? 0 : 1);
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.benchmarks;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks selected by the usual JMH command line options, writes the JMH results as JSON,
+ * then summarizes the throughput of every benchmark in documents per second and megabytes of source per second.
+ * <p>
+ * The JMH results are written to <code>jmh-result.json</code> unless another file is given with <code>-rff</code>,
+ * the summary to the same file with the <code>-summary.json</code> suffix.
+ */
+public final class BenchmarkMain {
+    private BenchmarkMain() {
+        // main class
+    }
+
+    /**
+     * Runs the benchmarks.
+     *
+     * @param args the JMH command line options, e.g. <code>ParseBenchmark -p format=apt</code>.
+     * @throws Exception if the options are invalid, a benchmark fails or the summary cannot be written.
+     */
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions options = new CommandLineOptions(args);
+        if (options.shouldHelp()
+                || options.shouldList()
+                || options.shouldListWithParams()
+                || options.shouldListProfilers()
+                || options.shouldListResultFormats()) {
+            Main.main(args);
+            return;
+        }
+
+        Path resultFile = Paths.get(options.getResult().orElse("jmh-result.json"));
+        ChainedOptionsBuilder builder = new OptionsBuilder().parent(options);
+        if (!options.getResult().hasValue()) {
+            builder.result(resultFile.toString());
+        }
+        if (!options.getResultFormat().hasValue()) {
+            builder.resultFormat(ResultFormatType.JSON);
+        }
+
+        Collection<RunResult> results = new Runner(builder.build()).run();
+
+        List<Summary> summaries = new ArrayList<>(results.size());
+        for (RunResult result : results) {
+            summaries.add(summarize(result));
+        }
+        print(summaries, System.out);
+
+        String name = resultFile.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        Path summaryFile = resultFile.resolveSibling((dot < 0 ? name : name.substring(0, dot)) + "-summary.json");
+        try (Writer writer = Files.newBufferedWriter(summaryFile, StandardCharsets.UTF_8)) {
+            writeJson(summaries, writer);
+        }
+        System.out.println("Summary written to " + summaryFile.toAbsolutePath());
+    }
+
+    /**
+     * Converts the operations per second of a benchmark into documents and bytes per second.
+     */
+    static Summary summarize(RunResult result) {
+        BenchmarkParams params = result.getParams();
+        double opsPerSecond = result.getPrimaryResult().getScore();
+
+        int documents;
+        long bytes;
+        if (params.getBenchmark().startsWith(LineBreakerBenchmark.class.getName())) {
+            // one paragraph, whatever the number of texts it is written as
+            documents = 1;
+            bytes = LineBreakerBenchmark.paragraph(Integer.parseInt(params.getParam("words")))
+                    .getBytes(StandardCharsets.UTF_8)
+                    .length;
+        } else if (params.getBenchmark().startsWith(CorpusBenchmark.class.getName())) {
+            Map<String, String> corpus = Documents.corpus(Format.of(params.getParam("format")));
+            documents = corpus.size();
+            bytes = 0;
+            for (String document : corpus.values()) {
+                bytes += document.getBytes(StandardCharsets.UTF_8).length;
+            }
+        } else {
+            String document = Documents.get(
+                    Format.of(params.getParam("format")),
+                    params.getParam("document"),
+                    Integer.parseInt(params.getParam("scale")));
+            documents = 1;
+            bytes = document.getBytes(StandardCharsets.UTF_8).length;
+        }
+
+        StringBuilder label = new StringBuilder(params.getBenchmark()
+                .substring(params.getBenchmark()
+                                .lastIndexOf('.', params.getBenchmark().lastIndexOf('.') - 1)
+                        + 1));
+        for (String key : params.getParamsKeys()) {
+            label.append(' ').append(key).append('=').append(params.getParam(key));
+        }
+        return new Summary(label.toString(), opsPerSecond * documents, opsPerSecond * bytes / 1_000_000d);
+    }
+
+    private static void print(List<Summary> summaries, PrintStream out) {
+        out.println();
+        out.println(String.format(Locale.ROOT, "%-70s %14s %10s", "Benchmark", "documents/s", "MB/s"));
+        for (Summary summary : summaries) {
+            out.println(String.format(
+                    Locale.ROOT,
+                    "%-70s %14.1f %10.2f",
+                    summary.label,
+                    summary.documentsPerSecond,
+                    summary.megabytesPerSecond));
+        }
+    }
+
+    private static void writeJson(List<Summary> summaries, Writer writer) throws IOException {
+        writer.write("[\n");
+        for (int i = 0; i < summaries.size(); i++) {
+            Summary summary = summaries.get(i);
+            writer.write(String.format(
+                    Locale.ROOT,
+                    "  {\"benchmark\": \"%s\", \"documentsPerSecond\": %.3f, \"megabytesPerSecond\": %.3f}%s\n",
+                    summary.label,
+                    summary.documentsPerSecond,
+                    summary.megabytesPerSecond,
+                    i < summaries.size() - 1 ? "," : ""));
+        }
+        writer.write("]\n");
+    }
+
+    /**
+     * The throughput of one benchmark with one set of parameters.
+     */
+    static final class Summary {
+        final String label;
+
+        final double documentsPerSecond;
+
+        final double megabytesPerSecond;
+
+        Summary(String label, double documentsPerSecond, double megabytesPerSecond) {
+            this.label = label;
+            this.documentsPerSecond = documentsPerSecond;
+            this.megabytesPerSecond = megabytesPerSecond;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.benchmarks;
+
+import org.apache.maven.doxia.parser.Parser;
+import org.apache.maven.doxia.sink.SinkFactory;
+import org.codehaus.plexus.ContainerConfiguration;
+import org.codehaus.plexus.DefaultContainerConfiguration;
+import org.codehaus.plexus.DefaultPlexusContainer;
+import org.codehaus.plexus.PlexusConstants;
+import org.codehaus.plexus.PlexusContainer;
+import org.codehaus.plexus.PlexusContainerException;
+import org.codehaus.plexus.component.repository.exception.ComponentLookupException;
+
+/**
+ * Looks up the parsers and sink factories the way Maven does, so that they are wired with their
+ * macro manager and other components.
+ */
+public final class Components {
+    private static PlexusContainer container;
+
+    private Components() {
+        // utility class
+    }
+
+    /**
+     * Returns the parser with the given id.
+     *
+     * @param parserId the parser id.
+     * @return the parser.
+     */
+    public static Parser parser(String parserId) {
+        return lookup(Parser.class, parserId);
+    }
+
+    /**
+     * Returns the sink factory with the given id.
+     *
+     * @param sinkId the sink factory id.
+     * @return the sink factory.
+     */
+    public static SinkFactory sinkFactory(String sinkId) {
+        return lookup(SinkFactory.class, sinkId);
+    }
+
+    /**
+     * Returns the component with the given role and hint.
+     *
+     * @param role the role.
+     * @param hint the hint.
+     * @param <T> the role.
+     * @return the component.
+     */
+    public static <T> T lookup(Class<T> role, String hint) {
+        try {
+            return container().lookup(role, hint);
+        } catch (ComponentLookupException e) {
+            throw new IllegalStateException("No " + role.getSimpleName() + " with id " + hint, e);
+        }
+    }
+
+    private static synchronized PlexusContainer container() {
+        if (container == null) {
+            ContainerConfiguration configuration = new DefaultContainerConfiguration()
+                    .setName("doxia-benchmarks")
+                    .setClassPathScanning(PlexusConstants.SCANNING_INDEX)
+                    .setAutoWiring(true);
+            try {
+                container = new DefaultPlexusContainer(configuration);
+            } catch (PlexusContainerException e) {
+                throw new IllegalStateException("Cannot create the Plexus container", e);
+            }
+        }
+        return container;
+    }
+}
@@ -0,0 +1,644 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.benchmarks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generates documents of any size and structure, in every source format, for the benchmarks and the scaling tests.
+ * <p>
+ * The document is a random sequence of {@link Block blocks}, picked according to their weights, until the requested
+ * size is reached. The same seed and settings always generate the same document, so that measurements can be
+ * compared from one run to the next.
+ *
+ * <pre>
+ * String document = new DocumentGenerator(42)
+ *         .setSize(1024 * 1024)
+ *         .setWeight(DocumentGenerator.Block.TABLE, 1)
+ *         .setTableRows(10000)
+ *         .generate(Format.MARKDOWN);
+ * </pre>
+ *
+ * Larger documents can be written to a file without holding them in memory, with
+ * <code>java -cp benchmarks.jar org.apache.maven.doxia.benchmarks.DocumentGenerator &lt;format&gt; &lt;size&gt;
+ * &lt;seed&gt; &lt;file&gt;</code>.
+ */
+public final class DocumentGenerator {
+    /**
+     * The blocks a document is made of.
+     */
+    public enum Block {
+        /** A paragraph of words with inline markup and entities. */
+        PARAGRAPH,
+        /** A section, or a subsection of the current section. */
+        SECTION,
+        /** Nested bullet lists, {@link #setListDepth(int) that deep}. */
+        LIST,
+        /** A table with a header row and {@link #setTableRows(int) that many rows}. */
+        TABLE,
+        /** Verbatim source code. */
+        VERBATIM,
+        /** A call to the echo macro. */
+        MACRO
+    }
+
+    private static final String[] WORDS = {
+        "doxia",
+        "parser",
+        "sink",
+        "event",
+        "markup",
+        "document",
+        "section",
+        "table",
+        "list",
+        "macro",
+        "render",
+        "source",
+        "site",
+        "build",
+        "page",
+        "module",
+        "format",
+        "text",
+        "link",
+        "anchor",
+        "the",
+        "of",
+        "and",
+        "a",
+        "to",
+        "is",
+        "with",
+        "for",
+        "every",
+        "some"
+    };
+
+    private static final int LINE_LENGTH = 80;
+
+    private final long seed;
+
+    private final Map<Block, Integer> weights = new EnumMap<>(Block.class);
+
+    private long size = 64 * 1024;
+
+    private int tableRows = 8;
+
+    private int listDepth = 3;
+
+    private double entityRate = 0.05;
+
+    /**
+     * @param seed the seed of the random choices.
+     */
+    public DocumentGenerator(long seed) {
+        this.seed = seed;
+        weights.put(Block.PARAGRAPH, 10);
+        weights.put(Block.SECTION, 2);
+        weights.put(Block.LIST, 3);
+        weights.put(Block.TABLE, 2);
+        weights.put(Block.VERBATIM, 2);
+        weights.put(Block.MACRO, 1);
+    }
+
+    /**
+     * Sets the approximate number of characters of the document, 64 KiB by default.
+     * The last block and the closing markup may exceed it, and there is always at least one block.
+     *
+     * @param size the number of characters.
+     * @return this generator.
+     */
+    public DocumentGenerator setSize(long size) {
+        this.size = size;
+        return this;
+    }
+
+    /**
+     * Sets how often a block is picked, relative to the others.
+     *
+     * @param block the block.
+     * @param weight the weight, 0 to never pick the block.
+     * @return this generator.
+     */
+    public DocumentGenerator setWeight(Block block, int weight) {
+        weights.put(block, weight);
+        return this;
+    }
+
+    /**
+     * Sets the weights of all blocks at once: the given block is the only one picked.
+     *
+     * @param block the block.
+     * @return this generator.
+     */
+    public DocumentGenerator only(Block block) {
+        for (Block other : Block.values()) {
+            weights.put(other, other == block ? 1 : 0);
+        }
+        return this;
+    }
+
+    /**
+     * Sets the number of rows of the tables, 8 by default.
+     *
+     * @param tableRows the number of rows, without the header.
+     * @return this generator.
+     */
+    public DocumentGenerator setTableRows(int tableRows) {
+        this.tableRows = tableRows;
+        return this;
+    }
+
+    /**
+     * Sets the nesting depth of the lists, 3 by default.
+     *
+     * @param listDepth the number of nested lists.
+     * @return this generator.
+     */
+    public DocumentGenerator setListDepth(int listDepth) {
+        this.listDepth = listDepth;
+        return this;
+    }
+
+    /**
+     * Sets the probability that a word is followed by an entity or an escaped character, 0.05 by default.
+     *
+     * @param entityRate the probability, between 0 and 1.
+     * @return this generator.
+     */
+    public DocumentGenerator setEntityRate(double entityRate) {
+        this.entityRate = entityRate;
+        return this;
+    }
+
+    /**
+     * Generates a document.
+     *
+     * @param format the format.
+     * @return the document.
+     */
+    public String generate(Format format) {
+        StringBuilder document = new StringBuilder((int) Math.min(Integer.MAX_VALUE - 1024, size + 1024));
+        try {
+            generate(format, document);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return document.toString();
+    }
+
+    /**
+     * Generates a document.
+     *
+     * @param format the format.
+     * @param out where to write the document.
+     * @throws IOException if the document cannot be written.
+     */
+    public void generate(Format format, Appendable out) throws IOException {
+        int total = 0;
+        for (int weight : weights.values()) {
+            total += weight;
+        }
+        if (total <= 0) {
+            throw new IllegalStateException("All block weights are 0");
+        }
+
+        Output output = new Output(format, out, new Random(seed));
+        output.start();
+        do {
+            int pick = output.random.nextInt(total);
+            for (Map.Entry<Block, Integer> weight : weights.entrySet()) {
+                pick -= weight.getValue();
+                if (pick < 0) {
+                    output.block(weight.getKey());
+                    break;
+                }
+            }
+        } while (output.count < size);
+        output.end();
+    }
+
+    /**
+     * Writes a generated document to a file.
+     *
+     * @param args <code>&lt;format&gt; &lt;size&gt; &lt;seed&gt; &lt;file&gt;</code>, the format being a parser id.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 4) {
+            System.err.println("Usage: " + DocumentGenerator.class.getName() + " <format> <size> <seed> <file>");
+            System.exit(2);
+        }
+        try (Writer writer = Files.newBufferedWriter(Paths.get(args[3]), StandardCharsets.UTF_8)) {
+            new DocumentGenerator(Long.parseLong(args[2]))
+                    .setSize(Long.parseLong(args[1]))
+                    .generate(Format.of(args[0]), writer);
+        }
+    }
+
+    /**
+     * The state of one generation: the output, its size and the open sections.
+     */
+    private final class Output {
+        private final Format format;
+
+        private final Appendable out;
+
+        private final Random random;
+
+        private long count;
+
+        /** The number of blocks, used to make ids unique. */
+        private int blocks;
+
+        /** The level of the open section, 1 or 2. */
+        private int sectionLevel;
+
+        Output(Format format, Appendable out, Random random) {
+            this.format = format;
+            this.out = out;
+            this.random = random;
+        }
+
+        void start() throws IOException {
+            append(format.getHead());
+            section(1);
+        }
+
+        void end() throws IOException {
+            closeSections(0);
+            append(format.getTail());
+        }
+
+        void block(Block block) throws IOException {
+            blocks++;
+            switch (block) {
+                case PARAGRAPH:
+                    paragraph();
+                    break;
+                case SECTION:
+                    section(random.nextInt(3) == 0 ? 1 : 2);
+                    break;
+                case LIST:
+                    list();
+                    break;
+                case TABLE:
+                    table();
+                    break;
+                case VERBATIM:
+                    verbatim();
+                    break;
+                default:
+                    macro();
+                    break;
+            }
+        }
+
+        private void section(int level) throws IOException {
+            closeSections(level - 1);
+            String title = (level == 1 ? "Section " : "Subsection ") + blocks;
+            switch (format) {
+                case APT:
+                    append(level == 1 ? "" : "* ").append(title).append("\n\n");
+                    break;
+                case MARKDOWN:
+                    append(level == 1 ? "# " : "## ").append(title).append("\n\n");
+                    break;
+                case XHTML5:
+                    append("<h")
+                            .append(level)
+                            .append('>')
+                            .append(title)
+                            .append("</h")
+                            .append(level)
+                            .append(">\n");
+                    break;
+                case XDOC:
+                    append(level == 1 ? "<section name=\"" : "<subsection name=\"")
+                            .append(title)
+                            .append("\">\n");
+                    break;
+                default:
+                    // a part, then the question and answer all other blocks go into
+                    if (sectionLevel == 0) {
+                        append("<part id=\"part")
+                                .append(blocks)
+                                .append("\">\n<title>")
+                                .append(title);
+                        append("</title>\n");
+                    }
+                    append("<faq id=\"faq")
+                            .append(blocks)
+                            .append("\">\n<question>")
+                            .append(title);
+                    append("?</question>\n<answer>\n");
+                    level = 2;
+                    break;
+            }
+            sectionLevel = level;
+        }
+
+        /**
+         * Closes the open sections deeper than the given level.
+         */
+        private void closeSections(int level) throws IOException {
+            for (; sectionLevel > level; sectionLevel--) {
+                if (format == Format.XDOC) {
+                    append(sectionLevel == 2 ? "</subsection>\n" : "</section>\n");
+                } else if (format == Format.FML) {
+                    append(sectionLevel == 2 ? "</answer>\n</faq>\n" : "</part>\n");
+                }
+            }
+        }
+
+        private void paragraph() throws IOException {
+            switch (format) {
+                case APT:
+                    append("  ");
+                    text(30 + random.nextInt(60), "\n  ");
+                    append("\n\n");
+                    break;
+                case MARKDOWN:
+                    text(30 + random.nextInt(60), "\n");
+                    append("\n\n");
+                    break;
+                default:
+                    append("<p>");
+                    text(30 + random.nextInt(60), "\n");
+                    append("</p>\n");
+                    break;
+            }
+        }
+
+        /**
+         * Writes nested lists: the first item of every list contains the next list, the second item is a leaf.
+         */
+        private void list() throws IOException {
+            for (int level = 0; level < listDepth; level++) {
+                if (format != Format.APT && format != Format.MARKDOWN) {
+                    append("<ul>\n");
+                }
+                listItem(level);
+            }
+            for (int level = listDepth - 1; level >= 0; level--) {
+                switch (format) {
+                    case APT:
+                        if (level < listDepth - 1) {
+                            listItem(level);
+                        }
+                        indent(level).append("[]\n\n");
+                        break;
+                    case MARKDOWN:
+                        if (level < listDepth - 1) {
+                            listItem(level);
+                        }
+                        break;
+                    default:
+                        append("</li>\n");
+                        listItem(level);
+                        append("</li>\n</ul>\n");
+                        break;
+                }
+            }
+            if (format == Format.MARKDOWN) {
+                append('\n');
+            }
+        }
+
+        private void listItem(int level) throws IOException {
+            switch (format) {
+                case APT:
+                    indent(level).append("* ");
+                    text(4 + random.nextInt(8), " ");
+                    append("\n\n");
+                    break;
+                case MARKDOWN:
+                    for (int i = 0; i < level; i++) {
+                        append("    ");
+                    }
+                    append("* ");
+                    text(4 + random.nextInt(8), " ");
+                    append('\n');
+                    break;
+                default:
+                    append("<li>");
+                    text(4 + random.nextInt(8), " ");
+                    break;
+            }
+        }
+
+        private Output indent(int level) throws IOException {
+            for (int i = 0; i < level + 1; i++) {
+                append("  ");
+            }
+            return this;
+        }
+
+        private void table() throws IOException {
+            switch (format) {
+                case APT:
+                    append("*--------+--------+--------+\n|| Name || Value || Comment |\n");
+                    append("*--------+--------+--------+\n");
+                    for (int row = 0; row < tableRows; row++) {
+                        append("| ");
+                        text(1, " ");
+                        append(" | ").append(row).append(" | ");
+                        text(2 + random.nextInt(4), " ");
+                        append(" |\n*--------+--------+--------+\n");
+                    }
+                    append("Table ").append(blocks).append("\n\n");
+                    break;
+                case MARKDOWN:
+                    append("| Name | Value | Comment |\n|------|------:|---------|\n");
+                    for (int row = 0; row < tableRows; row++) {
+                        append("| ");
+                        text(1, " ");
+                        append(" | ").append(row).append(" | ");
+                        text(2 + random.nextInt(4), " ");
+                        append(" |\n");
+                    }
+                    append('\n');
+                    break;
+                default:
+                    append("<table>\n<tr><th>Name</th><th>Value</th><th>Comment</th></tr>\n");
+                    for (int row = 0; row < tableRows; row++) {
+                        append("<tr><td>");
+                        text(1, " ");
+                        append("</td><td>").append(row).append("</td><td>");
+                        text(2 + random.nextInt(4), " ");
+                        append("</td></tr>\n");
+                    }
+                    append("</table>\n");
+                    break;
+            }
+        }
+
+        private void verbatim() throws IOException {
+            boolean xml = format != Format.APT && format != Format.MARKDOWN;
+            String lt = xml ? "&lt;" : "<";
+            String amp = xml ? "&amp;" : "&";
+            switch (format) {
+                case APT:
+                    append("+------+\n");
+                    break;
+                case MARKDOWN:
+                    append("```java\n");
+                    break;
+                case XHTML5:
+                    append("<pre>");
+                    break;
+                default:
+                    append("<source>");
+                    break;
+            }
+            append("public class Example").append(blocks).append(" {\n");
+            for (int i = random.nextInt(8); i >= 0; i--) {
+                append("    String markup")
+                        .append(i)
+                        .append(" = \"")
+                        .append(lt)
+                        .append("p>a ")
+                        .append(amp);
+                append(" b").append(lt).append("/p>\";\n");
+            }
+            append("}\n");
+            switch (format) {
+                case APT:
+                    append("+------+\n\n");
+                    break;
+                case MARKDOWN:
+                    append("```\n\n");
+                    break;
+                case XHTML5:
+                    append("</pre>\n");
+                    break;
+                default:
+                    append("</source>\n");
+                    break;
+            }
+        }
+
+        private void macro() throws IOException {
+            switch (format) {
+                case APT:
+                    append("%{echo|block=").append(blocks).append("|text=generated}\n\n");
+                    break;
+                case XDOC:
+                case FML:
+                    append("<macro name=\"echo\"><param name=\"block\" value=\"")
+                            .append(blocks);
+                    append("\"/><param name=\"text\" value=\"generated\"/></macro>\n");
+                    break;
+                default:
+                    append("<!-- MACRO{echo|block=").append(blocks).append("|text=generated} -->\n\n");
+                    break;
+            }
+        }
+
+        /**
+         * Writes words with inline markup and entities, wrapping the lines.
+         */
+        private void text(int words, String lineBreak) throws IOException {
+            int column = 0;
+            for (int i = 0; i < words; i++) {
+                if (i > 0) {
+                    if (column > LINE_LENGTH) {
+                        append(lineBreak);
+                        column = 0;
+                    } else {
+                        append(' ');
+                        column++;
+                    }
+                }
+                String word = WORDS[random.nextInt(WORDS.length)];
+                int style = random.nextInt(20);
+                if (style < 3) {
+                    column += styled(word, style);
+                } else {
+                    append(word);
+                    column += word.length();
+                }
+                if (random.nextDouble() < entityRate) {
+                    append(' ');
+                    column += 1 + entity();
+                }
+            }
+        }
+
+        private int styled(String word, int style) throws IOException {
+            String[] markup;
+            switch (format) {
+                case APT:
+                    markup = new String[] {"<<", ">>", "<", ">", "<<<", ">>>"};
+                    break;
+                case MARKDOWN:
+                    markup = new String[] {"**", "**", "*", "*", "`", "`"};
+                    break;
+                default:
+                    markup = new String[] {"<b>", "</b>", "<i>", "</i>", "<code>", "</code>"};
+                    break;
+            }
+            append(markup[style * 2]).append(word).append(markup[style * 2 + 1]);
+            return markup[style * 2].length() + word.length() + markup[style * 2 + 1].length();
+        }
+
+        private int entity() throws IOException {
+            String[] entities;
+            switch (format) {
+                case APT:
+                    entities = new String[] {"&copy;", "&#169;", "\\{", "\\}", "\\~", "\\<", "\\>"};
+                    break;
+                case MARKDOWN:
+                    entities = new String[] {"&copy;", "&#169;", "&amp;", "\\*", "\\<", "\\_"};
+                    break;
+                default:
+                    entities = new String[] {"&amp;", "&lt;", "&gt;", "&quot;", "&#169;", "&#x263A;"};
+                    break;
+            }
+            String entity = entities[random.nextInt(entities.length)];
+            append(entity);
+            return entity.length();
+        }
+
+        private Output append(CharSequence text) throws IOException {
+            out.append(text);
+            count += text.length();
+            return this;
+        }
+
+        private Output append(char c) throws IOException {
+            out.append(c);
+            count++;
+            return this;
+        }
+
+        private Output append(int i) throws IOException {
+            return append(Integer.toString(i));
+        }
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/**
+ * The documents the benchmarks parse.
+ * <p>
+ * The built-in documents are body fragments of each format, in <code>documents/&lt;name&gt;.&lt;extension&gt;</code>,
+ * repeated <code>scale</code> times between the head and the tail of the format. <code>${n}</code> in a fragment
+ * is replaced by the number of the repetition, so that ids stay unique. The <code>macros</code> documents
+ * also start with a toc macro. The <code>generated</code> documents are created by the {@link DocumentGenerator},
+ * with 16 KiB per scale unit.
+ * <p>
+ * The corpus documents are the real FML and Xdoc pages of <code>doxia-test-docs</code>.
+ */
+public final class Documents {
+    /** The name of the documents made of macros. */
+    public static final String MACROS = "macros";
+
+    /** The name of the documents created by the {@link DocumentGenerator}. */
+    public static final String GENERATED = "generated";
+
+    /** The number of characters of a generated document per scale unit. */
+    private static final int GENERATED_SIZE = 16 * 1024;
+
+    /** A resource of doxia-test-docs, used to locate the others. */
+    private static final String CORPUS_ANCHOR = "doxia-site/fml/faq.fml";
+
+    private static final Map<String, String> DOCUMENTS = new ConcurrentHashMap<>();
+
+    private Documents() {
+        // utility class
+    }
+
+    /**
+     * Returns a built-in document.
+     *
+     * @param format the format.
+     * @param name the name of the document, <code>sample</code>, <code>macros</code> or <code>generated</code>.
+     * @param scale the number of times the body fragment is repeated, or the size of a generated document.
+     * @return the document.
+     */
+    public static String get(Format format, String name, int scale) {
+        return DOCUMENTS.computeIfAbsent(
+                format.getParserId() + '/' + name + '/' + scale, key -> build(format, name, scale));
+    }
+
+    private static String build(Format format, String name, int scale) {
+        if (GENERATED.equals(name)) {
+            return new DocumentGenerator(scale)
+                    .setSize((long) scale * GENERATED_SIZE)
+                    .generate(format);
+        }
+
+        String fragment = readFragment("documents/" + name + '.' + format.getExtension());
+
+        StringBuilder document = new StringBuilder(format.getHead().length() + fragment.length() * scale);
+        document.append(format.getHead());
+        if (MACROS.equals(name)) {
+            document.append(format.getToc());
+        }
+        for (int n = 1; n <= scale; n++) {
+            document.append(fragment.replace("${n}", Integer.toString(n)));
+        }
+        document.append(format.getTail());
+        return document.toString();
+    }
+
+    /**
+     * Reads a fragment, without its license header.
+     */
+    private static String readFragment(String resource) {
+        try (InputStream in = Documents.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalArgumentException("No document " + resource);
+            }
+            String fragment = read(in);
+
+            if (fragment.startsWith("<!--")) {
+                fragment = fragment.substring(fragment.indexOf("-->") + 3);
+            } else {
+                while (fragment.startsWith("~~")) {
+                    fragment = fragment.substring(fragment.indexOf('\n') + 1);
+                }
+            }
+            return fragment.replaceFirst("^\\s+", "");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the documents of the given format in <code>doxia-test-docs</code>.
+     *
+     * @param format {@link Format#XDOC} or {@link Format#FML}.
+     * @return the documents by resource name, in alphabetical order.
+     */
+    public static Map<String, String> corpus(Format format) {
+        String directory = format == Format.XDOC ? "/xdoc/" : "/fml/";
+        String extension = '.' + format.getExtension();
+
+        Map<String, String> documents = new TreeMap<>();
+        for (String resource : listCorpus()) {
+            if (resource.contains(directory) && resource.endsWith(extension)) {
+                try (InputStream in = Documents.class.getClassLoader().getResourceAsStream(resource)) {
+                    documents.put(resource, read(in));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+        return documents;
+    }
+
+    private static List<String> listCorpus() {
+        URL anchor = Documents.class.getClassLoader().getResource(CORPUS_ANCHOR);
+        if (anchor == null) {
+            throw new IllegalStateException("doxia-test-docs is not on the class path");
+        }
+
+        List<String> resources = new ArrayList<>();
+        try {
+            if ("jar".equals(anchor.getProtocol())) {
+                JarURLConnection connection = (JarURLConnection) anchor.openConnection();
+                connection.setUseCaches(false);
+                try (JarFile jar = connection.getJarFile()) {
+                    for (Enumeration<JarEntry> entries = jar.entries(); entries.hasMoreElements(); ) {
+                        JarEntry entry = entries.nextElement();
+                        if (!entry.isDirectory()) {
+                            resources.add(entry.getName());
+                        }
+                    }
+                }
+            } else {
+                Path base = Paths.get(anchor.toURI());
+                for (int i = CORPUS_ANCHOR.split("/").length; i > 0; i--) {
+                    base = base.getParent();
+                }
+                Path root = base;
+                try (Stream<Path> files = Files.walk(root)) {
+                    files.filter(Files::isRegularFile)
+                            .forEach(file -> resources.add(
+                                    root.relativize(file).toString().replace(File.separatorChar, '/')));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+
+        Collections.sort(resources);
+        return resources;
+    }
+
+    private static String read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.benchmarks;
+
+/**
+ * The source formats covered by the benchmarks, with what it takes to wrap repeated body fragments
+ * into a complete document.
+ */
+public enum Format {
+    APT("apt", "apt", " -----\n Benchmark\n -----\n\n", "", "%{toc}\n\n"),
+    XDOC(
+            "xdoc",
+            "xml",
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<document>\n<properties><title>Benchmark</title></properties>\n"
+                    + "<body>\n",
+            "</body>\n</document>\n",
+            "<macro name=\"toc\"/>\n"),
+    FML("fml", "fml", "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<faqs title=\"Benchmark\">\n", "</faqs>\n", ""),
+    XHTML5(
+            "xhtml",
+            "html",
+            "<!DOCTYPE html>\n<html>\n<head><title>Benchmark</title></head>\n<body>\n",
+            "</body>\n</html>\n",
+            "<!-- MACRO{toc} -->\n"),
+    MARKDOWN("markdown", "md", "", "", "<!-- MACRO{toc} -->\n\n");
+
+    private final String parserId;
+
+    private final String extension;
+
+    private final String head;
+
+    private final String tail;
+
+    private final String toc;
+
+    Format(String parserId, String extension, String head, String tail, String toc) {
+        this.parserId = parserId;
+        this.extension = extension;
+        this.head = head;
+        this.tail = tail;
+        this.toc = toc;
+    }
+
+    /**
+     * @return the id of the parser and of the sink factory of this format.
+     */
+    public String getParserId() {
+        return parserId;
+    }
+
+    /**
+     * @return the file extension of this format, without the dot.
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * @return what precedes the body of a document.
+     */
+    public String getHead() {
+        return head;
+    }
+
+    /**
+     * @return what follows the body of a document.
+     */
+    public String getTail() {
+        return tail;
+    }
+
+    /**
+     * @return the toc macro, or an empty string if the format has no place for it.
+     */
+    public String getToc() {
+        return toc;
+    }
+
+    /**
+     * Returns the format of the given parser id.
+     *
+     * @param parserId the parser id.
+     * @return the format.
+     */
+    public static Format of(String parserId) {
+        for (Format format : values()) {
+            if (format.parserId.equals(parserId)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unknown format " + parserId);
+    }
+}
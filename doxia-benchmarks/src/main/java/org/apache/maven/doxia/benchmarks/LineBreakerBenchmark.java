@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.benchmarks;
+
+import java.io.Writer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.doxia.util.LineBreaker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Wraps a large paragraph with a {@link LineBreaker}, as the text sinks do. The output is discarded.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class LineBreakerBenchmark {
+    private static final String[] WORDS = {
+        "a",
+        "doxia",
+        "content",
+        "generation",
+        "framework",
+        "which",
+        "provides",
+        "its",
+        "users",
+        "with",
+        "powerful",
+        "techniques",
+        "for",
+        "generating",
+        "static",
+        "and",
+        "dynamic",
+        "documents",
+        "\uD835\uDC9F\uD835\uDC90\uD835\uDC99"
+    };
+
+    /** The number of words of the paragraph. */
+    @Param({"1000", "100000"})
+    private int words;
+
+    /** The number of texts the paragraph is written as. */
+    @Param({"1", "100"})
+    private int texts;
+
+    private String[] paragraph;
+
+    private final CountingWriter out = new CountingWriter();
+
+    void setWords(int words) {
+        this.words = words;
+    }
+
+    void setTexts(int texts) {
+        this.texts = texts;
+    }
+
+    @Setup
+    public void setUp() {
+        String text = paragraph(words);
+        paragraph = new String[texts];
+        for (int i = 0; i < texts; i++) {
+            paragraph[i] = text.substring(text.length() * i / texts, text.length() * (i + 1) / texts);
+        }
+    }
+
+    /**
+     * Returns a paragraph of the given number of words, always the same for a number of words.
+     *
+     * @param words the number of words.
+     * @return the paragraph.
+     */
+    static String paragraph(int words) {
+        Random random = new Random(words);
+        StringBuilder paragraph = new StringBuilder(words * 8);
+        for (int i = 0; i < words; i++) {
+            paragraph.append(WORDS[random.nextInt(WORDS.length)]);
+            paragraph.append(random.nextInt(50) == 0 ? '\n' : ' ');
+        }
+        return paragraph.toString();
+    }
+
+    /**
+     * @return the number of characters written.
+     */
+    @Benchmark
+    public long write() {
+        out.count = 0;
+        LineBreaker breaker = new LineBreaker(out);
+        for (String text : paragraph) {
+            breaker.write(text, false);
+        }
+        breaker.flush();
+        return out.count;
+    }
+
+    /**
+     * Discards the output, only counting its size.
+     */
+    static final class CountingWriter extends Writer {
+        private long count;
+
+        @Override
+        public void write(int c) {
+            count++;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            count += len;
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            count += len;
+        }
+
+        @Override
+        public void flush() {
+            // nothing to flush
+        }
+
+        @Override
+        public void close() {
+            // nothing to close
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.benchmarks;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.doxia.Doxia;
+import org.apache.maven.doxia.parser.ParseException;
+import org.apache.maven.doxia.parser.Parser;
+import org.apache.maven.doxia.parser.manager.ParserNotFoundException;
+import org.apache.maven.doxia.sink.impl.SinkAdapter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parses documents into a {@link SinkAdapter}, which ignores all events: measures the parsers alone.
+ * The document is also written to a file, to compare {@link Doxia#parse(Path, String, org.apache.maven.doxia.sink.Sink)}
+ * with parsing a reader on the same file.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ParseBenchmark {
+    @Param({"apt", "xdoc", "fml", "xhtml", "markdown"})
+    private String format;
+
+    @Param({"sample", "macros", "generated"})
+    private String document;
+
+    @Param({"1", "64"})
+    private int scale;
+
+    private Parser parser;
+
+    private String source;
+
+    private Doxia doxia;
+
+    private Path file;
+
+    void setFormat(String format) {
+        this.format = format;
+    }
+
+    void setDocument(String document) {
+        this.document = document;
+    }
+
+    void setScale(int scale) {
+        this.scale = scale;
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        parser = Components.parser(format);
+        source = Documents.get(Format.of(format), document, scale);
+        doxia = Components.lookup(Doxia.class, "default");
+        file = Files.createTempFile("doxia-benchmark", "." + Format.of(format).getExtension());
+        Files.write(file, source.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void parse() throws ParseException {
+        parser.parse(new StringReader(source), new SinkAdapter());
+    }
+
+    @Benchmark
+    public void parseReader() throws IOException, ParserNotFoundException, ParseException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            doxia.parse(reader, format, new SinkAdapter(), file.toString());
+        }
+    }
+
+    @Benchmark
+    public void parsePath() throws ParserNotFoundException, ParseException {
+        doxia.parse(file, format, new SinkAdapter());
+    }
+}
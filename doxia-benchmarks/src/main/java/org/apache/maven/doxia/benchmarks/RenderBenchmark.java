@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.doxia.parser.ParseException;
+import org.apache.maven.doxia.parser.Parser;
+import org.apache.maven.doxia.sink.Sink;
+import org.apache.maven.doxia.sink.SinkFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parses documents and renders them with a sink, as a site build does. The output is encoded but discarded.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class RenderBenchmark {
+    @Param({"apt", "xdoc", "fml", "xhtml", "markdown"})
+    private String format;
+
+    @Param({"xhtml", "markdown", "apt"})
+    private String sink;
+
+    @Param({"sample", "macros", "generated"})
+    private String document;
+
+    @Param({"1", "64"})
+    private int scale;
+
+    private Parser parser;
+
+    private SinkFactory sinkFactory;
+
+    private String source;
+
+    private final CountingOutputStream out = new CountingOutputStream();
+
+    void setFormat(String format) {
+        this.format = format;
+    }
+
+    void setSink(String sink) {
+        this.sink = sink;
+    }
+
+    void setDocument(String document) {
+        this.document = document;
+    }
+
+    void setScale(int scale) {
+        this.scale = scale;
+    }
+
+    @Setup
+    public void setUp() {
+        parser = Components.parser(format);
+        sinkFactory = Components.sinkFactory(sink);
+        source = Documents.get(Format.of(format), document, scale);
+    }
+
+    /**
+     * @return the number of bytes written by the last rendering.
+     */
+    @Benchmark
+    public long render() throws IOException, ParseException {
+        out.count = 0;
+        Sink output = sinkFactory.createSink(out);
+        parser.parse(new StringReader(source), output);
+        output.close();
+        return out.count;
+    }
+
+    /**
+     * Discards the output, only counting its size.
+     */
+    static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.benchmarks;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+
+import org.apache.maven.doxia.benchmarks.AllocationGate.Allocation;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Fails if a parser and sink pair allocates noticeably more than recorded in
+ * <code>src/test/resources/allocation-baseline.properties</code>.
+ * The baseline is refreshed with <code>-Ddoxia.allocation.update</code>, the tolerated increase is
+ * set with <code>-Ddoxia.allocation.threshold</code>, 10% by default.
+ */
+class AllocationGateTest {
+    private static final Path BASELINE = Paths.get("src/test/resources/allocation-baseline.properties");
+
+    @Test
+    void testAllocations() throws Exception {
+        assumeTrue(AllocationGate.isSupported(), "allocations cannot be measured on this JVM");
+
+        Map<String, Allocation> current = new AllocationGate(4, 50, 20).measure();
+        if (System.getProperty("doxia.allocation.update") != null) {
+            AllocationGate.store(BASELINE, current);
+            return;
+        }
+
+        Map<String, Allocation> baseline = AllocationGate.load(BASELINE);
+        assumeTrue(
+                baseline != null, "no baseline measured with Java " + System.getProperty("java.specification.version"));
+
+        double threshold = Double.parseDouble(System.getProperty("doxia.allocation.threshold", "0.1"));
+        assertNull(AllocationGate.compare(baseline, current, threshold));
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.benchmarks;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs every benchmark once with all its parameters, so that a document that no longer parses
+ * fails the build instead of the benchmark run.
+ */
+class BenchmarksTest {
+    private static final String[] FORMATS = {"apt", "xdoc", "fml", "xhtml", "markdown"};
+
+    private static final String[] DOCUMENTS = {"sample", "macros", "generated"};
+
+    @Test
+    void testParse() throws Exception {
+        for (String format : FORMATS) {
+            for (String document : DOCUMENTS) {
+                ParseBenchmark benchmark = new ParseBenchmark();
+                benchmark.setFormat(format);
+                benchmark.setDocument(document);
+                benchmark.setScale(2);
+                benchmark.setUp();
+                try {
+                    benchmark.parse();
+                    benchmark.parseReader();
+                    benchmark.parsePath();
+                } finally {
+                    benchmark.tearDown();
+                }
+            }
+        }
+    }
+
+    @Test
+    void testRender() throws Exception {
+        for (String format : FORMATS) {
+            for (String sink : new String[] {"xhtml", "markdown", "apt"}) {
+                for (String document : DOCUMENTS) {
+                    RenderBenchmark benchmark = new RenderBenchmark();
+                    benchmark.setFormat(format);
+                    benchmark.setSink(sink);
+                    benchmark.setDocument(document);
+                    benchmark.setScale(2);
+                    benchmark.setUp();
+                    assertTrue(benchmark.render() > 0, format + " to " + sink);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testCorpus() throws Exception {
+        for (String format : new String[] {"xdoc", "fml"}) {
+            assertFalse(Documents.corpus(Format.of(format)).isEmpty(), format);
+            CorpusBenchmark benchmark = new CorpusBenchmark();
+            benchmark.setFormat(format);
+            benchmark.setUp();
+            benchmark.parse();
+        }
+    }
+}
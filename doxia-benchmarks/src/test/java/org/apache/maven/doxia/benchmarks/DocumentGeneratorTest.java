@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.benchmarks;
+
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.maven.doxia.benchmarks.DocumentGenerator.Block;
+import org.apache.maven.doxia.sink.SinkEventAttributes;
+import org.apache.maven.doxia.sink.impl.SinkAdapter;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the generated documents are valid in every format, and that parsing large or deeply structured
+ * documents stays within time and memory budgets. The size of the large documents is set with
+ * <code>-Ddoxia.stress.size</code>, 4 MiB by default.
+ */
+class DocumentGeneratorTest {
+    /** The minimal throughput, in bytes of source per second. */
+    private static final long MIN_BYTES_PER_SECOND = 50_000;
+
+    /** The maximal allocation, in bytes per byte of source. */
+    private static final long MAX_ALLOCATED_PER_BYTE = 1_000;
+
+    @Test
+    void testDeterministic() {
+        for (Format format : Format.values()) {
+            String document = new DocumentGenerator(7).generate(format);
+            assertEquals(document, new DocumentGenerator(7).generate(format));
+            assertNotEquals(document, new DocumentGenerator(8).generate(format));
+            assertTrue(document.length() >= 64 * 1024, format.name());
+        }
+    }
+
+    @Test
+    void testStructures() throws Exception {
+        for (Format format : Format.values()) {
+            StructureSink sink = parse(format, new DocumentGenerator(1).setListDepth(5));
+            assertTrue(sink.sections > 1, format + " sections");
+            assertTrue(sink.paragraphs > 0, format + " paragraphs");
+            assertTrue(sink.tables > 0, format + " tables");
+            assertTrue(sink.verbatims > 0, format + " verbatims");
+            assertEquals(5, sink.maxListDepth, format + " list depth");
+        }
+    }
+
+    @Test
+    void testBudgets() throws Exception {
+        long size = Long.getLong("doxia.stress.size", 4 * 1024 * 1024);
+        for (Format format : Format.values()) {
+            checkBudgets(format, "large", new DocumentGenerator(2).setSize(size));
+            checkBudgets(
+                    format,
+                    "table",
+                    new DocumentGenerator(3)
+                            .only(Block.TABLE)
+                            .setTableRows(10_000)
+                            .setSize(1));
+
+            StructureSink lists = checkBudgets(
+                    format,
+                    "lists",
+                    new DocumentGenerator(4).only(Block.LIST).setListDepth(50).setSize(1));
+            assertEquals(50, lists.maxListDepth, format + " list depth");
+
+            checkBudgets(
+                    format, "macros", new DocumentGenerator(5).only(Block.MACRO).setSize(200_000));
+        }
+    }
+
+    private static StructureSink checkBudgets(Format format, String shape, DocumentGenerator generator)
+            throws Exception {
+        String document = generator.generate(format);
+        long bytes = document.getBytes(StandardCharsets.UTF_8).length;
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long allocated = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+
+        StructureSink sink = new StructureSink();
+        Components.parser(format.getParserId()).parse(new StringReader(document), sink);
+
+        long elapsed = System.nanoTime() - start;
+        allocated = threads.getThreadAllocatedBytes(threadId) - allocated;
+
+        String name = format + " " + shape + " document of " + bytes + " bytes";
+        long budget = 1_000_000_000L + bytes * 1_000_000_000L / MIN_BYTES_PER_SECOND;
+        assertTrue(elapsed < budget, name + " parsed in " + elapsed / 1_000_000 + " ms");
+        assertTrue(
+                allocated / bytes < MAX_ALLOCATED_PER_BYTE,
+                name + " allocated " + allocated / bytes + " bytes per byte of source");
+        return sink;
+    }
+
+    private static StructureSink parse(Format format, DocumentGenerator generator) throws Exception {
+        StructureSink sink = new StructureSink();
+        Components.parser(format.getParserId()).parse(new StringReader(generator.generate(format)), sink);
+        return sink;
+    }
+
+    /**
+     * Counts the structures of a document.
+     */
+    private static class StructureSink extends SinkAdapter {
+        private int sections;
+
+        private int paragraphs;
+
+        private int tables;
+
+        private int verbatims;
+
+        private int listDepth;
+
+        private int maxListDepth;
+
+        @Override
+        public void section(int level, SinkEventAttributes attributes) {
+            sections++;
+        }
+
+        @Override
+        public void section1() {
+            sections++;
+        }
+
+        @Override
+        public void section2() {
+            sections++;
+        }
+
+        @Override
+        public void paragraph(SinkEventAttributes attributes) {
+            paragraphs++;
+        }
+
+        @Override
+        public void paragraph() {
+            paragraphs++;
+        }
+
+        @Override
+        public void table(SinkEventAttributes attributes) {
+            tables++;
+        }
+
+        @Override
+        public void table() {
+            tables++;
+        }
+
+        @Override
+        public void verbatim(SinkEventAttributes attributes) {
+            verbatims++;
+        }
+
+        @Override
+        public void verbatim() {
+            verbatims++;
+        }
+
+        @Override
+        public void list(SinkEventAttributes attributes) {
+            maxListDepth = Math.max(maxListDepth, ++listDepth);
+        }
+
+        @Override
+        public void list() {
+            maxListDepth = Math.max(maxListDepth, ++listDepth);
+        }
+
+        @Override
+        public void list_() {
+            listDepth--;
+        }
+    }
+}
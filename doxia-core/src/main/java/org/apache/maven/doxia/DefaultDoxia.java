@@ -22,10 +22,16 @@ import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
+import java.io.IOException;
 import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 
+import org.apache.maven.doxia.metrics.DoxiaMetrics;
+import org.apache.maven.doxia.metrics.MetricsRegistry;
 import org.apache.maven.doxia.parser.ParseException;
 import org.apache.maven.doxia.parser.Parser;
+import org.apache.maven.doxia.parser.SourceBuffer;
 import org.apache.maven.doxia.parser.manager.ParserManager;
 import org.apache.maven.doxia.parser.manager.ParserNotFoundException;
 import org.apache.maven.doxia.sink.Sink;
@@ -63,6 +69,29 @@ public class DefaultDoxia implements Doxia {
         parser.parse(source, sink, reference);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public void parse(Path source, String parserId, Sink sink) throws ParserNotFoundException, ParseException {
+        DoxiaMetrics metrics = MetricsRegistry.getMetrics();
+        if (!metrics.isEnabled()) {
+            Doxia.super.parse(source, parserId, sink);
+            return;
+        }
+
+        Parser parser = parserManager.getParser(parserId);
+        long start = System.nanoTime();
+        SourceBuffer content;
+        try {
+            content = SourceBuffer.read(source, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new ParseException("Cannot read " + source, e);
+        }
+        metrics.phaseCompleted(DoxiaMetrics.Phase.READ, source.toString(), System.nanoTime() - start);
+
+        // the parsers take the buffer back from its reader instead of copying it
+        parser.parse(content.newReader(), sink, source.toString());
+    }
+
     /** {@inheritDoc} */
     public Parser getParser(String parserId) throws ParserNotFoundException {
         return parserManager.getParser(parserId);
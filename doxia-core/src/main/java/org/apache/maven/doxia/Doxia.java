@@ -18,10 +18,14 @@
  */
 package org.apache.maven.doxia;
 
+import java.io.IOException;
 import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 
 import org.apache.maven.doxia.parser.ParseException;
 import org.apache.maven.doxia.parser.Parser;
+import org.apache.maven.doxia.parser.SourceBuffer;
 import org.apache.maven.doxia.parser.manager.ParserNotFoundException;
 import org.apache.maven.doxia.sink.Sink;
 
@@ -59,6 +63,29 @@ public interface Doxia {
     void parse(Reader source, String parserId, Sink sink, String reference)
             throws ParserNotFoundException, ParseException;
 
+    /**
+     * Parses the given source file using a parser with given id, and emits Doxia events into the given sink.
+     * The file is decoded in one pass without an intermediate reader, its encoding is detected from a
+     * byte order mark or from the XML prolog, UTF-8 is assumed otherwise.
+     *
+     * @param source not null path of the source document, also used as reference in error messages
+     * @param parserId identifier for the parser to use
+     * @param sink a sink that consumes the Doxia events
+     * @throws ParserNotFoundException if no parser could be found for the given id
+     * @throws ParseException if the file could not be read or the model could not be parsed
+     * @since 2.0.0-M7
+     */
+    default void parse(Path source, String parserId, Sink sink) throws ParserNotFoundException, ParseException {
+        SourceBuffer content;
+        try {
+            content = SourceBuffer.read(source, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new ParseException("Cannot read " + source, e);
+        }
+
+        parse(content.newReader(), parserId, sink, source.toString());
+    }
+
     /**
      * Return a parser for the given <code>parserId</code>.
      *
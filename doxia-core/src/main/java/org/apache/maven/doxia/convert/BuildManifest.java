@@ -0,0 +1,308 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.convert;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+import org.apache.maven.doxia.parser.AbstractParser;
+
+/**
+ * What every output of a {@link SiteConverter} has been converted from, keyed by the path of the output relative
+ * to the output directory: the hash of the source content, the parser, the Doxia version, the target format,
+ * and the hash of every dependency recorded while parsing, like the sources of snippets or external entities.
+ * An output is up to date as long as none of them changes.
+ *
+ * @see SiteConverter#setManifest(BuildManifest)
+ * @see org.apache.maven.doxia.util.DocumentDependencies
+ * @since 2.0.0-M7
+ */
+public class BuildManifest {
+    /** Identifies the file format. */
+    private static final int MAGIC = 0x44584d46;
+
+    /** The version of the file format. */
+    private static final int VERSION = 1;
+
+    private final Map<String, Output> outputs = new TreeMap<>();
+
+    /** The recorded state of one output. */
+    private static final class Output {
+        private final String sourcePath;
+
+        private final String hash;
+
+        private final String parserId;
+
+        private final String doxiaVersion;
+
+        private final String target;
+
+        /** The hash of every dependency by URI, null if it cannot be verified. */
+        private final Map<String, String> dependencies;
+
+        Output(
+                String sourcePath,
+                String hash,
+                String parserId,
+                String doxiaVersion,
+                String target,
+                Map<String, String> dependencies) {
+            this.sourcePath = sourcePath;
+            this.hash = hash;
+            this.parserId = parserId;
+            this.doxiaVersion = doxiaVersion;
+            this.target = target;
+            this.dependencies = dependencies;
+        }
+    }
+
+    /**
+     * Returns the paths of all recorded outputs, in alphabetical order.
+     *
+     * @return an unmodifiable set of paths.
+     */
+    public synchronized Set<String> getOutputPaths() {
+        return Collections.unmodifiableSet(new TreeSet<>(outputs.keySet()));
+    }
+
+    /**
+     * Returns the document an output has been converted from.
+     *
+     * @param outputPath the path of the output relative to the output directory, with '/' separators.
+     * @return the path of the document relative to the source directory, or <code>null</code> if the output
+     * is not recorded.
+     */
+    public synchronized String getSourcePath(String outputPath) {
+        Output output = outputs.get(outputPath);
+        return output == null ? null : output.sourcePath;
+    }
+
+    /**
+     * Returns the dependencies recorded while converting an output.
+     *
+     * @param outputPath the path of the output relative to the output directory, with '/' separators.
+     * @return an unmodifiable set of URIs, in alphabetical order, empty if the output is not recorded.
+     */
+    public synchronized Set<String> getDependencies(String outputPath) {
+        Output output = outputs.get(outputPath);
+        return output == null
+                ? Collections.emptySet()
+                : Collections.unmodifiableSet(new TreeSet<>(output.dependencies.keySet()));
+    }
+
+    /**
+     * Tells whether an output has been converted from the given state, with the current Doxia version.
+     *
+     * @param outputPath the path of the output.
+     * @param sourcePath the path of the document.
+     * @param hash the hash of the document content.
+     * @param parserId the id of the parser of the document.
+     * @param target identifies the format of the output.
+     * @param dependencyHash returns the current hash of a dependency, null if it cannot be verified.
+     * @return true if nothing the output depends on has changed.
+     */
+    boolean isUpToDate(
+            String outputPath,
+            String sourcePath,
+            String hash,
+            String parserId,
+            String target,
+            Function<String, String> dependencyHash) {
+        Output output;
+        synchronized (this) {
+            output = outputs.get(outputPath);
+        }
+
+        if (output == null
+                || !output.sourcePath.equals(sourcePath)
+                || !output.hash.equals(hash)
+                || !output.parserId.equals(parserId)
+                || !output.doxiaVersion.equals(AbstractParser.doxiaVersion())
+                || !output.target.equals(target)) {
+            return false;
+        }
+
+        // dependencies are hashed outside of the lock, they may have to be read
+        for (Map.Entry<String, String> dependency : output.dependencies.entrySet()) {
+            if (dependency.getValue() == null
+                    || !dependency.getValue().equals(dependencyHash.apply(dependency.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Records an output converted with the current Doxia version.
+     *
+     * @param outputPath the path of the output.
+     * @param sourcePath the path of the document.
+     * @param hash the hash of the document content.
+     * @param parserId the id of the parser of the document.
+     * @param target identifies the format of the output.
+     * @param dependencies the hash of every dependency by URI, null if it cannot be verified.
+     */
+    synchronized void put(
+            String outputPath,
+            String sourcePath,
+            String hash,
+            String parserId,
+            String target,
+            Map<String, String> dependencies) {
+        outputs.put(
+                outputPath,
+                new Output(
+                        sourcePath,
+                        hash,
+                        parserId,
+                        AbstractParser.doxiaVersion(),
+                        target,
+                        new TreeMap<>(dependencies)));
+    }
+
+    /**
+     * Removes an output, if it has been converted from the given document.
+     *
+     * @param outputPath the path of the output.
+     * @param sourcePath the path of the document.
+     */
+    synchronized void remove(String outputPath, String sourcePath) {
+        Output output = outputs.get(outputPath);
+        if (output != null && output.sourcePath.equals(sourcePath)) {
+            outputs.remove(outputPath);
+        }
+    }
+
+    /**
+     * Removes all outputs that are not in the given paths.
+     *
+     * @param outputPaths the paths to keep.
+     */
+    synchronized void retainAll(Collection<String> outputPaths) {
+        outputs.keySet().retainAll(outputPaths);
+    }
+
+    /**
+     * Loads a manifest stored by {@link #store(Path)}.
+     *
+     * @param file the manifest file.
+     * @return the loaded manifest, or an empty manifest if the file does not exist or has another format version.
+     * @throws IOException if the file cannot be read.
+     */
+    public static BuildManifest load(Path file) throws IOException {
+        BuildManifest manifest = new BuildManifest();
+        if (!Files.isRegularFile(file)) {
+            return manifest;
+        }
+
+        try (InputStream in = Files.newInputStream(file);
+                DataInputStream data = new DataInputStream(new BufferedInputStream(in))) {
+            if (data.readInt() != MAGIC || data.readInt() != VERSION) {
+                return manifest;
+            }
+
+            int count = data.readInt();
+            for (int i = 0; i < count; i++) {
+                String outputPath = data.readUTF();
+                String sourcePath = data.readUTF();
+                String hash = data.readUTF();
+                String parserId = data.readUTF();
+                String doxiaVersion = data.readUTF();
+                String target = data.readUTF();
+                int dependencyCount = data.readInt();
+                Map<String, String> dependencies = new TreeMap<>();
+                for (int j = 0; j < dependencyCount; j++) {
+                    dependencies.put(data.readUTF(), readString(data));
+                }
+                manifest.outputs.put(
+                        outputPath, new Output(sourcePath, hash, parserId, doxiaVersion, target, dependencies));
+            }
+        }
+        return manifest;
+    }
+
+    /**
+     * Stores this manifest. The file is replaced atomically where supported, so that a failed build
+     * never leaves a truncated manifest behind.
+     *
+     * @param file the manifest file.
+     * @throws IOException if the file cannot be written.
+     */
+    public synchronized void store(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(tmp);
+                    DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out))) {
+                data.writeInt(MAGIC);
+                data.writeInt(VERSION);
+                data.writeInt(outputs.size());
+                for (Map.Entry<String, Output> entry : outputs.entrySet()) {
+                    Output output = entry.getValue();
+                    data.writeUTF(entry.getKey());
+                    data.writeUTF(output.sourcePath);
+                    data.writeUTF(output.hash);
+                    data.writeUTF(output.parserId);
+                    data.writeUTF(output.doxiaVersion);
+                    data.writeUTF(output.target);
+                    data.writeInt(output.dependencies.size());
+                    for (Map.Entry<String, String> dependency : output.dependencies.entrySet()) {
+                        data.writeUTF(dependency.getKey());
+                        writeString(data, dependency.getValue());
+                    }
+                }
+            }
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static void writeString(DataOutputStream data, String value) throws IOException {
+        data.writeBoolean(value != null);
+        if (value != null) {
+            data.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream data) throws IOException {
+        return data.readBoolean() ? data.readUTF() : null;
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.convert;
+
+import java.nio.file.Path;
+
+/**
+ * The outcome of the conversion of one document by a {@link SiteConverter}: where it was written, how long
+ * every step took, or why it failed.
+ *
+ * @since 2.0.0-M7
+ */
+public final class ConversionResult {
+    private final String sourcePath;
+
+    private final String parserId;
+
+    private final Path outputFile;
+
+    private final boolean upToDate;
+
+    private final long readTime;
+
+    private final long conversionTime;
+
+    private final long writeTime;
+
+    private final Exception failure;
+
+    ConversionResult(
+            String sourcePath,
+            String parserId,
+            Path outputFile,
+            boolean upToDate,
+            long readTime,
+            long conversionTime,
+            long writeTime,
+            Exception failure) {
+        this.sourcePath = sourcePath;
+        this.parserId = parserId;
+        this.outputFile = outputFile;
+        this.upToDate = upToDate;
+        this.readTime = readTime;
+        this.conversionTime = conversionTime;
+        this.writeTime = writeTime;
+        this.failure = failure;
+    }
+
+    /**
+     * @return the path of the document, relative to the source directory, with '/' separators.
+     */
+    public String getSourcePath() {
+        return sourcePath;
+    }
+
+    /**
+     * @return the id of the parser of the document.
+     */
+    public String getParserId() {
+        return parserId;
+    }
+
+    /**
+     * @return the file the document is converted to, that only exists if the conversion succeeded.
+     */
+    public Path getOutputFile() {
+        return outputFile;
+    }
+
+    /**
+     * @return true if the document has not been converted because its output is up to date.
+     * @see SiteConverter#setManifest(BuildManifest)
+     */
+    public boolean isUpToDate() {
+        return upToDate;
+    }
+
+    /**
+     * @return the time spent reading and decoding the document, or checking that its output is up to date,
+     * in nanoseconds.
+     */
+    public long getReadTime() {
+        return readTime;
+    }
+
+    /**
+     * @return the time spent parsing and rendering the document, in nanoseconds.
+     */
+    public long getConversionTime() {
+        return conversionTime;
+    }
+
+    /**
+     * @return the time spent writing the output, in nanoseconds.
+     */
+    public long getWriteTime() {
+        return writeTime;
+    }
+
+    /**
+     * @return the reason of the failure, or null if the document has been converted.
+     */
+    public Exception getFailure() {
+        return failure;
+    }
+
+    /**
+     * @return true if the document has been converted, or its output is up to date.
+     */
+    public boolean isSuccessful() {
+        return failure == null;
+    }
+
+    @Override
+    public String toString() {
+        if (failure != null) {
+            return sourcePath + " failed: " + failure.getMessage();
+        }
+        return sourcePath + (upToDate ? " is up to date in " : " -> ") + outputFile;
+    }
+}
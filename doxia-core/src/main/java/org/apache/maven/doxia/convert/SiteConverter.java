@@ -0,0 +1,461 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.convert;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.maven.doxia.parser.ParseException;
+import org.apache.maven.doxia.parser.Parser;
+import org.apache.maven.doxia.parser.SourceBuffer;
+import org.apache.maven.doxia.parser.manager.ParserNotFoundException;
+import org.apache.maven.doxia.parser.module.ParserModule;
+import org.apache.maven.doxia.parser.module.ParserModuleManager;
+import org.apache.maven.doxia.sink.Sink;
+import org.apache.maven.doxia.sink.SinkFactory;
+import org.apache.maven.doxia.util.DocumentDependencies;
+import org.apache.maven.doxia.util.Hashes;
+
+/**
+ * Converts all documents of a site source directory to the format of a {@link SinkFactory}. As in a site build,
+ * the documents of every {@link ParserModule} are found in its source directory by their extensions, and each
+ * one is converted to a file of the same relative path in the output directory.
+ * <p>
+ * The documents are read ahead and written on a pool of I/O threads, and parsed and rendered in memory on a
+ * separate pool of conversion threads. Both pools are sized independently, and the number of documents between
+ * reading and writing is bounded. The parsers are not thread-safe, so every document is parsed by a new parser
+ * obtained from the supplier registered for its parser id. Documents with macros need parsers with a
+ * {@link org.apache.maven.doxia.parser.AbstractParser#setMacroManager(org.apache.maven.doxia.macro.manager.MacroManager)
+ * macro manager}, that can be shared. A document that fails does not stop the others, its failure is part of its
+ * {@link ConversionResult}.
+ * <p>
+ * With a {@link #setManifest(BuildManifest) manifest}, the conversion is incremental: a document is only
+ * converted again if its content, its parser, the Doxia version, the target format or one of its dependencies
+ * changed since it was last converted, or if its output no longer exists.
+ *
+ * <pre>
+ * SiteConverter converter = new SiteConverter(parserModuleManager);
+ * converter.addParser("apt", () -&gt; {
+ *     AptParser parser = new AptParser();
+ *     parser.setMacroManager(macroManager);
+ *     return parser;
+ * });
+ * converter.addParser("xdoc", XdocParser::new);
+ * BuildManifest manifest = BuildManifest.load(manifestFile);
+ * converter.setManifest(manifest);
+ * List&lt;ConversionResult&gt; results =
+ *         converter.convert(siteDirectory, outputDirectory, new MarkdownSinkFactory(), "md");
+ * manifest.store(manifestFile);
+ * </pre>
+ *
+ * @since 2.0.0-M7
+ */
+public class SiteConverter {
+    /** The parser modules of every source directory, by lower case extension. */
+    private final Map<String, Map<String, ParserModule>> modules = new LinkedHashMap<>();
+
+    private final Map<String, Supplier<? extends Parser>> parsers = new HashMap<>();
+
+    private Charset encoding = StandardCharsets.UTF_8;
+
+    private Charset outputEncoding = StandardCharsets.UTF_8;
+
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    private int ioThreads = 4;
+
+    private int readAhead;
+
+    private BuildManifest manifest;
+
+    /**
+     * Indexes the extensions of the given parser modules. When modules of the same source directory share an
+     * extension, the first one wins.
+     *
+     * @param parserModuleManager the parser modules.
+     */
+    public SiteConverter(ParserModuleManager parserModuleManager) {
+        for (ParserModule module : parserModuleManager.getParserModules()) {
+            if (module.getSourceDirectory() == null || module.getExtensions() == null) {
+                continue;
+            }
+
+            Map<String, ParserModule> extensions =
+                    modules.computeIfAbsent(module.getSourceDirectory(), directory -> new HashMap<>());
+            for (String extension : module.getExtensions()) {
+                extensions.putIfAbsent(extension.toLowerCase(Locale.ROOT), module);
+            }
+        }
+    }
+
+    /**
+     * Registers the parser of the documents of the modules with the given parser id. Documents without parser
+     * fail with a {@link ParserNotFoundException}.
+     *
+     * @param parserId the parser id.
+     * @param parser supplies a new parser for every document.
+     */
+    public void addParser(String parserId, Supplier<? extends Parser> parser) {
+        parsers.put(parserId, parser);
+    }
+
+    /**
+     * Sets the encoding of the documents without byte order mark or XML prolog declaring an encoding,
+     * UTF-8 by default.
+     *
+     * @param encoding the encoding.
+     */
+    public void setEncoding(Charset encoding) {
+        this.encoding = encoding;
+    }
+
+    /**
+     * Sets the encoding of the converted documents, UTF-8 by default.
+     *
+     * @param outputEncoding the encoding.
+     */
+    public void setOutputEncoding(Charset outputEncoding) {
+        this.outputEncoding = outputEncoding;
+    }
+
+    /**
+     * Sets the number of documents parsed and rendered at the same time, the number of processors by default.
+     *
+     * @param threads the number of threads.
+     */
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Sets the number of documents read or written at the same time, 4 by default.
+     *
+     * @param ioThreads the number of threads.
+     */
+    public void setIoThreads(int ioThreads) {
+        this.ioThreads = ioThreads;
+    }
+
+    /**
+     * Sets the number of documents that are held in memory between reading and writing,
+     * twice the number of conversion threads by default.
+     *
+     * @param readAhead the number of documents, 0 for the default.
+     */
+    public void setReadAhead(int readAhead) {
+        this.readAhead = readAhead;
+    }
+
+    /**
+     * Enables the incremental conversion: the documents whose output is up to date according to the given
+     * manifest are not converted, and the manifest is updated with the documents that are. Storing the manifest
+     * is up to the caller.
+     *
+     * @param manifest the manifest, or <code>null</code> to convert all documents.
+     */
+    public void setManifest(BuildManifest manifest) {
+        this.manifest = manifest;
+    }
+
+    /**
+     * Converts all documents of the given directory that belong to a parser module.
+     *
+     * @param sourceDirectory the directory containing the source directories of the modules.
+     * @param outputDirectory the directory of the converted documents.
+     * @param sinkFactory creates the sinks of the target format.
+     * @param outputExtension the extension of the converted documents, without the dot.
+     * @return the result of every document, in the order of the modules then of the paths of the documents.
+     * @throws IOException if a source directory cannot be read.
+     */
+    public List<ConversionResult> convert(
+            Path sourceDirectory, Path outputDirectory, SinkFactory sinkFactory, String outputExtension)
+            throws IOException {
+        List<Conversion> conversions = findDocuments(sourceDirectory, outputDirectory, outputExtension);
+        String target = sinkFactory.getClass().getName() + ' ' + outputEncoding.name();
+        DependencyHashes dependencyHashes = new DependencyHashes();
+
+        int conversionThreads = Math.max(1, threads);
+        Semaphore pending = new Semaphore(readAhead > 0 ? readAhead : 2 * conversionThreads);
+        ExecutorService io = Executors.newFixedThreadPool(Math.max(1, ioThreads));
+        ExecutorService cpu = Executors.newFixedThreadPool(conversionThreads);
+        try {
+            List<CompletableFuture<ConversionResult>> results = new ArrayList<>(conversions.size());
+            for (Conversion conversion : conversions) {
+                pending.acquire();
+                results.add(CompletableFuture.supplyAsync(() -> conversion.read(target, dependencyHashes), io)
+                        .thenApplyAsync(c -> c.render(sinkFactory), cpu)
+                        .thenApplyAsync(c -> c.write(target, dependencyHashes), io)
+                        .whenComplete((result, e) -> pending.release()));
+            }
+
+            List<ConversionResult> converted = new ArrayList<>(results.size());
+            for (CompletableFuture<ConversionResult> result : results) {
+                converted.add(result.join());
+            }
+
+            if (manifest != null) {
+                manifest.retainAll(conversions.stream()
+                        .map(conversion -> conversion.outputPath)
+                        .collect(Collectors.toList()));
+            }
+            return converted;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while converting " + sourceDirectory, e);
+        } catch (CompletionException e) {
+            // only errors escape the steps of a conversion
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        } finally {
+            io.shutdownNow();
+            cpu.shutdownNow();
+        }
+    }
+
+    /**
+     * Finds the documents of every module through the extension index, and their output files.
+     */
+    private List<Conversion> findDocuments(Path sourceDirectory, Path outputDirectory, String outputExtension)
+            throws IOException {
+        List<Conversion> conversions = new ArrayList<>();
+        Map<Path, String> outputs = new HashMap<>();
+
+        for (Map.Entry<String, Map<String, ParserModule>> entry : modules.entrySet()) {
+            Path moduleDirectory = sourceDirectory.resolve(entry.getKey());
+            if (!Files.isDirectory(moduleDirectory)) {
+                continue;
+            }
+
+            List<Path> files;
+            try (Stream<Path> stream = Files.walk(moduleDirectory)) {
+                files = stream.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+            }
+
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                int dot = name.lastIndexOf('.');
+                ParserModule module = dot < 0
+                        ? null
+                        : entry.getValue().get(name.substring(dot + 1).toLowerCase(Locale.ROOT));
+                if (module == null) {
+                    continue;
+                }
+
+                String relative = moduleDirectory.relativize(file).toString().replace('\\', '/');
+                String outputPath =
+                        relative.substring(0, relative.length() - name.length() + dot) + '.' + outputExtension;
+                Path output = outputDirectory.resolve(outputPath);
+                String path = sourceDirectory.relativize(file).toString().replace('\\', '/');
+
+                Conversion conversion = new Conversion(file, path, module.getParserId(), output, outputPath);
+                String previous = outputs.putIfAbsent(output, path);
+                if (previous != null) {
+                    conversion.failure = new IOException(output + " is already converted from " + previous);
+                }
+                conversions.add(conversion);
+            }
+        }
+
+        return conversions;
+    }
+
+    /**
+     * The current hashes of the dependencies, computed once per conversion as many documents share them.
+     * Only local files can be verified, a document that depends on anything else is always converted.
+     */
+    private static final class DependencyHashes {
+        /** The hash of a dependency that cannot be verified, distinct from all hashes. */
+        private static final String UNKNOWN = "?";
+
+        private final Map<String, String> hashes = new ConcurrentHashMap<>();
+
+        /**
+         * @return the hash of the content of the dependency, an empty string if it is a missing file,
+         * or null if it cannot be verified.
+         */
+        String get(String uri) {
+            String hash = hashes.computeIfAbsent(uri, DependencyHashes::compute);
+            return UNKNOWN.equals(hash) ? null : hash;
+        }
+
+        private static String compute(String uri) {
+            try {
+                URI dependency = URI.create(uri);
+                if (!"file".equals(dependency.getScheme())) {
+                    return UNKNOWN;
+                }
+
+                Path file = Paths.get(dependency);
+                return Files.isRegularFile(file) ? Hashes.sha256(Files.readAllBytes(file)) : "";
+            } catch (IOException | RuntimeException e) {
+                return UNKNOWN;
+            }
+        }
+    }
+
+    /**
+     * The conversion of one document, going through the steps one after the other. A step does nothing once a
+     * previous step failed, or once the document is found to be up to date.
+     */
+    private final class Conversion {
+        private final Path file;
+
+        private final String path;
+
+        private final String parserId;
+
+        private final Path output;
+
+        private final String outputPath;
+
+        private String hash;
+
+        private boolean upToDate;
+
+        private Set<String> dependencies = Collections.emptySet();
+
+        private SourceBuffer source;
+
+        private ByteArrayOutputStream rendered;
+
+        private long readTime;
+
+        private long conversionTime;
+
+        private long writeTime;
+
+        private Exception failure;
+
+        Conversion(Path file, String path, String parserId, Path output, String outputPath) {
+            this.file = file;
+            this.path = path;
+            this.parserId = parserId;
+            this.output = output;
+            this.outputPath = outputPath;
+        }
+
+        Conversion read(String target, DependencyHashes dependencyHashes) {
+            if (failure == null) {
+                long start = System.nanoTime();
+                try {
+                    if (manifest == null) {
+                        source = SourceBuffer.read(file, encoding);
+                    } else {
+                        // the bytes read for the hash are decoded, a changed document is read once
+                        byte[] content = Files.readAllBytes(file);
+                        hash = Hashes.sha256(content);
+                        upToDate = Files.isRegularFile(output)
+                                && manifest.isUpToDate(outputPath, path, hash, parserId, target, dependencyHashes::get);
+                        if (!upToDate) {
+                            source = SourceBuffer.decode(content, encoding);
+                        }
+                    }
+                } catch (IOException | RuntimeException e) {
+                    failure = e;
+                }
+                readTime = System.nanoTime() - start;
+            }
+            return this;
+        }
+
+        Conversion render(SinkFactory sinkFactory) {
+            if (failure == null && !upToDate) {
+                long start = System.nanoTime();
+                try {
+                    Supplier<? extends Parser> parser = parsers.get(parserId);
+                    if (parser == null) {
+                        throw new ParserNotFoundException("Cannot find parser with id = " + parserId);
+                    }
+
+                    // a little more than the source, most targets are not much larger
+                    rendered = new ByteArrayOutputStream(source.length() + source.length() / 4);
+                    Sink sink = sinkFactory.createSink(rendered, outputEncoding.name());
+                    DocumentDependencies.begin();
+                    try {
+                        parser.get().parse(source.newReader(), sink, file.toString());
+                    } finally {
+                        dependencies = DocumentDependencies.end();
+                        sink.close();
+                    }
+                } catch (IOException | ParserNotFoundException | ParseException | RuntimeException e) {
+                    failure = e;
+                    rendered = null;
+                }
+                source = null;
+                conversionTime = System.nanoTime() - start;
+            }
+            return this;
+        }
+
+        ConversionResult write(String target, DependencyHashes dependencyHashes) {
+            if (failure == null && !upToDate) {
+                long start = System.nanoTime();
+                try {
+                    Files.createDirectories(output.toAbsolutePath().getParent());
+                    try (OutputStream out = Files.newOutputStream(output)) {
+                        rendered.writeTo(out);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    failure = e;
+                }
+                rendered = null;
+                writeTime = System.nanoTime() - start;
+            }
+
+            if (manifest != null && !upToDate) {
+                if (failure == null) {
+                    Map<String, String> hashes = new HashMap<>();
+                    for (String dependency : dependencies) {
+                        hashes.put(dependency, dependencyHashes.get(dependency));
+                    }
+                    manifest.put(outputPath, path, hash, parserId, target, hashes);
+                } else {
+                    manifest.remove(outputPath, path);
+                }
+            }
+            return new ConversionResult(path, parserId, output, upToDate, readTime, conversionTime, writeTime, failure);
+        }
+    }
+}
@@ -50,6 +50,11 @@ public class IndexEntry {
      */
     private List<IndexEntry> childEntries = new ArrayList<>();
 
+    /**
+     * The position of this entry in the child entries of its parent, when it was added.
+     */
+    private int position;
+
     /**
      * System-dependent EOL.
      */
@@ -75,6 +80,7 @@ public class IndexEntry {
         this.id = newId;
 
         if (parent != null) {
+            position = parent.childEntries.size();
             parent.childEntries.add(this);
         }
     }
@@ -163,7 +169,7 @@ public class IndexEntry {
 
         List<IndexEntry> entries = parent.getChildEntries();
 
-        int index = entries.indexOf(this);
+        int index = getPosition(entries);
 
         if (index + 1 >= entries.size()) {
             return null;
@@ -184,15 +190,29 @@ public class IndexEntry {
 
         List<IndexEntry> entries = parent.getChildEntries();
 
-        int index = entries.indexOf(this);
+        int index = getPosition(entries);
 
-        if (index == 0) {
+        if (index <= 0) {
             return null;
         }
 
         return entries.get(index - 1);
     }
 
+    /**
+     * Returns the position of this entry in the given child entries of its parent. The position is known
+     * unless the child entries have been replaced since this entry was added.
+     *
+     * @param entries the child entries of the parent.
+     * @return the position, or -1 if this entry is not one of the given entries.
+     */
+    private int getPosition(List<IndexEntry> entries) {
+        if (position < entries.size() && entries.get(position) == this) {
+            return position;
+        }
+        return entries.indexOf(this);
+    }
+
     /**
      * Returns the first entry.
      *
@@ -18,11 +18,17 @@
  */
 package org.apache.maven.doxia.index;
 
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Stack;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.maven.doxia.sink.Sink;
 import org.apache.maven.doxia.sink.impl.SinkAdapter;
 import org.apache.maven.doxia.util.HtmlTools;
 
@@ -66,8 +72,14 @@ public class IndexingSink extends SinkAdapter {
     /** The current title. */
     private String title;
 
-    /** The stack. */
-    private final Stack<IndexEntry> stack;
+    /** The stack, the top is the last element. */
+    private final List<IndexEntry> stack;
+
+    /** The text of the current section title, turned into the title and id of its entry when the title ends. */
+    private final StringBuilder sectionTitle = new StringBuilder();
+
+    /** The entry the current section title belongs to, or null if there is none. */
+    private IndexEntry sectionTitleEntry;
 
     /** A map containing all used ids of index entries as key and how often they are used as value
      * (0-based, i.e. 0 means used 1 time). {@link AtomicInteger} is only used here as it implements
@@ -81,8 +93,8 @@ public class IndexingSink extends SinkAdapter {
      * @param sectionEntry The first index entry.
      */
     public IndexingSink(IndexEntry sectionEntry) {
-        stack = new Stack<>();
-        stack.push(sectionEntry);
+        stack = new ArrayList<>();
+        stack.add(sectionEntry);
         usedIds = new HashMap<>();
         usedIds.put(sectionEntry.getId(), new AtomicInteger());
         init();
@@ -97,6 +109,21 @@ public class IndexingSink extends SinkAdapter {
         return title;
     }
 
+    /**
+     * Returns a sink that forwards all events to the given sink and indexes them at the same time,
+     * so that the index is built while the document is rendered, without parsing it twice.
+     * Closing or flushing the returned sink only closes or flushes the given sink, the index and title
+     * remain available afterwards.
+     *
+     * @param sink the sink that renders the document.
+     * @return a sink that feeds both the given sink and this indexing sink.
+     * @since 2.0.0-M7
+     */
+    public Sink tap(Sink sink) {
+        return (Sink) Proxy.newProxyInstance(
+                IndexingSink.class.getClassLoader(), new Class<?>[] {Sink.class}, new Tap(sink, this));
+    }
+
     // ----------------------------------------------------------------------
     // Sink Overrides
     // ----------------------------------------------------------------------
@@ -119,7 +146,7 @@ public class IndexingSink extends SinkAdapter {
      * {@inheritDoc}
      */
     public void sectionTitle1() {
-        this.type = TYPE_SECTION_1;
+        startSectionTitle(TYPE_SECTION_1);
     }
 
     /**
@@ -133,7 +160,7 @@ public class IndexingSink extends SinkAdapter {
      * <p>sectionTitle1_.</p>
      */
     public void sectionTitle1_() {
-        this.type = 0;
+        endSectionTitle();
     }
 
     /**
@@ -154,14 +181,14 @@ public class IndexingSink extends SinkAdapter {
      * {@inheritDoc}
      */
     public void sectionTitle2() {
-        this.type = TYPE_SECTION_2;
+        startSectionTitle(TYPE_SECTION_2);
     }
 
     /**
      * <p>sectionTitle2_.</p>
      */
     public void sectionTitle2_() {
-        this.type = 0;
+        endSectionTitle();
     }
 
     /**
@@ -182,14 +209,14 @@ public class IndexingSink extends SinkAdapter {
      * {@inheritDoc}
      */
     public void sectionTitle3() {
-        this.type = TYPE_SECTION_3;
+        startSectionTitle(TYPE_SECTION_3);
     }
 
     /**
      * <p>sectionTitle3_.</p>
      */
     public void sectionTitle3_() {
-        this.type = 0;
+        endSectionTitle();
     }
 
     /**
@@ -210,14 +237,14 @@ public class IndexingSink extends SinkAdapter {
      * {@inheritDoc}
      */
     public void sectionTitle4() {
-        this.type = TYPE_SECTION_4;
+        startSectionTitle(TYPE_SECTION_4);
     }
 
     /**
      * <p>sectionTitle4_.</p>
      */
     public void sectionTitle4_() {
-        this.type = 0;
+        endSectionTitle();
     }
 
     /**
@@ -238,14 +265,14 @@ public class IndexingSink extends SinkAdapter {
      * {@inheritDoc}
      */
     public void sectionTitle5() {
-        this.type = TYPE_SECTION_5;
+        startSectionTitle(TYPE_SECTION_5);
     }
 
     /**
      * <p>sectionTitle5_.</p>
      */
     public void sectionTitle5_() {
-        this.type = 0;
+        endSectionTitle();
     }
 
     /**
@@ -281,19 +308,13 @@ public class IndexingSink extends SinkAdapter {
             case TYPE_SECTION_3:
             case TYPE_SECTION_4:
             case TYPE_SECTION_5:
-                // -----------------------------------------------------------------------
-                // Sanitize the id. The most important step is to remove any blanks
-                // -----------------------------------------------------------------------
-
-                // append text to current entry
-                IndexEntry entry = stack.lastElement();
-
-                String title = entry.getTitle() + text;
-                title = title.replaceAll("[\\r\\n]+", "");
-                entry.setTitle(title);
-
-                entry.setId(getUniqueId(HtmlTools.encodeId(title)));
-
+                // the title and id of the entry are computed once the section title ends
+                for (int i = 0; i < text.length(); i++) {
+                    char c = text.charAt(i);
+                    if (c != '\r' && c != '\n') {
+                        sectionTitle.append(c);
+                    }
+                }
                 break;
                 // Dunno how to handle these yet
             case TYPE_DEFINED_TERM:
@@ -304,6 +325,36 @@ public class IndexingSink extends SinkAdapter {
         }
     }
 
+    /**
+     * Starts collecting the text of a section title for the entry on top of the stack.
+     *
+     * @param sectionType the type of the section.
+     */
+    private void startSectionTitle(int sectionType) {
+        endSectionTitle();
+        this.type = sectionType;
+        this.sectionTitleEntry = peek();
+    }
+
+    /**
+     * Sets the collected title of the current section title on its entry, and derives the id from it.
+     */
+    private void endSectionTitle() {
+        if (sectionTitleEntry != null && sectionTitle.length() > 0) {
+            // -----------------------------------------------------------------------
+            // Sanitize the id. The most important step is to remove any blanks
+            // -----------------------------------------------------------------------
+            String entryTitle = sectionTitleEntry.getTitle() == null
+                    ? sectionTitle.toString()
+                    : sectionTitleEntry.getTitle() + sectionTitle;
+            sectionTitleEntry.setTitle(entryTitle);
+            sectionTitleEntry.setId(getUniqueId(HtmlTools.encodeId(entryTitle)));
+        }
+        sectionTitle.setLength(0);
+        sectionTitleEntry = null;
+        this.type = 0;
+    }
+
     /**
      * Converts the given id into a unique one by potentially suffixing it with an index value.
      *
@@ -326,11 +377,13 @@ public class IndexingSink extends SinkAdapter {
      * Creates and pushes a new IndexEntry onto the top of this stack.
      */
     public void pushNewEntry() {
+        endSectionTitle();
+
         IndexEntry entry = new IndexEntry(peek(), "");
 
         entry.setTitle("");
 
-        stack.push(entry);
+        stack.add(entry);
     }
 
     /**
@@ -339,14 +392,18 @@ public class IndexingSink extends SinkAdapter {
      * @param entry to put.
      */
     public void push(IndexEntry entry) {
-        stack.push(entry);
+        endSectionTitle();
+
+        stack.add(entry);
     }
 
     /**
      * Removes the IndexEntry at the top of this stack.
      */
     public void pop() {
-        stack.pop();
+        endSectionTitle();
+
+        stack.remove(stack.size() - 1);
     }
 
     /**
@@ -355,13 +412,15 @@ public class IndexingSink extends SinkAdapter {
      * @return Looks at the IndexEntry at the top of this stack.
      */
     public IndexEntry peek() {
-        return stack.peek();
+        return stack.get(stack.size() - 1);
     }
 
     /**
      * {@inheritDoc}
      */
     public void close() {
+        endSectionTitle();
+
         super.close();
 
         init();
@@ -373,5 +432,42 @@ public class IndexingSink extends SinkAdapter {
     protected void init() {
         this.type = 0;
         this.title = null;
+        this.sectionTitle.setLength(0);
+        this.sectionTitleEntry = null;
+    }
+
+    /**
+     * Forwards all events to the rendering sink and to the indexing sink, except close and flush
+     * which only concern the rendering sink.
+     */
+    private static class Tap implements InvocationHandler {
+        private final Sink sink;
+
+        private final IndexingSink indexingSink;
+
+        Tap(Sink sink, IndexingSink indexingSink) {
+            this.sink = sink;
+            this.indexingSink = indexingSink;
+        }
+
+        public Object invoke(Object proxy, Method method, Object[] args)
+                throws IllegalAccessException, InvocationTargetException {
+            if (method.getDeclaringClass() == Object.class) {
+                switch (method.getName()) {
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    default:
+                        return "IndexingSink.Tap[" + sink + "]";
+                }
+            }
+
+            Object result = method.invoke(sink, args);
+            if (!"close".equals(method.getName()) && !"flush".equals(method.getName())) {
+                method.invoke(indexingSink, args);
+            }
+            return result;
+        }
     }
 }
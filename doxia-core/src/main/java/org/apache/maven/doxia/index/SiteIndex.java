@@ -0,0 +1,227 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.index;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * The outlines of all documents of a site, keyed by the path of the document relative to the source
+ * directory. Each outline is stored with the hash of the document content, so that it can be reused
+ * as long as the document does not change.
+ *
+ * @see SiteIndexer
+ * @since 2.0.0-M7
+ */
+public class SiteIndex {
+    /** Identifies the file format. */
+    private static final int MAGIC = 0x44584958;
+
+    /** The version of the file format. */
+    private static final int VERSION = 1;
+
+    private final Map<String, Document> documents = new TreeMap<>();
+
+    /** The indexed state of one document. */
+    private static final class Document {
+        private final String hash;
+
+        private final String title;
+
+        private final IndexEntry outline;
+
+        Document(String hash, String title, IndexEntry outline) {
+            this.hash = hash;
+            this.title = title;
+            this.outline = outline;
+        }
+    }
+
+    /**
+     * Returns the outline of a document: the children of the returned entry are the top level sections.
+     *
+     * @param path the path of the document relative to the source directory, with '/' separators.
+     * @return the outline, or <code>null</code> if the document is not indexed.
+     */
+    public synchronized IndexEntry getOutline(String path) {
+        Document document = documents.get(path);
+        return document == null ? null : document.outline;
+    }
+
+    /**
+     * Returns the title of a document.
+     *
+     * @param path the path of the document relative to the source directory, with '/' separators.
+     * @return the title, or <code>null</code> if the document is not indexed or has no title.
+     */
+    public synchronized String getTitle(String path) {
+        Document document = documents.get(path);
+        return document == null ? null : document.title;
+    }
+
+    /**
+     * Returns the paths of all indexed documents, in alphabetical order.
+     *
+     * @return an unmodifiable set of paths.
+     */
+    public synchronized Set<String> getDocumentPaths() {
+        return Collections.unmodifiableSet(new TreeSet<>(documents.keySet()));
+    }
+
+    /**
+     * Returns the hash of the content a document was indexed from.
+     *
+     * @param path the path of the document.
+     * @return the hash, or <code>null</code> if the document is not indexed.
+     */
+    synchronized String getHash(String path) {
+        Document document = documents.get(path);
+        return document == null ? null : document.hash;
+    }
+
+    /**
+     * Adds or replaces the outline of a document.
+     *
+     * @param path the path of the document.
+     * @param hash the hash of the document content.
+     * @param title the title of the document, may be null.
+     * @param outline the outline of the document.
+     */
+    synchronized void put(String path, String hash, String title, IndexEntry outline) {
+        documents.put(path, new Document(hash, title, outline));
+    }
+
+    /**
+     * Removes all documents that are not in the given paths.
+     *
+     * @param paths the paths to keep.
+     */
+    synchronized void retainAll(Collection<String> paths) {
+        documents.keySet().retainAll(paths);
+    }
+
+    /**
+     * Loads an index stored by {@link #store(Path)}.
+     *
+     * @param file the index file.
+     * @return the loaded index, or an empty index if the file does not exist or has another format version.
+     * @throws IOException if the file cannot be read.
+     */
+    public static SiteIndex load(Path file) throws IOException {
+        SiteIndex index = new SiteIndex();
+        if (!Files.isRegularFile(file)) {
+            return index;
+        }
+
+        try (InputStream in = Files.newInputStream(file);
+                DataInputStream data = new DataInputStream(new BufferedInputStream(in))) {
+            if (data.readInt() != MAGIC || data.readInt() != VERSION) {
+                return index;
+            }
+
+            int count = data.readInt();
+            for (int i = 0; i < count; i++) {
+                String path = data.readUTF();
+                String hash = data.readUTF();
+                String title = readString(data);
+                IndexEntry outline = readEntry(data, null);
+                index.documents.put(path, new Document(hash, title, outline));
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Stores this index. The file is replaced atomically where supported, so that a failed build
+     * never leaves a truncated index behind.
+     *
+     * @param file the index file.
+     * @throws IOException if the file cannot be written.
+     */
+    public synchronized void store(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(tmp);
+                    DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out))) {
+                data.writeInt(MAGIC);
+                data.writeInt(VERSION);
+                data.writeInt(documents.size());
+                for (Map.Entry<String, Document> entry : documents.entrySet()) {
+                    data.writeUTF(entry.getKey());
+                    data.writeUTF(entry.getValue().hash);
+                    writeString(data, entry.getValue().title);
+                    writeEntry(data, entry.getValue().outline);
+                }
+            }
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static void writeEntry(DataOutputStream data, IndexEntry entry) throws IOException {
+        writeString(data, entry.getId());
+        writeString(data, entry.getTitle());
+        data.writeInt(entry.getChildEntries().size());
+        for (IndexEntry child : entry.getChildEntries()) {
+            writeEntry(data, child);
+        }
+    }
+
+    private static IndexEntry readEntry(DataInputStream data, IndexEntry parent) throws IOException {
+        IndexEntry entry = new IndexEntry(parent, readString(data));
+        entry.setTitle(readString(data));
+        int count = data.readInt();
+        for (int i = 0; i < count; i++) {
+            readEntry(data, entry);
+        }
+        return entry;
+    }
+
+    private static void writeString(DataOutputStream data, String value) throws IOException {
+        data.writeBoolean(value != null);
+        if (value != null) {
+            data.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream data) throws IOException {
+        return data.readBoolean() ? data.readUTF() : null;
+    }
+}
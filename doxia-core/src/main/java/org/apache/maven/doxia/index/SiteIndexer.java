@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.index;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.maven.doxia.parser.AbstractParser;
+import org.apache.maven.doxia.parser.ParseException;
+import org.apache.maven.doxia.parser.Parser;
+import org.apache.maven.doxia.util.Hashes;
+
+/**
+ * Builds the {@link SiteIndex} of all documents of a source directory, parsing the documents in parallel.
+ * Documents whose content has not changed since the index was built keep their outline without being parsed.
+ * <p>
+ * The parsers are not thread-safe, so every document is parsed by a new parser obtained from the
+ * supplier registered for its extension. Macros are not executed while indexing, the outline only
+ * contains the sections of the document itself.
+ *
+ * <pre>
+ * SiteIndex index = SiteIndex.load(indexFile);
+ * SiteIndexer indexer = new SiteIndexer();
+ * indexer.addParser("apt", AptParser::new);
+ * indexer.index(sourceDirectory, index);
+ * index.store(indexFile);
+ * </pre>
+ *
+ * @since 2.0.0-M7
+ */
+public class SiteIndexer {
+    private final Map<String, Supplier<? extends Parser>> parsers = new HashMap<>();
+
+    private Charset encoding = StandardCharsets.UTF_8;
+
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Registers the parser of the documents with the given extension.
+     *
+     * @param extension the file extension, without the dot.
+     * @param parser supplies a new parser for every document.
+     */
+    public void addParser(String extension, Supplier<? extends Parser> parser) {
+        parsers.put(extension, parser);
+    }
+
+    /**
+     * Sets the encoding of the documents, UTF-8 by default.
+     *
+     * @param encoding the encoding.
+     */
+    public void setEncoding(Charset encoding) {
+        this.encoding = encoding;
+    }
+
+    /**
+     * Sets the number of documents parsed at the same time, the number of processors by default.
+     *
+     * @param threads the number of threads.
+     */
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Updates the given index with all documents of the given directory that have a registered extension.
+     * Documents that no longer exist are removed from the index.
+     *
+     * @param sourceDirectory the directory containing the documents.
+     * @param index the index to update.
+     * @return the number of documents that were parsed.
+     * @throws IOException if a document cannot be read.
+     * @throws ParseException if a document cannot be parsed.
+     */
+    public int index(Path sourceDirectory, SiteIndex index) throws IOException, ParseException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.walk(sourceDirectory)) {
+            files = stream.filter(Files::isRegularFile)
+                    .filter(file -> getParser(file) != null)
+                    .collect(Collectors.toList());
+        }
+
+        List<String> paths = new ArrayList<>(files.size());
+        List<Future<Boolean>> results = new ArrayList<>(files.size());
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+        try {
+            for (Path file : files) {
+                String path = sourceDirectory.relativize(file).toString().replace('\\', '/');
+                paths.add(path);
+                results.add(executor.submit(() -> indexDocument(file, path, index)));
+            }
+
+            int parsed = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get()) {
+                    parsed++;
+                }
+            }
+
+            index.retainAll(paths);
+            return parsed;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while indexing " + sourceDirectory, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof ParseException) {
+                throw (ParseException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Error indexing " + sourceDirectory, e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Indexes one document, unless its content has not changed.
+     *
+     * @return true if the document has been parsed.
+     */
+    private boolean indexDocument(Path file, String path, SiteIndex index) throws IOException, ParseException {
+        byte[] content = Files.readAllBytes(file);
+        String hash = Hashes.sha256(content);
+        if (hash.equals(index.getHash(path))) {
+            return false;
+        }
+
+        Parser parser = getParser(file).get();
+        if (parser instanceof AbstractParser) {
+            ((AbstractParser) parser).setSecondParsing(true);
+        }
+
+        IndexEntry outline = new IndexEntry("index");
+        IndexingSink sink = new IndexingSink(outline);
+        parser.parse(new StringReader(new String(content, encoding)), sink, path);
+        String title = sink.getTitle();
+        sink.close();
+
+        index.put(path, hash, title, outline);
+        return true;
+    }
+
+    private Supplier<? extends Parser> getParser(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? null : parsers.get(name.substring(dot + 1));
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.macro;
+
+/**
+ * A macro whose output only depends on its parameters, on the source content and parser of the
+ * document, and on the external resources described by {@link #getCacheKey(MacroRequest)}.
+ * The events emitted by such a macro can be recorded once and replayed for identical requests.
+ *
+ * @see org.apache.maven.doxia.macro.manager.MacroExecutionCache
+ * @since 2.0.0-M7
+ */
+public interface CacheableMacro extends Macro {
+    /**
+     * Describes the state of the external resources the output of the given request depends on,
+     * for instance the last modification time of a file.
+     *
+     * @param request The corresponding MacroRequest.
+     * @return an empty string if the output depends on nothing else than the request,
+     *  or <code>null</code> if the output of this request must not be cached.
+     */
+    String getCacheKey(MacroRequest request);
+}
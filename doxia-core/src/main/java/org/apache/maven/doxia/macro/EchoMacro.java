@@ -28,7 +28,7 @@ import org.apache.maven.doxia.sink.Sink;
  */
 @Singleton
 @Named("echo")
-public class EchoMacro extends AbstractMacro {
+public class EchoMacro extends AbstractMacro implements CacheableMacro, SourceIndependentMacro {
     /** {@inheritDoc} */
     public void execute(Sink sink, MacroRequest request) {
         sink.verbatim();
@@ -37,7 +37,7 @@ public class EchoMacro extends AbstractMacro {
 
         for (String key : request.getParameters().keySet()) {
             // TODO: DOXIA-242: separate or define internal params
-            if ("parser".equals(key) || "sourceContent".equals(key)) {
+            if (MacroRequest.isInternalParameter(key)) {
                 continue;
             }
 
@@ -46,4 +46,9 @@ public class EchoMacro extends AbstractMacro {
 
         sink.verbatim_();
     }
+
+    /** {@inheritDoc} */
+    public String getCacheKey(MacroRequest request) {
+        return "";
+    }
 }
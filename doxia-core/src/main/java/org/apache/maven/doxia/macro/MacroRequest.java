@@ -23,6 +23,7 @@ import java.util.Map;
 
 import org.apache.maven.doxia.parser.AbstractParser;
 import org.apache.maven.doxia.parser.Parser;
+import org.apache.maven.doxia.parser.SourceBuffer;
 
 /**
  * <p>MacroRequest class.</p>
@@ -33,6 +34,10 @@ import org.apache.maven.doxia.parser.Parser;
 public class MacroRequest {
     private static final String PARAM_SOURCE_CONTENT = "sourceContent";
     private static final String PARAM_PARSER = "parser";
+    private static final String PARAM_SOURCE_BUFFER = "sourceBuffer";
+
+    /** The buffer of the last source content given as a string, per thread, shared by the macros of a document. */
+    private static final ThreadLocal<SourceBuffer> STRING_SOURCE = new ThreadLocal<>();
 
     /** The current base directory. */
     private File basedir;
@@ -56,6 +61,26 @@ public class MacroRequest {
         param.put(PARAM_PARSER, parser);
     }
 
+    /**
+     * Creates a request that shares the source buffer of the document with the macro.
+     * The <code>sourceContent</code> parameter is only turned into a {@link String}
+     * when it is looked up with {@link #getParameter(String)} or {@link #getSourceContent()}.
+     *
+     * @param sourceBuffer the source of the document, may be null.
+     * @param parser a {@link org.apache.maven.doxia.parser.AbstractParser} object.
+     * @param param a {@link java.util.Map} object.
+     * @param basedir a {@link java.io.File} object.
+     * @return the request.
+     * @since 2.0.0-M7
+     */
+    public static MacroRequest of(
+            SourceBuffer sourceBuffer, AbstractParser parser, Map<String, Object> param, File basedir) {
+        MacroRequest request = new MacroRequest(null, parser, param, basedir);
+        param.remove(PARAM_SOURCE_CONTENT);
+        param.put(PARAM_SOURCE_BUFFER, sourceBuffer);
+        return request;
+    }
+
     /**
      * Returns the current base directory.
      *
@@ -91,6 +116,9 @@ public class MacroRequest {
      * @return The value object.
      */
     public Object getParameter(String key) {
+        if (PARAM_SOURCE_CONTENT.equals(key)) {
+            return getSourceContent();
+        }
         return parameters.get(key);
     }
 
@@ -100,7 +128,37 @@ public class MacroRequest {
      * @return a {@link java.lang.String} object.
      */
     public String getSourceContent() {
-        return (String) getParameter(PARAM_SOURCE_CONTENT);
+        Object sourceContent = parameters.get(PARAM_SOURCE_CONTENT);
+        if (sourceContent == null) {
+            sourceContent = parameters.get(PARAM_SOURCE_BUFFER);
+        }
+        return sourceContent == null ? null : sourceContent.toString();
+    }
+
+    /**
+     * Returns the source of the document, without copying it.
+     *
+     * @return the source buffer, or <code>null</code> if there is none.
+     * @since 2.0.0-M7
+     */
+    public SourceBuffer getSourceBuffer() {
+        SourceBuffer sourceBuffer = (SourceBuffer) parameters.get(PARAM_SOURCE_BUFFER);
+        if (sourceBuffer != null) {
+            return sourceBuffer;
+        }
+
+        Object sourceContent = parameters.get(PARAM_SOURCE_CONTENT);
+        if (sourceContent == null) {
+            return null;
+        }
+
+        // the requests of a document share its source content, and so its buffer and the hash of the buffer
+        SourceBuffer buffer = STRING_SOURCE.get();
+        if (buffer == null || buffer.toString() != sourceContent) {
+            buffer = SourceBuffer.of(sourceContent.toString());
+            STRING_SOURCE.set(buffer);
+        }
+        return buffer;
     }
 
     /**
@@ -119,6 +177,6 @@ public class MacroRequest {
      * @return a boolean.
      */
     public static boolean isInternalParameter(String name) {
-        return PARAM_PARSER.equals(name) || PARAM_SOURCE_CONTENT.equals(name);
+        return PARAM_PARSER.equals(name) || PARAM_SOURCE_CONTENT.equals(name) || PARAM_SOURCE_BUFFER.equals(name);
     }
 }
@@ -0,0 +1,38 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.macro;
+
+/**
+ * A macro that can start loading the resources it needs before it is executed.
+ * Parsers call {@link #prefetch(MacroRequest)} for all macros found in a document
+ * before the document is parsed, so that slow resources are fetched concurrently
+ * instead of one after the other while the sink waits.
+ *
+ * @since 2.0.0-M7
+ */
+public interface PrefetchableMacro extends Macro {
+    /**
+     * Start loading the resources needed to execute the given request, without blocking.
+     * Any failure must be ignored here and reported by
+     * {@link #execute(org.apache.maven.doxia.sink.Sink, MacroRequest)} instead.
+     *
+     * @param request The corresponding MacroRequest.
+     */
+    void prefetch(MacroRequest request);
+}
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.macro.manager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.maven.doxia.macro.CacheableMacro;
+import org.apache.maven.doxia.macro.MacroExecutionException;
+import org.apache.maven.doxia.macro.MacroRequest;
+import org.apache.maven.doxia.macro.PrefetchableMacro;
+import org.apache.maven.doxia.metrics.DoxiaMetrics;
+import org.apache.maven.doxia.metrics.MetricsRegistry;
+import org.apache.maven.doxia.sink.Sink;
+import org.apache.maven.doxia.sink.impl.PipelineSink;
+import org.apache.maven.doxia.sink.impl.RecordingSink;
+import org.apache.maven.doxia.util.DocumentDependencies;
+
+/**
+ * Wraps a {@link CacheableMacro}: the events of the first execution of a request are recorded
+ * into a {@link MacroExecutionCache}, identical requests replay them instead of executing the macro.
+ * The {@link DocumentDependencies} recorded by the first execution are recorded again for every replay.
+ */
+class CachingMacro implements PrefetchableMacro {
+    private final String macroId;
+
+    private final CacheableMacro macro;
+
+    private final MacroExecutionCache cache;
+
+    CachingMacro(String macroId, CacheableMacro macro, MacroExecutionCache cache) {
+        this.macroId = macroId;
+        this.macro = macro;
+        this.cache = cache;
+    }
+
+    /** {@inheritDoc} */
+    public void execute(Sink sink, MacroRequest request) throws MacroExecutionException {
+        String key = cache.getKey(macroId, macro, request);
+        if (key == null) {
+            macro.execute(sink, request);
+            return;
+        }
+
+        MacroExecutionCache.Execution execution = cache.get(key);
+        DoxiaMetrics metrics = MetricsRegistry.getMetrics();
+        if (metrics.isEnabled()) {
+            metrics.cacheLookup(DoxiaMetrics.MACRO_CACHE, execution != null);
+        }
+        if (execution != null) {
+            DocumentDependencies.record(execution.getDependencies());
+            execution.getEvents().replay(sink);
+            return;
+        }
+
+        RecordingSink events = new RecordingSink();
+        List<Sink> pipeline = new ArrayList<>(2);
+        pipeline.add(sink);
+        pipeline.add(events.getSink());
+        Set<String> dependencies;
+        DocumentDependencies.begin();
+        try {
+            macro.execute(PipelineSink.newInstance(pipeline), request);
+        } finally {
+            dependencies = DocumentDependencies.end();
+        }
+
+        cache.put(key, new MacroExecutionCache.Execution(events, dependencies));
+    }
+
+    /** {@inheritDoc} */
+    public void prefetch(MacroRequest request) {
+        if (macro instanceof PrefetchableMacro) {
+            ((PrefetchableMacro) macro).prefetch(request);
+        }
+    }
+}
@@ -24,7 +24,9 @@ import javax.inject.Singleton;
 
 import java.util.Map;
 
+import org.apache.maven.doxia.macro.CacheableMacro;
 import org.apache.maven.doxia.macro.Macro;
+import org.apache.maven.doxia.macro.SourceIndependentMacro;
 
 /**
  * Default implementation of <code>MacroManager</code>
@@ -39,6 +41,9 @@ public class DefaultMacroManager implements MacroManager {
     @Inject
     private Map<String, Macro> macros;
 
+    /** The cache for the output of cacheable macros, null if disabled. */
+    private MacroExecutionCache executionCache;
+
     /** {@inheritDoc} */
     public Macro getMacro(String id) throws MacroNotFoundException {
         Macro macro = macros.get(id);
@@ -47,6 +52,53 @@ public class DefaultMacroManager implements MacroManager {
             throw new MacroNotFoundException("Cannot find macro with id = " + id);
         }
 
+        MacroExecutionCache cache = executionCache;
+        if (cache != null && macro instanceof CacheableMacro) {
+            return new CachingMacro(id, (CacheableMacro) macro, cache);
+        }
+
         return macro;
     }
+
+    /**
+     * Enables or disables the memoization of macro executions. When enabled, the events emitted by
+     * {@link CacheableMacro cacheable macros} are recorded and replayed for identical requests.
+     * Disabled by default.
+     *
+     * @param executionCache the cache to use, or <code>null</code> to disable memoization.
+     * @since 2.0.0-M7
+     */
+    public void setExecutionCache(MacroExecutionCache executionCache) {
+        this.executionCache = executionCache;
+    }
+
+    /**
+     * Returns the cache used to memoize macro executions, for instance to invalidate it.
+     *
+     * @return the cache, or <code>null</code> if memoization is disabled.
+     * @since 2.0.0-M7
+     */
+    public MacroExecutionCache getExecutionCache() {
+        return executionCache;
+    }
+
+    /**
+     * Tells whether a macro may need the source content of the document it is executed in.
+     *
+     * @return false if all registered macros are {@link SourceIndependentMacro source independent}.
+     * @since 2.0.0-M7
+     */
+    public boolean isSourceContentRequired() {
+        if (macros == null) {
+            return false;
+        }
+
+        for (Macro macro : macros.values()) {
+            if (!(macro instanceof SourceIndependentMacro)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
 }
@@ -0,0 +1,229 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.macro.manager;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.maven.doxia.macro.CacheableMacro;
+import org.apache.maven.doxia.macro.MacroRequest;
+import org.apache.maven.doxia.macro.SourceIndependentMacro;
+import org.apache.maven.doxia.parser.SourceBuffer;
+import org.apache.maven.doxia.sink.impl.RecordingSink;
+
+/**
+ * Holds the recorded output and document dependencies of {@link CacheableMacro} executions, keyed by macro id, macro parameters,
+ * parser and source content. The executions of {@link SourceIndependentMacro source independent} macros are
+ * shared by all documents. The least recently used entries are evicted when the estimated size of all entries
+ * exceeds the configured maximum.
+ *
+ * @see DefaultMacroManager#setExecutionCache(MacroExecutionCache)
+ * @since 2.0.0-M7
+ */
+public class MacroExecutionCache {
+    /** The default maximum size: 16 MB. */
+    public static final long DEFAULT_MAX_SIZE = 16L * 1024 * 1024;
+
+    private static final char SEPARATOR = '\n';
+
+    private final long maxSize;
+
+    private final Map<String, Execution> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long size;
+
+    private long hitCount;
+
+    private long missCount;
+
+    /** The recorded events of an execution and the dependencies it recorded in
+     * {@link org.apache.maven.doxia.util.DocumentDependencies}. */
+    static final class Execution {
+        private final RecordingSink events;
+
+        private final Set<String> dependencies;
+
+        private final long estimatedSize;
+
+        Execution(RecordingSink events, Set<String> dependencies) {
+            this.events = events;
+            this.dependencies = dependencies;
+            long dependenciesSize = 0;
+            for (String dependency : dependencies) {
+                dependenciesSize += 2L * dependency.length();
+            }
+            this.estimatedSize = events.getEstimatedSize() + dependenciesSize;
+        }
+
+        RecordingSink getEvents() {
+            return events;
+        }
+
+        Set<String> getDependencies() {
+            return dependencies;
+        }
+    }
+
+    /**
+     * Constructs a cache with the default maximum size.
+     */
+    public MacroExecutionCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Constructs a cache.
+     *
+     * @param maxSize the maximum estimated size of all recorded events, in bytes.
+     */
+    public MacroExecutionCache(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the key of the given request.
+     *
+     * @param macroId the id of the macro.
+     * @param macro the macro.
+     * @param request the request.
+     * @return the key, or <code>null</code> if the request cannot be cached.
+     */
+    String getKey(String macroId, CacheableMacro macro, MacroRequest request) {
+        String macroKey = macro.getCacheKey(request);
+        if (macroKey == null) {
+            return null;
+        }
+
+        Map<String, String> parameters = new TreeMap<>();
+        for (Map.Entry<String, Object> entry : request.getParameters().entrySet()) {
+            if (!MacroRequest.isInternalParameter(entry.getKey())) {
+                parameters.put(entry.getKey(), String.valueOf(entry.getValue()));
+            }
+        }
+
+        StringBuilder key = new StringBuilder(macroId).append(SEPARATOR);
+        key.append(
+                        request.getParser() == null
+                                ? ""
+                                : request.getParser().getClass().getName())
+                .append(SEPARATOR);
+        // source independent executions are shared by all documents
+        SourceBuffer sourceContent = macro instanceof SourceIndependentMacro ? null : request.getSourceBuffer();
+        key.append(sourceContent == null ? "" : sourceContent.sha256()).append(SEPARATOR);
+        key.append(macroKey).append(SEPARATOR);
+        key.append(parameters);
+        return key.toString();
+    }
+
+    /**
+     * Returns the recorded execution for the given key.
+     *
+     * @param key the key.
+     * @return the recorded execution, or <code>null</code> if there is none.
+     */
+    synchronized Execution get(String key) {
+        Execution execution = entries.get(key);
+        if (execution == null) {
+            missCount++;
+        } else {
+            hitCount++;
+        }
+        return execution;
+    }
+
+    /**
+     * Stores the recorded execution for the given key, evicting the least recently used entries if needed.
+     *
+     * @param key the key.
+     * @param execution the recorded execution.
+     */
+    synchronized void put(String key, Execution execution) {
+        if (execution.estimatedSize > maxSize) {
+            return;
+        }
+
+        Execution previous = entries.put(key, execution);
+        if (previous != null) {
+            size -= previous.estimatedSize;
+        }
+        size += execution.estimatedSize;
+
+        Iterator<Execution> eldest = entries.values().iterator();
+        while (size > maxSize && eldest.hasNext()) {
+            size -= eldest.next().estimatedSize;
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public synchronized void invalidate() {
+        entries.clear();
+        size = 0;
+    }
+
+    /**
+     * Removes all entries of the given macro, for instance after a resource it depends on has changed.
+     *
+     * @param macroId the id of the macro.
+     */
+    public synchronized void invalidate(String macroId) {
+        String prefix = macroId + SEPARATOR;
+        Iterator<Map.Entry<String, Execution>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Execution> entry = it.next();
+            if (entry.getKey().startsWith(prefix)) {
+                size -= entry.getValue().estimatedSize;
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * @return the number of cached macro executions.
+     */
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    /**
+     * @return the estimated size of all cached macro executions, in bytes.
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * @return the number of executions that were replayed from the cache.
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return the number of cacheable executions that were not found in the cache.
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+}
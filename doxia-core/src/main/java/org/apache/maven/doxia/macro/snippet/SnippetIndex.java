@@ -0,0 +1,200 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.macro.snippet;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * The lines of a snippet source together with the position of all its <code>SNIPPET START/END</code>
+ * demarcators. The source is read once, all snippet ids are then resolved from memory.
+ *
+ * @since 2.0.0-M7
+ */
+public class SnippetIndex {
+    /** Matches the SNIPPET keyword, case insensitive. */
+    static final Pattern SNIPPET_PATTERN = Pattern.compile("(^|\\W)(?i:SNIPPET)($|\\W)");
+
+    /** Matches the START keyword, case insensitive. */
+    static final Pattern START_PATTERN = Pattern.compile("(^|\\W)(?i:START)($|\\W)");
+
+    /** Matches the END keyword, case insensitive. */
+    static final Pattern END_PATTERN = Pattern.compile("(^|\\W)(?i:END)($|\\W)");
+
+    private static final byte START = 1;
+
+    private static final byte END = 2;
+
+    /** The source, used for error messages. */
+    private final URL source;
+
+    /** All lines of the source. */
+    private final List<String> lines;
+
+    /** Indices of the lines that contain a start or end demarcator (for any id). */
+    private final int[] demarcators;
+
+    /** The demarcator kind (START, END or both) for each entry in demarcators. */
+    private final byte[] kinds;
+
+    /** The resolved [start, end] line ranges, keyed by snippet id. */
+    private final Map<String, int[]> ranges = new ConcurrentHashMap<>();
+
+    SnippetIndex(URL source, List<String> lines) {
+        this.source = source;
+        this.lines = lines;
+
+        int[] lineIndices = new int[lines.size()];
+        byte[] lineKinds = new byte[lines.size()];
+        int count = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            if (!SNIPPET_PATTERN.matcher(line).find()) {
+                continue;
+            }
+            byte kind = 0;
+            if (START_PATTERN.matcher(line).find()) {
+                kind |= START;
+            }
+            if (END_PATTERN.matcher(line).find()) {
+                kind |= END;
+            }
+            if (kind != 0) {
+                lineIndices[count] = i;
+                lineKinds[count] = kind;
+                count++;
+            }
+        }
+        this.demarcators = new int[count];
+        this.kinds = new byte[count];
+        System.arraycopy(lineIndices, 0, demarcators, 0, count);
+        System.arraycopy(lineKinds, 0, kinds, 0, count);
+    }
+
+    /**
+     * Reads the given source completely and indexes all snippet demarcators.
+     *
+     * @param source the source
+     * @param encoding the encoding of the source, may be null to use the platform encoding
+     * @return the index
+     * @throws IOException if the source cannot be read
+     */
+    public static SnippetIndex read(URL source, String encoding) throws IOException {
+        InputStreamReader in;
+        if (encoding == null || "".equals(encoding)) {
+            in = new InputStreamReader(source.openStream());
+        } else {
+            in = new InputStreamReader(source.openStream(), encoding);
+        }
+
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(in)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        return new SnippetIndex(source, lines);
+    }
+
+    /**
+     * Returns the lines of the snippet with the given id, not including the demarcators.
+     *
+     * @param snippetId the id of the snippet, if empty all lines of the source are returned
+     * @return the lines of the snippet
+     * @throws IOException if the start or end of the snippet cannot be found
+     */
+    public List<String> getLines(String snippetId) throws IOException {
+        if (StringUtils.isEmpty(snippetId)) {
+            return Collections.unmodifiableList(lines);
+        }
+
+        int[] range = ranges.get(snippetId);
+        if (range == null) {
+            range = findRange(snippetId);
+            ranges.put(snippetId, range);
+        }
+
+        List<String> result = new ArrayList<>(Math.max(0, range[1] - range[0] - 1));
+        int next = 0;
+        for (int i = range[0] + 1; i < range[1]; i++) {
+            // repeated start demarcators are not part of the snippet
+            if (range.length > 2 && next < range.length - 2 && range[2 + next] == i) {
+                next++;
+                continue;
+            }
+            result.add(lines.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Locates the snippet with the given id among the demarcator lines.
+     *
+     * @param snippetId the id of the snippet
+     * @return the start and end line index, followed by the indices of any repeated start lines in between
+     * @throws IOException if the start or end of the snippet cannot be found
+     */
+    private int[] findRange(String snippetId) throws IOException {
+        Pattern idPattern = Pattern.compile("(^|\\W)" + snippetId + "($|\\W)");
+
+        int start = -1;
+        List<Integer> restarts = new ArrayList<>();
+        for (int i = 0; i < demarcators.length; i++) {
+            int line = demarcators[i];
+            if (!idPattern.matcher(lines.get(line)).find()) {
+                continue;
+            }
+
+            if ((kinds[i] & START) != 0) {
+                if (start < 0) {
+                    start = line;
+                } else {
+                    restarts.add(line);
+                }
+            } else if (start < 0) {
+                // an END before any START
+                break;
+            } else {
+                int[] range = new int[2 + restarts.size()];
+                range[0] = start;
+                range[1] = line;
+                for (int j = 0; j < restarts.size(); j++) {
+                    range[2 + j] = restarts.get(j);
+                }
+                return range;
+            }
+        }
+
+        if (start < 0) {
+            throw new IOException("Failed to find START of snippet " + snippetId + " in file at URL: " + source);
+        }
+        throw new IOException("Failed to find END of snippet " + snippetId + " in file at URL: " + source);
+    }
+}
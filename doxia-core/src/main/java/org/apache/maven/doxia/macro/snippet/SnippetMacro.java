@@ -25,15 +25,31 @@ import java.io.File;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.util.HashMap;
 import java.util.Map;
-
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.maven.doxia.macro.AbstractMacro;
+import org.apache.maven.doxia.macro.CacheableMacro;
 import org.apache.maven.doxia.macro.MacroExecutionException;
 import org.apache.maven.doxia.macro.MacroRequest;
+import org.apache.maven.doxia.macro.PrefetchableMacro;
+import org.apache.maven.doxia.macro.SourceIndependentMacro;
+import org.apache.maven.doxia.metrics.DoxiaMetrics;
+import org.apache.maven.doxia.metrics.MetricsRegistry;
 import org.apache.maven.doxia.sink.Sink;
 import org.apache.maven.doxia.sink.impl.SinkEventAttributeSet;
+import org.apache.maven.doxia.util.DocumentDependencies;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -42,55 +58,55 @@ import org.slf4j.LoggerFactory;
  */
 @Singleton
 @Named("snippet")
-public class SnippetMacro extends AbstractMacro {
+public class SnippetMacro extends AbstractMacro implements CacheableMacro, PrefetchableMacro, SourceIndependentMacro {
     private static final Logger LOGGER = LoggerFactory.getLogger(SnippetMacro.class);
 
     /**
      * Holds the cache.
      */
-    private static Map<String, String> cache = new HashMap<>();
+    private static Map<String, String> cache = new ConcurrentHashMap<>();
 
     private static final int HOUR = 60;
 
     /**
      * One hour default cache.
      */
-    private long timeout = HOUR * HOUR * 1000;
+    private volatile long timeout = HOUR * HOUR * 1000;
 
     /**
      * Holds the time cache.
      */
-    private static Map<String, Long> timeCached = new HashMap<>();
+    private static Map<String, Long> timeCached = new ConcurrentHashMap<>();
 
     /**
-     * Debug.
+     * Holds the indexed sources, keyed by url and encoding, so that every source is read only once
+     * for all of its snippet ids.
      */
-    private boolean debug = false;
+    private static Map<String, SnippetIndex> indexCache = new ConcurrentHashMap<>();
 
     /**
-     * in case of Exception during snippet download error will ignored and empty content returned.
+     * Holds the sources that are being read in the background, see {@link #prefetch(MacroRequest)}.
+     * Once read, a source moves to the index cache.
      */
-    private boolean ignoreDownloadError = true;
-
-    /** {@inheritDoc} */
-    public void execute(Sink sink, MacroRequest request) throws MacroExecutionException {
-        String id = (String) request.getParameter("id");
+    private static final Map<String, Future<SnippetIndex>> PENDING = new ConcurrentHashMap<>();
 
-        String urlParam = (String) request.getParameter("url");
-
-        String fileParam = (String) request.getParameter("file");
+    /**
+     * The maximum number of sources read in the background at the same time.
+     */
+    private static final int PREFETCH_THREADS = 8;
 
-        String debugParam = (String) request.getParameter("debug");
+    /**
+     * The maximum number of sources being read in the background.
+     */
+    static final int MAX_PENDING = 256;
 
-        if (debugParam != null) {
-            this.debug = Boolean.parseBoolean(debugParam);
-        }
+    private static final ExecutorService PREFETCH_EXECUTOR = createPrefetchExecutor();
 
-        String ignoreDownloadErrorParam = (String) request.getParameter("ignoreDownloadError");
+    /** {@inheritDoc} */
+    public void execute(Sink sink, MacroRequest request) throws MacroExecutionException {
+        String id = (String) request.getParameter("id");
 
-        if (ignoreDownloadErrorParam != null) {
-            this.ignoreDownloadError = Boolean.parseBoolean(ignoreDownloadErrorParam);
-        }
+        SnippetRequest snippetRequest = new SnippetRequest(request);
 
         boolean verbatim = true;
 
@@ -110,6 +126,107 @@ public class SnippetMacro extends AbstractMacro {
 
         String encoding = (String) request.getParameter("encoding");
 
+        URL url = getUrl(request);
+        DocumentDependencies.record(url.toString());
+
+        StringBuffer snippet;
+
+        try {
+            snippet = getSnippet(snippetRequest, url, encoding, id);
+        } catch (IOException e) {
+            throw new MacroExecutionException("Error reading snippet", e);
+        }
+
+        if (verbatim) {
+            sink.verbatim(source ? SinkEventAttributeSet.SOURCE : null);
+
+            sink.text(snippet.toString());
+
+            sink.verbatim_();
+        } else {
+            sink.rawText(snippet.toString());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Starts reading the source of the snippet on a background thread, the result is picked up
+     * by the next execution for the same source.
+     */
+    public void prefetch(MacroRequest request) {
+        URL url;
+        try {
+            url = getUrl(request);
+        } catch (IllegalArgumentException e) {
+            // reported by execute()
+            return;
+        }
+        String encoding = (String) request.getParameter("encoding");
+        String indexId = globalIndexId(url, encoding);
+
+        if (PENDING.containsKey(indexId) || PENDING.size() >= MAX_PENDING) {
+            return;
+        }
+        if (indexCache.containsKey(indexId) && !isCacheTimedout(indexId)) {
+            return;
+        }
+
+        FutureTask<SnippetIndex> task = new FutureTask<SnippetIndex>(() -> SnippetIndex.read(url, encoding)) {
+            @Override
+            protected void done() {
+                // whether the source is used or not, e.g. when the macro is replayed from the cache
+                try {
+                    cacheIndex(indexId, get());
+                } catch (InterruptedException | ExecutionException | CancellationException e) {
+                    // read again, and reported, by execute()
+                } finally {
+                    PENDING.remove(indexId, this);
+                }
+            }
+        };
+        if (PENDING.putIfAbsent(indexId, task) == null) {
+            PREFETCH_EXECUTOR.execute(task);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Only snippets of local files can be cached, the key changes whenever the file is modified.
+     * Remote snippets are governed by the snippet cache timeout instead.
+     */
+    public String getCacheKey(MacroRequest request) {
+        if (new SnippetRequest(request).debug) {
+            return null;
+        }
+
+        URL url;
+        try {
+            url = getUrl(request);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        File file = FileUtils.toFile(url);
+        if (file == null || !file.isFile()) {
+            return null;
+        }
+
+        return file.getAbsolutePath() + ' ' + file.lastModified() + ' ' + file.length();
+    }
+
+    /**
+     * Return the URL of the snippet source of the given request.
+     *
+     * @param request The corresponding MacroRequest.
+     * @return The URL.
+     * @throws IllegalArgumentException if neither url nor file are given or they are malformed.
+     */
+    private URL getUrl(MacroRequest request) {
+        String urlParam = (String) request.getParameter("url");
+
+        String fileParam = (String) request.getParameter("file");
+
         URL url;
 
         if (!StringUtils.isEmpty(urlParam)) {
@@ -134,56 +251,47 @@ public class SnippetMacro extends AbstractMacro {
             throw new IllegalArgumentException("Either the 'url' or the 'file' param has to be given.");
         }
 
-        StringBuffer snippet;
-
-        try {
-            snippet = getSnippet(url, encoding, id);
-        } catch (IOException e) {
-            throw new MacroExecutionException("Error reading snippet", e);
-        }
-
-        if (verbatim) {
-            sink.verbatim(source ? SinkEventAttributeSet.SOURCE : null);
-
-            sink.text(snippet.toString());
-
-            sink.verbatim_();
-        } else {
-            sink.rawText(snippet.toString());
-        }
+        return url;
     }
 
     /**
      * Return a snippet of the given url.
      *
+     * @param snippetRequest The configuration of the current request.
      * @param url The URL to parse.
      * @param encoding The encoding of the URL to parse.
      * @param id  The id of the snippet.
      * @return The snippet.
      * @throws IOException if something goes wrong.
      */
-    private StringBuffer getSnippet(URL url, String encoding, String id) throws IOException {
+    private StringBuffer getSnippet(SnippetRequest snippetRequest, URL url, String encoding, String id)
+            throws IOException {
         StringBuffer result;
 
         String cachedSnippet = getCachedSnippet(url, id);
 
+        DoxiaMetrics metrics = MetricsRegistry.getMetrics();
+        if (metrics.isEnabled()) {
+            metrics.cacheLookup(DoxiaMetrics.SNIPPET_CACHE, cachedSnippet != null);
+        }
+
         if (cachedSnippet != null) {
             result = new StringBuffer(cachedSnippet);
 
-            if (debug) {
+            if (snippetRequest.debug) {
                 result.append("(Served from cache)");
             }
         } else {
             try {
-                result = new SnippetReader(url, encoding).readSnippet(id);
+                result = new SnippetReader(getSnippetIndex(url, encoding)).readSnippet(id);
                 cacheSnippet(url, id, result.toString());
-                if (debug) {
+                if (snippetRequest.debug) {
                     result.append("(Fetched from url, cache content ")
                             .append(cache)
                             .append(")");
                 }
             } catch (IOException e) {
-                if (ignoreDownloadError) {
+                if (snippetRequest.ignoreDownloadError) {
                     LOGGER.debug("Exception while reading '{}'", url, e);
                     result = new StringBuffer("Error during retrieving content skip as ignoreDownloadError activated.");
                 } else {
@@ -194,6 +302,80 @@ public class SnippetMacro extends AbstractMacro {
         return result;
     }
 
+    /**
+     * Return the index of the given url, reading it if it is not cached yet or has timed out.
+     *
+     * @param url The URL to parse.
+     * @param encoding The encoding of the URL to parse.
+     * @return The index.
+     * @throws IOException if something goes wrong.
+     */
+    private SnippetIndex getSnippetIndex(URL url, String encoding) throws IOException {
+        String indexId = globalIndexId(url, encoding);
+        if (isCacheTimedout(indexId)) {
+            timeCached.remove(indexId);
+            indexCache.remove(indexId);
+        }
+
+        SnippetIndex index = indexCache.get(indexId);
+        if (index == null) {
+            index = awaitPrefetched(indexId);
+            if (index == null) {
+                index = SnippetIndex.read(url, encoding);
+            }
+            cacheIndex(indexId, index);
+        }
+        return index;
+    }
+
+    /**
+     * Cache the index of a source.
+     *
+     * @param indexId The global identifier of the index.
+     * @param index The index.
+     */
+    private static void cacheIndex(String indexId, SnippetIndex index) {
+        indexCache.put(indexId, index);
+        timeCached.put(indexId, System.currentTimeMillis());
+    }
+
+    /**
+     * Return the index of a source that has been prefetched, waiting for it if it is still in flight.
+     *
+     * @param indexId The global identifier of the index.
+     * @return The index, or null if the source has not been prefetched.
+     * @throws IOException if the prefetch failed.
+     */
+    private SnippetIndex awaitPrefetched(String indexId) throws IOException {
+        Future<SnippetIndex> pending = PENDING.get(indexId);
+        if (pending == null) {
+            return null;
+        }
+
+        try {
+            return pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for snippet source", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Error prefetching snippet source", e.getCause());
+        }
+    }
+
+    /**
+     * Return a global identifier for the index of a source.
+     *
+     * @param url The URL to parse.
+     * @param encoding The encoding of the URL to parse.
+     * @return An identifier, distinct from all snippet identifiers.
+     */
+    private String globalIndexId(URL url, String encoding) {
+        return "index:" + url + " " + StringUtils.defaultString(encoding);
+    }
+
     /**
      * Return a snippet from the cache.
      *
@@ -220,6 +402,11 @@ public class SnippetMacro extends AbstractMacro {
         return timeInCache(url, id) >= timeout;
     }
 
+    private boolean isCacheTimedout(String globalId) {
+        long cached = timeCached.containsKey(globalId) ? timeCached.get(globalId) : 0;
+        return System.currentTimeMillis() - cached >= timeout;
+    }
+
     /**
      * Return the time the snippet has been cached.
      *
@@ -287,6 +474,18 @@ public class SnippetMacro extends AbstractMacro {
         timeCached.put(globalSnippetId(url, id), System.currentTimeMillis());
     }
 
+    private static ExecutorService createPrefetchExecutor() {
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                PREFETCH_THREADS, PREFETCH_THREADS, 1, TimeUnit.MINUTES, new LinkedBlockingQueue<>(), r -> {
+                    Thread thread = new Thread(r, "doxia-snippet-prefetch-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
     /**
      * Set the cache timeout.
      *
@@ -295,4 +494,28 @@ public class SnippetMacro extends AbstractMacro {
     public void setCacheTimeout(int time) {
         this.timeout = time;
     }
+
+    /**
+     * The configuration of a single execution, the macro itself is shared by all documents.
+     */
+    private static final class SnippetRequest {
+        /**
+         * Debug.
+         */
+        private final boolean debug;
+
+        /**
+         * in case of Exception during snippet download error will ignored and empty content returned.
+         */
+        private final boolean ignoreDownloadError;
+
+        SnippetRequest(MacroRequest request) {
+            String debugParam = (String) request.getParameter("debug");
+            String ignoreDownloadErrorParam = (String) request.getParameter("ignoreDownloadError");
+
+            this.debug = Boolean.parseBoolean(debugParam);
+            this.ignoreDownloadError =
+                    ignoreDownloadErrorParam == null || Boolean.parseBoolean(ignoreDownloadErrorParam);
+        }
+    }
 }
@@ -18,16 +18,11 @@
  */
 package org.apache.maven.doxia.macro.snippet;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.net.URL;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.regex.Pattern;
 
-import org.apache.commons.lang3.StringUtils;
-
 /**
  * Utility class for reading snippets.
  */
@@ -41,6 +36,9 @@ public class SnippetReader {
     /** The encoding of the source. */
     private String encoding;
 
+    /** The index of the source, read on first use. */
+    private SnippetIndex index;
+
     /**
      * Constructor.
      *
@@ -61,6 +59,16 @@ public class SnippetReader {
         this(src, null);
     }
 
+    /**
+     * Constructor for a source that has already been read.
+     *
+     * @param index The index of the source
+     * @since 2.0.0-M7
+     */
+    public SnippetReader(SnippetIndex index) {
+        this.index = index;
+    }
+
     /**
      * Reads the snippet with given id.
      *
@@ -118,44 +126,10 @@ public class SnippetReader {
      * @throws IOException if something goes wrong.
      */
     private List<String> readLines(String snippetId) throws IOException {
-        BufferedReader reader;
-        if (encoding == null || "".equals(encoding)) {
-            reader = new BufferedReader(new InputStreamReader(source.openStream()));
-        } else {
-            reader = new BufferedReader(new InputStreamReader(source.openStream(), encoding));
+        if (index == null) {
+            index = SnippetIndex.read(source, encoding);
         }
-
-        List<String> lines = new ArrayList<>();
-        try (BufferedReader withReader = reader) {
-            boolean capture = false;
-            String line;
-            boolean foundStart = false;
-            boolean foundEnd = false;
-            boolean hasSnippetId = StringUtils.isNotEmpty(snippetId);
-            while ((line = withReader.readLine()) != null) {
-                if (!hasSnippetId) {
-                    lines.add(line);
-                } else {
-                    if (isStart(snippetId, line)) {
-                        capture = true;
-                        foundStart = true;
-                    } else if (isEnd(snippetId, line)) {
-                        foundEnd = true;
-                        break;
-                    } else if (capture) {
-                        lines.add(line);
-                    }
-                }
-            }
-
-            if (hasSnippetId && !foundStart) {
-                throw new IOException("Failed to find START of snippet " + snippetId + " in file at URL: " + source);
-            }
-            if (hasSnippetId && !foundEnd) {
-                throw new IOException("Failed to find END of snippet " + snippetId + " in file at URL: " + source);
-            }
-        }
-        return lines;
+        return index.getLines(snippetId);
     }
 
     /**
@@ -180,12 +154,18 @@ public class SnippetReader {
     protected static boolean isDemarcator(String snippetId, String what, String line) {
         // SNIPPET and what are case insensitive
         // SNIPPET and what can switch order
-        String snippetRegExp = "(^|\\W)(?i:SNIPPET)($|\\W)";
+        Pattern whatPattern;
+        if ("START".equals(what)) {
+            whatPattern = SnippetIndex.START_PATTERN;
+        } else if ("END".equals(what)) {
+            whatPattern = SnippetIndex.END_PATTERN;
+        } else {
+            whatPattern = Pattern.compile("(^|\\W)(?i:" + what + ")($|\\W)");
+        }
         String snippetIdRegExp = "(^|\\W)" + snippetId + "($|\\W)";
-        String whatRegExp = "(^|\\W)(?i:" + what + ")($|\\W)";
 
-        return Pattern.compile(snippetRegExp).matcher(line).find()
-                && Pattern.compile(whatRegExp).matcher(line).find()
+        return SnippetIndex.SNIPPET_PATTERN.matcher(line).find()
+                && whatPattern.matcher(line).find()
                 && Pattern.compile(snippetIdRegExp).matcher(line).find();
     }
 
@@ -21,16 +21,16 @@ package org.apache.maven.doxia.macro.toc;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
-import java.io.StringReader;
-
 import org.apache.commons.lang3.StringUtils;
 import org.apache.maven.doxia.index.IndexEntry;
 import org.apache.maven.doxia.index.IndexingSink;
 import org.apache.maven.doxia.macro.AbstractMacro;
+import org.apache.maven.doxia.macro.CacheableMacro;
 import org.apache.maven.doxia.macro.MacroExecutionException;
 import org.apache.maven.doxia.macro.MacroRequest;
 import org.apache.maven.doxia.parser.ParseException;
 import org.apache.maven.doxia.parser.Parser;
+import org.apache.maven.doxia.parser.SourceBuffer;
 import org.apache.maven.doxia.sink.Sink;
 import org.apache.maven.doxia.util.HtmlTools;
 
@@ -77,29 +77,21 @@ import org.apache.maven.doxia.util.HtmlTools;
  */
 @Singleton
 @Named("toc")
-public class TocMacro extends AbstractMacro {
-    /** The section to display. */
-    private int section;
-
-    /** Start depth. */
-    private int fromDepth;
-
-    /** End depth. */
-    private int toDepth;
-
+public class TocMacro extends AbstractMacro implements CacheableMacro {
     /** The default end depth. */
     private static final int DEFAULT_DEPTH = 5;
 
     /** {@inheritDoc} */
     public void execute(Sink sink, MacroRequest request) throws MacroExecutionException {
-        String source = request.getSourceContent();
+        SourceBuffer source = request.getSourceBuffer();
         Parser parser = request.getParser();
 
-        section = getInt(request, "section", 0);
-        fromDepth = getInt(request, "fromDepth", 0);
-        toDepth = getInt(request, "toDepth", DEFAULT_DEPTH);
+        TocRequest tocRequest = new TocRequest(
+                getInt(request, "section", 0),
+                getInt(request, "fromDepth", 0),
+                getInt(request, "toDepth", DEFAULT_DEPTH));
 
-        if (fromDepth > toDepth) {
+        if (tocRequest.fromDepth > tocRequest.toDepth) {
             return;
         }
 
@@ -107,7 +99,7 @@ public class TocMacro extends AbstractMacro {
         IndexingSink tocSink = new IndexingSink(index);
 
         try {
-            parser.parse(new StringReader(source), tocSink);
+            parser.parse(source.newReader(), tocSink);
         } catch (ParseException e) {
             throw new MacroExecutionException(e);
         }
@@ -118,8 +110,8 @@ public class TocMacro extends AbstractMacro {
             int i = 1;
 
             for (IndexEntry sectionIndex : index.getChildEntries()) {
-                if ((i == section) || (section == 0)) {
-                    writeSubSectionN(sink, sectionIndex, 1);
+                if ((i == tocRequest.section) || (tocRequest.section == 0)) {
+                    writeSubSectionN(sink, tocRequest, sectionIndex, 1);
                 }
 
                 i++;
@@ -129,12 +121,25 @@ public class TocMacro extends AbstractMacro {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * The table of contents only depends on the source content and parser, which are part of every key.
+     */
+    public String getCacheKey(MacroRequest request) {
+        return "";
+    }
+
     /**
      * @param sink The sink to write to.
+     * @param tocRequest The configuration of the current request.
      * @param sectionIndex The section index.
      * @param n The toc depth.
      */
-    private void writeSubSectionN(Sink sink, IndexEntry sectionIndex, int n) {
+    private static void writeSubSectionN(Sink sink, TocRequest tocRequest, IndexEntry sectionIndex, int n) {
+        final int fromDepth = tocRequest.fromDepth;
+        final int toDepth = tocRequest.toDepth;
+
         if (fromDepth <= n) {
             sink.listItem();
             sink.link("#" + HtmlTools.encodeId(sectionIndex.getId()));
@@ -156,7 +161,7 @@ public class TocMacro extends AbstractMacro {
                         sink.link_();
                         sink.listItem_();
                     } else {
-                        writeSubSectionN(sink, subsectionIndex, n + 1);
+                        writeSubSectionN(sink, tocRequest, subsectionIndex, n + 1);
                     }
                 }
 
@@ -199,4 +204,24 @@ public class TocMacro extends AbstractMacro {
 
         return i;
     }
+
+    /**
+     * The configuration of a single execution, the macro itself is shared by all documents.
+     */
+    private static final class TocRequest {
+        /** The section to display. */
+        private final int section;
+
+        /** Start depth. */
+        private final int fromDepth;
+
+        /** End depth. */
+        private final int toDepth;
+
+        TocRequest(int section, int fromDepth, int toDepth) {
+            this.section = section;
+            this.fromDepth = fromDepth;
+            this.toDepth = toDepth;
+        }
+    }
 }
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.metrics;
+
+import java.util.Map;
+
+/**
+ * Receives measurements of the parsing and rendering of documents. The listener in use is set with
+ * {@link MetricsRegistry#setMetrics(DoxiaMetrics)}, nothing is measured by default.
+ * <p>
+ * The methods are called by the threads parsing and rendering the documents, possibly concurrently:
+ * implementations must be thread-safe, and fast since they are called for every macro execution.
+ * The reference of a document is the one given to the parser, usually its file name, and may be <code>null</code>.
+ *
+ * @see JmxDoxiaMetrics
+ * @since 2.0.0-M7
+ */
+public interface DoxiaMetrics {
+    /** The name of the cache of macro executions, see {@link #cacheLookup(String, boolean)}. */
+    String MACRO_CACHE = "macro";
+
+    /** The name of the cache of snippets, see {@link #cacheLookup(String, boolean)}. */
+    String SNIPPET_CACHE = "snippet";
+
+    /**
+     * The phases of the processing of a document.
+     */
+    enum Phase {
+        /** Reading and decoding a source file. */
+        READ,
+        /** Validating an XML source, part of the parse phase. */
+        VALIDATE,
+        /** Parsing the source, including its validation and macro executions, into the sink. */
+        PARSE,
+        /** Writing the encoded output of a sink, part of the parse phase when sink events are written directly. */
+        WRITE
+    }
+
+    /**
+     * Tells whether measurements are wanted at all. When false, no other method is called and nothing is measured.
+     *
+     * @return true if the other methods must be called.
+     */
+    boolean isEnabled();
+
+    /**
+     * Called when a phase of the processing of a document is completed.
+     *
+     * @param phase the phase.
+     * @param reference the reference of the document, <code>null</code> for the write phase.
+     * @param nanos the duration of the phase, in nanoseconds.
+     */
+    void phaseCompleted(Phase phase, String reference, long nanos);
+
+    /**
+     * Called when a document has been parsed by a parser extending
+     * {@link org.apache.maven.doxia.parser.AbstractParser}, however it has been called.
+     *
+     * @param parserId the id of the parser.
+     * @param reference the reference of the document.
+     * @param sourceLength the number of characters of the source.
+     * @param nanos the duration of the parse phase, in nanoseconds.
+     */
+    void documentParsed(String parserId, String reference, long sourceLength, long nanos);
+
+    /**
+     * Called when a document has been parsed, with the number of sink events emitted by the parser.
+     *
+     * @param reference the reference of the document.
+     * @param counts the number of calls of every sink method, by method name.
+     */
+    void sinkEventsEmitted(String reference, Map<String, Long> counts);
+
+    /**
+     * Tells whether {@link #sinkEventsEmitted(String, Map)} is wanted. Counting the sink events adds a reflective
+     * call to every event, listeners that ignore the counts should return false.
+     *
+     * @return true by default.
+     */
+    default boolean isSinkEventCountingEnabled() {
+        return true;
+    }
+
+    /**
+     * Called when a sink created by a {@link org.apache.maven.doxia.sink.SinkFactory} is closed.
+     *
+     * @param bytes the number of bytes written by the sink.
+     */
+    void bytesWritten(long bytes);
+
+    /**
+     * Called when a macro has been executed.
+     *
+     * @param macroId the id of the macro.
+     * @param parameters the parameters of the macro request, not to be modified.
+     * @param nanos the duration of the execution, in nanoseconds.
+     */
+    void macroExecuted(String macroId, Map<String, Object> parameters, long nanos);
+
+    /**
+     * Called when something is looked up in a cache.
+     *
+     * @param cache the name of the cache, e.g. {@link #MACRO_CACHE}.
+     * @param hit true if the cache contained what was looked up.
+     */
+    void cacheLookup(String cache, boolean hit);
+}
@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.metrics;
+
+import java.util.Map;
+
+/**
+ * The management interface of {@link JmxDoxiaMetrics}. Durations are in milliseconds.
+ *
+ * @since 2.0.0-M7
+ */
+public interface DoxiaMetricsMXBean {
+    /**
+     * @return the number of documents parsed.
+     */
+    long getDocumentCount();
+
+    /**
+     * @return the number of characters of all parsed sources.
+     */
+    long getSourceLength();
+
+    /**
+     * @return the number of bytes written by all sinks.
+     */
+    long getBytesWritten();
+
+    /**
+     * @return the total duration of every phase, by phase name.
+     */
+    Map<String, Long> getPhaseTimes();
+
+    /**
+     * @return the number of sink events emitted by the parsers, by sink method name.
+     */
+    Map<String, Long> getSinkEventCounts();
+
+    /**
+     * @return the number of executions of every macro, by macro id.
+     */
+    Map<String, Long> getMacroCounts();
+
+    /**
+     * @return the total duration of the executions of every macro, by macro id.
+     */
+    Map<String, Long> getMacroTimes();
+
+    /**
+     * @return the ratio of lookups that were hits, between 0 and 1, by cache name.
+     */
+    Map<String, Double> getCacheHitRates();
+
+    /**
+     * Resets all measurements.
+     */
+    void reset();
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.metrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.maven.doxia.sink.Sink;
+
+/**
+ * Forwards all events to a sink, counting them by method name. Used while a document is measured only,
+ * since it adds a reflective call to every event.
+ *
+ * @since 2.0.0-M7
+ */
+public class EventCountingSink implements InvocationHandler {
+    private final Sink sink;
+
+    private final Map<String, long[]> counts = new HashMap<>();
+
+    /**
+     * @param sink the sink receiving the events.
+     */
+    public EventCountingSink(Sink sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * Returns the sink counting the events.
+     *
+     * @return a sink forwarding to the wrapped sink.
+     */
+    public Sink getSink() {
+        return (Sink)
+                Proxy.newProxyInstance(EventCountingSink.class.getClassLoader(), new Class<?>[] {Sink.class}, this);
+    }
+
+    /**
+     * Returns the number of calls of every sink method so far.
+     *
+     * @return the counts by method name.
+     */
+    public Map<String, Long> getCounts() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        for (Map.Entry<String, long[]> count : counts.entrySet()) {
+            snapshot.put(count.getKey(), count.getValue()[0]);
+        }
+        return snapshot;
+    }
+
+    /** {@inheritDoc} */
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return "EventCountingSink[" + sink + "]";
+            }
+        }
+
+        counts.computeIfAbsent(method.getName(), name -> new long[1])[0]++;
+        try {
+            return method.invoke(sink, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.metrics;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import org.apache.maven.doxia.macro.MacroRequest;
+
+/**
+ * Emits Java Flight Recorder events for the measurements of Doxia. It is only enabled while a recording
+ * is running, so that Doxia measures nothing otherwise.
+ * <p>
+ * The measurements are reported when they are complete: the events are committed at the end of what they
+ * measure, and carry its duration in a field instead of the built-in duration of the event.
+ * <p>
+ * This class is only loaded by {@link MetricsRegistry} if the JVM has a flight recorder.
+ */
+final class JfrDoxiaMetrics implements DoxiaMetrics, FlightRecorderListener {
+    private static final String CATEGORY = "Doxia";
+
+    /** The ids of the running recordings. */
+    private final Set<Long> recordings = new HashSet<>();
+
+    private volatile boolean enabled;
+
+    /** The bytes reported by the sink being closed, until its write phase is reported right after. */
+    private final ThreadLocal<long[]> bytesWritten = ThreadLocal.withInitial(() -> new long[1]);
+
+    JfrDoxiaMetrics() {
+        if (!FlightRecorder.isAvailable()) {
+            throw new IllegalStateException("The flight recorder is not available");
+        }
+        FlightRecorder.addListener(this);
+    }
+
+    // ----------------------------------------------------------------------
+    // FlightRecorderListener
+    // ----------------------------------------------------------------------
+
+    @Override
+    public void recorderInitialized(FlightRecorder recorder) {
+        // recordings started with the JVM run before this listener is registered
+        for (Recording recording : recorder.getRecordings()) {
+            recordingStateChanged(recording);
+        }
+    }
+
+    @Override
+    public synchronized void recordingStateChanged(Recording recording) {
+        if (recording.getState() == RecordingState.RUNNING) {
+            recordings.add(recording.getId());
+        } else {
+            recordings.remove(recording.getId());
+        }
+        enabled = !recordings.isEmpty();
+    }
+
+    // ----------------------------------------------------------------------
+    // DoxiaMetrics
+    // ----------------------------------------------------------------------
+
+    /** {@inheritDoc} */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** {@inheritDoc} */
+    public void phaseCompleted(Phase phase, String reference, long nanos) {
+        if (phase == Phase.WRITE) {
+            long[] bytes = bytesWritten.get();
+            SinkCloseEvent event = new SinkCloseEvent();
+            if (event.shouldCommit()) {
+                event.bytesWritten = bytes[0];
+                event.writeTime = nanos;
+                event.commit();
+            }
+            bytes[0] = 0;
+        } else if (phase == Phase.VALIDATE) {
+            XmlValidationEvent event = new XmlValidationEvent();
+            if (event.shouldCommit()) {
+                event.reference = reference;
+                event.validationTime = nanos;
+                event.commit();
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void documentParsed(String parserId, String reference, long sourceLength, long nanos) {
+        DocumentParseEvent event = new DocumentParseEvent();
+        if (event.shouldCommit()) {
+            event.parserId = parserId;
+            event.reference = reference;
+            event.sourceLength = sourceLength;
+            event.parseTime = nanos;
+            event.commit();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void sinkEventsEmitted(String reference, Map<String, Long> counts) {
+        // too fine-grained for events
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isSinkEventCountingEnabled() {
+        return false;
+    }
+
+    /** {@inheritDoc} */
+    public void bytesWritten(long bytes) {
+        bytesWritten.get()[0] += bytes;
+    }
+
+    /** {@inheritDoc} */
+    public void macroExecuted(String macroId, Map<String, Object> parameters, long nanos) {
+        MacroExecutionEvent event = new MacroExecutionEvent();
+        if (event.shouldCommit()) {
+            Map<String, String> publicParameters = new TreeMap<>();
+            for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+                if (!MacroRequest.isInternalParameter(parameter.getKey())) {
+                    publicParameters.put(parameter.getKey(), String.valueOf(parameter.getValue()));
+                }
+            }
+            event.macroId = macroId;
+            event.parametersHash = publicParameters.hashCode();
+            event.executionTime = nanos;
+            event.commit();
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void cacheLookup(String cache, boolean hit) {
+        // counted by JmxDoxiaMetrics
+    }
+
+    // ----------------------------------------------------------------------
+    // Events
+    // ----------------------------------------------------------------------
+
+    @Name("org.apache.maven.doxia.DocumentParse")
+    @Label("Document Parse")
+    @Description("A document parsed by a Doxia parser")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class DocumentParseEvent extends Event {
+        @Label("Parser Id")
+        String parserId;
+
+        @Label("Reference")
+        String reference;
+
+        @Label("Source Length")
+        @Description("The number of characters of the source")
+        long sourceLength;
+
+        @Label("Parse Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long parseTime;
+    }
+
+    @Name("org.apache.maven.doxia.MacroExecution")
+    @Label("Macro Execution")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class MacroExecutionEvent extends Event {
+        @Label("Macro Id")
+        String macroId;
+
+        @Label("Parameters Hash")
+        @Description("The hash of the parameters of the request, to tell identical executions apart")
+        int parametersHash;
+
+        @Label("Execution Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long executionTime;
+    }
+
+    @Name("org.apache.maven.doxia.XmlValidation")
+    @Label("XML Validation")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class XmlValidationEvent extends Event {
+        @Label("Reference")
+        String reference;
+
+        @Label("Validation Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long validationTime;
+    }
+
+    @Name("org.apache.maven.doxia.SinkClose")
+    @Label("Sink Close")
+    @Description("A sink created by a sink factory has been closed")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class SinkCloseEvent extends Event {
+        @Label("Bytes Written")
+        @DataAmount(DataAmount.BYTES)
+        long bytesWritten;
+
+        @Label("Write Time")
+        @Description("The time from the creation of the sink to its close")
+        @Timespan(Timespan.NANOSECONDS)
+        long writeTime;
+    }
+}
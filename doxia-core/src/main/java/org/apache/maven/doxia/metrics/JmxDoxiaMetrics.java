@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.metrics;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sums up the measurements of all documents and exposes them as an MXBean, named
+ * <code>org.apache.maven.doxia:type=DoxiaMetrics</code> once {@link #register() registered}.
+ *
+ * @since 2.0.0-M7
+ */
+public class JmxDoxiaMetrics implements DoxiaMetrics, DoxiaMetricsMXBean {
+    /** The name this MXBean is registered with. */
+    public static final String OBJECT_NAME = "org.apache.maven.doxia:type=DoxiaMetrics";
+
+    private final LongAdder documentCount = new LongAdder();
+
+    private final LongAdder sourceLength = new LongAdder();
+
+    private final LongAdder bytesWritten = new LongAdder();
+
+    private final ConcurrentMap<String, LongAdder> phaseNanos = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, LongAdder> sinkEvents = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, LongAdder> macroCounts = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, LongAdder> macroNanos = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, LongAdder> cacheHits = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, LongAdder> cacheLookups = new ConcurrentHashMap<>();
+
+    /**
+     * Registers this MXBean with the platform MBean server, replacing a previously registered one.
+     *
+     * @throws JMException if it cannot be registered.
+     */
+    public void register() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(OBJECT_NAME);
+        try {
+            server.registerMBean(this, name);
+        } catch (InstanceAlreadyExistsException e) {
+            server.unregisterMBean(name);
+            server.registerMBean(this, name);
+        }
+    }
+
+    /**
+     * Unregisters this MXBean from the platform MBean server.
+     *
+     * @throws JMException if it cannot be unregistered.
+     */
+    public void unregister() throws JMException {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(OBJECT_NAME));
+        } catch (InstanceNotFoundException e) {
+            // not registered
+        }
+    }
+
+    // ----------------------------------------------------------------------
+    // DoxiaMetrics
+    // ----------------------------------------------------------------------
+
+    /** {@inheritDoc} */
+    public boolean isEnabled() {
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    public void phaseCompleted(Phase phase, String reference, long nanos) {
+        add(phaseNanos, phase.name(), nanos);
+    }
+
+    /** {@inheritDoc} */
+    public void documentParsed(String parserId, String reference, long sourceLength, long nanos) {
+        documentCount.increment();
+        this.sourceLength.add(sourceLength);
+    }
+
+    /** {@inheritDoc} */
+    public void sinkEventsEmitted(String reference, Map<String, Long> counts) {
+        for (Map.Entry<String, Long> count : counts.entrySet()) {
+            add(sinkEvents, count.getKey(), count.getValue());
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void bytesWritten(long bytes) {
+        bytesWritten.add(bytes);
+    }
+
+    /** {@inheritDoc} */
+    public void macroExecuted(String macroId, Map<String, Object> parameters, long nanos) {
+        add(macroCounts, macroId, 1);
+        add(macroNanos, macroId, nanos);
+    }
+
+    /** {@inheritDoc} */
+    public void cacheLookup(String cache, boolean hit) {
+        add(cacheLookups, cache, 1);
+        if (hit) {
+            add(cacheHits, cache, 1);
+        }
+    }
+
+    // ----------------------------------------------------------------------
+    // DoxiaMetricsMXBean
+    // ----------------------------------------------------------------------
+
+    /** {@inheritDoc} */
+    public long getDocumentCount() {
+        return documentCount.sum();
+    }
+
+    /** {@inheritDoc} */
+    public long getSourceLength() {
+        return sourceLength.sum();
+    }
+
+    /** {@inheritDoc} */
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    /** {@inheritDoc} */
+    public Map<String, Long> getPhaseTimes() {
+        return toMillis(phaseNanos);
+    }
+
+    /** {@inheritDoc} */
+    public Map<String, Long> getSinkEventCounts() {
+        return snapshot(sinkEvents);
+    }
+
+    /** {@inheritDoc} */
+    public Map<String, Long> getMacroCounts() {
+        return snapshot(macroCounts);
+    }
+
+    /** {@inheritDoc} */
+    public Map<String, Long> getMacroTimes() {
+        return toMillis(macroNanos);
+    }
+
+    /** {@inheritDoc} */
+    public Map<String, Double> getCacheHitRates() {
+        Map<String, Double> rates = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> lookups : cacheLookups.entrySet()) {
+            LongAdder hits = cacheHits.get(lookups.getKey());
+            long total = lookups.getValue().sum();
+            rates.put(lookups.getKey(), total == 0 || hits == null ? 0d : (double) hits.sum() / total);
+        }
+        return rates;
+    }
+
+    /** {@inheritDoc} */
+    public void reset() {
+        documentCount.reset();
+        sourceLength.reset();
+        bytesWritten.reset();
+        phaseNanos.clear();
+        sinkEvents.clear();
+        macroCounts.clear();
+        macroNanos.clear();
+        cacheHits.clear();
+        cacheLookups.clear();
+    }
+
+    private static void add(ConcurrentMap<String, LongAdder> adders, String key, long value) {
+        LongAdder adder = adders.get(key);
+        if (adder == null) {
+            adder = adders.computeIfAbsent(key, k -> new LongAdder());
+        }
+        adder.add(value);
+    }
+
+    private static Map<String, Long> snapshot(Map<String, LongAdder> adders) {
+        Map<String, Long> values = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> adder : adders.entrySet()) {
+            values.put(adder.getKey(), adder.getValue().sum());
+        }
+        return values;
+    }
+
+    private static Map<String, Long> toMillis(Map<String, LongAdder> nanos) {
+        Map<String, Long> millis = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> adder : nanos.entrySet()) {
+            millis.put(
+                    adder.getKey(),
+                    TimeUnit.NANOSECONDS.toMillis(adder.getValue().sum()));
+        }
+        return millis;
+    }
+}
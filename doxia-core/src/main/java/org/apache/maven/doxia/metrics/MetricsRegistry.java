@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.metrics;
+
+import java.util.Map;
+
+/**
+ * Holds the {@link DoxiaMetrics} listener that Doxia reports its measurements to. There is one listener per
+ * class loader, so that the parsers, macros and sinks report to it without being configured one by one.
+ * By default, there is no listener: Doxia then only checks {@link DoxiaMetrics#isEnabled()} and measures nothing.
+ * <p>
+ * If the JVM has a flight recorder, Doxia also emits Java Flight Recorder events while a recording is running,
+ * whether a listener is set or not: see the <code>Doxia</code> category of the recording.
+ *
+ * <pre>
+ * JmxDoxiaMetrics metrics = new JmxDoxiaMetrics();
+ * metrics.register();
+ * MetricsRegistry.setMetrics(metrics);
+ * </pre>
+ *
+ * @since 2.0.0-M7
+ */
+public final class MetricsRegistry {
+    private static final DoxiaMetrics NONE = new NoMetrics();
+
+    /** The flight recorder events, or null if the JVM has no flight recorder. */
+    private static final DoxiaMetrics FLIGHT_RECORDER = newFlightRecorderMetrics();
+
+    private static volatile DoxiaMetrics metrics = FLIGHT_RECORDER == null ? NONE : FLIGHT_RECORDER;
+
+    private MetricsRegistry() {
+        // utility class
+    }
+
+    /**
+     * Returns the current listener.
+     *
+     * @return the listener, never <code>null</code>.
+     */
+    public static DoxiaMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Sets the listener.
+     *
+     * @param metrics the listener, or <code>null</code> to stop measuring.
+     */
+    public static void setMetrics(DoxiaMetrics metrics) {
+        if (FLIGHT_RECORDER == null) {
+            MetricsRegistry.metrics = metrics == null ? NONE : metrics;
+        } else {
+            MetricsRegistry.metrics = metrics == null ? FLIGHT_RECORDER : new BothMetrics(metrics, FLIGHT_RECORDER);
+        }
+    }
+
+    /**
+     * Loads the flight recorder events without linking this class to <code>jdk.jfr</code>, which Java 8 may lack.
+     */
+    private static DoxiaMetrics newFlightRecorderMetrics() {
+        try {
+            Class.forName("jdk.jfr.FlightRecorder", false, MetricsRegistry.class.getClassLoader());
+            return (DoxiaMetrics)
+                    Class.forName(MetricsRegistry.class.getPackage().getName() + ".JfrDoxiaMetrics")
+                            .getDeclaredConstructor()
+                            .newInstance();
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The default listener, which disables all measurements.
+     */
+    private static final class NoMetrics implements DoxiaMetrics {
+        public boolean isEnabled() {
+            return false;
+        }
+
+        public void phaseCompleted(Phase phase, String reference, long nanos) {
+            // nop
+        }
+
+        public void documentParsed(String parserId, String reference, long sourceLength, long nanos) {
+            // nop
+        }
+
+        public void sinkEventsEmitted(String reference, Map<String, Long> counts) {
+            // nop
+        }
+
+        @Override
+        public boolean isSinkEventCountingEnabled() {
+            return false;
+        }
+
+        public void bytesWritten(long bytes) {
+            // nop
+        }
+
+        public void macroExecuted(String macroId, Map<String, Object> parameters, long nanos) {
+            // nop
+        }
+
+        public void cacheLookup(String cache, boolean hit) {
+            // nop
+        }
+    }
+
+    /**
+     * Reports to a listener and to the flight recorder events, to those that are enabled.
+     */
+    private static final class BothMetrics implements DoxiaMetrics {
+        private final DoxiaMetrics first;
+
+        private final DoxiaMetrics second;
+
+        BothMetrics(DoxiaMetrics first, DoxiaMetrics second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        public boolean isEnabled() {
+            return first.isEnabled() || second.isEnabled();
+        }
+
+        public void phaseCompleted(Phase phase, String reference, long nanos) {
+            if (first.isEnabled()) {
+                first.phaseCompleted(phase, reference, nanos);
+            }
+            if (second.isEnabled()) {
+                second.phaseCompleted(phase, reference, nanos);
+            }
+        }
+
+        public void documentParsed(String parserId, String reference, long sourceLength, long nanos) {
+            if (first.isEnabled()) {
+                first.documentParsed(parserId, reference, sourceLength, nanos);
+            }
+            if (second.isEnabled()) {
+                second.documentParsed(parserId, reference, sourceLength, nanos);
+            }
+        }
+
+        public void sinkEventsEmitted(String reference, Map<String, Long> counts) {
+            if (first.isEnabled() && first.isSinkEventCountingEnabled()) {
+                first.sinkEventsEmitted(reference, counts);
+            }
+            if (second.isEnabled() && second.isSinkEventCountingEnabled()) {
+                second.sinkEventsEmitted(reference, counts);
+            }
+        }
+
+        @Override
+        public boolean isSinkEventCountingEnabled() {
+            return first.isEnabled() && first.isSinkEventCountingEnabled()
+                    || second.isEnabled() && second.isSinkEventCountingEnabled();
+        }
+
+        public void bytesWritten(long bytes) {
+            if (first.isEnabled()) {
+                first.bytesWritten(bytes);
+            }
+            if (second.isEnabled()) {
+                second.bytesWritten(bytes);
+            }
+        }
+
+        public void macroExecuted(String macroId, Map<String, Object> parameters, long nanos) {
+            if (first.isEnabled()) {
+                first.macroExecuted(macroId, parameters, nanos);
+            }
+            if (second.isEnabled()) {
+                second.macroExecuted(macroId, parameters, nanos);
+            }
+        }
+
+        public void cacheLookup(String cache, boolean hit) {
+            if (first.isEnabled()) {
+                first.cacheLookup(cache, hit);
+            }
+            if (second.isEnabled()) {
+                second.cacheLookup(cache, hit);
+            }
+        }
+    }
+}
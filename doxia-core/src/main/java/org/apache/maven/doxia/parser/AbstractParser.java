@@ -19,19 +19,25 @@
 package org.apache.maven.doxia.parser;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 
 import java.io.File;
+import java.io.FilterReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
-import java.io.StringReader;
 import java.util.Properties;
 
 import org.apache.maven.doxia.macro.Macro;
 import org.apache.maven.doxia.macro.MacroExecutionException;
 import org.apache.maven.doxia.macro.MacroRequest;
+import org.apache.maven.doxia.macro.PrefetchableMacro;
+import org.apache.maven.doxia.macro.manager.DefaultMacroManager;
 import org.apache.maven.doxia.macro.manager.MacroManager;
 import org.apache.maven.doxia.macro.manager.MacroNotFoundException;
+import org.apache.maven.doxia.metrics.DoxiaMetrics;
+import org.apache.maven.doxia.metrics.EventCountingSink;
+import org.apache.maven.doxia.metrics.MetricsRegistry;
 import org.apache.maven.doxia.sink.Sink;
 
 /**
@@ -55,6 +61,9 @@ public abstract class AbstractParser implements Parser {
 
     private static final String DOXIA_VERSION;
 
+    /** Set while the current thread parses a measured document, so that nested parsings are not reported. */
+    private static final ThreadLocal<Boolean> MEASURING = new ThreadLocal<>();
+
     static {
         final Properties props = new Properties();
         final InputStream is = AbstractParser.class.getResourceAsStream(
@@ -117,7 +126,40 @@ public abstract class AbstractParser implements Parser {
             throws MacroExecutionException, MacroNotFoundException {
         Macro macro = getMacroManager().getMacro(macroId);
 
+        DoxiaMetrics metrics = MetricsRegistry.getMetrics();
+        if (!metrics.isEnabled()) {
+            macro.execute(sink, request);
+            return;
+        }
+
+        long start = System.nanoTime();
         macro.execute(sink, request);
+        metrics.macroExecuted(macroId, request.getParameters(), System.nanoTime() - start);
+    }
+
+    /**
+     * Let a macro start loading its resources in the background, if it supports it.
+     * Unknown macros are ignored here, they are reported when they are executed.
+     *
+     * @param macroId an id to lookup the macro
+     * @param request the corresponding MacroRequest
+     * @see PrefetchableMacro
+     * @since 2.0.0-M7
+     */
+    protected void prefetchMacro(String macroId, MacroRequest request) {
+        if (getMacroManager() == null) {
+            return;
+        }
+
+        try {
+            Macro macro = getMacroManager().getMacro(macroId);
+
+            if (macro instanceof PrefetchableMacro) {
+                ((PrefetchableMacro) macro).prefetch(request);
+            }
+        } catch (MacroNotFoundException e) {
+            // reported by executeMacro()
+        }
     }
 
     /**
@@ -161,7 +203,7 @@ public abstract class AbstractParser implements Parser {
      * @since 1.10
      */
     public void parse(String string, Sink sink, String reference) throws ParseException {
-        parse(new StringReader(string), sink, reference);
+        parse(SourceBuffer.of(string).newReader(), sink, reference);
     }
 
     /** {@inheritDoc} */
@@ -170,6 +212,55 @@ public abstract class AbstractParser implements Parser {
         parse(source, sink, null);
     }
 
+    /**
+     * Parses a document while measuring it, if a {@link MetricsRegistry metrics listener} is enabled: reports the
+     * parse phase, the sink events and the document itself. Parsers call it first in
+     * {@link #parse(Reader, Sink, String)}, which it calls back, so that every document is measured however it is
+     * parsed. Documents parsed while another one is measured, e.g. by a macro or by a parser delegating to
+     * another one, are part of that document and are not reported.
+     *
+     * @param source the source of the document.
+     * @param sink the sink receiving the events.
+     * @param reference the reference of the document.
+     * @return true if the document has been parsed, false if it is not measured and the caller has to parse it.
+     * @throws ParseException if the document could not be parsed.
+     * @since 2.0.0-M7
+     */
+    protected boolean parseMeasured(Reader source, Sink sink, String reference) throws ParseException {
+        DoxiaMetrics metrics = MetricsRegistry.getMetrics();
+        if (!metrics.isEnabled() || MEASURING.get() != null) {
+            return false;
+        }
+
+        // a reader of a buffer is not wrapped, so that the parser can still take the buffer back from it
+        int length = SourceBuffer.remaining(source);
+        CountingReader counter = length < 0 ? new CountingReader(source) : null;
+        EventCountingSink events = metrics.isSinkEventCountingEnabled() ? new EventCountingSink(sink) : null;
+        long start = System.nanoTime();
+        MEASURING.set(Boolean.TRUE);
+        try {
+            parse(counter == null ? source : counter, events == null ? sink : events.getSink(), reference);
+        } finally {
+            MEASURING.remove();
+        }
+        long nanos = System.nanoTime() - start;
+
+        metrics.phaseCompleted(DoxiaMetrics.Phase.PARSE, reference, nanos);
+        if (events != null) {
+            metrics.sinkEventsEmitted(reference, events.getCounts());
+        }
+        metrics.documentParsed(getParserId(), reference, counter == null ? length : counter.count, nanos);
+        return true;
+    }
+
+    /**
+     * Returns the id this parser is registered with, or its class name if it is not a named component.
+     */
+    private String getParserId() {
+        Named named = getClass().getAnnotation(Named.class);
+        return named == null || named.value().isEmpty() ? getClass().getName() : named.value();
+    }
+
     /**
      * Set <code>secondParsing</code> to true, if we need a second parsing.
      *
@@ -189,6 +280,24 @@ public abstract class AbstractParser implements Parser {
         return secondParsing;
     }
 
+    /**
+     * Tells whether the macros of the document may need its source content, i.e. whether the parser has to
+     * buffer the whole source before parsing it. This is not the case during a second parsing, where macros
+     * are not executed, without a macro manager, or if all registered macros are
+     * {@link org.apache.maven.doxia.macro.SourceIndependentMacro source independent}.
+     *
+     * @return true if the source content has to be passed to the macros.
+     * @since 2.0.0-M7
+     */
+    protected boolean isSourceContentRequired() {
+        MacroManager manager = getMacroManager();
+        if (isSecondParsing() || manager == null) {
+            return false;
+        }
+
+        return !(manager instanceof DefaultMacroManager) || ((DefaultMacroManager) manager).isSourceContentRequired();
+    }
+
     /**
      * Gets the current {@link MacroManager}.
      *
@@ -199,6 +308,16 @@ public abstract class AbstractParser implements Parser {
         return macroManager;
     }
 
+    /**
+     * Sets the {@link MacroManager}, for parsers that are not created by the container.
+     *
+     * @param macroManager the macro manager, may be shared by parsers used by different threads.
+     * @since 2.0.0-M7
+     */
+    public void setMacroManager(MacroManager macroManager) {
+        this.macroManager = macroManager;
+    }
+
     /**
      * Initialize the parser. This is called first by
      * {@link #parse(java.io.Reader, org.apache.maven.doxia.sink.Sink)} and can be used
@@ -216,7 +335,43 @@ public abstract class AbstractParser implements Parser {
      * @return the current Doxia version as a String
      * @since 1.2
      */
-    protected static String doxiaVersion() {
+    public static String doxiaVersion() {
         return DOXIA_VERSION;
     }
+
+    /**
+     * Counts the characters read from a source.
+     */
+    private static class CountingReader extends FilterReader {
+        private long count;
+
+        CountingReader(Reader in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int c = super.read();
+            if (c != -1) {
+                count++;
+            }
+            return c;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            int n = super.read(cbuf, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
 }
@@ -18,6 +18,18 @@
  */
 package org.apache.maven.doxia.parser;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.apache.maven.doxia.markup.TextMarkup;
 
 /**
@@ -27,9 +39,149 @@ import org.apache.maven.doxia.markup.TextMarkup;
  * @since 1.0
  */
 public abstract class AbstractTextParser extends AbstractParser implements TextMarkup {
+    /**
+     * The default minimum length of the documents that are parsed in parallel, in characters.
+     *
+     * @since 2.0.0-M7
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 1024 * 1024;
+
+    /** The number of threads parsing the parts of a large document. */
+    private volatile int parallelism = 1;
+
+    /** The minimum length of the documents that are parsed in parallel. */
+    private volatile int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+
+    /** Parses the parts of the documents of this parser, created on first use. */
+    private ExecutorService executor;
+
     /** {@inheritDoc} */
     @Override
     public final int getType() {
         return TXT_TYPE;
     }
+
+    /**
+     * Sets the number of threads that parse a large document. Parsers that support it split such documents
+     * at their top level sections, parse the parts at the same time and emit their events in document order,
+     * exactly as if the document was parsed sequentially. Documents that cannot be split safely are parsed
+     * sequentially.
+     * The default is 1: documents are always parsed sequentially.
+     *
+     * @param parallelism the number of threads, at least 1.
+     * @see #setParallelThreshold(int)
+     * @since 2.0.0-M7
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1: " + parallelism);
+        }
+        synchronized (this) {
+            if (executor != null && parallelism != this.parallelism) {
+                executor.shutdown();
+                executor = null;
+            }
+            this.parallelism = parallelism;
+        }
+    }
+
+    /**
+     * Returns the number of threads that parse a large document.
+     *
+     * @return the number of threads, 1 if documents are parsed sequentially.
+     * @since 2.0.0-M7
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sets the minimum length of the documents that are parsed in parallel, {@link #DEFAULT_PARALLEL_THRESHOLD}
+     * by default. Smaller documents are parsed sequentially.
+     *
+     * @param parallelThreshold the length in characters.
+     * @since 2.0.0-M7
+     */
+    public void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * Tells whether a document of the given length should be parsed in parallel.
+     *
+     * @param length the length of the document, in characters.
+     * @return true if the document should be split.
+     * @since 2.0.0-M7
+     */
+    protected boolean isParallel(int length) {
+        return parallelism > 1 && length >= parallelThreshold;
+    }
+
+    /**
+     * Returns the minimum length of the parts of a document parsed in parallel, so that there are a few more
+     * parts than threads to balance the work.
+     *
+     * @param length the length of the document, in characters.
+     * @return the minimum length of a part, in characters.
+     * @since 2.0.0-M7
+     */
+    protected int getPartLength(int length) {
+        return Math.max(1, length / (2 * parallelism));
+    }
+
+    /**
+     * Parses the parts of a document in parallel.
+     *
+     * @param parts parse each part of the document, in document order.
+     * @param <T> the result of parsing a part.
+     * @return the results, in the order of the parts, or <code>null</code> if a part failed or the parallelism
+     * changed meanwhile: the document should then be parsed sequentially, to report the error where it occurs.
+     * @throws ParseException if the current thread is interrupted.
+     * @since 2.0.0-M7
+     */
+    protected <T> List<T> parseParts(List<? extends Callable<T>> parts) throws ParseException {
+        ExecutorService executor = getExecutor();
+        List<Future<T>> futures = new ArrayList<>(parts.size());
+        try {
+            for (Callable<T> part : parts) {
+                futures.add(executor.submit(part));
+            }
+
+            List<T> results = new ArrayList<>(parts.size());
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ParseException("Interrupted while parsing", e);
+        } catch (ExecutionException e) {
+            return null;
+        } catch (RejectedExecutionException e) {
+            // the executor has been shut down by setParallelism() while this document was submitted
+            return null;
+        } finally {
+            for (Future<T> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Returns the executor of this parser, whose threads are daemons that stop once idle for a minute.
+     */
+    private synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            AtomicInteger count = new AtomicInteger();
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                    parallelism, parallelism, 1, TimeUnit.MINUTES, new LinkedBlockingQueue<>(), r -> {
+                        Thread thread = new Thread(r, "doxia-parser-" + count.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            pool.allowCoreThreadTimeOut(true);
+            executor = pool;
+        }
+        return executor;
+    }
 }
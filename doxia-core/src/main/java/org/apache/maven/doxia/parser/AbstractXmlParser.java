@@ -31,15 +31,20 @@ import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.maven.doxia.macro.MacroExecutionException;
+import org.apache.maven.doxia.macro.MacroRequest;
 import org.apache.maven.doxia.markup.XmlMarkup;
+import org.apache.maven.doxia.metrics.DoxiaMetrics;
+import org.apache.maven.doxia.metrics.MetricsRegistry;
 import org.apache.maven.doxia.sink.Sink;
 import org.apache.maven.doxia.sink.impl.SinkEventAttributeSet;
+import org.apache.maven.doxia.util.DocumentDependencies;
 import org.apache.maven.doxia.util.HtmlTools;
 import org.apache.maven.doxia.util.XmlValidator;
 import org.codehaus.plexus.util.xml.pull.EntityReplacementMap;
@@ -77,6 +82,16 @@ public abstract class AbstractXmlParser extends AbstractParser implements XmlMar
     private static final Pattern PATTERN_ENTITY_2 =
             Pattern.compile(ENTITY_START + "(\\s)+([^>|^\\s]+)(\\s)+\"(\\s)*(&(#x?[0-9a-fA-F]{1,5};)*)(\\s)*\"(\\s)*>");
 
+    /** A <code>&lt;macro&gt;</code> element with its content. */
+    private static final Pattern PATTERN_MACRO_ELEMENT =
+            Pattern.compile("<macro\\b([^>]*)>(.*?)</macro>", Pattern.DOTALL);
+
+    /** A <code>&lt;param&gt;</code> element. */
+    private static final Pattern PATTERN_PARAM_ELEMENT = Pattern.compile("<param\\b([^>]*)>");
+
+    /** A quoted attribute. */
+    private static final Pattern PATTERN_ATTRIBUTE = Pattern.compile("([\\w:.-]+)\\s*=\\s*(?:\"([^\"]*)\"|'([^']*)')");
+
     private boolean ignorableWhitespace;
 
     private boolean collapsibleWhitespace;
@@ -101,22 +116,33 @@ public abstract class AbstractXmlParser extends AbstractParser implements XmlMar
 
     /** {@inheritDoc} */
     public void parse(Reader source, Sink sink, String reference) throws ParseException {
+        if (parseMeasured(source, sink, reference)) {
+            return;
+        }
+
         init();
 
         Reader src = source;
 
         // 1 first parsing if validation is required
         if (isValidate()) {
-            String content;
+            SourceBuffer content;
             try {
-                content = IOUtils.toString(new BufferedReader(src));
+                content = SourceBuffer.read(src);
             } catch (IOException e) {
                 throw new ParseException("Error reading the model", e);
             }
 
+            DoxiaMetrics metrics = MetricsRegistry.getMetrics();
+            long start = metrics.isEnabled() ? System.nanoTime() : 0;
+
             new XmlValidator().validate(content);
 
-            src = new StringReader(content);
+            if (metrics.isEnabled()) {
+                metrics.phaseCompleted(DoxiaMetrics.Phase.VALIDATE, reference, System.nanoTime() - start);
+            }
+
+            src = content.newReader();
         }
 
         // 2 second parsing to process
@@ -142,6 +168,52 @@ public abstract class AbstractXmlParser extends AbstractParser implements XmlMar
         init();
     }
 
+    /**
+     * Let the macros of the given source, declared as
+     * <code>&lt;macro name="..."&gt;&lt;param name="..." value="..."/&gt;&lt;/macro&gt;</code>,
+     * start loading their resources in the background before the source is parsed.
+     * This is only a lightweight scan of the raw source, all errors are reported by the actual parsing.
+     *
+     * @param sourceContent the source content, not null
+     * @param macroParser creates the parser to pass with each MacroRequest
+     * @see #prefetchMacro(String, MacroRequest)
+     * @since 2.0.0-M7
+     */
+    protected void prefetchMacroElements(SourceBuffer sourceContent, Supplier<AbstractParser> macroParser) {
+        if (isSecondParsing() || !sourceContent.contains("<macro")) {
+            return;
+        }
+
+        Matcher macro = PATTERN_MACRO_ELEMENT.matcher(sourceContent);
+        while (macro.find()) {
+            String macroName = getAttributes(macro.group(1)).get("name");
+            if (StringUtils.isEmpty(macroName)) {
+                continue;
+            }
+
+            Map<String, Object> parameters = new HashMap<>();
+            Matcher param = PATTERN_PARAM_ELEMENT.matcher(macro.group(2));
+            while (param.find()) {
+                Map<String, String> attributes = getAttributes(param.group(1));
+                if (attributes.get("name") != null && attributes.get("value") != null) {
+                    parameters.put(attributes.get("name"), attributes.get("value"));
+                }
+            }
+
+            prefetchMacro(macroName, MacroRequest.of(sourceContent, macroParser.get(), parameters, getBasedir()));
+        }
+    }
+
+    private static Map<String, String> getAttributes(String text) {
+        Map<String, String> attributes = new HashMap<>();
+        Matcher attribute = PATTERN_ATTRIBUTE.matcher(text);
+        while (attribute.find()) {
+            String value = attribute.group(2) != null ? attribute.group(2) : attribute.group(3);
+            attributes.put(attribute.group(1), HtmlTools.unescapeHTML(value, true));
+        }
+        return attributes;
+    }
+
     /**
      * Initializes the parser with custom entities or other options.
      *
@@ -645,6 +717,11 @@ public abstract class AbstractXmlParser extends AbstractParser implements XmlMar
 
         /** {@inheritDoc} */
         public InputSource resolveEntity(String publicId, String systemId) throws SAXException, IOException {
+            // the well-known entities come with Doxia
+            if (!WELL_KNOWN_SYSTEM_IDS.containsKey(systemId)) {
+                DocumentDependencies.record(toUri(systemId).toString());
+            }
+
             byte[] res = ENTITY_CACHE.get(systemId);
             // already cached?
             if (res == null) {
@@ -659,10 +736,7 @@ public abstract class AbstractXmlParser extends AbstractParser implements XmlMar
                 }
 
                 if (res == null) {
-                    URI uri = URI.create(systemId);
-                    if (uri.getScheme() == null) {
-                        uri = Paths.get(systemId).toUri();
-                    }
+                    URI uri = toUri(systemId);
 
                     LOGGER.debug("Resolving SYSTEM '{}' from URI resource '{}'", systemId, uri);
                     res = toByteArray(uri.toURL());
@@ -680,6 +754,15 @@ public abstract class AbstractXmlParser extends AbstractParser implements XmlMar
             return is;
         }
 
+        /**
+         * @param systemId not null
+         * @return the URI of the system id, a file URI if it has no scheme
+         */
+        private static URI toUri(String systemId) {
+            URI uri = URI.create(systemId);
+            return uri.getScheme() == null ? Paths.get(systemId).toUri() : uri;
+        }
+
         /**
          * @param url not null
          * @return return an array of byte
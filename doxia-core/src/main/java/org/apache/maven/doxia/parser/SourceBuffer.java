@@ -0,0 +1,398 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.parser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.apache.maven.doxia.util.Hashes;
+
+/**
+ * The decoded content of a source document, read once and shared read-only by the parser, the validation
+ * and the macros of the document.
+ * <p>
+ * {@link #subSequence(int, int) Sub sequences} are views of the content, and the {@link #newReader() readers}
+ * read the content without copying it. A parser that receives such a reader before anything was read from it
+ * gets the same buffer back from {@link #read(Reader)}, instead of another copy of the source.
+ * The content is only turned into a {@link String} if {@link #toString()} is called, once.
+ *
+ * @since 2.0.0-M7
+ */
+public final class SourceBuffer implements CharSequence {
+    private static final int INITIAL_CAPACITY = 8192;
+
+    /** The content, or null if the buffer is backed by a string. */
+    private final char[] chars;
+
+    private final int length;
+
+    /** The content as a string, created on demand if the buffer is backed by an array. */
+    private String string;
+
+    /** The hash of the content, computed on demand. */
+    private volatile String sha256;
+
+    private SourceBuffer(char[] chars, int length) {
+        this.chars = chars;
+        this.length = length;
+    }
+
+    private SourceBuffer(String string) {
+        this.chars = null;
+        this.length = string.length();
+        this.string = string;
+    }
+
+    /**
+     * Returns a buffer backed by the given string.
+     *
+     * @param content the content, not null.
+     * @return a buffer.
+     */
+    public static SourceBuffer of(String content) {
+        return new SourceBuffer(content);
+    }
+
+    /**
+     * Reads a file without going through a reader. Large files are mapped instead of being read into the heap.
+     * The encoding is detected from a byte order mark or from the encoding declared by the XML prolog.
+     *
+     * @param file the file, not null.
+     * @param defaultEncoding the encoding of files without byte order mark or XML prolog declaring an encoding.
+     * @return a buffer.
+     * @throws IOException if the file cannot be read, or declares an unsupported encoding.
+     */
+    public static SourceBuffer read(Path file, Charset defaultEncoding) throws IOException {
+        return SourceDecoder.decode(file, defaultEncoding);
+    }
+
+    /**
+     * Decodes the content of a file that has already been read, the same way as {@link #read(Path, Charset)}.
+     *
+     * @param content the content of the file, not null.
+     * @param defaultEncoding the encoding of files without byte order mark or XML prolog declaring an encoding.
+     * @return a buffer.
+     * @throws IOException if the content declares an unsupported encoding.
+     */
+    public static SourceBuffer decode(byte[] content, Charset defaultEncoding) throws IOException {
+        return SourceDecoder.decode(ByteBuffer.wrap(content), defaultEncoding);
+    }
+
+    /**
+     * Returns a buffer backed by the given array, which must not be modified afterwards.
+     */
+    static SourceBuffer wrap(char[] chars, int length) {
+        return new SourceBuffer(chars, length);
+    }
+
+    /**
+     * Reads the remaining content of the given reader. If it is an unread {@link #newReader() reader of a buffer},
+     * that buffer is returned without reading it. The reader is not closed.
+     *
+     * @param reader the reader, not null.
+     * @return a buffer.
+     * @throws IOException if the reader fails.
+     */
+    public static SourceBuffer read(Reader reader) throws IOException {
+        if (reader instanceof SourceReader && ((SourceReader) reader).isUnread()) {
+            SourceReader sourceReader = (SourceReader) reader;
+            sourceReader.skip(sourceReader.buffer.length);
+            return sourceReader.buffer;
+        }
+
+        char[] chars = new char[INITIAL_CAPACITY];
+        int length = 0;
+        int n;
+        while ((n = reader.read(chars, length, chars.length - length)) != -1) {
+            length += n;
+            if (length == chars.length) {
+                chars = Arrays.copyOf(chars, chars.length * 2);
+            }
+        }
+
+        // don't retain more than an eighth of unused capacity
+        if (chars.length - length > length / 8) {
+            chars = Arrays.copyOf(chars, length);
+        }
+        return new SourceBuffer(chars, length);
+    }
+
+    /**
+     * Returns the number of characters that a reader of a buffer has not read yet, without reading them.
+     *
+     * @param reader the reader, not null.
+     * @return the number of characters, or -1 if the reader is not a {@link #newReader() reader of a buffer}.
+     */
+    static int remaining(Reader reader) {
+        if (!(reader instanceof SourceReader)) {
+            return -1;
+        }
+
+        SourceReader sourceReader = (SourceReader) reader;
+        return sourceReader.end - sourceReader.position;
+    }
+
+    /**
+     * Returns the lines of the content that a reader of a buffer has not read yet, without copying them.
+     * The reader is at the end of its content afterwards.
+     *
+     * @param reader the reader, not null.
+     * @return the lines, or null if the reader is not a {@link #newReader() reader of a buffer}.
+     */
+    public static SourceLines lines(Reader reader) {
+        if (!(reader instanceof SourceReader)) {
+            return null;
+        }
+
+        SourceReader sourceReader = (SourceReader) reader;
+        SourceLines lines = new SourceLines(sourceReader.buffer, sourceReader.position, sourceReader.end);
+        sourceReader.position = sourceReader.end;
+        return lines;
+    }
+
+    /**
+     * Returns a new reader of the whole content.
+     *
+     * @return a reader, that does not need to be closed.
+     */
+    public Reader newReader() {
+        return new SourceReader(this, 0, length);
+    }
+
+    /**
+     * Returns a new reader of a part of the content.
+     *
+     * @param start the index of the first character to read.
+     * @param end the index after the last character to read.
+     * @return a reader, that does not need to be closed.
+     */
+    public Reader newReader(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+        }
+        return new SourceReader(this, start, end);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int length() {
+        return length;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public char charAt(int index) {
+        if (chars == null) {
+            return string.charAt(index);
+        }
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+        }
+        return chars[index];
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The returned sequence is a view of this buffer.
+     */
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+        }
+        return chars == null ? CharBuffer.wrap(string, start, end) : CharBuffer.wrap(chars, start, end - start);
+    }
+
+    /**
+     * Returns the index of the first occurrence of the given text.
+     *
+     * @param text the text to search, not null.
+     * @return the index, or -1 if the text does not occur.
+     */
+    public int indexOf(CharSequence text) {
+        if (chars == null) {
+            return string.indexOf(text.toString());
+        }
+
+        int n = text.length();
+        if (n == 0) {
+            return 0;
+        }
+        char first = text.charAt(0);
+        for (int i = 0; i <= length - n; i++) {
+            if (chars[i] != first) {
+                continue;
+            }
+            int j = 1;
+            while (j < n && chars[i + j] == text.charAt(j)) {
+                j++;
+            }
+            if (j == n) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns true if the given text occurs in this buffer.
+     *
+     * @param text the text to search, not null.
+     * @return true if the text occurs.
+     */
+    public boolean contains(CharSequence text) {
+        return indexOf(text) >= 0;
+    }
+
+    /**
+     * Returns true if this buffer starts with the given text.
+     *
+     * @param prefix the text, not null.
+     * @return true if the buffer starts with the text.
+     */
+    public boolean startsWith(CharSequence prefix) {
+        if (prefix.length() > length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (charAt(i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the SHA-256 hash of the content encoded in UTF-8. The hash is computed once, then shared by all
+     * callers, e.g. by all the macros of the document.
+     *
+     * @return the hash, as 64 lower case hexadecimal digits.
+     * @see Hashes#sha256(CharSequence)
+     */
+    public String sha256() {
+        String hash = sha256;
+        if (hash == null) {
+            hash = Hashes.sha256(this);
+            sha256 = hash;
+        }
+        return hash;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The string is created once, then shared by all callers.
+     */
+    @Override
+    public String toString() {
+        if (string == null) {
+            string = new String(chars, 0, length);
+        }
+        return string;
+    }
+
+    private void getChars(int srcBegin, int srcEnd, char[] dst, int dstBegin) {
+        if (chars == null) {
+            string.getChars(srcBegin, srcEnd, dst, dstBegin);
+        } else {
+            System.arraycopy(chars, srcBegin, dst, dstBegin, srcEnd - srcBegin);
+        }
+    }
+
+    /**
+     * Reads a buffer without copying it.
+     */
+    private static final class SourceReader extends Reader {
+        private final SourceBuffer buffer;
+
+        private final int end;
+
+        private int position;
+
+        private int mark;
+
+        SourceReader(SourceBuffer buffer, int start, int end) {
+            this.buffer = buffer;
+            this.end = end;
+            this.position = start;
+            this.mark = start;
+        }
+
+        boolean isUnread() {
+            return position == 0 && end == buffer.length;
+        }
+
+        @Override
+        public int read() {
+            return position < end ? buffer.charAt(position++) : -1;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (position >= end) {
+                return -1;
+            }
+            int n = Math.min(len, end - position);
+            buffer.getChars(position, position + n, cbuf, off);
+            position += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            long skipped = Math.max(0, Math.min(n, end - position));
+            position += (int) skipped;
+            return skipped;
+        }
+
+        @Override
+        public boolean ready() {
+            return true;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return true;
+        }
+
+        @Override
+        public void mark(int readAheadLimit) {
+            mark = position;
+        }
+
+        @Override
+        public void reset() {
+            position = mark;
+        }
+
+        @Override
+        public void close() {
+            // nothing to release
+        }
+    }
+}
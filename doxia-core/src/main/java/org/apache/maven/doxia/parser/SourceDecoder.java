@@ -0,0 +1,229 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.parser;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Decodes source files into {@link SourceBuffer}s without going through a {@link java.io.Reader}.
+ * Large files are mapped read-only instead of being read into the heap, the encoding is taken from a
+ * byte order mark or from the XML prolog, and ASCII content is copied byte by byte without a decoder.
+ */
+final class SourceDecoder {
+    /** Files smaller than this are read into the heap, mapping them costs more than it saves. */
+    private static final int MAPPING_THRESHOLD = 64 * 1024;
+
+    /** The number of bytes searched for the end of the XML prolog. */
+    private static final int PROLOG_LIMIT = 256;
+
+    private static final Pattern PROLOG_ENCODING =
+            Pattern.compile("encoding\\s*=\\s*[\"']([A-Za-z][A-Za-z0-9._-]*)[\"']");
+
+    /** The decoders of each thread, created once per charset and reset before each use. */
+    private static final ThreadLocal<Map<Charset, CharsetDecoder>> DECODERS = ThreadLocal.withInitial(HashMap::new);
+
+    private SourceDecoder() {
+        // utility class
+    }
+
+    /**
+     * Reads and decodes a file.
+     *
+     * @param file the file.
+     * @param defaultEncoding the encoding if the file has neither a byte order mark nor an XML prolog declaring it.
+     * @return the decoded content.
+     * @throws IOException if the file cannot be read, or declares an unsupported encoding.
+     */
+    static SourceBuffer decode(Path file, Charset defaultEncoding) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File too large: " + file);
+            }
+
+            ByteBuffer bytes;
+            if (size < MAPPING_THRESHOLD) {
+                bytes = ByteBuffer.allocate((int) size);
+                while (bytes.hasRemaining() && channel.read(bytes) >= 0) {
+                    // read until the buffer is full or the end of the file
+                }
+                bytes.flip();
+            } else {
+                bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+
+            return decode(bytes, defaultEncoding);
+        }
+    }
+
+    /**
+     * Decodes the remaining bytes of the given buffer.
+     *
+     * @param bytes the encoded content.
+     * @param defaultEncoding the encoding if the content has neither a byte order mark nor an XML prolog declaring it.
+     * @return the decoded content.
+     * @throws IOException if the content declares an unsupported encoding.
+     */
+    static SourceBuffer decode(ByteBuffer bytes, Charset defaultEncoding) throws IOException {
+        Charset encoding = detectEncoding(bytes, defaultEncoding);
+
+        char[] chars = null;
+        int length = 0;
+        boolean asciiCompatible = StandardCharsets.UTF_8.equals(encoding)
+                || StandardCharsets.US_ASCII.equals(encoding)
+                || StandardCharsets.ISO_8859_1.equals(encoding);
+        if (asciiCompatible) {
+            // one char per byte at most, and exactly one for ASCII
+            chars = new char[bytes.remaining()];
+            int position = bytes.position();
+            int limit = bytes.limit();
+            while (position < limit) {
+                byte b = bytes.get(position);
+                if (b < 0) {
+                    break;
+                }
+                chars[length++] = (char) b;
+                position++;
+            }
+            bytes.position(position);
+
+            if (!bytes.hasRemaining()) {
+                return SourceBuffer.wrap(chars, length);
+            }
+
+            if (StandardCharsets.ISO_8859_1.equals(encoding)) {
+                while (position < limit) {
+                    chars[length++] = (char) (bytes.get(position++) & 0xFF);
+                }
+                return SourceBuffer.wrap(chars, length);
+            }
+        }
+
+        CharsetDecoder decoder = DECODERS.get().computeIfAbsent(encoding, charset -> charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE));
+        decoder.reset();
+
+        CharBuffer out;
+        if (asciiCompatible) {
+            out = CharBuffer.wrap(chars);
+            out.position(length);
+        } else {
+            out = CharBuffer.allocate((int) Math.min(
+                    Integer.MAX_VALUE - 8, (long) Math.ceil(bytes.remaining() * (double) decoder.maxCharsPerByte())));
+        }
+
+        CoderResult result;
+        while ((result = decoder.decode(bytes, out, true)).isOverflow()) {
+            out = grow(out);
+        }
+        while ((result = decoder.flush(out)).isOverflow()) {
+            out = grow(out);
+        }
+        if (result.isError()) {
+            result.throwException();
+        }
+
+        chars = out.array();
+        length = out.position();
+
+        // don't retain more than an eighth of unused capacity
+        if (chars.length - length > length / 8) {
+            chars = Arrays.copyOf(chars, length);
+        }
+        return SourceBuffer.wrap(chars, length);
+    }
+
+    private static CharBuffer grow(CharBuffer out) {
+        CharBuffer grown = CharBuffer.allocate(out.capacity() * 2 + 16);
+        out.flip();
+        grown.put(out);
+        return grown;
+    }
+
+    /**
+     * Detects the encoding from a byte order mark, which is skipped, or from the XML prolog.
+     */
+    private static Charset detectEncoding(ByteBuffer bytes, Charset defaultEncoding) throws IOException {
+        int position = bytes.position();
+        if (startsWith(bytes, 0xEF, 0xBB, 0xBF)) {
+            bytes.position(position + 3);
+            return StandardCharsets.UTF_8;
+        }
+        if (startsWith(bytes, 0xFE, 0xFF)) {
+            bytes.position(position + 2);
+            return StandardCharsets.UTF_16BE;
+        }
+        if (startsWith(bytes, 0xFF, 0xFE)) {
+            bytes.position(position + 2);
+            return StandardCharsets.UTF_16LE;
+        }
+
+        if (startsWith(bytes, '<', '?', 'x', 'm', 'l')) {
+            int limit = Math.min(bytes.remaining(), PROLOG_LIMIT);
+            StringBuilder prolog = new StringBuilder(limit);
+            for (int i = 0; i < limit; i++) {
+                char c = (char) (bytes.get(position + i) & 0xFF);
+                prolog.append(c);
+                if (c == '>') {
+                    break;
+                }
+            }
+
+            Matcher matcher = PROLOG_ENCODING.matcher(prolog);
+            if (matcher.find()) {
+                try {
+                    return Charset.forName(matcher.group(1));
+                } catch (IllegalArgumentException e) {
+                    throw new UnsupportedEncodingException(matcher.group(1));
+                }
+            }
+        }
+
+        return defaultEncoding;
+    }
+
+    private static boolean startsWith(ByteBuffer bytes, int... prefix) {
+        if (bytes.remaining() < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if ((bytes.get(bytes.position() + i) & 0xFF) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
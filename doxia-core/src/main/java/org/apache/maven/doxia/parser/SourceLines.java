@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.parser;
+
+/**
+ * Iterates over the lines of a content without copying them: the current line is given by its offsets
+ * in the content. Lines end with <code>\n</code>, <code>\r</code> or <code>\r\n</code>, as read by
+ * {@link java.io.BufferedReader#readLine()}, and are numbered from 1.
+ *
+ * <pre>
+ * SourceLines lines = new SourceLines(content);
+ * while (lines.next()) {
+ *     CharSequence line = content.subSequence(lines.getLineStart(), lines.getLineEnd());
+ * }
+ * </pre>
+ *
+ * @since 2.0.0-M7
+ */
+public final class SourceLines {
+    private final CharSequence content;
+
+    private final int end;
+
+    private int lineStart;
+
+    private int lineEnd;
+
+    private int nextLineStart;
+
+    private int lineNumber;
+
+    /**
+     * Iterates over all lines of the given content.
+     *
+     * @param content the content, not null.
+     */
+    public SourceLines(CharSequence content) {
+        this(content, 0, content.length());
+    }
+
+    /**
+     * Iterates over the lines of a part of the given content.
+     *
+     * @param content the content, not null.
+     * @param start the index of the first character of the first line.
+     * @param end the index after the last character of the last line.
+     */
+    public SourceLines(CharSequence content, int start, int end) {
+        if (start < 0 || end > content.length() || start > end) {
+            throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + content.length());
+        }
+        this.content = content;
+        this.end = end;
+        this.lineStart = start;
+        this.lineEnd = start;
+        this.nextLineStart = start;
+    }
+
+    /**
+     * Moves to the next line.
+     *
+     * @return false if there is no more line.
+     */
+    public boolean next() {
+        if (nextLineStart >= end) {
+            return false;
+        }
+
+        int i = nextLineStart;
+        char c = 0;
+        while (i < end) {
+            c = content.charAt(i);
+            if (c == '\n' || c == '\r') {
+                break;
+            }
+            i++;
+        }
+
+        lineStart = nextLineStart;
+        lineEnd = i;
+        if (i < end) {
+            i++;
+            if (c == '\r' && i < end && content.charAt(i) == '\n') {
+                i++;
+            }
+        }
+        nextLineStart = i;
+        lineNumber++;
+        return true;
+    }
+
+    /**
+     * Returns the content the lines are part of.
+     *
+     * @return the content.
+     */
+    public CharSequence getContent() {
+        return content;
+    }
+
+    /**
+     * Returns the index of the first character of the current line.
+     *
+     * @return an index in the content.
+     */
+    public int getLineStart() {
+        return lineStart;
+    }
+
+    /**
+     * Returns the index after the last character of the current line, its line terminator excluded.
+     *
+     * @return an index in the content.
+     */
+    public int getLineEnd() {
+        return lineEnd;
+    }
+
+    /**
+     * Returns the number of the current line.
+     *
+     * @return the line number, 0 before the first line.
+     */
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Returns the current line as a string.
+     *
+     * @return the line.
+     */
+    public String getLine() {
+        return content.subSequence(lineStart, lineEnd).toString();
+    }
+}
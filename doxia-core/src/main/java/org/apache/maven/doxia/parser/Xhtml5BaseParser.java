@@ -132,6 +132,10 @@ public class Xhtml5BaseParser extends AbstractXmlParser implements HtmlMarkup {
     /** {@inheritDoc} */
     @Override
     public void parse(Reader source, Sink sink, String reference) throws ParseException {
+        if (parseMeasured(source, sink, reference)) {
+            return;
+        }
+
         init();
 
         try {
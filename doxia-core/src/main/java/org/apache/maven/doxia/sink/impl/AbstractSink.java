@@ -18,6 +18,8 @@
  */
 package org.apache.maven.doxia.sink.impl;
 
+import java.io.IOException;
+
 import org.apache.maven.doxia.markup.Markup;
 import org.apache.maven.doxia.sink.Sink;
 
@@ -64,6 +66,41 @@ public abstract class AbstractSink implements Sink, Markup {
         return buffer.toString();
     }
 
+    /**
+     * Appends the given text with all occurrences of '\n', '\r' and '\r\n' replaced with the system EOL,
+     * as {@link #unifyEOLs(String)} does, and a backslash before every character marked in the given table.
+     * The text is appended as ranges, instead of being copied into a new string.
+     *
+     * @param text the text to append, not null.
+     * @param escaped the characters to escape, indexed by character. Characters beyond the length of the table
+     *      are not escaped, an empty table only unifies the EOLs.
+     * @param out where to append the text, not null.
+     * @throws IOException if the appendable fails.
+     * @since 2.0.0-M7
+     */
+    protected static void appendEscaped(CharSequence text, boolean[] escaped, Appendable out) throws IOException {
+        int length = text.length();
+        int start = 0;
+
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '\r' || c == '\n') {
+                out.append(text, start, i);
+                if (c == '\r' && (i + 1) < length && text.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                out.append(EOL);
+                start = i + 1;
+            } else if (c < escaped.length && escaped[c]) {
+                out.append(text, start, i);
+                out.append('\\');
+                start = i;
+            }
+        }
+
+        out.append(text, start, length);
+    }
+
     /**
      * This is called in {@link #head()} or in {@link #close()}, and can be used
      * to set the sink into a clear state so it can be re-used.
@@ -22,9 +22,14 @@ import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
 import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
 import java.util.Objects;
 
+import org.apache.maven.doxia.metrics.DoxiaMetrics;
+import org.apache.maven.doxia.metrics.MetricsRegistry;
 import org.apache.maven.doxia.sink.Sink;
 import org.apache.maven.doxia.sink.SinkFactory;
 import org.codehaus.plexus.util.WriterFactory;
@@ -38,6 +43,12 @@ import org.codehaus.plexus.util.WriterFactory;
  * @since 1.1
  */
 public abstract class AbstractTextSinkFactory implements SinkFactory {
+    /** The default size of the output buffer. */
+    private static final int DEFAULT_BUFFER_SIZE = 32 * 1024;
+
+    /** The size of the output buffer of the sinks created from now on. */
+    private volatile int bufferSize = DEFAULT_BUFFER_SIZE;
+
     /**
      * Create a text Sink for a given encoding.
      *
@@ -64,7 +75,9 @@ public abstract class AbstractTextSinkFactory implements SinkFactory {
             }
         }
 
-        Writer writer = WriterFactory.newWriter(new File(outputDir, outputName), encoding);
+        Charset charset = toCharset(encoding);
+
+        Writer writer = newWriter(Files.newOutputStream(new File(outputDir, outputName).toPath()), charset);
 
         return createSink(writer, encoding);
     }
@@ -76,6 +89,53 @@ public abstract class AbstractTextSinkFactory implements SinkFactory {
 
     /** {@inheritDoc} */
     public Sink createSink(OutputStream out, String encoding) throws IOException {
-        return createSink(new OutputStreamWriter(out, encoding), encoding);
+        return createSink(newWriter(out, toCharset(encoding)), encoding);
+    }
+
+    /**
+     * Sets the size of the buffer the output of the sinks is encoded into before it is written
+     * to the file or stream, 32 KiB by default.
+     *
+     * @param bufferSize the buffer size in bytes.
+     * @since 2.0.0-M7
+     */
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Returns the size of the output buffer of the sinks.
+     *
+     * @return the buffer size in bytes.
+     * @since 2.0.0-M7
+     */
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * Creates the writer of a sink. UTF-8, US-ASCII and ISO-8859-1 are encoded without a
+     * {@link java.nio.charset.CharsetEncoder} into a buffer that is written in large blocks.
+     * The output is measured if {@link MetricsRegistry metrics} are enabled.
+     */
+    private Writer newWriter(OutputStream out, Charset charset) {
+        DoxiaMetrics metrics = MetricsRegistry.getMetrics();
+        if (metrics.isEnabled()) {
+            out = new MeteredOutputStream(out, metrics);
+        }
+
+        if (EncodingWriter.isSupported(charset)) {
+            return new EncodingWriter(out, charset, bufferSize);
+        }
+
+        return new OutputStreamWriter(out, charset);
+    }
+
+    private static Charset toCharset(String encoding) throws UnsupportedEncodingException {
+        try {
+            return Charset.forName(encoding);
+        } catch (IllegalArgumentException e) {
+            throw new UnsupportedEncodingException(encoding);
+        }
     }
 }
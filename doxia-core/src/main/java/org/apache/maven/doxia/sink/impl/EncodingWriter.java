@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.sink.impl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * An unsynchronized writer that encodes characters straight into a reusable byte array, and writes it
+ * to the underlying stream when it is full. ASCII characters are copied without further checks, the
+ * others are encoded by hand. Only UTF-8, US-ASCII and ISO-8859-1 are supported, unmappable characters
+ * are replaced by <code>'?'</code> like {@link java.io.OutputStreamWriter} does.
+ * <p>
+ * Sinks are only used by one thread, so none of the writes needs to be synchronized.
+ */
+final class EncodingWriter extends Writer {
+    /** The minimum buffer size, large enough for any encoded character. */
+    private static final int MIN_BUFFER_SIZE = 16;
+
+    private final OutputStream out;
+
+    private final byte[] bytes;
+
+    private int count;
+
+    /** true for UTF-8, false for single byte encodings. */
+    private final boolean utf8;
+
+    /** The highest code point of a single byte encoding. */
+    private final int maxCodePoint;
+
+    /** The high surrogate of a pair split between two writes, or 0. */
+    private char highSurrogate;
+
+    private boolean closed;
+
+    /**
+     * @param out the stream to write to.
+     * @param charset the charset, which must be {@link #isSupported(Charset) supported}.
+     * @param bufferSize the size of the byte buffer.
+     */
+    EncodingWriter(OutputStream out, Charset charset, int bufferSize) {
+        if (!isSupported(charset)) {
+            throw new IllegalArgumentException("Unsupported charset " + charset);
+        }
+        this.out = out;
+        this.bytes = new byte[Math.max(MIN_BUFFER_SIZE, bufferSize)];
+        this.utf8 = StandardCharsets.UTF_8.equals(charset);
+        this.maxCodePoint = StandardCharsets.US_ASCII.equals(charset) ? 0x7F : 0xFF;
+    }
+
+    /**
+     * Tells whether the given charset can be encoded by this writer.
+     *
+     * @param charset the charset.
+     * @return true for UTF-8, US-ASCII and ISO-8859-1.
+     */
+    static boolean isSupported(Charset charset) {
+        return StandardCharsets.UTF_8.equals(charset)
+                || StandardCharsets.US_ASCII.equals(charset)
+                || StandardCharsets.ISO_8859_1.equals(charset);
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        encode((char) c);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        int end = off + len;
+        int i = off;
+        while (i < end) {
+            if (count == bytes.length) {
+                flushBuffer();
+            }
+
+            // copy ASCII characters until the buffer is full
+            int limit = Math.min(end, i + bytes.length - count);
+            char c;
+            while (i < limit && (c = cbuf[i]) < 0x80 && highSurrogate == 0) {
+                bytes[count++] = (byte) c;
+                i++;
+            }
+
+            if (i < limit) {
+                encode(cbuf[i++]);
+            }
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        int end = off + len;
+        int i = off;
+        while (i < end) {
+            if (count == bytes.length) {
+                flushBuffer();
+            }
+
+            // copy ASCII characters until the buffer is full
+            int limit = Math.min(end, i + bytes.length - count);
+            char c;
+            while (i < limit && (c = str.charAt(i)) < 0x80 && highSurrogate == 0) {
+                bytes[count++] = (byte) c;
+                i++;
+            }
+
+            if (i < limit) {
+                encode(str.charAt(i++));
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            if (highSurrogate != 0) {
+                highSurrogate = 0;
+                ensureCapacity();
+                bytes[count++] = '?';
+            }
+            flushBuffer();
+        } finally {
+            out.close();
+        }
+    }
+
+    private void encode(char c) throws IOException {
+        ensureCapacity();
+
+        if (highSurrogate != 0) {
+            char high = highSurrogate;
+            highSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                encode(Character.toCodePoint(high, c));
+                return;
+            }
+            bytes[count++] = '?';
+            ensureCapacity();
+        }
+
+        if (Character.isHighSurrogate(c)) {
+            highSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            bytes[count++] = '?';
+        } else {
+            encode((int) c);
+        }
+    }
+
+    private void encode(int codePoint) {
+        if (!utf8) {
+            bytes[count++] = codePoint <= maxCodePoint ? (byte) codePoint : (byte) '?';
+        } else if (codePoint < 0x80) {
+            bytes[count++] = (byte) codePoint;
+        } else if (codePoint < 0x800) {
+            bytes[count++] = (byte) (0xC0 | (codePoint >> 6));
+            bytes[count++] = (byte) (0x80 | (codePoint & 0x3F));
+        } else if (codePoint < 0x10000) {
+            bytes[count++] = (byte) (0xE0 | (codePoint >> 12));
+            bytes[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            bytes[count++] = (byte) (0x80 | (codePoint & 0x3F));
+        } else {
+            bytes[count++] = (byte) (0xF0 | (codePoint >> 18));
+            bytes[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+            bytes[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            bytes[count++] = (byte) (0x80 | (codePoint & 0x3F));
+        }
+    }
+
+    /** Makes room for one encoded character. */
+    private void ensureCapacity() throws IOException {
+        if (bytes.length - count < 4) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (count > 0) {
+            out.write(bytes, 0, count);
+            count = 0;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.sink.impl;
+
+import javax.swing.text.AttributeSet;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+
+import org.apache.maven.doxia.sink.Sink;
+
+/**
+ * Records all events received by its {@link #getSink() sink}, so that they can be
+ * {@link #replay(Sink) replayed} into other sinks later, any number of times.
+ * Attributes and arrays are copied when recorded, so the recording is not affected
+ * by objects that are re-used by the event producer.
+ *
+ * @since 2.0.0-M7
+ */
+public class RecordingSink implements InvocationHandler {
+    /** Estimated memory overhead of one recorded event, in bytes. */
+    private static final int EVENT_SIZE = 48;
+
+    /** Estimated memory overhead of one recorded reference or attribute, in bytes. */
+    private static final int REFERENCE_SIZE = 16;
+
+    private final List<Method> methods = new ArrayList<>();
+
+    private final List<Object[]> arguments = new ArrayList<>();
+
+    private final Sink sink;
+
+    private long estimatedSize;
+
+    /**
+     * Constructs a RecordingSink without any events.
+     */
+    public RecordingSink() {
+        this.sink =
+                (Sink) Proxy.newProxyInstance(RecordingSink.class.getClassLoader(), new Class<?>[] {Sink.class}, this);
+    }
+
+    /**
+     * Returns the sink that records all events it receives.
+     *
+     * @return a {@link org.apache.maven.doxia.sink.Sink} object.
+     */
+    public Sink getSink() {
+        return sink;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Record a Method invoked on the recording sink.
+     */
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        if (method.getDeclaringClass() == Object.class) {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return "RecordingSink[" + methods.size() + " events]";
+            }
+        }
+
+        Object[] copy = null;
+        estimatedSize += EVENT_SIZE;
+        if (args != null) {
+            copy = new Object[args.length];
+            for (int i = 0; i < args.length; i++) {
+                copy[i] = copy(args[i]);
+                estimatedSize += estimateSize(copy[i]);
+            }
+        }
+
+        methods.add(method);
+        arguments.add(copy);
+
+        return null;
+    }
+
+    /**
+     * Emits all recorded events, in order, into the given sink.
+     *
+     * @param target the sink that receives the events.
+     */
+    public void replay(Sink target) {
+        for (int i = 0; i < methods.size(); i++) {
+            Object[] args = arguments.get(i);
+            if (args != null) {
+                // sinks may modify the attributes they receive
+                args = args.clone();
+                for (int j = 0; j < args.length; j++) {
+                    args[j] = copy(args[j]);
+                }
+            }
+
+            try {
+                methods.get(i).invoke(target, args);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Returns the number of recorded events.
+     *
+     * @return the number of events.
+     */
+    public int getEventCount() {
+        return methods.size();
+    }
+
+    /**
+     * Returns a rough estimate of the memory retained by the recorded events.
+     *
+     * @return the estimated size in bytes.
+     */
+    public long getEstimatedSize() {
+        return estimatedSize;
+    }
+
+    private static Object copy(Object arg) {
+        if (arg instanceof SinkEventAttributeSet) {
+            return ((SinkEventAttributeSet) arg).copyAttributes();
+        } else if (arg instanceof AttributeSet) {
+            return new SinkEventAttributeSet((AttributeSet) arg);
+        } else if (arg instanceof Object[]) {
+            return ((Object[]) arg).clone();
+        } else if (arg instanceof int[]) {
+            return ((int[]) arg).clone();
+        }
+        return arg;
+    }
+
+    private static long estimateSize(Object arg) {
+        long size = REFERENCE_SIZE;
+        if (arg instanceof CharSequence) {
+            size += 2L * ((CharSequence) arg).length();
+        } else if (arg instanceof AttributeSet) {
+            AttributeSet attributes = (AttributeSet) arg;
+            Enumeration<?> names = attributes.getAttributeNames();
+            while (names.hasMoreElements()) {
+                size += REFERENCE_SIZE + estimateSize(attributes.getAttribute(names.nextElement()));
+            }
+        } else if (arg instanceof Object[]) {
+            for (Object element : (Object[]) arg) {
+                size += estimateSize(element);
+            }
+        } else if (arg instanceof int[]) {
+            size += 4L * ((int[]) arg).length;
+        }
+        return size;
+    }
+}
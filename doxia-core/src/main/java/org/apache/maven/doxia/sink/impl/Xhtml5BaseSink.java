@@ -22,7 +22,6 @@ import javax.swing.text.MutableAttributeSet;
 import javax.swing.text.html.HTML.Attribute;
 import javax.swing.text.html.HTML.Tag;
 
-import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.util.ArrayList;
@@ -57,14 +56,17 @@ public class Xhtml5BaseSink extends AbstractXmlSink implements HtmlMarkup {
     // Instance fields
     // ----------------------------------------------------------------------
 
-    /** The PrintWriter to write the result. */
-    private final PrintWriter writer;
+    /** The writer to write the result. */
+    private final SinkWriter writer;
 
     /** Used to identify if a class string contains `hidden` */
     private static final Pattern HIDDEN_CLASS_PATTERN = Pattern.compile("(?:.*\\s|^)hidden(?:\\s.*|$)");
 
     /** Used to collect text events mainly for the head events. */
-    private StringBuffer textBuffer = new StringBuffer();
+    private final StringBuilder textBuilder = new StringBuilder();
+
+    /** The copy of the text handed out by the deprecated {@link #getTextBuffer()}, or null. */
+    private StringBuffer textBuffer;
 
     /** An indication on if we're inside a head. */
     private boolean headFlag;
@@ -111,12 +113,12 @@ public class Xhtml5BaseSink extends AbstractXmlSink implements HtmlMarkup {
     // ----------------------------------------------------------------------
 
     /**
-     * Constructor, initialize the PrintWriter.
+     * Constructor, initialize the writer.
      *
      * @param out The writer to write the result.
      */
     public Xhtml5BaseSink(Writer out) {
-        this.writer = new PrintWriter(out);
+        this.writer = new SinkWriter(out);
 
         this.cellJustifStack = new LinkedList<>();
         this.isCellJustifStack = new LinkedList<>();
@@ -137,8 +139,30 @@ public class Xhtml5BaseSink extends AbstractXmlSink implements HtmlMarkup {
      * To use mainly when playing with the head events.
      *
      * @return the current buffer of text events.
+     * @since 2.0.0-M7
+     */
+    protected StringBuilder getTextBuilder() {
+        if (this.textBuffer != null) {
+            // take back what was done through the deprecated accessor
+            this.textBuilder.setLength(0);
+            this.textBuilder.append(this.textBuffer);
+            this.textBuffer = null;
+        }
+        return this.textBuilder;
+    }
+
+    /**
+     * To use mainly when playing with the head events.
+     *
+     * @return a copy of the current buffer of text events, changes to it are taken into account until the sink
+     * uses its buffer again.
+     * @deprecated use {@link #getTextBuilder()}, which is not synchronized.
      */
+    @Deprecated
     protected StringBuffer getTextBuffer() {
+        if (this.textBuffer == null) {
+            this.textBuffer = new StringBuffer(this.textBuilder);
+        }
         return this.textBuffer;
     }
 
@@ -243,7 +267,8 @@ public class Xhtml5BaseSink extends AbstractXmlSink implements HtmlMarkup {
      * Reset the text buffer.
      */
     protected void resetTextBuffer() {
-        this.textBuffer = new StringBuffer();
+        this.textBuilder.setLength(0);
+        this.textBuffer = null;
     }
 
     // ----------------------------------------------------------------------
@@ -1734,7 +1759,7 @@ public class Xhtml5BaseSink extends AbstractXmlSink implements HtmlMarkup {
     @Override
     public void lineBreak(SinkEventAttributes attributes) {
         if (headFlag || isVerbatimFlag()) {
-            getTextBuffer().append(EOL);
+            getTextBuilder().append(EOL);
         } else {
             MutableAttributeSet atts = SinkUtils.filterAttributes(attributes, SinkUtils.SINK_BR_ATTRIBUTES);
 
@@ -1768,7 +1793,7 @@ public class Xhtml5BaseSink extends AbstractXmlSink implements HtmlMarkup {
     @Override
     public void nonBreakingSpace() {
         if (headFlag) {
-            getTextBuffer().append(' ');
+            getTextBuilder().append(' ');
         } else {
             write("&#160;");
         }
@@ -1778,7 +1803,7 @@ public class Xhtml5BaseSink extends AbstractXmlSink implements HtmlMarkup {
     @Override
     public void text(String text) {
         if (headFlag) {
-            getTextBuffer().append(text);
+            getTextBuilder().append(text);
         } else if (verbatimFlag) {
             verbatimContent(text);
         } else {
@@ -1796,7 +1821,7 @@ public class Xhtml5BaseSink extends AbstractXmlSink implements HtmlMarkup {
     @Override
     public void rawText(String text) {
         if (headFlag) {
-            getTextBuffer().append(text);
+            getTextBuilder().append(text);
         } else {
             write(text);
         }
@@ -29,9 +29,12 @@ import java.io.Reader;
 import java.util.Objects;
 
 import org.apache.maven.doxia.parser.ParseException;
+import org.apache.maven.doxia.parser.SourceBuffer;
+import org.apache.maven.doxia.parser.SourceLines;
 
 /**
- * {@link ByLineSource} default implementation
+ * {@link ByLineSource} default implementation. The lines of a {@link SourceBuffer#newReader() reader of a buffer}
+ * are taken from the buffer, without reading them through a {@link LineNumberReader}.
  */
 public class ByLineReaderSource implements ByLineSource {
     /**
@@ -39,6 +42,11 @@ public class ByLineReaderSource implements ByLineSource {
      */
     private LineNumberReader reader;
 
+    /**
+     * the lines, if the source is a buffer
+     */
+    private SourceLines lines;
+
     /**
      * current line number
      */
@@ -73,7 +81,10 @@ public class ByLineReaderSource implements ByLineSource {
      * @param name a {@link java.lang.String} object.
      */
     public ByLineReaderSource(final Reader in, final String name) {
-        this.reader = new LineNumberReader(in);
+        this.lines = SourceBuffer.lines(in);
+        if (lines == null) {
+            this.reader = new LineNumberReader(in);
+        }
 
         this.name = name;
 
@@ -87,7 +98,7 @@ public class ByLineReaderSource implements ByLineSource {
      * @throws org.apache.maven.doxia.parser.ParseException if any.
      */
     public final String getNextLine() throws ParseException {
-        if (reader == null) {
+        if (reader == null && lines == null) {
             return null;
         }
 
@@ -98,6 +109,20 @@ public class ByLineReaderSource implements ByLineSource {
 
         String line;
 
+        if (lines != null) {
+            if (lines.next()) {
+                line = lines.getLine();
+                lineNumber = lines.getLineNumber();
+            } else {
+                line = null;
+                lines = null;
+            }
+
+            lastLine = line;
+
+            return line;
+        }
+
         try {
             line = reader.readLine();
             if (line == null) {
@@ -137,6 +162,8 @@ public class ByLineReaderSource implements ByLineSource {
      * {@inheritDoc}
      */
     public final void close() {
+        lines = null;
+
         if (reader == null) {
             return;
         }
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.util;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Records the files and URLs a document is built from besides its own source, like the sources of snippets
+ * or the external entities of an XML document. The recording is done per thread, for the document parsed
+ * on it: the macros and entity resolvers report what they read, whether it is recorded or not.
+ *
+ * <pre>
+ * DocumentDependencies.begin();
+ * try {
+ *     parser.parse(reader, sink, reference);
+ * } finally {
+ *     Set&lt;String&gt; dependencies = DocumentDependencies.end();
+ * }
+ * </pre>
+ *
+ * Recordings can be nested, e.g. to know the dependencies of a single macro execution: a dependency is recorded
+ * by all the recordings in progress on the thread.
+ *
+ * @since 2.0.0-M7
+ */
+public final class DocumentDependencies {
+    private static final ThreadLocal<Recording> RECORDED = new ThreadLocal<>();
+
+    /** The dependencies recorded since a call to {@link #begin()}, and the enclosing recording. */
+    private static final class Recording {
+        private final Set<String> dependencies = new TreeSet<>();
+
+        private final Recording enclosing;
+
+        private Recording(Recording enclosing) {
+            this.enclosing = enclosing;
+        }
+    }
+
+    private DocumentDependencies() {
+        // utility class
+    }
+
+    /**
+     * Starts recording the dependencies of a document parsed by the current thread.
+     */
+    public static void begin() {
+        RECORDED.set(new Recording(RECORDED.get()));
+    }
+
+    /**
+     * Stops the last recording started by the current thread, the enclosing recording goes on.
+     *
+     * @return the URIs of the dependencies recorded since {@link #begin()}, in alphabetical order.
+     */
+    public static Set<String> end() {
+        Recording recording = RECORDED.get();
+        if (recording == null) {
+            return Collections.emptySet();
+        }
+
+        if (recording.enclosing == null) {
+            RECORDED.remove();
+        } else {
+            RECORDED.set(recording.enclosing);
+        }
+        return Collections.unmodifiableSet(recording.dependencies);
+    }
+
+    /**
+     * Records a dependency of the document parsed by the current thread, if its dependencies are recorded.
+     *
+     * @param uri the URI of the dependency, e.g. a <code>file:</code> URI for a local file.
+     */
+    public static void record(String uri) {
+        for (Recording recording = RECORDED.get(); recording != null; recording = recording.enclosing) {
+            recording.dependencies.add(uri);
+        }
+    }
+
+    /**
+     * Records dependencies of the document parsed by the current thread, if its dependencies are recorded.
+     *
+     * @param uris the URIs of the dependencies, e.g. the dependencies of a macro execution replayed from a cache.
+     */
+    public static void record(Set<String> uris) {
+        for (String uri : uris) {
+            record(uri);
+        }
+    }
+}
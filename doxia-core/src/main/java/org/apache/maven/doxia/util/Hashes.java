@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.util;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Computes the SHA-256 hashes by which content is recognized across builds, e.g. in a build manifest
+ * or a site index.
+ *
+ * @since 2.0.0-M7
+ */
+public final class Hashes {
+    /** The size of the chunks text is encoded in before it is hashed. */
+    private static final int CHUNK_SIZE = 8192;
+
+    private Hashes() {
+        // utility class
+    }
+
+    /**
+     * Returns the SHA-256 hash of some content.
+     *
+     * @param content the content.
+     * @return the hash, as 64 lower case hexadecimal digits.
+     */
+    public static String sha256(byte[] content) {
+        return toHex(newDigest().digest(content));
+    }
+
+    /**
+     * Returns the SHA-256 hash of the remaining bytes of a buffer, which are consumed.
+     *
+     * @param content the content.
+     * @return the hash, as 64 lower case hexadecimal digits.
+     */
+    public static String sha256(ByteBuffer content) {
+        MessageDigest digest = newDigest();
+        digest.update(content);
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Returns the SHA-256 hash of the UTF-8 encoding of some text. The text is encoded chunk by chunk,
+     * without copying it into an array of bytes first.
+     *
+     * @param content the text.
+     * @return the hash, as 64 lower case hexadecimal digits.
+     */
+    public static String sha256(CharSequence content) {
+        MessageDigest digest = newDigest();
+        CharsetEncoder encoder = StandardCharsets.UTF_8
+                .newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        CharBuffer in = CharBuffer.wrap(content);
+        ByteBuffer out = ByteBuffer.allocate(CHUNK_SIZE);
+        CoderResult result;
+        do {
+            result = encoder.encode(in, out, true);
+            out.flip();
+            digest.update(out);
+            out.clear();
+        } while (result.isOverflow());
+        encoder.flush(out);
+        out.flip();
+        digest.update(out);
+        return toHex(digest.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String toHex(byte[] hash) {
+        StringBuilder hex = new StringBuilder(hash.length * 2);
+        for (byte b : hash) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
@@ -18,12 +18,16 @@
  */
 package org.apache.maven.doxia.util;
 
-import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.io.Writer;
 
 /**
  * Allows to specify the line-length of an output writer.
+ * <p>
+ * Words are written as ranges of the given text, only the last word of a text is kept until the next text
+ * or {@link #flush()}, since it may continue there. Line lengths are counted in code points, so that a
+ * supplementary character counts as one character.
  */
 public class LineBreaker {
     /** The default maximal line length. */
@@ -35,18 +39,18 @@ public class LineBreaker {
     /** The destination writer. */
     private Writer destination;
 
-    /** The writer to use. */
-    private BufferedWriter writer;
-
     /** The maximal line length. */
     private int maxLineLength;
 
     /** The current line length. */
     private int lineLength = 0;
 
-    /** The string buffer to store the current text. */
+    /** The beginning of the current word, written by a previous text. */
     private StringBuilder word = new StringBuilder(1024);
 
+    /** The length of the beginning of the current word, in code points. */
+    private int wordLength = 0;
+
     /**
      * Constructs a new LineBreaker with DEFAULT_MAX_LINE_LENGTH.
      *
@@ -69,7 +73,6 @@ public class LineBreaker {
 
         destination = out;
         this.maxLineLength = max;
-        writer = new BufferedWriter(out);
     }
 
     /**
@@ -88,7 +91,11 @@ public class LineBreaker {
      * @throws java.io.IOException if there's a problem writing the text.
      */
     public void write(String text) throws IOException {
-        write(text, /*preserveSpace*/ false);
+        try {
+            write(text, /*preserveSpace*/ false);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
     }
 
     /**
@@ -96,94 +103,127 @@ public class LineBreaker {
      *
      * @param text The text to write.
      * @param preserveSpace True to preserve white space.
+     * @throws UncheckedIOException if there's a problem writing the text.
      */
     public void write(String text, boolean preserveSpace) {
         int length = text.length();
+        int wordStart = 0;
 
         try {
             for (int i = 0; i < length; ++i) {
-                char c = text.charAt(i);
-
-                switch (c) {
+                switch (text.charAt(i)) {
                     case ' ':
-                        if (preserveSpace) {
-                            word.append(c);
-                        } else {
-                            writeWord();
+                        if (!preserveSpace) {
+                            writeWord(text, wordStart, i);
+                            wordStart = i + 1;
                         }
                         break;
 
                     case '\r':
+                        writeWord(text, wordStart, i);
                         // if \r\n (windows) then just pass along \n
                         if (i + 1 < length && text.charAt(i + 1) == '\n') {
-                            break;
+                            ++i;
                         }
+                        destination.write(EOL);
+                        lineLength = 0;
+                        wordStart = i + 1;
+                        break;
 
                     case '\n':
-                        writeWord();
-                        writer.write(EOL);
+                        writeWord(text, wordStart, i);
+                        destination.write(EOL);
                         lineLength = 0;
+                        wordStart = i + 1;
                         break;
 
                     default:
-                        word.append(c);
+                        break;
                 }
             }
-        } catch (Exception e) {
-            // TODO: log
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        // the last word may continue in the next text
+        if (wordStart < length) {
+            wordLength = codePointLength(text, wordStart, length);
+            word.append(text, wordStart, length);
         }
     }
 
     /**
-     * Write out the current StringBuilder and flush the writer.
-     * Any IOException will be swallowed.
+     * Write out the current word and flush the writer.
+     *
+     * @throws UncheckedIOException if there's a problem writing the word or flushing the writer.
      */
     public void flush() {
         try {
-            writeWord();
-            writer.flush();
+            writeWord("", 0, 0);
+            destination.flush();
         } catch (IOException e) {
-            // TODO: log
+            throw new UncheckedIOException(e);
         }
     }
 
     /**
-     * Writes the current StringBuilder to the writer.
+     * Writes the current word, made of the word kept from the previous texts followed by a range of the text.
      *
+     * @param text the text.
+     * @param start the index of the first character of the word in the text.
+     * @param end the index after the last character of the word in the text.
      * @throws IOException if an exception occurs during writing.
      */
-    private void writeWord() throws IOException {
-        int length = word.length();
+    private void writeWord(String text, int start, int end) throws IOException {
+        int length = codePointLength(text, start, end);
         if (length > 0) {
             if (lineLength > 0) {
                 if (lineLength + 1 + length > maxLineLength) {
-                    writer.write(EOL);
+                    destination.write(EOL);
                     lineLength = 0;
                 } else {
-                    writer.write(' ');
+                    destination.write(' ');
                     ++lineLength;
                 }
             }
 
-            writer.write(word.toString());
-            word.setLength(0);
+            if (word.length() > 0) {
+                destination.append(word);
+                word.setLength(0);
+                wordLength = 0;
+            }
+            destination.write(text, start, end - start);
 
             lineLength += length;
         }
     }
 
     /**
-     * Close the writer.
+     * Returns the length of the current word in code points.
      */
-    public void close() {
-        if (writer == null) {
-            return;
+    private int codePointLength(String text, int start, int end) {
+        int length = wordLength + Character.codePointCount(text, start, end);
+        // a surrogate pair split between two texts
+        if (start < end
+                && Character.isLowSurrogate(text.charAt(start))
+                && word.length() > 0
+                && Character.isHighSurrogate(word.charAt(word.length() - 1))) {
+            --length;
         }
+        return length;
+    }
 
+    /**
+     * Write out the current word and close the writer.
+     *
+     * @throws UncheckedIOException if there's a problem writing the word or closing the writer.
+     */
+    public void close() {
         try {
-            writer.close();
-        } catch (IOException ex) {
-            // ignore
+            writeWord("", 0, 0);
+            destination.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 }
@@ -21,13 +21,13 @@ package org.apache.maven.doxia.util;
 import javax.xml.XMLConstants;
 
 import java.io.IOException;
-import java.io.StringReader;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.apache.maven.doxia.markup.XmlMarkup;
 import org.apache.maven.doxia.parser.AbstractXmlParser.CachedFileEntityResolver;
 import org.apache.maven.doxia.parser.ParseException;
+import org.apache.maven.doxia.parser.SourceBuffer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xml.sax.InputSource;
@@ -64,6 +64,17 @@ public class XmlValidator {
      * @throws ParseException if any.
      */
     public void validate(String content) throws ParseException {
+        validate(SourceBuffer.of(content));
+    }
+
+    /**
+     * Validate an XML content with SAX, without copying it.
+     *
+     * @param content a not null xml content
+     * @throws ParseException if any.
+     * @since 2.0.0-M7
+     */
+    public void validate(SourceBuffer content) throws ParseException {
         try {
             // 1 if there's a doctype
             boolean hasDoctype = false;
@@ -84,7 +95,7 @@ public class XmlValidator {
             }
 
             // 3 validate content
-            getXmlReader(hasXsd && hasDoctype).parse(new InputSource(new StringReader(content)));
+            getXmlReader(hasXsd && hasDoctype).parse(new InputSource(content.newReader()));
         } catch (IOException | SAXException e) {
             throw new ParseException("Error validating the model", e);
         }
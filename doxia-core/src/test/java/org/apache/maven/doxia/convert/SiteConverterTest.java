@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.convert;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import org.apache.maven.doxia.parser.ParseException;
+import org.apache.maven.doxia.parser.Xhtml5BaseParser;
+import org.apache.maven.doxia.parser.manager.ParserNotFoundException;
+import org.apache.maven.doxia.parser.module.AbstractParserModule;
+import org.apache.maven.doxia.parser.module.ParserModule;
+import org.apache.maven.doxia.parser.module.ParserModuleManager;
+import org.apache.maven.doxia.sink.Sink;
+import org.apache.maven.doxia.sink.impl.AbstractTextSinkFactory;
+import org.apache.maven.doxia.sink.impl.Xhtml5BaseSink;
+import org.apache.maven.doxia.util.DocumentDependencies;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SiteConverterTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testConvert() throws Exception {
+        Path site = tempDir.resolve("site");
+        for (int i = 0; i < 20; i++) {
+            write(site.resolve("xhtml/dir" + (i % 3) + "/page" + i + ".html"), "<div><h1>Page " + i + "</h1></div>");
+        }
+        write(site.resolve("xhtml/ignored.txt"), "<div><h1>ignored</h1></div>");
+        write(site.resolve("xhtml/dir0/page0.XHTML"), "<div><h1>Duplicate</h1></div>");
+        write(site.resolve("xhtml/broken.html"), "<div><h1>Broken</div>");
+        write(site.resolve("text/readme.txt"), "no parser");
+
+        SiteConverter converter = new SiteConverter(new ParserModuleManager() {
+            private final List<ParserModule> modules =
+                    Arrays.asList(new Module("xhtml", "xhtml", "html", "xhtml"), new Module("text", "text", "txt"));
+
+            @Override
+            public Collection<ParserModule> getParserModules() {
+                return modules;
+            }
+
+            @Override
+            public ParserModule getParserModule(String id) {
+                throw new UnsupportedOperationException();
+            }
+        });
+        converter.addParser("xhtml", Xhtml5BaseParser::new);
+        converter.setThreads(4);
+        converter.setIoThreads(2);
+        converter.setReadAhead(3);
+
+        Path output = tempDir.resolve("output");
+        List<ConversionResult> results = converter.convert(
+                site,
+                output,
+                new AbstractTextSinkFactory() {
+                    @Override
+                    protected Sink createSink(Writer writer, String encoding) {
+                        return new Xhtml5BaseSink(writer);
+                    }
+                },
+                "out");
+
+        assertEquals(23, results.size());
+        assertEquals(20, results.stream().filter(ConversionResult::isSuccessful).count());
+
+        ConversionResult page = results.stream()
+                .filter(result -> result.getSourcePath().equals("xhtml/dir1/page7.html"))
+                .findFirst()
+                .get();
+        assertEquals("xhtml", page.getParserId());
+        assertEquals(output.resolve("dir1/page7.out"), page.getOutputFile());
+        assertTrue(page.getReadTime() > 0);
+        assertTrue(page.getConversionTime() > 0);
+        assertTrue(page.getWriteTime() > 0);
+        String converted = new String(Files.readAllBytes(page.getOutputFile()), StandardCharsets.UTF_8);
+        assertTrue(converted.contains("Page 7"), converted);
+
+        assertInstanceOf(ParseException.class, failure(results, "xhtml/broken.html"));
+        assertInstanceOf(IOException.class, failure(results, "xhtml/dir0/page0.html"));
+        assertInstanceOf(ParserNotFoundException.class, failure(results, "text/readme.txt"));
+        assertFalse(Files.exists(output.resolve("broken.out")));
+        assertFalse(Files.exists(output.resolve("readme.out")));
+    }
+
+    @Test
+    void testIncremental() throws Exception {
+        Path site = tempDir.resolve("site");
+        for (int i = 0; i < 3; i++) {
+            write(site.resolve("xhtml/page" + i + ".html"), "<div><h1>Page " + i + "</h1></div>");
+        }
+        Path snippet = tempDir.resolve("snippet.txt");
+        write(snippet, "snippet");
+        String dependency = snippet.toUri().toString();
+
+        Path output = tempDir.resolve("output");
+        Path manifestFile = tempDir.resolve("manifest");
+        assertEquals(Arrays.asList(false, false, false), convert(site, output, manifestFile, dependency));
+        assertEquals(Arrays.asList(true, true, true), convert(site, output, manifestFile, dependency));
+
+        BuildManifest manifest = BuildManifest.load(manifestFile);
+        assertEquals(new TreeSet<>(Arrays.asList("page0.out", "page1.out", "page2.out")), manifest.getOutputPaths());
+        assertEquals("xhtml/page1.html", manifest.getSourcePath("page1.out"));
+        assertEquals(Collections.singleton(dependency), manifest.getDependencies("page1.out"));
+        assertTrue(manifest.getDependencies("page0.out").isEmpty());
+
+        write(site.resolve("xhtml/page0.html"), "<div><h1>Changed</h1></div>");
+        write(snippet, "changed snippet");
+        Files.delete(output.resolve("page2.out"));
+        assertEquals(Arrays.asList(false, false, false), convert(site, output, manifestFile, dependency));
+        assertEquals(Arrays.asList(true, true, true), convert(site, output, manifestFile, dependency));
+
+        Files.delete(site.resolve("xhtml/page2.html"));
+        assertEquals(Arrays.asList(true, true), convert(site, output, manifestFile, dependency));
+        assertFalse(BuildManifest.load(manifestFile).getOutputPaths().contains("page2.out"));
+    }
+
+    /**
+     * Converts the site with the manifest of the given file, page1.html depending on the given dependency.
+     *
+     * @return whether each document was up to date.
+     */
+    private static List<Boolean> convert(Path site, Path output, Path manifestFile, String dependency)
+            throws IOException {
+        BuildManifest manifest = BuildManifest.load(manifestFile);
+        SiteConverter converter = new SiteConverter(new ParserModuleManager() {
+            @Override
+            public Collection<ParserModule> getParserModules() {
+                return Collections.singletonList(new Module("xhtml", "xhtml", "html"));
+            }
+
+            @Override
+            public ParserModule getParserModule(String id) {
+                throw new UnsupportedOperationException();
+            }
+        });
+        converter.addParser("xhtml", () -> new Xhtml5BaseParser() {
+            @Override
+            public void parse(Reader source, Sink sink, String reference) throws ParseException {
+                if (reference.endsWith("page1.html")) {
+                    DocumentDependencies.record(dependency);
+                }
+                super.parse(source, sink, reference);
+            }
+        });
+        converter.setManifest(manifest);
+
+        List<ConversionResult> results = converter.convert(
+                site,
+                output,
+                new AbstractTextSinkFactory() {
+                    @Override
+                    protected Sink createSink(Writer writer, String encoding) {
+                        return new Xhtml5BaseSink(writer);
+                    }
+                },
+                "out");
+        manifest.store(manifestFile);
+
+        assertTrue(results.stream().allMatch(ConversionResult::isSuccessful));
+        return results.stream().map(ConversionResult::isUpToDate).collect(Collectors.toList());
+    }
+
+    private static Exception failure(List<ConversionResult> results, String sourcePath) {
+        // the duplicate is the document converted after the other one
+        return results.stream()
+                .filter(result -> result.getSourcePath().equalsIgnoreCase(sourcePath) && !result.isSuccessful())
+                .findFirst()
+                .get()
+                .getFailure();
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static final class Module extends AbstractParserModule {
+        Module(String sourceDirectory, String parserId, String... extensions) {
+            super(sourceDirectory, parserId, extensions);
+        }
+    }
+}
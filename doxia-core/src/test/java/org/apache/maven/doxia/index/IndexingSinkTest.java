@@ -18,9 +18,16 @@
  */
 package org.apache.maven.doxia.index;
 
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import org.apache.maven.doxia.parser.Xhtml5BaseParser;
+import org.apache.maven.doxia.sink.Sink;
+import org.apache.maven.doxia.sink.impl.Xhtml5BaseSink;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 class IndexingSinkTest {
     @Test
@@ -30,4 +37,64 @@ class IndexingSinkTest {
         assertEquals("root_2", sink.getUniqueId("root"));
         assertEquals("newid", sink.getUniqueId("newid"));
     }
+
+    @Test
+    void testSectionTitleFragments() {
+        IndexEntry root = new IndexEntry("root");
+        IndexingSink sink = new IndexingSink(root);
+
+        sink.section1();
+        sink.sectionTitle1();
+        sink.text("Hello ");
+        sink.text("wor\r\n");
+        sink.text("ld");
+        sink.sectionTitle1_();
+        sink.text("not part of the title");
+        sink.section2();
+        sink.sectionTitle2();
+        sink.text("Hello world");
+        sink.sectionTitle2_();
+        sink.section2_();
+        sink.section1_();
+        sink.section1();
+        sink.sectionTitle1();
+        sink.text("Root");
+        sink.sectionTitle1_();
+        sink.section1_();
+        sink.close();
+
+        IndexEntry first = root.getChildEntries().get(0);
+        assertEquals("Hello world", first.getTitle());
+        assertEquals("Hello_world", first.getId());
+        IndexEntry nested = first.getChildEntries().get(0);
+        assertEquals("Hello world", nested.getTitle());
+        assertEquals("Hello_world_1", nested.getId());
+        IndexEntry second = root.getChildEntries().get(1);
+        assertEquals("Root", second.getId());
+
+        assertEquals(second, first.getNextEntry());
+        assertEquals(first, second.getPrevEntry());
+        assertNull(nested.getNextEntry());
+    }
+
+    @Test
+    void testTap() throws Exception {
+        String source = "<div><h1>h<b>11</b></h1><h2>h2</h2><h1>h12</h1></div>";
+
+        StringWriter expected = new StringWriter();
+        new Xhtml5BaseParser().parse(new StringReader(source), new Xhtml5BaseSink(expected));
+
+        IndexEntry root = new IndexEntry("index");
+        IndexingSink indexingSink = new IndexingSink(root);
+        StringWriter actual = new StringWriter();
+        Sink sink = indexingSink.tap(new Xhtml5BaseSink(actual));
+        new Xhtml5BaseParser().parse(new StringReader(source), sink);
+        sink.close();
+
+        assertEquals(expected.toString(), actual.toString());
+        assertEquals(2, root.getChildEntries().size());
+        assertEquals("h11", root.getChildEntries().get(0).getId());
+        assertEquals("h2", root.getChildEntries().get(0).getFirstEntry().getId());
+        assertEquals("h12", root.getChildEntries().get(1).getTitle());
+    }
 }
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.index;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.maven.doxia.parser.Xhtml5BaseParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SiteIndexerTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testIndex() throws Exception {
+        Path site = tempDir.resolve("site");
+        for (int i = 0; i < 20; i++) {
+            write(
+                    site.resolve("dir" + (i % 3) + "/page" + i + ".html"),
+                    "<div><h1>Page " + i + "</h1><h2>Sub</h2></div>");
+        }
+        write(site.resolve("ignored.txt"), "<div><h1>ignored</h1></div>");
+
+        SiteIndexer indexer = new SiteIndexer();
+        indexer.addParser("html", Xhtml5BaseParser::new);
+        indexer.setThreads(4);
+
+        SiteIndex index = new SiteIndex();
+        assertEquals(20, indexer.index(site, index));
+        assertEquals(20, index.getDocumentPaths().size());
+        assertNull(index.getOutline("ignored.txt"));
+
+        IndexEntry outline = index.getOutline("dir1/page7.html");
+        assertEquals("Page 7", outline.getFirstEntry().getTitle());
+        assertEquals("Page_7", outline.getFirstEntry().getId());
+        assertEquals("Sub", outline.getFirstEntry().getFirstEntry().getTitle());
+
+        // nothing changed
+        assertEquals(0, indexer.index(site, index));
+
+        // stored and reloaded by the next build
+        Path file = tempDir.resolve("index/site.idx");
+        index.store(file);
+        SiteIndex loaded = SiteIndex.load(file);
+        assertEquals(index.getDocumentPaths(), loaded.getDocumentPaths());
+        assertEquals(outline.toString(), loaded.getOutline("dir1/page7.html").toString());
+
+        write(site.resolve("dir1/page7.html"), "<div><h1>Changed</h1></div>");
+        Files.delete(site.resolve("dir0/page0.html"));
+        assertEquals(1, indexer.index(site, loaded));
+        assertEquals(19, loaded.getDocumentPaths().size());
+        assertEquals(
+                "Changed", loaded.getOutline("dir1/page7.html").getFirstEntry().getTitle());
+        assertNull(loaded.getOutline("dir0/page0.html"));
+    }
+
+    @Test
+    void testLoadMissing() throws Exception {
+        assertEquals(
+                0,
+                SiteIndex.load(tempDir.resolve("missing.idx"))
+                        .getDocumentPaths()
+                        .size());
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -23,6 +23,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 
+import org.apache.maven.doxia.parser.SourceBuffer;
 import org.apache.maven.doxia.parser.Xhtml5BaseParser;
 import org.apache.maven.doxia.sink.impl.SinkEventElement;
 import org.apache.maven.doxia.sink.impl.SinkEventTestingSink;
@@ -64,4 +65,28 @@ public class EchoMacroTest {
         assertEquals("verbatim_", event.getName());
         assertFalse(it.hasNext());
     }
+
+    /**
+     * The source buffer of a request must not be echoed, and the source content stays a String.
+     */
+    @Test
+    public void testExecuteWithSourceBuffer() {
+        final Map<String, Object> macroParameters = new HashMap<>();
+        macroParameters.put("paramName", "paramValue");
+
+        SourceBuffer source = SourceBuffer.of("<p>source</p>");
+        MacroRequest request = MacroRequest.of(source, new Xhtml5BaseParser(), macroParameters, new File("."));
+
+        assertSame(source, request.getSourceBuffer());
+        assertEquals("<p>source</p>", (String) request.getParameter("sourceContent"));
+        assertEquals("<p>source</p>", request.getSourceContent());
+
+        SinkEventTestingSink sink = new SinkEventTestingSink();
+        new EchoMacro().execute(sink, request);
+
+        assertEquals(4, sink.getEventList().size());
+        assertEquals(
+                "paramName ---> paramValue" + Macro.EOL,
+                sink.getEventList().get(2).getArgs()[0]);
+    }
 }
@@ -0,0 +1,228 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.macro.manager;
+
+import javax.inject.Inject;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.doxia.macro.AbstractMacro;
+import org.apache.maven.doxia.macro.CacheableMacro;
+import org.apache.maven.doxia.macro.Macro;
+import org.apache.maven.doxia.macro.MacroRequest;
+import org.apache.maven.doxia.macro.snippet.SnippetMacro;
+import org.apache.maven.doxia.parser.Xhtml5BaseParser;
+import org.apache.maven.doxia.sink.Sink;
+import org.apache.maven.doxia.sink.impl.SinkEventAttributeSet;
+import org.apache.maven.doxia.sink.impl.SinkEventElement;
+import org.apache.maven.doxia.sink.impl.SinkEventTestingSink;
+import org.apache.maven.doxia.util.DocumentDependencies;
+import org.codehaus.plexus.testing.PlexusTest;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test the memoization of macro executions.
+ */
+@PlexusTest
+public class MacroExecutionCacheTest {
+
+    @Inject
+    private MacroManager mm;
+
+    /** A macro that counts its executions. */
+    private static class CountingMacro extends AbstractMacro implements CacheableMacro {
+        private int executions;
+
+        public void execute(Sink sink, MacroRequest request) {
+            executions++;
+            SinkEventAttributeSet attributes = new SinkEventAttributeSet();
+            attributes.addAttribute("class", request.getParameter("name"));
+            sink.paragraph(attributes);
+            sink.text("Hello " + request.getParameter("name"));
+            sink.paragraph_();
+            // the attributes are re-used by the macro
+            attributes.addAttribute("class", "modified");
+        }
+
+        public String getCacheKey(MacroRequest request) {
+            return "no-cache".equals(request.getParameter("name")) ? null : "";
+        }
+    }
+
+    @Test
+    public void testDisabledByDefault() throws Exception {
+        Macro macro = mm.getMacro("echo");
+
+        assertTrue(macro instanceof org.apache.maven.doxia.macro.EchoMacro);
+    }
+
+    @Test
+    public void testReplayEcho() throws Exception {
+        DefaultMacroManager manager = (DefaultMacroManager) mm;
+        MacroExecutionCache cache = new MacroExecutionCache();
+        manager.setExecutionCache(cache);
+        try {
+            SinkEventTestingSink first = new SinkEventTestingSink();
+            manager.getMacro("echo").execute(first, request("source", "paramName", "paramValue"));
+            SinkEventTestingSink second = new SinkEventTestingSink();
+            manager.getMacro("echo").execute(second, request("source", "paramName", "paramValue"));
+
+            assertEquals(1, cache.getHitCount());
+            assertEquals(1, cache.getMissCount());
+            assertEvents(first.getEventList(), second.getEventList());
+        } finally {
+            manager.setExecutionCache(null);
+        }
+    }
+
+    @Test
+    public void testShareSourceIndependent() throws Exception {
+        DefaultMacroManager manager = (DefaultMacroManager) mm;
+        MacroExecutionCache cache = new MacroExecutionCache();
+        manager.setExecutionCache(cache);
+        try {
+            // the same echo in two documents
+            manager.getMacro("echo").execute(new SinkEventTestingSink(), request("source", "paramName", "paramValue"));
+            manager.getMacro("echo")
+                    .execute(new SinkEventTestingSink(), request("other source", "paramName", "paramValue"));
+
+            assertEquals(1, cache.getHitCount());
+            assertEquals(1, cache.getEntryCount());
+        } finally {
+            manager.setExecutionCache(null);
+        }
+    }
+
+    @Test
+    public void testKey() throws Exception {
+        CountingMacro macro = new CountingMacro();
+        MacroExecutionCache cache = new MacroExecutionCache();
+        CachingMacro cachingMacro = new CachingMacro("counting", macro, cache);
+
+        SinkEventTestingSink first = new SinkEventTestingSink();
+        cachingMacro.execute(first, request("source", "name", "world"));
+        SinkEventTestingSink second = new SinkEventTestingSink();
+        cachingMacro.execute(second, request("source", "name", "world"));
+
+        assertEquals(1, macro.executions);
+        assertEvents(first.getEventList(), second.getEventList());
+        assertEquals(
+                "world", ((SinkEventAttributeSet) second.getEventList().get(0).getArgs()[0]).getAttribute("class"));
+
+        // different parameters
+        cachingMacro.execute(new SinkEventTestingSink(), request("source", "name", "doxia"));
+        assertEquals(2, macro.executions);
+
+        // different source content
+        cachingMacro.execute(new SinkEventTestingSink(), request("changed source", "name", "world"));
+        assertEquals(3, macro.executions);
+
+        // not cacheable
+        cachingMacro.execute(new SinkEventTestingSink(), request("source", "name", "no-cache"));
+        cachingMacro.execute(new SinkEventTestingSink(), request("source", "name", "no-cache"));
+        assertEquals(5, macro.executions);
+        assertEquals(3, cache.getEntryCount());
+
+        cache.invalidate("other");
+        assertEquals(3, cache.getEntryCount());
+        cache.invalidate("counting");
+        assertEquals(0, cache.getEntryCount());
+        assertEquals(0, cache.getSize());
+
+        cachingMacro.execute(new SinkEventTestingSink(), request("source", "name", "world"));
+        assertEquals(6, macro.executions);
+    }
+
+    @Test
+    public void testReplayDependencies() throws Exception {
+        MacroExecutionCache cache = new MacroExecutionCache();
+        CachingMacro cachingMacro = new CachingMacro("snippet", new SnippetMacro(), cache);
+        File basedir = new File("").getAbsoluteFile();
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("file", "src/test/resources/macro/snippet/testSnippet.txt");
+        parameters.put("id", "firstId");
+        String dependency = new File(basedir, "src/test/resources/macro/snippet/testSnippet.txt")
+                .toURI()
+                .toURL()
+                .toString();
+
+        for (int i = 0; i < 2; i++) {
+            DocumentDependencies.begin();
+            try {
+                cachingMacro.execute(
+                        new SinkEventTestingSink(),
+                        new MacroRequest("source", new Xhtml5BaseParser(), new HashMap<>(parameters), basedir));
+            } finally {
+                assertEquals(Collections.singleton(dependency), DocumentDependencies.end());
+            }
+        }
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void testBoundedSize() throws Exception {
+        CountingMacro macro = new CountingMacro();
+        MacroExecutionCache cache = new MacroExecutionCache(1000);
+        CachingMacro cachingMacro = new CachingMacro("counting", macro, cache);
+
+        for (int i = 0; i < 100; i++) {
+            cachingMacro.execute(new SinkEventTestingSink(), request("source", "name", "name" + i));
+            assertTrue(cache.getSize() <= 1000);
+        }
+        assertTrue(cache.getEntryCount() > 0);
+        assertTrue(cache.getEntryCount() < 100);
+
+        // the most recent entry is still cached
+        cachingMacro.execute(new SinkEventTestingSink(), request("source", "name", "name99"));
+        assertEquals(100, macro.executions);
+    }
+
+    private static MacroRequest request(String source, String key, String value) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put(key, value);
+        return new MacroRequest(source, new Xhtml5BaseParser(), parameters, new File("."));
+    }
+
+    private static void assertEvents(List<SinkEventElement> expected, List<SinkEventElement> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getName(), actual.get(i).getName());
+            Object[] expectedArgs = expected.get(i).getArgs();
+            Object[] actualArgs = actual.get(i).getArgs();
+            if (expectedArgs == null) {
+                assertNull(actualArgs);
+                continue;
+            }
+            assertEquals(expectedArgs.length, actualArgs.length);
+            for (int j = 0; j < expectedArgs.length; j++) {
+                if (expectedArgs[j] instanceof String) {
+                    assertEquals(expectedArgs[j], actualArgs[j]);
+                }
+            }
+        }
+    }
+}
@@ -19,15 +19,23 @@
 package org.apache.maven.doxia.macro.snippet;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.maven.doxia.macro.MacroExecutionException;
 import org.apache.maven.doxia.macro.MacroRequest;
 import org.apache.maven.doxia.parser.Xhtml5BaseParser;
 import org.apache.maven.doxia.sink.impl.SinkEventElement;
 import org.apache.maven.doxia.sink.impl.SinkEventTestingSink;
+import org.apache.maven.doxia.util.DocumentDependencies;
 import org.codehaus.plexus.testing.PlexusTest;
 import org.hamcrest.CoreMatchers;
 import org.junit.jupiter.api.Test;
@@ -134,6 +142,30 @@ public class SnippetMacroTest {
         assertThrows(Exception.class, () -> executeSnippetMacro(macroParameters));
     }
 
+    @Test
+    public void testDependencies() throws Exception {
+        Map<String, Object> macroParameters = new HashMap<>();
+        macroParameters.put("file", "src/test/resources/macro/snippet/testSnippet.txt");
+        macroParameters.put("id", "firstId");
+        MacroRequest request = new MacroRequest(null, new Xhtml5BaseParser(), macroParameters, new File(getBasedir()));
+        String dependency = new File(getBasedir(), "src/test/resources/macro/snippet/testSnippet.txt")
+                .toURI()
+                .toURL()
+                .toString();
+
+        DocumentDependencies.begin();
+        new SnippetMacro().execute(new SinkEventTestingSink(), request);
+        assertEquals(Collections.singleton(dependency), DocumentDependencies.end());
+
+        // computing the cache key has no side effect, replays record the dependencies themselves
+        DocumentDependencies.begin();
+        new SnippetMacro().getCacheKey(request);
+        assertTrue(DocumentDependencies.end().isEmpty());
+
+        new SnippetMacro().execute(new SinkEventTestingSink(), request);
+        assertTrue(DocumentDependencies.end().isEmpty());
+    }
+
     @Test
     public void testIgnoreDownloadError() throws Exception {
         Map<String, Object> macroParameters = new HashMap<>();
@@ -151,6 +183,147 @@ public class SnippetMacroTest {
         assertThat(snippet, CoreMatchers.containsString("Error during retrieving content"));
     }
 
+    @Test
+    public void testPrefetch() throws Exception {
+        final int count = 5;
+        final long delay = 400;
+
+        try (DelayedHttpServer server = new DelayedHttpServer(delay)) {
+            File basedir = new File(getBasedir());
+            SnippetMacro macro = new SnippetMacro();
+
+            long start = System.currentTimeMillis();
+            for (int i = 0; i < count; i++) {
+                macro.prefetch(new MacroRequest(null, new Xhtml5BaseParser(), snippetParameters(server, i), basedir));
+            }
+
+            for (int i = 0; i < count; i++) {
+                SinkEventTestingSink sink = new SinkEventTestingSink();
+                MacroRequest request =
+                        new MacroRequest(null, new Xhtml5BaseParser(), snippetParameters(server, i), basedir);
+                macro.execute(sink, request);
+
+                String snippet = (String) sink.getEventList().get(1).getArgs()[0];
+                assertThat(snippet, CoreMatchers.containsString("content of /prefetch/" + i));
+            }
+            long duration = System.currentTimeMillis() - start;
+
+            assertEquals(count, server.getRequestCount());
+            assertTrue(duration < (count - 1) * delay, "snippets were not fetched concurrently: " + duration + "ms");
+        }
+    }
+
+    /**
+     * Prefetched sources are cached whether they are used or not, e.g. when the macro is replayed from the
+     * macro cache, so that prefetching goes on past the maximum number of pending sources.
+     *
+     * @throws Exception if a macro fails during testing.
+     */
+    @Test
+    public void testPrefetchWithoutExecution() throws Exception {
+        final int count = SnippetMacro.MAX_PENDING + 10;
+
+        try (DelayedHttpServer server = new DelayedHttpServer(0)) {
+            File basedir = new File(getBasedir());
+            SnippetMacro macro = new SnippetMacro();
+
+            for (int i = 0; i < count; i++) {
+                macro.prefetch(new MacroRequest(null, new Xhtml5BaseParser(), snippetParameters(server, i), basedir));
+                if ((i + 1) % (SnippetMacro.MAX_PENDING / 2) == 0) {
+                    // let the pending sources be read, as a document would while it is parsed
+                    awaitRequests(server, i + 1);
+                }
+            }
+            awaitRequests(server, count);
+
+            for (int i = 0; i < count; i += 50) {
+                SinkEventTestingSink sink = new SinkEventTestingSink();
+                macro.execute(
+                        sink, new MacroRequest(null, new Xhtml5BaseParser(), snippetParameters(server, i), basedir));
+
+                String snippet = (String) sink.getEventList().get(1).getArgs()[0];
+                assertThat(snippet, CoreMatchers.containsString("content of /prefetch/" + i));
+            }
+            assertEquals(count, server.getRequestCount());
+        }
+    }
+
+    private static void awaitRequests(DelayedHttpServer server, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (server.getRequestCount() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, server.getRequestCount(), "sources not prefetched");
+    }
+
+    /**
+     * One instance is shared by all documents, parallel executions must not see each others parameters.
+     *
+     * @throws Exception if a macro fails during testing.
+     */
+    @Test
+    public void testConcurrentExecution() throws Exception {
+        SnippetMacro macro = new SnippetMacro();
+
+        List<Map<String, Object>> parameters = new ArrayList<>();
+        for (String id : new String[] {"", "firstId", "secondId"}) {
+            for (String ignoreDownloadError : new String[] {null, "true", "false"}) {
+                Map<String, Object> macroParameters = new HashMap<>();
+                macroParameters.put("file", "src/test/resources/macro/snippet/testSnippet.txt");
+                macroParameters.put("encoding", "UTF-8");
+                macroParameters.put("id", id);
+                if (ignoreDownloadError != null) {
+                    macroParameters.put("ignoreDownloadError", ignoreDownloadError);
+                }
+                parameters.add(macroParameters);
+
+                Map<String, Object> missing = new HashMap<>(macroParameters);
+                missing.put("file", "src/test/resources/macro/snippet/missing.txt");
+                parameters.add(missing);
+            }
+        }
+        List<String> expected = new ArrayList<>();
+        for (Map<String, Object> macroParameters : parameters) {
+            expected.add(executeToString(macro, macroParameters));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<String>> tasks = new ArrayList<>();
+            for (int i = 0; i < 50 * parameters.size(); i++) {
+                // each request gets its own map, the request adds the source content and parser to it
+                Map<String, Object> macroParameters = new HashMap<>(parameters.get(i % parameters.size()));
+                tasks.add(() -> executeToString(macro, macroParameters));
+            }
+
+            List<Future<String>> results = executor.invokeAll(tasks);
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals(expected.get(i % expected.size()), results.get(i).get(), "execution " + i);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static String executeToString(SnippetMacro macro, Map<String, Object> macroParameters) {
+        SinkEventTestingSink sink = new SinkEventTestingSink();
+        MacroRequest request = new MacroRequest(null, new Xhtml5BaseParser(), macroParameters, new File(getBasedir()));
+        try {
+            macro.execute(sink, request);
+        } catch (MacroExecutionException e) {
+            return "failed";
+        }
+        return (String) sink.getEventList().get(1).getArgs()[0];
+    }
+
+    private static Map<String, Object> snippetParameters(DelayedHttpServer server, int i) {
+        Map<String, Object> macroParameters = new HashMap<>();
+        macroParameters.put("url", server.url("/prefetch/" + i));
+        macroParameters.put("id", "snippetId");
+        macroParameters.put("ignoreDownloadError", "false");
+        return macroParameters;
+    }
+
     private SinkEventTestingSink executeSnippetMacro(Map<String, Object> macroParameters)
             throws MacroExecutionException {
         File basedir = new File(getBasedir());
@@ -18,9 +18,18 @@
  */
 package org.apache.maven.doxia.macro.snippet;
 
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class SnippetReaderTest {
@@ -39,4 +48,38 @@ public class SnippetReaderTest {
         assertFalse(SnippetReader.isDemarcator(snippetId, what, "SNIPPET START first_id"));
         assertFalse(SnippetReader.isDemarcator(snippetId, what, "SNIPPET START id_first"));
     }
+
+    @Test
+    public void testIndexAllSnippetsOfSource() throws IOException {
+        URL url = new File("src/test/resources/macro/snippet/testSnippet.txt")
+                .toURI()
+                .toURL();
+        SnippetIndex index = SnippetIndex.read(url, "UTF-8");
+
+        assertEquals(Collections.singletonList("first snippet"), index.getLines("firstId"));
+        assertEquals(Collections.singletonList("second snippet"), index.getLines("secondId"));
+        assertEquals(Collections.singletonList("Этот сниппет в формате Unicode (UTF-8)"), index.getLines("thirdId"));
+        // resolved ranges are reused
+        assertEquals(Collections.singletonList("first snippet"), index.getLines("firstId"));
+
+        assertTrue(index.getLines(null).contains("preamble"));
+        assertTrue(index.getLines("").contains("conclusion"));
+
+        assertThrows(IOException.class, () -> index.getLines("first"));
+    }
+
+    @Test
+    public void testIndexDemarcatorOrder() throws IOException {
+        List<String> lines = Arrays.asList(
+                "SNIPPET END one", "SNIPPET START two", "a", "SNIPPET START two", "b", "snippet end two", "c");
+        SnippetIndex index = new SnippetIndex(null, lines);
+
+        IOException e = assertThrows(IOException.class, () -> index.getLines("one"));
+        assertTrue(e.getMessage().contains("START"));
+        assertEquals(Arrays.asList("a", "b"), index.getLines("two"));
+
+        SnippetIndex unterminated = new SnippetIndex(null, Arrays.asList("SNIPPET START three", "x"));
+        e = assertThrows(IOException.class, () -> unterminated.getLines("three"));
+        assertTrue(e.getMessage().contains("END"));
+    }
 }
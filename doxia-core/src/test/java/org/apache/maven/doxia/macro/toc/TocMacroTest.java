@@ -20,9 +20,15 @@ package org.apache.maven.doxia.macro.toc;
 
 import java.io.File;
 import java.io.StringWriter;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.maven.doxia.macro.MacroExecutionException;
 import org.apache.maven.doxia.macro.MacroRequest;
@@ -162,4 +168,53 @@ public class TocMacroTest {
         assertTrue(out.toString().contains("<a href=\"#h12\">h12</a>"));
         assertTrue(out.toString().contains("<a href=\"#h2\">h2</a>"));
     }
+
+    /**
+     * One instance is shared by all documents, parallel executions must not see each others parameters.
+     *
+     * @throws Exception if a macro fails during testing.
+     */
+    @Test
+    public void testConcurrentExecution() throws Exception {
+        String sourceContent = "<div><h1>h11</h1><h1>h12</h1><h2>h2</h2><h3>h3</h3><h4>h4</h4><h1>h13</h1></div>";
+        TocMacro macro = new TocMacro();
+
+        List<Map<String, Object>> parameters = new ArrayList<>();
+        List<String> expected = new ArrayList<>();
+        for (int section = 0; section <= 3; section++) {
+            for (int toDepth = 1; toDepth <= 4; toDepth++) {
+                Map<String, Object> macroParameters = new HashMap<>();
+                macroParameters.put("section", String.valueOf(section));
+                macroParameters.put("fromDepth", String.valueOf(toDepth % 2));
+                macroParameters.put("toDepth", String.valueOf(toDepth));
+                parameters.add(macroParameters);
+                expected.add(executeToString(macro, sourceContent, macroParameters));
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<String>> tasks = new ArrayList<>();
+            for (int i = 0; i < 50 * parameters.size(); i++) {
+                // each request gets its own map, the request adds the source content and parser to it
+                Map<String, Object> macroParameters = new HashMap<>(parameters.get(i % parameters.size()));
+                tasks.add(() -> executeToString(macro, sourceContent, macroParameters));
+            }
+
+            List<Future<String>> results = executor.invokeAll(tasks);
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals(expected.get(i % expected.size()), results.get(i).get(), "execution " + i);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static String executeToString(TocMacro macro, String sourceContent, Map<String, Object> macroParameters)
+            throws MacroExecutionException {
+        StringWriter out = new StringWriter();
+        MacroRequest request = new MacroRequest(sourceContent, new Xhtml5BaseParser(), macroParameters, new File(""));
+        macro.execute(new Xhtml5BaseSink(out), request);
+        return out.toString();
+    }
 }
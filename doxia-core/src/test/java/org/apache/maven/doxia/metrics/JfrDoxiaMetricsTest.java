@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.metrics;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JfrDoxiaMetricsTest {
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void tearDown() {
+        MetricsRegistry.setMetrics(null);
+    }
+
+    @Test
+    void testEvents() throws Exception {
+        assertFalse(MetricsRegistry.getMetrics().isEnabled());
+
+        Path file = tempDir.resolve("doxia.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("org.apache.maven.doxia.DocumentParse");
+            recording.enable("org.apache.maven.doxia.MacroExecution");
+            recording.enable("org.apache.maven.doxia.XmlValidation");
+            recording.enable("org.apache.maven.doxia.SinkClose");
+            recording.start();
+
+            DoxiaMetrics metrics = MetricsRegistry.getMetrics();
+            assertTrue(metrics.isEnabled());
+
+            Map<String, Object> parameters = new HashMap<>();
+            parameters.put("section", "2");
+            metrics.documentParsed("xdoc", "index.xml", 100, 5_000_000);
+            metrics.phaseCompleted(DoxiaMetrics.Phase.VALIDATE, "index.xml", 2_000_000);
+            metrics.macroExecuted("toc", parameters, 1_000_000);
+            metrics.bytesWritten(42);
+            metrics.phaseCompleted(DoxiaMetrics.Phase.WRITE, null, 3_000_000);
+
+            recording.stop();
+            recording.dump(file);
+        }
+        assertFalse(MetricsRegistry.getMetrics().isEnabled());
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().startsWith("org.apache.maven.doxia."))
+                .collect(Collectors.toList());
+        assertEquals(4, events.size());
+
+        RecordedEvent parse = find(events, "DocumentParse");
+        assertEquals("xdoc", parse.getString("parserId"));
+        assertEquals("index.xml", parse.getString("reference"));
+        assertEquals(100, parse.getLong("sourceLength"));
+        assertEquals(5, parse.getDuration("parseTime").toMillis());
+
+        RecordedEvent macro = find(events, "MacroExecution");
+        assertEquals("toc", macro.getString("macroId"));
+        assertEquals(1, macro.getDuration("executionTime").toMillis());
+
+        assertEquals(
+                2, find(events, "XmlValidation").getDuration("validationTime").toMillis());
+
+        RecordedEvent close = find(events, "SinkClose");
+        assertEquals(42, close.getLong("bytesWritten"));
+        assertEquals(3, close.getDuration("writeTime").toMillis());
+    }
+
+    @Test
+    void testWithListener() throws Exception {
+        JmxDoxiaMetrics listener = new JmxDoxiaMetrics();
+        MetricsRegistry.setMetrics(listener);
+        assertTrue(MetricsRegistry.getMetrics().isEnabled());
+
+        try (Recording recording = new Recording()) {
+            recording.enable("org.apache.maven.doxia.DocumentParse");
+            recording.start();
+            MetricsRegistry.getMetrics().documentParsed("apt", "index.apt", 10, 1_000);
+        }
+
+        // the listener still receives the measurements without a recording
+        MetricsRegistry.getMetrics().documentParsed("apt", "other.apt", 10, 1_000);
+        assertEquals(2, listener.getDocumentCount());
+    }
+
+    private static RecordedEvent find(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals("org.apache.maven.doxia." + name))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No " + name + " event"));
+    }
+}
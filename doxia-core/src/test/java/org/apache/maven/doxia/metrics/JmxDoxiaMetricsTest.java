@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.metrics;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+
+import org.apache.maven.doxia.parser.AbstractParser;
+import org.apache.maven.doxia.parser.ParseException;
+import org.apache.maven.doxia.parser.SourceBuffer;
+import org.apache.maven.doxia.sink.Sink;
+import org.apache.maven.doxia.sink.impl.AbstractTextSinkFactory;
+import org.apache.maven.doxia.sink.impl.SinkAdapter;
+import org.apache.maven.doxia.sink.impl.TextSink;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JmxDoxiaMetricsTest {
+    @AfterEach
+    void tearDown() {
+        MetricsRegistry.setMetrics(null);
+    }
+
+    @Test
+    void testDisabledByDefault() {
+        assertFalse(MetricsRegistry.getMetrics().isEnabled());
+    }
+
+    @Test
+    void testMXBean() throws Exception {
+        JmxDoxiaMetrics metrics = new JmxDoxiaMetrics();
+        metrics.documentParsed("apt", "index.apt", 100, 5_000_000);
+        metrics.documentParsed("apt", "other.apt", 50, 5_000_000);
+        metrics.phaseCompleted(DoxiaMetrics.Phase.PARSE, "index.apt", 3_000_000);
+        metrics.phaseCompleted(DoxiaMetrics.Phase.PARSE, "other.apt", 4_000_000);
+        metrics.macroExecuted("toc", Collections.emptyMap(), 2_000_000);
+        metrics.macroExecuted("toc", Collections.emptyMap(), 1_000_000);
+        metrics.cacheLookup(DoxiaMetrics.MACRO_CACHE, true);
+        metrics.cacheLookup(DoxiaMetrics.MACRO_CACHE, false);
+        metrics.cacheLookup(DoxiaMetrics.MACRO_CACHE, true);
+        metrics.cacheLookup(DoxiaMetrics.MACRO_CACHE, true);
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(JmxDoxiaMetrics.OBJECT_NAME);
+        metrics.register();
+        try {
+            assertEquals(2L, server.getAttribute(name, "DocumentCount"));
+            assertEquals(150L, server.getAttribute(name, "SourceLength"));
+            TabularData phases = (TabularData) server.getAttribute(name, "PhaseTimes");
+            assertEquals(7L, phases.get(new Object[] {"PARSE"}).get("value"));
+            TabularData macros = (TabularData) server.getAttribute(name, "MacroCounts");
+            assertEquals(2L, macros.get(new Object[] {"toc"}).get("value"));
+            assertEquals(3L, metrics.getMacroTimes().get("toc"));
+            assertEquals(0.75, metrics.getCacheHitRates().get(DoxiaMetrics.MACRO_CACHE));
+
+            server.invoke(name, "reset", null, null);
+            assertEquals(0L, server.getAttribute(name, "DocumentCount"));
+            assertTrue(metrics.getMacroCounts().isEmpty());
+        } finally {
+            metrics.unregister();
+        }
+        assertFalse(server.isRegistered(name));
+    }
+
+    @Test
+    void testSinkOutput() throws Exception {
+        JmxDoxiaMetrics metrics = new JmxDoxiaMetrics();
+        MetricsRegistry.setMetrics(metrics);
+
+        AbstractTextSinkFactory factory = new AbstractTextSinkFactory() {
+            @Override
+            protected Sink createSink(Writer writer, String encoding) {
+                return new TextSink(writer);
+            }
+        };
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Sink sink = factory.createSink(out);
+        sink.text("café");
+        sink.close();
+        sink.close();
+
+        assertTrue(out.toString("UTF-8").contains("café"));
+        assertEquals(out.size(), metrics.getBytesWritten());
+        assertTrue(metrics.getPhaseTimes().containsKey("WRITE"));
+    }
+
+    @Test
+    void testEventCountingSink() {
+        EventCountingSink counter = new EventCountingSink(new SinkAdapter());
+        Sink sink = counter.getSink();
+        sink.paragraph();
+        sink.text("a");
+        sink.text("b");
+        sink.paragraph_();
+
+        assertEquals(2L, counter.getCounts().get("text"));
+        assertEquals(1L, counter.getCounts().get("paragraph"));
+        assertEquals(3, counter.getCounts().size());
+    }
+
+    @Test
+    void testParseMeasured() throws Exception {
+        JmxDoxiaMetrics metrics = new JmxDoxiaMetrics();
+        MetricsRegistry.setMetrics(metrics);
+        RecordingParser parser = new RecordingParser();
+        Sink sink = new SinkAdapter();
+
+        parser.parse(new StringReader("some text"), sink, "test.txt");
+
+        assertEquals(1, metrics.getDocumentCount());
+        assertEquals(9, metrics.getSourceLength());
+        assertEquals(1L, metrics.getSinkEventCounts().get("text"));
+        assertNotSame(sink, parser.sink);
+    }
+
+    @Test
+    void testParseMeasuredWithoutWrapping() throws Exception {
+        JmxDoxiaMetrics metrics = new JmxDoxiaMetrics() {
+            @Override
+            public boolean isSinkEventCountingEnabled() {
+                return false;
+            }
+        };
+        MetricsRegistry.setMetrics(metrics);
+        RecordingParser parser = new RecordingParser();
+        Sink sink = new SinkAdapter();
+        Reader source = SourceBuffer.of("some text").newReader();
+
+        parser.parse(source, sink, "test.txt");
+
+        assertEquals(1, metrics.getDocumentCount());
+        assertEquals(9, metrics.getSourceLength());
+        assertTrue(metrics.getSinkEventCounts().isEmpty());
+        assertSame(source, parser.source);
+        assertSame(sink, parser.sink);
+    }
+
+    /**
+     * Emits the source as text, and keeps the reader and sink it has been given.
+     */
+    private static class RecordingParser extends AbstractParser {
+        private Reader source;
+
+        private Sink sink;
+
+        @Override
+        public void parse(Reader source, Sink sink, String reference) throws ParseException {
+            if (parseMeasured(source, sink, reference)) {
+                return;
+            }
+
+            this.source = source;
+            this.sink = sink;
+            try {
+                sink.text(SourceBuffer.read(source).toString());
+            } catch (IOException e) {
+                throw new ParseException("Cannot read", e);
+            }
+        }
+    }
+}
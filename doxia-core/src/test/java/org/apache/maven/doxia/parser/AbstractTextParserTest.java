@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.parser;
+
+import java.io.Reader;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.apache.maven.doxia.sink.Sink;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class AbstractTextParserTest {
+    private final AbstractTextParser parser = new AbstractTextParser() {
+        @Override
+        public void parse(Reader source, Sink sink, String reference) {
+            // not used
+        }
+    };
+
+    @Test
+    public void testParseParts() throws Exception {
+        parser.setParallelism(2);
+        List<Callable<String>> parts = Arrays.asList(() -> "a", () -> "b", () -> "c");
+
+        assertEquals(Arrays.asList("a", "b", "c"), parser.parseParts(parts));
+        // the executor is reused
+        assertEquals(Arrays.asList("a", "b", "c"), parser.parseParts(parts));
+
+        parts = Arrays.asList(() -> "a", () -> {
+            throw new ParseException("failed");
+        });
+        assertNull(parser.parseParts(parts));
+    }
+
+    @Test
+    public void testSetParallelismWhileParsing() throws Exception {
+        parser.setParallelism(2);
+
+        // the parallelism changes while the parts are submitted
+        List<Callable<String>> parts = new AbstractList<Callable<String>>() {
+            @Override
+            public Callable<String> get(int index) {
+                if (index == 1) {
+                    parser.setParallelism(3);
+                }
+                return () -> "part " + index;
+            }
+
+            @Override
+            public int size() {
+                return 3;
+            }
+        };
+
+        assertNull(parser.parseParts(parts));
+        assertEquals(Arrays.asList("part 0", "part 1", "part 2"), parser.parseParts(parts));
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.parser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.maven.doxia.util.Hashes;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SourceBufferTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testRead() throws Exception {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            content.append("line ").append(i).append('\n');
+        }
+
+        SourceBuffer buffer = SourceBuffer.read(new StringReader(content.toString()));
+
+        assertEquals(content.length(), buffer.length());
+        assertEquals(content.toString(), buffer.toString());
+        assertSame(buffer.toString(), buffer.toString());
+        assertEquals(
+                "line 4999\n",
+                buffer.subSequence(buffer.length() - 10, buffer.length()).toString());
+        assertEquals(content.indexOf("line 1234"), buffer.indexOf("line 1234"));
+        assertEquals(-1, buffer.indexOf("line 5000"));
+        assertTrue(buffer.startsWith("line 0"));
+        assertFalse(buffer.contains("%{"));
+
+        assertEquals(content.toString(), IOUtils.toString(buffer.newReader()));
+    }
+
+    @Test
+    public void testShareUnreadReader() throws Exception {
+        SourceBuffer buffer = SourceBuffer.of("<p>content</p>");
+
+        Reader reader = buffer.newReader();
+        assertSame(buffer, SourceBuffer.read(reader));
+        assertEquals(-1, reader.read());
+
+        reader = buffer.newReader();
+        assertEquals('<', reader.read());
+        SourceBuffer rest = SourceBuffer.read(reader);
+        assertNotSame(buffer, rest);
+        assertEquals("p>content</p>", rest.toString());
+    }
+
+    @Test
+    public void testLines() throws Exception {
+        for (String content : new String[] {"", "a", "a\n", "a\r\nb\rc\n\nd", "\r\n\r\r\n", "x\n\n"}) {
+            List<String> expected = new ArrayList<>();
+            try (BufferedReader reader = new BufferedReader(new StringReader(content))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    expected.add(line);
+                }
+            }
+
+            List<String> actual = new ArrayList<>();
+            SourceLines lines = SourceBuffer.lines(SourceBuffer.of(content).newReader());
+            while (lines.next()) {
+                assertEquals(actual.size() + 1, lines.getLineNumber());
+                actual.add(lines.getLine());
+            }
+            assertEquals(expected, actual, content);
+        }
+
+        SourceBuffer buffer = SourceBuffer.of("skipped\nfirst\nsecond");
+        Reader reader = buffer.newReader(8, buffer.length());
+        SourceLines lines = SourceBuffer.lines(reader);
+        assertEquals(-1, reader.read());
+        assertTrue(lines.next());
+        assertEquals(8, lines.getLineStart());
+        assertEquals(13, lines.getLineEnd());
+        assertEquals(1, lines.getLineNumber());
+        assertTrue(lines.next());
+        assertEquals("second", lines.getLine());
+        assertFalse(lines.next());
+
+        assertNull(SourceBuffer.lines(new StringReader("not a buffer")));
+    }
+
+    @Test
+    public void testReadFile() throws Exception {
+        assertEquals("plain ascii", readFile("plain ascii".getBytes(StandardCharsets.US_ASCII), UTF_8));
+        assertEquals("caf\u00e9 \u20ac", readFile("caf\u00e9 \u20ac".getBytes(UTF_8), UTF_8));
+        assertEquals(
+                "caf\u00e9", readFile("caf\u00e9".getBytes(StandardCharsets.ISO_8859_1), StandardCharsets.ISO_8859_1));
+        assertEquals("", readFile(new byte[0], UTF_8));
+    }
+
+    @Test
+    public void testReadFileWithByteOrderMark() throws Exception {
+        assertEquals(
+                "caf\u00e9",
+                readFile(
+                        concat(new byte[] {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF}, "caf\u00e9".getBytes(UTF_8)),
+                        StandardCharsets.ISO_8859_1));
+        assertEquals(
+                "caf\u00e9",
+                readFile(
+                        concat(new byte[] {(byte) 0xFE, (byte) 0xFF}, "caf\u00e9".getBytes(StandardCharsets.UTF_16BE)),
+                        UTF_8));
+        assertEquals(
+                "caf\u00e9",
+                readFile(
+                        concat(new byte[] {(byte) 0xFF, (byte) 0xFE}, "caf\u00e9".getBytes(StandardCharsets.UTF_16LE)),
+                        UTF_8));
+    }
+
+    @Test
+    public void testReadFileWithXmlProlog() throws Exception {
+        String xml = "<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?>\n<p>caf\u00e9</p>";
+        assertEquals(xml, readFile(xml.getBytes(StandardCharsets.ISO_8859_1), UTF_8));
+
+        xml = "<?xml version='1.0'?>\n<p>caf\u00e9</p>";
+        assertEquals(xml, readFile(xml.getBytes(UTF_8), UTF_8));
+
+        assertThrows(
+                UnsupportedEncodingException.class,
+                () -> readFile("<?xml version=\"1.0\" encoding=\"x-unknown\"?><p/>".getBytes(UTF_8), UTF_8));
+    }
+
+    @Test
+    public void testReadLargeFile() throws Exception {
+        // large enough to be mapped, non-ASCII after the first chunk
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            content.append("line ").append(i).append(i % 1000 == 999 ? " \u00e9\u20ac\n" : "\n");
+        }
+
+        assertEquals(content.toString(), readFile(content.toString().getBytes(UTF_8), UTF_8));
+        assertEquals(
+                content.toString(),
+                readFile(content.toString().getBytes(StandardCharsets.UTF_16LE), StandardCharsets.UTF_16LE));
+    }
+
+    @Test
+    public void testSha256() throws Exception {
+        SourceBuffer buffer = SourceBuffer.read(new StringReader("caf\u00e9"));
+
+        assertEquals(Hashes.sha256("caf\u00e9".getBytes(UTF_8)), buffer.sha256());
+        assertSame(buffer.sha256(), buffer.sha256());
+    }
+
+    @Test
+    public void testDecode() throws Exception {
+        assertEquals(
+                "caf\u00e9",
+                SourceBuffer.decode("caf\u00e9".getBytes(UTF_8), UTF_8).toString());
+        assertEquals(
+                "caf\u00e9",
+                SourceBuffer.decode(
+                                concat(
+                                        new byte[] {(byte) 0xFF, (byte) 0xFE},
+                                        "caf\u00e9".getBytes(StandardCharsets.UTF_16LE)),
+                                UTF_8)
+                        .toString());
+
+        String xml = "<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?>\n<p>caf\u00e9</p>";
+        assertEquals(
+                xml,
+                SourceBuffer.decode(xml.getBytes(StandardCharsets.ISO_8859_1), UTF_8)
+                        .toString());
+    }
+
+    private String readFile(byte[] content, Charset defaultEncoding) throws IOException {
+        Path file = Files.createTempFile(tempDir, "source", ".txt");
+        Files.write(file, content);
+        return SourceBuffer.read(file, defaultEncoding).toString();
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] bytes = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, bytes, first.length, second.length);
+        return bytes;
+    }
+}
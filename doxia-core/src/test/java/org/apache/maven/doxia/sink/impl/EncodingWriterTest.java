@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.sink.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.maven.doxia.sink.Sink;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class EncodingWriterTest {
+    private static final String TEXT =
+            "<p>ASCII, café, €, 😀 and a lone \ud83d surrogate \ude00 in a longer paragraph</p>";
+
+    @Test
+    public void testEncoding() throws Exception {
+        for (Charset charset :
+                new Charset[] {StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1, StandardCharsets.US_ASCII}) {
+            // a small buffer is flushed many times, also in the middle of characters
+            assertArrayEquals(expected(charset), encode(charset, 16), charset.name());
+            assertArrayEquals(expected(charset), encode(charset, 8192), charset.name());
+        }
+    }
+
+    @Test
+    public void testSurrogatePairSplitBetweenWrites() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (Writer writer = new EncodingWriter(out, StandardCharsets.UTF_8, 16)) {
+            writer.write("a\ud83d");
+            writer.write(new char[] {'\ude00', 'b'});
+            writer.write('\ud83d');
+        }
+
+        assertEquals("a😀b?", new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testSinkFactory() throws Exception {
+        AbstractTextSinkFactory factory = new AbstractTextSinkFactory() {
+            @Override
+            protected Sink createSink(Writer writer, String encoding) {
+                return new TextSink(writer);
+            }
+        };
+        factory.setBufferSize(16);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Sink sink = factory.createSink(out, "UTF-8");
+        sink.text("café, € and 😀");
+        sink.close();
+
+        assertEquals("text: café, € and 😀", new String(out.toByteArray(), StandardCharsets.UTF_8).trim());
+    }
+
+    private static byte[] encode(Charset charset, int bufferSize) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (Writer writer = new EncodingWriter(out, charset, bufferSize)) {
+            for (int i = 0; i < 10; i++) {
+                writer.write(TEXT);
+                writer.write(TEXT.toCharArray(), i, TEXT.length() - i);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] expected(Charset charset) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (Writer writer = new OutputStreamWriter(out, charset)) {
+            for (int i = 0; i < 10; i++) {
+                writer.write(TEXT);
+                writer.write(TEXT.toCharArray(), i, TEXT.length() - i);
+            }
+        }
+        return out.toByteArray();
+    }
+}
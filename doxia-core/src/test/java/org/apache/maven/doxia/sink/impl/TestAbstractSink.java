@@ -18,6 +18,9 @@
  */
 package org.apache.maven.doxia.sink.impl;
 
+import java.io.IOException;
+import java.io.StringWriter;
+
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -42,4 +45,19 @@ public class TestAbstractSink {
         assertEquals(EOL + "Hello world", AbstractSink.unifyEOLs(EOL_UNIX + "Hello world"));
         assertEquals(EOL + "Hello world", AbstractSink.unifyEOLs(EOL_WIN + "Hello world"));
     }
+
+    @Test
+    public void testAppendEscaped() throws IOException {
+        String EOL = AbstractSink.EOL;
+        boolean[] escaped = new boolean['*' + 1];
+        escaped['*'] = true;
+
+        StringBuilder builder = new StringBuilder();
+        AbstractSink.appendEscaped("*Hello*\r\nworld\r*", escaped, builder);
+        assertEquals("\\*Hello\\*" + EOL + "world" + EOL + "\\*", builder.toString());
+
+        StringWriter out = new StringWriter();
+        AbstractSink.appendEscaped(new StringBuilder("Hello\n\u00e9*_"), new boolean[0], new SinkWriter(out));
+        assertEquals("Hello" + EOL + "\u00e9*_", out.toString());
+    }
 }
@@ -20,7 +20,9 @@ package org.apache.maven.doxia.sink.impl;
 
 import javax.swing.text.html.HTML.Attribute;
 
+import java.io.IOException;
 import java.io.StringWriter;
+import java.io.UncheckedIOException;
 import java.io.Writer;
 
 import org.apache.maven.doxia.markup.Markup;
@@ -1148,4 +1150,42 @@ public class Xhtml5BaseSinkTest {
 
         assertTrue(result.contains("&#x2713;"));
     }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testDeprecatedTextBuffer() {
+        try (Xhtml5BaseSink sink = new Xhtml5BaseSink(writer)) {
+            sink.setHeadFlag(true);
+            sink.text("head ");
+            sink.getTextBuffer().append("text");
+            sink.text(" events");
+
+            assertEquals("head text events", sink.getTextBuilder().toString());
+            assertEquals("head text events", sink.getTextBuffer().toString());
+
+            sink.resetTextBuffer();
+            assertEquals(0, sink.getTextBuffer().length());
+        }
+    }
+
+    @Test
+    public void testWriteError() {
+        Writer failing = new Writer() {
+            @Override
+            public void write(char[] cbuf, int off, int len) throws IOException {
+                throw new IOException("disk full");
+            }
+
+            @Override
+            public void flush() {}
+
+            @Override
+            public void close() {}
+        };
+
+        try (Xhtml5BaseSink sink = new Xhtml5BaseSink(failing)) {
+            UncheckedIOException e = assertThrows(UncheckedIOException.class, () -> sink.text("text"));
+            assertEquals("disk full", e.getCause().getMessage());
+        }
+    }
 }
@@ -21,6 +21,7 @@ package org.apache.maven.doxia.util;
 import java.io.StringReader;
 
 import org.apache.maven.doxia.parser.ParseException;
+import org.apache.maven.doxia.parser.SourceBuffer;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -57,4 +58,31 @@ public class ByLineReaderSourceTest {
         assertEquals("3", r.getNextLine());
         assertNull(r.getNextLine());
     }
+
+    /**
+     * @throws ParseException on error
+     */
+    @Test
+    public final void testUseBuffer() throws ParseException {
+        ByLineReaderSource r =
+                new ByLineReaderSource(SourceBuffer.of("1 \r\n2\n3").newReader());
+        assertEquals(-1, r.getLineNumber());
+        assertEquals("", r.getName());
+
+        assertEquals("1 ", r.getNextLine());
+        assertEquals("2", r.getNextLine());
+        r.ungetLine();
+        assertEquals("2", r.getNextLine());
+        r.ungetLine();
+        try {
+            r.ungetLine();
+            fail();
+        } catch (IllegalStateException e) {
+            // ok;
+        }
+        assertEquals("2", r.getNextLine());
+        assertEquals("3", r.getNextLine());
+        assertEquals(3, r.getLineNumber());
+        assertNull(r.getNextLine());
+    }
 }
@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class HashesTest {
+    private static final String ABC_HASH = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+
+    @Test
+    public void testSha256() {
+        assertEquals(ABC_HASH, Hashes.sha256("abc".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855", Hashes.sha256(new byte[0]));
+    }
+
+    @Test
+    public void testSha256Buffer() {
+        ByteBuffer buffer = ByteBuffer.wrap("xabc".getBytes(StandardCharsets.US_ASCII));
+        buffer.get();
+
+        assertEquals(ABC_HASH, Hashes.sha256(buffer));
+        assertEquals(0, buffer.remaining());
+    }
+
+    @Test
+    public void testSha256Text() {
+        assertEquals(ABC_HASH, Hashes.sha256((CharSequence) "abc"));
+
+        // larger than a chunk, with characters encoded on several bytes across the chunk boundaries
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            text.append(i).append(" caf\u00e9 \u20ac \ud83d\ude00\n");
+        }
+        assertEquals(Hashes.sha256(text.toString().getBytes(StandardCharsets.UTF_8)), Hashes.sha256(text));
+    }
+}
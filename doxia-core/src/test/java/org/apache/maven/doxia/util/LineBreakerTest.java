@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.doxia.util;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class LineBreakerTest {
+    private static final String EOL = System.lineSeparator();
+
+    @Test
+    public void testWrite() throws IOException {
+        StringWriter out = new StringWriter();
+        LineBreaker breaker = new LineBreaker(out, 10);
+
+        breaker.write("one two three four");
+        breaker.write("teen  five\r\nsix\rseven");
+        breaker.flush();
+
+        assertEquals(
+                "one two" + EOL + "three" + EOL + "fourteen" + EOL + "five" + EOL + "six" + EOL + "seven",
+                out.toString());
+    }
+
+    @Test
+    public void testPreserveSpace() {
+        StringWriter out = new StringWriter();
+        LineBreaker breaker = new LineBreaker(out, 10);
+
+        breaker.write("a  b", true);
+        breaker.write("  c\nd", true);
+        breaker.flush();
+
+        assertEquals("a  b  c" + EOL + "d", out.toString());
+    }
+
+    @Test
+    public void testSupplementaryCharacters() throws IOException {
+        StringWriter out = new StringWriter();
+        LineBreaker breaker = new LineBreaker(out, 5);
+
+        // a surrogate pair is one character, also when it is split between two texts
+        String clef = "\uD834\uDD1E";
+        breaker.write(clef + clef + " " + clef.charAt(0));
+        breaker.write(clef.charAt(1) + clef + " x");
+        breaker.close();
+
+        assertEquals(clef + clef + " " + clef + clef + EOL + "x", out.toString());
+    }
+
+    @Test
+    public void testFailure() {
+        Writer failing = new Writer() {
+            @Override
+            public void write(char[] cbuf, int off, int len) throws IOException {
+                throw new IOException("disk full");
+            }
+
+            @Override
+            public void flush() {}
+
+            @Override
+            public void close() {}
+        };
+        LineBreaker breaker = new LineBreaker(failing);
+
+        assertEquals(
+                "disk full",
+                assertThrows(IOException.class, () -> breaker.write("a b")).getMessage());
+        assertThrows(UncheckedIOException.class, () -> breaker.write("a b", false));
+    }
+}
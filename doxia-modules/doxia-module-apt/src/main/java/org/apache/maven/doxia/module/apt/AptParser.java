@@ -21,23 +21,29 @@ package org.apache.maven.doxia.module.apt;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
+import java.io.FilterReader;
 import java.io.IOException;
 import java.io.Reader;
-import java.io.StringReader;
-import java.io.StringWriter;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.StringTokenizer;
+import java.util.concurrent.Callable;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.maven.doxia.macro.MacroExecutionException;
 import org.apache.maven.doxia.macro.MacroRequest;
 import org.apache.maven.doxia.macro.manager.MacroNotFoundException;
 import org.apache.maven.doxia.parser.AbstractTextParser;
 import org.apache.maven.doxia.parser.ParseException;
+import org.apache.maven.doxia.parser.SourceBuffer;
+import org.apache.maven.doxia.parser.SourceLines;
 import org.apache.maven.doxia.sink.Sink;
 import org.apache.maven.doxia.sink.SinkEventAttributes;
+import org.apache.maven.doxia.sink.impl.RecordingSink;
 import org.apache.maven.doxia.sink.impl.SinkAdapter;
 import org.apache.maven.doxia.sink.impl.SinkEventAttributeSet;
 import org.apache.maven.doxia.util.DoxiaUtils;
@@ -132,18 +138,36 @@ public class AptParser extends AbstractTextParser implements AptMarkup {
         "COMMENT_BLOCK"
     };
 
+    /** A line that starts a macro block and contains the complete macro. */
+    private static final Pattern MACRO_LINE_PATTERN = Pattern.compile("^%\\{[^}\\r\\n]*\\}", Pattern.MULTILINE);
+
     /** An array of 85 spaces. */
     protected static final char[] SPACES;
 
     /** Default tab width. */
     public static final int TAB_WIDTH = 8;
 
+    /** The escaped non breaking space that a backslash in a table cell is replaced with. */
+    private static final String NON_BREAKING_SPACE_ESCAPE = "\\u00A0";
+
+    /** Class of the characters that are text in inline markup. */
+    private static final byte INLINE_TEXT = 0;
+
+    /** Class of the characters that may start or end inline markup or an escape sequence. */
+    private static final byte INLINE_MARKUP = 1;
+
+    /** Class of the white spaces, a sequence of white spaces being emitted as one space. */
+    private static final byte INLINE_WHITESPACE = 2;
+
+    /** The classes of the ASCII characters in inline text, the other characters are text or white space. */
+    private static final byte[] INLINE_CLASSES = new byte[128];
+
     // ----------------------------------------------------------------------
     // Instance fields
     // ----------------------------------------------------------------------
 
     /** the AptSource. */
-    private AptSource source;
+    private AptReaderSource source;
 
     /** a block of AptSource. */
     private Block block;
@@ -154,15 +178,27 @@ public class AptParser extends AbstractTextParser implements AptMarkup {
     /** blockLineNumber. */
     private int blockLineNumber;
 
-    /** sourceContent. */
+    /**
+     * sourceContent, only set for subclasses.
+     *
+     * @deprecated the source is no longer copied into a String, this copy is only made for subclasses that may
+     * still read it.
+     */
+    @Deprecated
     protected String sourceContent;
 
+    /** The source, null if the document is streamed because no macro needs it. */
+    private SourceBuffer sourceBuffer;
+
     /** the sink to receive the events. */
     protected Sink sink;
 
     /** a line of AptSource. */
     protected String line;
 
+    /** Collects the text of links and anchors. */
+    private final LinkTextSink linkText = new LinkTextSink();
+
     private static final int NUMBER_OF_SPACES = 85;
 
     static {
@@ -171,6 +207,15 @@ public class AptParser extends AbstractTextParser implements AptMarkup {
         for (int i = 0; i < NUMBER_OF_SPACES; i++) {
             SPACES[i] = ' ';
         }
+
+        for (char c = 0; c < INLINE_CLASSES.length; c++) {
+            if (Character.isWhitespace(c)) {
+                INLINE_CLASSES[c] = INLINE_WHITESPACE;
+            }
+        }
+        for (char c : new char[] {BACKSLASH, LEFT_CURLY_BRACKET, RIGHT_CURLY_BRACKET, LESS_THAN, GREATER_THAN}) {
+            INLINE_CLASSES[c] = INLINE_MARKUP;
+        }
     }
 
     // ----------------------------------------------------------------------
@@ -186,40 +231,57 @@ public class AptParser extends AbstractTextParser implements AptMarkup {
     /** {@inheritDoc} */
     @Override
     public void parse(Reader source, Sink sink, String reference) throws ParseException {
+        if (parseMeasured(source, sink, reference)) {
+            return;
+        }
+
         init();
 
-        try {
-            StringWriter contentWriter = new StringWriter();
-            IOUtils.copy(source, contentWriter);
-            sourceContent = contentWriter.toString();
-        } catch (IOException e) {
-            throw new AptParseException(e);
+        Reader reader = null;
+        SourceLines lines = null;
+        // subclasses may read the deprecated source content
+        boolean subclass = getClass() != AptParser.class;
+        if (isSourceContentRequired() || getParallelism() > 1 || subclass) {
+            try {
+                sourceBuffer = SourceBuffer.read(source);
+            } catch (IOException e) {
+                throw new AptParseException(e);
+            }
+            if (subclass) {
+                sourceContent = sourceBuffer.toString();
+            }
+            lines = new SourceLines(sourceBuffer);
+        } else {
+            // the lines of a buffer are read from the buffer
+            lines = SourceBuffer.lines(source);
+            if (lines == null) {
+                // no macro needs the whole document: stream it line by line, the caller keeps closing the reader
+                reader = new FilterReader(source) {
+                    @Override
+                    public void close() {
+                        // nop
+                    }
+                };
+            }
         }
 
         try {
-            this.source = new AptReaderSource(new StringReader(sourceContent), reference);
-
-            this.sink = sink;
-
-            blockFileName = null;
+            if (sourceBuffer != null) {
+                prefetchMacros();
 
-            blockLineNumber = -1;
-
-            // Lookahead line.
-            nextLine();
+                if (isParallel(sourceBuffer.length()) && parseSections(sink, reference)) {
+                    return;
+                }
+            }
 
-            // Lookahead block.
-            nextBlock(/*first*/ true);
+            this.source =
+                    lines != null ? new AptReaderSource(lines, reference) : new AptReaderSource(reader, reference);
 
-            // traverse comments
-            while ((block != null) && (block.getType() == COMMENT_BLOCK)) {
-                block.traverse();
-                nextBlock(/*first*/ true);
-            }
+            this.sink = sink;
 
-            traverseHead();
+            traversePart(/*first*/ true);
 
-            traverseBody();
+            sink.body_();
         } catch (AptParseException ape) {
             // TODO handle column number
             throw new AptParseException(null, ape, getSourceName(), getSourceLineNumber(), -1);
@@ -264,6 +326,10 @@ public class AptParser extends AbstractTextParser implements AptMarkup {
 
     /**
      * Parse the given text.
+     * <p>
+     * The text is scanned once, looking up the class of every character in {@link #INLINE_CLASSES}: runs of
+     * plain text are emitted as ranges of the given text, and only copied when an escape sequence or a sequence
+     * of white spaces changes them.
      *
      * @param text the text to parse.
      * @param begin offset.
@@ -277,239 +343,191 @@ public class AptParser extends AbstractTextParser implements AptMarkup {
         boolean italic = false;
         boolean bold = false;
         boolean monospaced = false;
-        StringBuilder buffer = new StringBuilder(end - begin);
 
-        for (int i = begin; i < end; ++i) {
+        // the text between start and i has not been emitted yet, and follows the text in buffer
+        StringBuilder buffer = null;
+        int start = begin;
+        int i = begin;
+
+        while (i < end) {
             char c = text.charAt(i);
+            int charClass = c < INLINE_CLASSES.length
+                    ? INLINE_CLASSES[c]
+                    : Character.isWhitespace(c) ? INLINE_WHITESPACE : INLINE_TEXT;
+
+            if (charClass == INLINE_TEXT) {
+                ++i;
+                continue;
+            }
+
+            if (charClass == INLINE_WHITESPACE) {
+                int next = i + 1;
+                while (next < end && Character.isWhitespace(text.charAt(next))) {
+                    ++next;
+                }
+                // a single space is kept as is, any other sequence of white spaces becomes one space
+                if (c != SPACE || next > i + 1) {
+                    buffer = append(buffer, text, start, i).append(SPACE);
+                    start = next;
+                }
+                i = next;
+                continue;
+            }
+
             switch (c) {
                 case BACKSLASH:
-                    if (i + 1 < end) {
-                        char escaped = text.charAt(i + 1);
-                        switch (escaped) {
-                            case SPACE:
-                                ++i;
-                                flushTraversed(buffer, sink);
-                                sink.nonBreakingSpace();
-                                break;
-                            case '\r':
-                            case '\n':
+                    char escaped = charAt(text, end, i + 1);
+                    switch (escaped) {
+                        case SPACE:
+                            flushTraversed(buffer, text, start, i, sink);
+                            sink.nonBreakingSpace();
+                            i += 2;
+                            start = i;
+                            break;
+                        case '\r':
+                        case '\n':
+                            flushTraversed(buffer, text, start, i, sink);
+                            sink.lineBreak();
+                            // Skip white space which may follow a line break.
+                            i += 2;
+                            while (i < end && Character.isWhitespace(text.charAt(i))) {
                                 ++i;
-                                // Skip white space which may follow a line break.
-                                while (i + 1 < end && Character.isWhitespace(text.charAt(i + 1))) {
-                                    ++i;
-                                }
-                                flushTraversed(buffer, sink);
-                                sink.lineBreak();
-                                break;
-                            case BACKSLASH:
-                            case PIPE:
-                            case COMMENT:
-                            case EQUAL:
-                            case MINUS:
-                            case PLUS:
-                            case STAR:
-                            case LEFT_SQUARE_BRACKET:
-                            case RIGHT_SQUARE_BRACKET:
-                            case LESS_THAN:
-                            case GREATER_THAN:
-                            case LEFT_CURLY_BRACKET:
-                            case RIGHT_CURLY_BRACKET:
+                            }
+                            start = i;
+                            break;
+                        case BACKSLASH:
+                        case PIPE:
+                        case COMMENT:
+                        case EQUAL:
+                        case MINUS:
+                        case PLUS:
+                        case STAR:
+                        case LEFT_SQUARE_BRACKET:
+                        case RIGHT_SQUARE_BRACKET:
+                        case LESS_THAN:
+                        case GREATER_THAN:
+                        case LEFT_CURLY_BRACKET:
+                        case RIGHT_CURLY_BRACKET:
+                            // the escaped character starts the next range
+                            buffer = append(buffer, text, start, i);
+                            start = i + 1;
+                            i += 2;
+                            break;
+                        default:
+                            int length = escapeLength(text, end, i);
+                            if (length > 0) {
+                                buffer = append(buffer, text, start, i).append(unescape(text, i, length));
+                                i += length;
+                                start = i;
+                            } else {
+                                // not an escape sequence, the backslash is text
                                 ++i;
-                                buffer.append(escaped);
-                                break;
-                            case 'x':
-                                if (i + 3 < end && isHexChar(text.charAt(i + 2)) && isHexChar(text.charAt(i + 3))) {
-                                    int value = '?';
-                                    try {
-                                        value = Integer.parseInt(text.substring(i + 2, i + 4), 16);
-                                    } catch (NumberFormatException e) {
-                                        LOGGER.debug("Not a number: {}", text.substring(i + 2, i + 4));
-                                    }
-
-                                    i += 3;
-                                    buffer.append((char) value);
-                                } else {
-                                    buffer.append(BACKSLASH);
-                                }
-                                break;
-                            case 'u':
-                                if (i + 5 < end
-                                        && isHexChar(text.charAt(i + 2))
-                                        && isHexChar(text.charAt(i + 3))
-                                        && isHexChar(text.charAt(i + 4))
-                                        && isHexChar(text.charAt(i + 5))) {
-                                    int value = '?';
-                                    try {
-                                        value = Integer.parseInt(text.substring(i + 2, i + 6), 16);
-                                    } catch (NumberFormatException e) {
-                                        LOGGER.debug("Not a number: {}", text.substring(i + 2, i + 6));
-                                    }
-
-                                    i += 5;
-                                    buffer.append((char) value);
-                                } else {
-                                    buffer.append(BACKSLASH);
-                                }
-                                break;
-                            default:
-                                if (isOctalChar(escaped)) {
-                                    int octalChars = 1;
-                                    if (isOctalChar(charAt(text, end, i + 2))) {
-                                        ++octalChars;
-                                        if (isOctalChar(charAt(text, end, i + 3))) {
-                                            ++octalChars;
-                                        }
-                                    }
-                                    int value = '?';
-                                    try {
-                                        value = Integer.parseInt(text.substring(i + 1, i + 1 + octalChars), 8);
-                                    } catch (NumberFormatException e) {
-                                        LOGGER.debug("Not a number: {}", text.substring(i + 1, i + 1 + octalChars));
-                                    }
-
-                                    i += octalChars;
-                                    buffer.append((char) value);
-                                } else {
-                                    buffer.append(BACKSLASH);
-                                }
-                        }
-                    } else {
-                        buffer.append(BACKSLASH);
+                            }
                     }
                     break;
 
                 case LEFT_CURLY_BRACKET: /*}*/
-                    if (!anchor && !link) {
-                        if (i + 1 < end && text.charAt(i + 1) == LEFT_CURLY_BRACKET /*}*/) {
-                            ++i;
-                            link = true;
-                            flushTraversed(buffer, sink);
-
-                            String linkAnchor = null;
-
-                            if (i + 1 < end && text.charAt(i + 1) == LEFT_CURLY_BRACKET /*}*/) {
-                                ++i;
-                                StringBuilder buf = new StringBuilder();
-                                i = skipTraversedLinkAnchor(text, i + 1, end, buf);
-                                linkAnchor = buf.toString();
-                            }
-
-                            if (linkAnchor == null) {
-                                linkAnchor = getTraversedLink(text, i + 1, end);
-                            }
-
-                            if (AptUtils.isInternalLink(linkAnchor)) {
-                                linkAnchor = "#" + linkAnchor;
-                            }
-
-                            int hashIndex = linkAnchor.indexOf("#");
-
-                            if (hashIndex != -1 && !AptUtils.isExternalLink(linkAnchor)) {
-                                String hash = linkAnchor.substring(hashIndex + 1);
-
-                                if (hash.endsWith(".html") && !hash.startsWith("./")) {
-                                    LOGGER.debug("Ambiguous link '{}'. If this is a local link, prepend \"./\"!", hash);
-                                }
-
-                                // link##anchor means literal
-                                if (hash.startsWith("#")) {
-                                    linkAnchor = linkAnchor.substring(0, hashIndex) + hash;
-                                } else if (!DoxiaUtils.isValidId(hash)) {
-                                    linkAnchor = linkAnchor.substring(0, hashIndex) + "#" + DoxiaUtils.encodeId(hash);
-
-                                    LOGGER.debug("Modified invalid link '{}' to '{}'", hash, linkAnchor);
-                                }
-                            }
+                    if (anchor || link) {
+                        ++i;
+                    } else if (charAt(text, end, i + 1) == LEFT_CURLY_BRACKET /*}*/) {
+                        link = true;
+                        flushTraversed(buffer, text, start, i, sink);
 
-                            sink.link(linkAnchor);
+                        String linkAnchor;
+                        i += 2;
+                        if (charAt(text, end, i) == LEFT_CURLY_BRACKET /*}*/) {
+                            int anchorEnd = skipTraversedLinkAnchor(text, i + 1, end);
+                            linkAnchor = unescapeLinkAnchor(text, i + 1, anchorEnd);
+                            i = anchorEnd + 1;
                         } else {
-                            anchor = true;
-                            flushTraversed(buffer, sink);
+                            // the link text is also the link
+                            linkAnchor = getTraversedLink(text, i, end);
+                        }
+                        start = i;
 
-                            String linkAnchor = getTraversedAnchor(text, i + 1, end);
+                        sink.link(getLinkName(linkAnchor));
+                    } else {
+                        anchor = true;
+                        flushTraversed(buffer, text, start, i, sink);
 
-                            linkAnchor = DoxiaUtils.encodeId(linkAnchor);
+                        String linkAnchor = getTraversedAnchor(text, i + 1, end);
 
-                            sink.anchor(linkAnchor);
-                        }
-                    } else {
-                        buffer.append(c);
+                        linkAnchor = DoxiaUtils.encodeId(linkAnchor);
+
+                        sink.anchor(linkAnchor);
+                        ++i;
+                        start = i;
                     }
                     break;
 
                 case /*{*/ RIGHT_CURLY_BRACKET:
-                    if (link && i + 1 < end && text.charAt(i + 1) == /*{*/ RIGHT_CURLY_BRACKET) {
-                        ++i;
+                    if (link && charAt(text, end, i + 1) == /*{*/ RIGHT_CURLY_BRACKET) {
                         link = false;
-                        flushTraversed(buffer, sink);
+                        flushTraversed(buffer, text, start, i, sink);
                         sink.link_();
+                        i += 2;
+                        start = i;
                     } else if (anchor) {
                         anchor = false;
-                        flushTraversed(buffer, sink);
+                        flushTraversed(buffer, text, start, i, sink);
                         sink.anchor_();
+                        ++i;
+                        start = i;
                     } else {
-                        buffer.append(c);
+                        ++i;
                     }
                     break;
 
                 case LESS_THAN:
-                    if (!italic && !bold && !monospaced) {
-                        if (i + 1 < end && text.charAt(i + 1) == LESS_THAN) {
-                            if (i + 2 < end && text.charAt(i + 2) == LESS_THAN) {
-                                i += 2;
-                                monospaced = true;
-                                flushTraversed(buffer, sink);
-                                sink.monospaced();
-                            } else {
-                                ++i;
-                                bold = true;
-                                flushTraversed(buffer, sink);
-                                sink.bold();
-                            }
-                        } else {
-                            italic = true;
-                            flushTraversed(buffer, sink);
-                            sink.italic();
-                        }
+                    if (italic || bold || monospaced) {
+                        ++i;
+                        break;
+                    }
+                    flushTraversed(buffer, text, start, i, sink);
+                    if (charAt(text, end, i + 1) != LESS_THAN) {
+                        italic = true;
+                        sink.italic();
+                        ++i;
+                    } else if (charAt(text, end, i + 2) != LESS_THAN) {
+                        bold = true;
+                        sink.bold();
+                        i += 2;
                     } else {
-                        buffer.append(c);
+                        monospaced = true;
+                        sink.monospaced();
+                        i += 3;
                     }
+                    start = i;
                     break;
 
                 case GREATER_THAN:
                     if (monospaced
-                            && i + 2 < end
-                            && text.charAt(i + 1) == GREATER_THAN
-                            && text.charAt(i + 2) == GREATER_THAN) {
-                        i += 2;
+                            && charAt(text, end, i + 1) == GREATER_THAN
+                            && charAt(text, end, i + 2) == GREATER_THAN) {
                         monospaced = false;
-                        flushTraversed(buffer, sink);
+                        flushTraversed(buffer, text, start, i, sink);
                         sink.monospaced_();
-                    } else if (bold && i + 1 < end && text.charAt(i + 1) == GREATER_THAN) {
-                        ++i;
+                        i += 3;
+                        start = i;
+                    } else if (bold && charAt(text, end, i + 1) == GREATER_THAN) {
                         bold = false;
-                        flushTraversed(buffer, sink);
+                        flushTraversed(buffer, text, start, i, sink);
                         sink.bold_();
+                        i += 2;
+                        start = i;
                     } else if (italic) {
                         italic = false;
-                        flushTraversed(buffer, sink);
+                        flushTraversed(buffer, text, start, i, sink);
                         sink.italic_();
+                        ++i;
+                        start = i;
                     } else {
-                        buffer.append(c);
+                        ++i;
                     }
                     break;
 
                 default:
-                    if (Character.isWhitespace(c)) {
-                        buffer.append(SPACE);
-
-                        // Skip to the last char of a sequence of white spaces.
-                        while (i + 1 < end && Character.isWhitespace(text.charAt(i + 1))) {
-                            ++i;
-                        }
-                    } else {
-                        buffer.append(c);
-                    }
+                    ++i;
             }
         }
 
@@ -529,7 +547,7 @@ public class AptParser extends AbstractTextParser implements AptMarkup {
             throw new AptParseException("missing '" + ANCHOR_END_MARKUP + "'");
         }
 
-        flushTraversed(buffer, sink);
+        flushTraversed(buffer, text, start, end, sink);
     }
 
     // -----------------------------------------------------------------------
@@ -603,6 +621,7 @@ public class AptParser extends AbstractTextParser implements AptMarkup {
         super.init();
 
         this.sourceContent = null;
+        this.sourceBuffer = null;
         this.sink = null;
         this.source = null;
         this.block = null;
@@ -615,6 +634,102 @@ public class AptParser extends AbstractTextParser implements AptMarkup {
     // Private methods
     // ----------------------------------------------------------------------
 
+    /**
+     * Splits the text of a macro block, <code>%{id|key=value|...}</code>, into the macro id and its parameters.
+     *
+     * @param text the text of the macro block
+     * @param parameters the map that receives the macro parameters
+     * @return the macro id
+     * @throws AptParseException if a parameter is not a key=value pair
+     */
+    private static String parseMacro(String text, Map<String, Object> parameters) throws AptParseException {
+        final int start = text.indexOf('{');
+        final int end = text.indexOf('}');
+
+        String s = text.substring(start + 1, end);
+
+        s = escapeForMacro(s);
+
+        String[] params = StringUtils.split(s, "|");
+
+        for (int i = 1; i < params.length; i++) {
+            String[] param = StringUtils.split(params[i], "=");
+
+            if (param.length == 1) {
+                throw new AptParseException("Missing 'key=value' pair for macro parameter: " + params[i]);
+            }
+
+            String key = unescapeForMacro(param[0]);
+            String value = unescapeForMacro(param[1]);
+
+            parameters.put(key, value);
+        }
+
+        return params[0];
+    }
+
+    /**
+     * Let all macros of the document start loading their resources in the background,
+     * before the document is traversed.
+     */
+    private void prefetchMacros() {
+        if (isSecondParsing() || !sourceBuffer.contains("%{")) {
+            return;
+        }
+
+        Matcher matcher = MACRO_LINE_PATTERN.matcher(sourceBuffer);
+        while (matcher.find()) {
+            Map<String, Object> parameters = new HashMap<>();
+            try {
+                String macroId = parseMacro(matcher.group(), parameters);
+
+                prefetchMacro(macroId, MacroRequest.of(sourceBuffer, new AptParser(), parameters, getBasedir()));
+            } catch (AptParseException e) {
+                // reported when the block is traversed
+            }
+        }
+    }
+
+    /**
+     * escapeForMacro
+     *
+     * @param s String
+     * @return String
+     */
+    private static String escapeForMacro(String s) {
+        if (s == null || s.length() < 1) {
+            return s;
+        }
+
+        String result = s;
+
+        // use some outrageously out-of-place chars for text
+        // (these are device control one/two in unicode)
+        result = StringUtils.replace(result, "\\=", "\u0011");
+        result = StringUtils.replace(result, "\\|", "\u0012");
+
+        return result;
+    }
+
+    /**
+     * unescapeForMacro
+     *
+     * @param s String
+     * @return String
+     */
+    private static String unescapeForMacro(String s) {
+        if (s == null || s.length() < 1) {
+            return s;
+        }
+
+        String result = s;
+
+        result = StringUtils.replace(result, "\u0011", "=");
+        result = StringUtils.replace(result, "\u0012", "|");
+
+        return result;
+    }
+
     /**
      * Parse the head of the Apt source document.
      *
@@ -632,22 +747,221 @@ public class AptParser extends AbstractTextParser implements AptMarkup {
     }
 
     /**
-     * Parse the body of the Apt source document.
+     * Parse a part of the Apt source document, without closing the body: the head and the beginning of the body
+     * for the first part, whole top level sections for the other parts.
      *
+     * @param firstPart true for the first part of the document.
      * @throws AptParseException if something goes wrong.
      */
-    private void traverseBody() throws AptParseException {
-        sink.body();
+    private void traversePart(boolean firstPart) throws AptParseException {
+        blockFileName = null;
 
-        if (block != null) {
-            traverseSectionBlocks();
+        blockLineNumber = -1;
+
+        // Lookahead line.
+        nextLine();
+
+        // Lookahead block.
+        nextBlock(firstPart);
+
+        if (firstPart) {
+            // traverse comments
+            while ((block != null) && (block.getType() == COMMENT_BLOCK)) {
+                block.traverse();
+                nextBlock(/*first*/ true);
+            }
+
+            traverseHead();
+
+            sink.body();
+
+            if (block != null) {
+                traverseSectionBlocks();
+            }
         }
 
         while (block != null) {
             traverseSection(0);
         }
+    }
 
+    /**
+     * Parse the top level sections of a large document in parallel, then emit their events in document order.
+     * Documents with macros are not split, since macros are not required to be thread-safe.
+     *
+     * @param sink the sink to receive the events.
+     * @param reference the reference of the document.
+     * @return false if the document has not been parsed, nothing has been emitted then.
+     * @throws ParseException if the current thread is interrupted.
+     */
+    private boolean parseSections(Sink sink, String reference) throws ParseException {
+        // subclasses may parse the blocks differently
+        if (getClass() != AptParser.class || !isSecondParsing() && sourceBuffer.contains("%{")) {
+            return false;
+        }
+
+        List<Integer> starts = findSections(sourceBuffer, getPartLength(sourceBuffer.length()));
+        if (starts.size() < 2) {
+            return false;
+        }
+
+        List<Callable<RecordingSink>> parts = new ArrayList<>(starts.size());
+        for (int i = 0; i < starts.size(); i++) {
+            int start = starts.get(i);
+            int end = i + 1 < starts.size() ? starts.get(i + 1) : sourceBuffer.length();
+            boolean firstPart = i == 0;
+            parts.add(() -> parsePart(start, end, firstPart, reference));
+        }
+
+        List<RecordingSink> recordings = parseParts(parts);
+        if (recordings == null) {
+            LOGGER.debug("Parsing {} sequentially, a part could not be parsed", reference);
+            return false;
+        }
+
+        for (RecordingSink recording : recordings) {
+            recording.replay(sink);
+        }
         sink.body_();
+        return true;
+    }
+
+    /**
+     * Parse a part of the source content with a new parser.
+     *
+     * @return the events of the part.
+     */
+    private RecordingSink parsePart(int start, int end, boolean firstPart, String reference) throws AptParseException {
+        AptParser parser = new AptParser();
+        parser.setSecondParsing(isSecondParsing());
+        parser.setEmitComments(isEmitComments());
+
+        RecordingSink recording = new RecordingSink();
+        parser.sourceBuffer = sourceBuffer;
+        parser.source = new AptReaderSource(new SourceLines(sourceBuffer, start, end), reference);
+        parser.sink = recording.getSink();
+        parser.traversePart(firstPart);
+        return recording;
+    }
+
+    /**
+     * Finds the top level sections where the document can be split into parts of at least the given length.
+     * The blocks are delimited as {@link #nextBlock(boolean)} does, so that no part starts within a block,
+     * a verbatim block in particular.
+     *
+     * @param content the source content.
+     * @param partLength the minimum length of a part.
+     * @return the offsets where the parts start, the first one is 0.
+     */
+    static List<Integer> findSections(CharSequence content, int partLength) {
+        List<Integer> starts = new ArrayList<>();
+        starts.add(0);
+
+        boolean blockStart = true;
+        char verbatim = 0;
+        for (int lineStart = 0; lineStart < content.length(); lineStart = nextLine(content, lineStart)) {
+            int lineEnd = lineEnd(content, lineStart);
+            char first = charAt(content, lineEnd, lineStart);
+            boolean verbatimLine = (first == MINUS || first == PLUS)
+                    && charAt(content, lineEnd, lineStart + 1) == MINUS
+                    && charAt(content, lineEnd, lineStart + 2) == MINUS;
+            int i = skipIndent(content, lineStart, lineEnd);
+
+            if (verbatim != 0) {
+                if (verbatimLine && first == verbatim) {
+                    verbatim = 0;
+                    blockStart = true;
+                }
+            } else if (i == lineEnd
+                    || charAt(content, lineEnd, i) == COMMENT && charAt(content, lineEnd, i + 1) == COMMENT) {
+                // an open line ends a block, a comment line is a block of its own
+                blockStart = true;
+            } else if (blockStart) {
+                blockStart = false;
+
+                if (i > lineStart) {
+                    // an indented block
+                } else if (verbatimLine) {
+                    verbatim = first;
+                } else if (first == PERCENT && charAt(content, lineEnd, lineStart + 1) == LEFT_CURLY_BRACKET) {
+                    // a macro block is a single line
+                    blockStart = true;
+                } else if (isSection1(
+                                first, charAt(content, lineEnd, lineStart + 1), charAt(content, lineEnd, lineStart + 2))
+                        && lineStart - starts.get(starts.size() - 1) >= partLength) {
+                    starts.add(lineStart);
+                }
+            }
+        }
+        return starts;
+    }
+
+    private static int lineEnd(CharSequence content, int start) {
+        int i = start;
+        while (i < content.length() && content.charAt(i) != '\n' && content.charAt(i) != '\r') {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Returns the start of the next line, a line ends with \n, \r or \r\n as read by {@link AptReaderSource}.
+     */
+    private static int nextLine(CharSequence content, int start) {
+        int end = lineEnd(content, start);
+        if (end + 1 < content.length() && content.charAt(end) == '\r' && content.charAt(end + 1) == '\n') {
+            return end + 2;
+        }
+        return end + 1;
+    }
+
+    private static int skipIndent(CharSequence content, int start, int end) {
+        int i = start;
+        while (i < end && (content.charAt(i) == SPACE || content.charAt(i) == TAB)) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Tells whether a block that starts at the beginning of a line with the given characters is a
+     * {@link Section1}, as decided by {@link #nextBlock(boolean)}.
+     */
+    private static boolean isSection1(char c0, char c1, char c2) {
+        switch (c0) {
+            case STAR:
+            case LEFT_SQUARE_BRACKET:
+            case PAGE_BREAK:
+                return false;
+            case EQUAL:
+                return c1 != EQUAL || c2 != EQUAL;
+            case PERCENT:
+                return c1 != LEFT_CURLY_BRACKET;
+            case MINUS:
+            case PLUS:
+                return c1 != MINUS || c2 != MINUS;
+            default:
+                return true;
+        }
+    }
+
+    private static char charAt(CharSequence content, int end, int i) {
+        return i < end ? content.charAt(i) : '\0';
+    }
+
+    /**
+     * Returns true if the content between the given indexes is {@link #EOL}.
+     */
+    private static boolean isEolAt(CharSequence content, int start, int end) {
+        if (end - start != EOL.length()) {
+            return false;
+        }
+        for (int i = 0; i < EOL.length(); i++) {
+            if (content.charAt(start + i) != EOL.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -1214,54 +1528,175 @@ public class AptParser extends AbstractTextParser implements AptMarkup {
     }
 
     /**
-     * Emits the text so far parsed into the given sink.
+     * Appends a range of the text to the given buffer, creating it if needed.
+     *
+     * @param buffer the buffer, or null.
+     * @param text the text.
+     * @param start the index of the first character to append.
+     * @param end the index after the last character to append.
+     * @return the buffer.
+     */
+    private static StringBuilder append(StringBuilder buffer, String text, int start, int end) {
+        if (buffer == null) {
+            buffer = new StringBuilder(end - start + 16);
+        }
+        return buffer.append(text, start, end);
+    }
+
+    /**
+     * Emits the text so far parsed into the given sink: the content of the buffer followed by a range of the text.
      *
-     * @param buffer A StringBuilder that contains the text to be flushed.
+     * @param buffer the text that precedes the range, may be null.
+     * @param text the text.
+     * @param start the index of the first character of the range.
+     * @param end the index after the last character of the range.
      * @param sink The sink to receive the text.
      */
-    private static void flushTraversed(StringBuilder buffer, Sink sink) {
-        if (buffer.length() > 0) {
+    private static void flushTraversed(StringBuilder buffer, String text, int start, int end, Sink sink) {
+        if (buffer != null && buffer.length() > 0) {
+            buffer.append(text, start, end);
             sink.text(buffer.toString());
             buffer.setLength(0);
+        } else if (start < end) {
+            sink.text(text.substring(start, end));
         }
     }
 
     /**
-     * Parse the given text.
+     * Returns the length of the hexadecimal, unicode or octal escape sequence at the given index.
+     *
+     * @param text the text.
+     * @param end offset.
+     * @param i the index of the backslash.
+     * @return the length of the sequence including the backslash, or 0 if there is no such sequence.
+     */
+    private static int escapeLength(String text, int end, int i) {
+        char c = charAt(text, end, i + 1);
+        if (c == 'x') {
+            return isHexChar(charAt(text, end, i + 2)) && isHexChar(charAt(text, end, i + 3)) ? 4 : 0;
+        }
+        if (c == 'u') {
+            for (int j = i + 2; j < i + 6; j++) {
+                if (!isHexChar(charAt(text, end, j))) {
+                    return 0;
+                }
+            }
+            return 6;
+        }
+        if (!isOctalChar(c)) {
+            return 0;
+        }
+        if (!isOctalChar(charAt(text, end, i + 2))) {
+            return 2;
+        }
+        return isOctalChar(charAt(text, end, i + 3)) ? 4 : 3;
+    }
+
+    /**
+     * Decodes a hexadecimal, unicode or octal escape sequence.
+     *
+     * @param text the text.
+     * @param i the index of the backslash.
+     * @param length the length of the sequence, as returned by {@link #escapeLength(String, int, int)}.
+     * @return the escaped character.
+     */
+    private static char unescape(String text, int i, int length) {
+        int radix = 8;
+        int first = i + 1;
+        if (text.charAt(first) == 'x' || text.charAt(first) == 'u') {
+            radix = 16;
+            first++;
+        }
+
+        int value = 0;
+        for (int j = first; j < i + length; j++) {
+            value = value * radix + Character.digit(text.charAt(j), radix);
+        }
+        return (char) value;
+    }
+
+    /**
+     * Returns the name of a link, turning an internal link into a fragment and encoding the fragment of
+     * a local link into a valid id.
+     *
+     * @param linkAnchor the link as written in the document.
+     * @return the link name.
+     */
+    private static String getLinkName(String linkAnchor) {
+        if (AptUtils.isInternalLink(linkAnchor)) {
+            linkAnchor = "#" + linkAnchor;
+        }
+
+        int hashIndex = linkAnchor.indexOf("#");
+
+        if (hashIndex != -1 && !AptUtils.isExternalLink(linkAnchor)) {
+            String hash = linkAnchor.substring(hashIndex + 1);
+
+            if (hash.endsWith(".html") && !hash.startsWith("./")) {
+                LOGGER.debug("Ambiguous link '{}'. If this is a local link, prepend \"./\"!", hash);
+            }
+
+            // link##anchor means literal
+            if (hash.startsWith("#")) {
+                linkAnchor = linkAnchor.substring(0, hashIndex) + hash;
+            } else if (!DoxiaUtils.isValidId(hash)) {
+                linkAnchor = linkAnchor.substring(0, hashIndex) + "#" + DoxiaUtils.encodeId(hash);
+
+                LOGGER.debug("Modified invalid link '{}' to '{}'", hash, linkAnchor);
+            }
+        }
+        return linkAnchor;
+    }
+
+    /**
+     * Returns the end of the literal link of a link whose text differs from the link.
      *
      * @param text the text to parse.
-     * @param begin offset.
+     * @param begin the index of the first character of the link.
      * @param end offset.
-     * @param linkAnchor a StringBuilder.
-     * @return int
-     * @throws AptParseException if something goes wrong.
+     * @return the index of the closing bracket.
+     * @throws AptParseException if the link is not closed.
      */
-    private static int skipTraversedLinkAnchor(String text, int begin, int end, StringBuilder linkAnchor)
-            throws AptParseException {
-        int i;
-        loop:
-        for (i = begin; i < end; ++i) {
+    private static int skipTraversedLinkAnchor(String text, int begin, int end) throws AptParseException {
+        for (int i = begin; i < end; ++i) {
             char c = text.charAt(i);
-            switch (c) {
-                case RIGHT_CURLY_BRACKET:
-                    break loop;
-                case BACKSLASH:
-                    if (i + 1 < end) {
-                        ++i;
-                        linkAnchor.append(text.charAt(i));
-                    } else {
-                        linkAnchor.append(BACKSLASH);
-                    }
-                    break;
-                default:
-                    linkAnchor.append(c);
+            if (c == RIGHT_CURLY_BRACKET) {
+                return i;
+            }
+            if (c == BACKSLASH) {
+                // the next character is escaped
+                ++i;
             }
         }
-        if (i == end) {
-            throw new AptParseException("missing '" + RIGHT_CURLY_BRACKET + "'");
+        throw new AptParseException("missing '" + RIGHT_CURLY_BRACKET + "'");
+    }
+
+    /**
+     * Returns a literal link, without the backslashes escaping its characters.
+     *
+     * @param text the text to parse.
+     * @param begin offset.
+     * @param end offset.
+     * @return the link.
+     */
+    private static String unescapeLinkAnchor(String text, int begin, int end) {
+        int backslash = begin;
+        while (backslash < end && text.charAt(backslash) != BACKSLASH) {
+            ++backslash;
+        }
+        if (backslash == end) {
+            return text.substring(begin, end);
         }
 
-        return i;
+        StringBuilder linkAnchor = new StringBuilder(end - begin);
+        for (int i = begin; i < end; ++i) {
+            char c = text.charAt(i);
+            if (c == BACKSLASH && i + 1 < end) {
+                c = text.charAt(++i);
+            }
+            linkAnchor.append(c);
+        }
+        return linkAnchor.toString();
     }
 
     /**
@@ -1332,27 +1767,37 @@ public class AptParser extends AbstractTextParser implements AptMarkup {
      * @throws AptParseException if something goes wrong.
      */
     private String doGetTraversedLink(String text, int begin, int end) throws AptParseException {
-        final StringBuilder buffer = new StringBuilder(end - begin);
+        // the link text of an anchor in a link is collected after the text of the link collected so far
+        StringBuilder buffer = linkText.buffer;
+        int mark = buffer.length();
+        try {
+            doTraverseText(text, begin, end, linkText);
+            return buffer.substring(mark).trim();
+        } finally {
+            buffer.setLength(mark);
+        }
+    }
 
-        Sink linkSink = new SinkAdapter() {
-            /** {@inheritDoc} */
-            public void lineBreak() {
-                buffer.append(SPACE);
-            }
+    /**
+     * Collects the text of a link, lines breaks and non breaking spaces becoming spaces.
+     */
+    private static class LinkTextSink extends SinkAdapter {
+        private final StringBuilder buffer = new StringBuilder();
 
-            /** {@inheritDoc} */
-            public void nonBreakingSpace() {
-                buffer.append(SPACE);
-            }
+        /** {@inheritDoc} */
+        public void lineBreak() {
+            buffer.append(SPACE);
+        }
 
-            /** {@inheritDoc} */
-            public void text(String text) {
-                buffer.append(text);
-            }
-        };
-        doTraverseText(text, begin, end, linkSink);
+        /** {@inheritDoc} */
+        public void nonBreakingSpace() {
+            buffer.append(SPACE);
+        }
 
-        return buffer.toString().trim();
+        /** {@inheritDoc} */
+        public void text(String text) {
+            buffer.append(text);
+        }
     }
 
     // -----------------------------------------------------------------------
@@ -1394,6 +1839,18 @@ public class AptParser extends AbstractTextParser implements AptMarkup {
             this.type = type;
             this.indent = indent;
 
+            // the lines of a buffer that are separated by EOL are taken as one slice of the buffer
+            SourceLines lines = null;
+            int sliceStart = 0;
+            int sliceEnd = 0;
+            if (firstLine != null && firstLine == AptParser.this.line && AptParser.this.getClass() == AptParser.class) {
+                lines = AptParser.this.source.getLines();
+                if (lines != null) {
+                    sliceStart = lines.getLineStart();
+                    sliceEnd = lines.getLineEnd();
+                }
+            }
+
             // Skip first line ---
             AptParser.this.nextLine();
 
@@ -1402,7 +1859,10 @@ public class AptParser extends AbstractTextParser implements AptMarkup {
                 textLength = 0;
             } else {
                 // Read block ---
-                StringBuilder buffer = new StringBuilder(firstLine);
+                StringBuilder buffer = null;
+                if (lines == null) {
+                    buffer = new StringBuilder(firstLine);
+                }
 
                 while (AptParser.this.line != null) {
                     String l = AptParser.this.line;
@@ -1421,13 +1881,25 @@ public class AptParser extends AbstractTextParser implements AptMarkup {
                         break;
                     }
 
+                    if (buffer == null) {
+                        if (isEolAt(lines.getContent(), sliceEnd, lines.getLineStart())) {
+                            sliceEnd = lines.getLineEnd();
+                            AptParser.this.nextLine();
+                            continue;
+                        }
+                        buffer = new StringBuilder(sliceEnd - sliceStart + EOL.length() + length);
+                        buffer.append(lines.getContent(), sliceStart, sliceEnd);
+                    }
+
                     buffer.append(EOL);
                     buffer.append(l);
 
                     AptParser.this.nextLine();
                 }
 
-                text = buffer.toString();
+                text = buffer != null
+                        ? buffer.toString()
+                        : lines.getContent().subSequence(sliceStart, sliceEnd).toString();
                 textLength = text.length();
             }
         }
@@ -1970,108 +2442,83 @@ public class AptParser extends AbstractTextParser implements AptMarkup {
             int[] justification = null;
             int rows = 0;
             int columns = 0;
-            StringBuilder[] cells = null;
+            Cell[] cells = null;
             boolean[] headers = null;
             boolean grid;
+            // the caption follows the last justification line
+            int lastJustification = text.lastIndexOf("*--");
 
             AptParser.this.sink.table();
 
             while (nextLineIndex < textLength) {
-                int i = text.indexOf("*--", nextLineIndex);
-                if (i < 0) {
+                int i;
+                if (nextLineIndex > lastJustification) {
                     captionIndex = nextLineIndex;
                     break;
                 }
 
-                String line;
-                i = text.indexOf('\n', nextLineIndex);
-                if (i < 0) {
-                    line = text.substring(nextLineIndex);
+                int lineStart = nextLineIndex;
+                int lineEnd = text.indexOf('\n', nextLineIndex);
+                if (lineEnd < 0) {
+                    lineEnd = textLength;
                     nextLineIndex = textLength;
                 } else {
-                    line = text.substring(nextLineIndex, i);
-                    nextLineIndex = i + 1;
+                    nextLineIndex = lineEnd + 1;
                 }
-                int lineLength = line.length();
 
-                if (line.indexOf("*--") == 0) {
+                if (text.startsWith("*--", lineStart)) {
                     if (init == 2) {
                         init = 1;
-                        justification = parseJustification(line, lineLength);
+                        justification = parseJustification(lineStart, lineEnd);
                         columns = justification.length;
-                        cells = new StringBuilder[columns];
+                        cells = new Cell[columns];
                         headers = new boolean[columns];
                         for (i = 0; i < columns; ++i) {
-                            cells[i] = new StringBuilder();
+                            cells[i] = new Cell();
                             headers[i] = false;
                         }
                     } else {
                         if (traverseRow(cells, headers, justification)) {
                             ++rows;
                         }
-                        justification = parseJustification(line, lineLength);
+                        justification = parseJustification(lineStart, lineEnd);
                     }
                 } else {
                     if (init == 1) {
                         init = 0;
-                        grid = (AptParser.charAt(line, lineLength, 0) == PIPE);
+                        grid = (AptParser.charAt(text, lineEnd, lineStart) == PIPE);
                         AptParser.this.sink.tableRows(justification, grid);
                     }
 
-                    line = replaceAll(line, "\\|", "\\u007C");
-
-                    StringTokenizer cellLines = new StringTokenizer(line, "|", true);
-
                     i = 0;
                     boolean processedGrid = false;
-                    while (cellLines.hasMoreTokens()) {
-                        String cellLine = cellLines.nextToken();
-                        if ("|".equals(cellLine)) {
+                    int cellStart = lineStart;
+                    boolean backslash = false;
+                    for (int j = lineStart; j <= lineEnd && i < columns; ++j) {
+                        char c = j < lineEnd ? text.charAt(j) : PIPE;
+                        if (c == BACKSLASH) {
+                            backslash = true;
+                        }
+                        // an escaped pipe is part of the cell
+                        if (c != PIPE || j < lineEnd && j > lineStart && text.charAt(j - 1) == BACKSLASH) {
+                            continue;
+                        }
+
+                        if (j > cellStart) {
+                            processedGrid = false;
+                            cells[i].append(text, cellStart, j, backslash);
+                            ++i;
+                        }
+                        if (j < lineEnd && i < columns) {
                             if (processedGrid) {
                                 headers[i] = true;
                             } else {
                                 processedGrid = true;
                                 headers[i] = false;
                             }
-                            continue;
-                        }
-                        processedGrid = false;
-                        cellLine = replaceAll(cellLine, "\\", "\\u00A0"); // linebreak
-                        // Escaped special characters: \~, \=, \-, \+, \*, \[, \], \<, \>, \{, \}, \\.
-                        cellLine = replaceAll(cellLine, "\\u00A0~", "\\~");
-                        cellLine = replaceAll(cellLine, "\\u00A0=", "\\=");
-                        cellLine = replaceAll(cellLine, "\\u00A0-", "\\-");
-                        cellLine = replaceAll(cellLine, "\\u00A0+", "\\+");
-                        cellLine = replaceAll(cellLine, "\\u00A0*", "\\*");
-                        cellLine = replaceAll(cellLine, "\\u00A0[", "\\[");
-                        cellLine = replaceAll(cellLine, "\\u00A0]", "\\]");
-                        cellLine = replaceAll(cellLine, "\\u00A0<", "\\<");
-                        cellLine = replaceAll(cellLine, "\\u00A0>", "\\>");
-                        cellLine = replaceAll(cellLine, "\\u00A0{", "\\{");
-                        cellLine = replaceAll(cellLine, "\\u00A0}", "\\}");
-                        cellLine = replaceAll(cellLine, "\\u00A0u", "\\u");
-                        cellLine = replaceAll(cellLine, "\\u00A0\\u00A0", "\\\\");
-                        cellLine = cellLine.trim();
-
-                        StringBuilder cell = cells[i];
-                        if (cellLine.length() > 0) {
-                            // line break in table cells
-                            if (cell.toString().trim().endsWith("\\u00A0")) {
-                                cell.append("\\\n");
-                            } else {
-                                if (cell.length() != 0) {
-                                    // Always add a space for multi line tables cells
-                                    cell.append(" ");
-                                }
-                            }
-
-                            cell.append(cellLine);
-                        }
-
-                        ++i;
-                        if (i == columns) {
-                            break;
                         }
+                        cellStart = j + 1;
+                        backslash = false;
                     }
                 }
             }
@@ -2092,16 +2539,16 @@ public class AptParser extends AbstractTextParser implements AptMarkup {
         /**
          * Parse a table justification line.
          *
-         * @param jline the justification line.
-         * @param lineLength the length of the line. Must be > 2.
+         * @param lineStart the index of the justification line in the text.
+         * @param lineEnd the index after the end of the line. The line must be longer than 2.
          * @return int[]
          * @throws AptParseException if something goes wrong.
          */
-        private int[] parseJustification(String jline, int lineLength) throws AptParseException {
+        private int[] parseJustification(int lineStart, int lineEnd) throws AptParseException {
             int columns = 0;
 
-            for (int i = 2 /*Skip '*--'*/; i < lineLength; ++i) {
-                switch (jline.charAt(i)) {
+            for (int i = lineStart + 2 /*Skip '*--'*/; i < lineEnd; ++i) {
+                switch (text.charAt(i)) {
                     case STAR:
                     case PLUS:
                     case COLON:
@@ -2118,8 +2565,8 @@ public class AptParser extends AbstractTextParser implements AptMarkup {
 
             int[] justification = new int[columns];
             columns = 0;
-            for (int i = 2; i < lineLength; ++i) {
-                switch (jline.charAt(i)) {
+            for (int i = lineStart + 2; i < lineEnd; ++i) {
+                switch (text.charAt(i)) {
                     case STAR:
                         justification[columns++] = Sink.JUSTIFY_CENTER;
                         break;
@@ -2146,12 +2593,11 @@ public class AptParser extends AbstractTextParser implements AptMarkup {
          * @return boolean
          * @throws AptParseException if something goes wrong.
          */
-        private boolean traverseRow(StringBuilder[] cells, boolean[] headers, int[] justification)
-                throws AptParseException {
+        private boolean traverseRow(Cell[] cells, boolean[] headers, int[] justification) throws AptParseException {
             // Skip empty row (a decorative line).
             boolean traversed = false;
-            for (StringBuilder cell1 : cells) {
-                if (cell1.length() > 0) {
+            for (Cell cell1 : cells) {
+                if (!cell1.isEmpty()) {
                     traversed = true;
                     break;
                 }
@@ -2160,7 +2606,7 @@ public class AptParser extends AbstractTextParser implements AptMarkup {
             if (traversed) {
                 AptParser.this.sink.tableRow();
                 for (int i = 0; i < cells.length; ++i) {
-                    StringBuilder cell = cells[i];
+                    Cell cell = cells[i];
 
                     SinkEventAttributes justif;
                     switch (justification[i]) {
@@ -2185,10 +2631,13 @@ public class AptParser extends AbstractTextParser implements AptMarkup {
                     } else {
                         AptParser.this.sink.tableCell(event);
                     }
-                    if (cell.length() > 0) {
-                        AptParser.this.doTraverseText(cell.toString(), 0, cell.length(), AptParser.this.sink);
-                        cell.setLength(0);
+                    if (cell.text != null) {
+                        AptParser.this.doTraverseText(cell.text, cell.start, cell.end, AptParser.this.sink);
+                    } else if (cell.buffer.length() > 0) {
+                        AptParser.this.doTraverseText(
+                                cell.buffer.toString(), 0, cell.buffer.length(), AptParser.this.sink);
                     }
+                    cell.clear();
                     if (headers[i]) {
                         AptParser.this.sink.tableHeaderCell_();
                         // DOXIA-404: reset header for next row
@@ -2204,6 +2653,127 @@ public class AptParser extends AbstractTextParser implements AptMarkup {
         }
     }
 
+    /**
+     * The text of a table cell: a range of the table text, unless the cell spans several lines or contains
+     * backslashes, in which case the lines are joined in a buffer.
+     */
+    private static class Cell {
+        /** The text the cell is a range of, or null. */
+        private String text;
+
+        private int start;
+
+        private int end;
+
+        /** The lines of the cell joined, if the cell is not a range. */
+        private final StringBuilder buffer = new StringBuilder();
+
+        /**
+         * Appends a line of the cell.
+         *
+         * @param line the text the line is part of.
+         * @param start the index of the line in the text.
+         * @param end the index after the end of the line.
+         * @param backslash true if the line contains a backslash.
+         */
+        void append(String line, int start, int end, boolean backslash) {
+            if (backslash) {
+                String cellLine = unescapeCellLine(line.substring(start, end)).trim();
+                appendTrimmed(cellLine, 0, cellLine.length());
+                return;
+            }
+
+            while (start < end && line.charAt(start) <= SPACE) {
+                ++start;
+            }
+            while (end > start && line.charAt(end - 1) <= SPACE) {
+                --end;
+            }
+            appendTrimmed(line, start, end);
+        }
+
+        private void appendTrimmed(String line, int start, int end) {
+            if (start == end) {
+                return;
+            }
+
+            if (isEmpty()) {
+                this.text = line;
+                this.start = start;
+                this.end = end;
+                return;
+            }
+
+            if (text != null) {
+                buffer.append(text, this.start, this.end);
+                text = null;
+            }
+            if (endsWithNonBreakingSpace(buffer)) {
+                // line break in table cells
+                buffer.append("\\\n");
+            } else {
+                // Always add a space for multi line tables cells
+                buffer.append(SPACE);
+            }
+            buffer.append(line, start, end);
+        }
+
+        boolean isEmpty() {
+            return text == null && buffer.length() == 0;
+        }
+
+        void clear() {
+            text = null;
+            buffer.setLength(0);
+        }
+
+        /**
+         * Returns true if the given text ends with an escaped non breaking space, ignoring trailing white spaces.
+         */
+        private static boolean endsWithNonBreakingSpace(CharSequence text) {
+            int end = text.length();
+            while (end > 0 && text.charAt(end - 1) <= SPACE) {
+                --end;
+            }
+            int start = end - NON_BREAKING_SPACE_ESCAPE.length();
+            if (start < 0) {
+                return false;
+            }
+            for (int i = 0; i < NON_BREAKING_SPACE_ESCAPE.length(); i++) {
+                if (text.charAt(start + i) != NON_BREAKING_SPACE_ESCAPE.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Turns the backslashes of a cell line that do not escape a character into non breaking spaces,
+         * which mark a line break if they end the line.
+         *
+         * @param cellLine a line of a cell, containing a backslash.
+         * @return the line with its backslashes replaced.
+         */
+        private static String unescapeCellLine(String cellLine) {
+            cellLine = replaceAll(cellLine, "\\|", "\\u007C");
+            cellLine = replaceAll(cellLine, "\\", NON_BREAKING_SPACE_ESCAPE); // linebreak
+            // Escaped special characters: \~, \=, \-, \+, \*, \[, \], \<, \>, \{, \}, \\.
+            cellLine = replaceAll(cellLine, "\\u00A0~", "\\~");
+            cellLine = replaceAll(cellLine, "\\u00A0=", "\\=");
+            cellLine = replaceAll(cellLine, "\\u00A0-", "\\-");
+            cellLine = replaceAll(cellLine, "\\u00A0+", "\\+");
+            cellLine = replaceAll(cellLine, "\\u00A0*", "\\*");
+            cellLine = replaceAll(cellLine, "\\u00A0[", "\\[");
+            cellLine = replaceAll(cellLine, "\\u00A0]", "\\]");
+            cellLine = replaceAll(cellLine, "\\u00A0<", "\\<");
+            cellLine = replaceAll(cellLine, "\\u00A0>", "\\>");
+            cellLine = replaceAll(cellLine, "\\u00A0{", "\\{");
+            cellLine = replaceAll(cellLine, "\\u00A0}", "\\}");
+            cellLine = replaceAll(cellLine, "\\u00A0u", "\\u");
+            return replaceAll(cellLine, "\\u00A0\\u00A0", "\\\\");
+        }
+    }
+
     /** A ListItem Block. */
     private class ListItem extends Block {
         /**
@@ -2373,35 +2943,13 @@ public class AptParser extends AbstractTextParser implements AptMarkup {
                 return;
             }
 
-            final int start = text.indexOf('{');
-            final int end = text.indexOf('}');
-
-            String s = text.substring(start + 1, end);
-
-            s = escapeForMacro(s);
-
-            String[] params = StringUtils.split(s, "|");
-
-            String macroId = params[0];
-
             Map<String, Object> parameters = new HashMap<>();
 
-            for (int i = 1; i < params.length; i++) {
-                String[] param = StringUtils.split(params[i], "=");
-
-                if (param.length == 1) {
-                    throw new AptParseException("Missing 'key=value' pair for macro parameter: " + params[i]);
-                }
-
-                String key = unescapeForMacro(param[0]);
-                String value = unescapeForMacro(param[1]);
-
-                parameters.put(key, value);
-            }
+            String macroId = parseMacro(text, parameters);
 
             // getBasedir() does not work in multi-module builds, see DOXIA-373
             // the basedir should be injected from here, see DOXIA-224
-            MacroRequest request = new MacroRequest(sourceContent, new AptParser(), parameters, getBasedir());
+            MacroRequest request = MacroRequest.of(sourceBuffer, new AptParser(), parameters, getBasedir());
             try {
                 AptParser.this.executeMacro(macroId, request, sink);
             } catch (MacroExecutionException e) {
@@ -2410,45 +2958,5 @@ public class AptParser extends AbstractTextParser implements AptMarkup {
                 throw new AptParseException("Unable to find macro used in the APT document", e);
             }
         }
-
-        /**
-         * escapeForMacro
-         *
-         * @param s String
-         * @return String
-         */
-        private String escapeForMacro(String s) {
-            if (s == null || s.length() < 1) {
-                return s;
-            }
-
-            String result = s;
-
-            // use some outrageously out-of-place chars for text
-            // (these are device control one/two in unicode)
-            result = StringUtils.replace(result, "\\=", "\u0011");
-            result = StringUtils.replace(result, "\\|", "\u0012");
-
-            return result;
-        }
-
-        /**
-         * unescapeForMacro
-         *
-         * @param s String
-         * @return String
-         */
-        private String unescapeForMacro(String s) {
-            if (s == null || s.length() < 1) {
-                return s;
-            }
-
-            String result = s;
-
-            result = StringUtils.replace(result, "\u0011", "=");
-            result = StringUtils.replace(result, "\u0012", "|");
-
-            return result;
-        }
     }
 }
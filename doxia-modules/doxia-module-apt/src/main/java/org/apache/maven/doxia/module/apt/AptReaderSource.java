@@ -22,13 +22,20 @@ import java.io.IOException;
 import java.io.LineNumberReader;
 import java.io.Reader;
 
+import org.apache.maven.doxia.parser.SourceBuffer;
+import org.apache.maven.doxia.parser.SourceLines;
+
 /**
- * Reader for apt source documents.
+ * Reader for apt source documents. The lines of a {@link SourceBuffer#newReader() reader of a buffer} are
+ * taken from the buffer, and the parser can get the text of several lines as one slice of the buffer.
  */
 public class AptReaderSource implements AptSource {
     /** A reader. */
     private LineNumberReader reader;
 
+    /** The lines, if the source is a buffer. */
+    private SourceLines lines;
+
     /** lineNumber. */
     private int lineNumber;
 
@@ -41,7 +48,10 @@ public class AptReaderSource implements AptSource {
      * @param in the reader.
      */
     public AptReaderSource(Reader in) {
-        reader = new LineNumberReader(in);
+        lines = SourceBuffer.lines(in);
+        if (lines == null) {
+            reader = new LineNumberReader(in);
+        }
 
         lineNumber = -1;
     }
@@ -58,6 +68,18 @@ public class AptReaderSource implements AptSource {
         this.name = name;
     }
 
+    /**
+     * Constructor: reads the given lines.
+     *
+     * @param lines the lines.
+     * @param name the name of the source
+     */
+    AptReaderSource(SourceLines lines, String name) {
+        this.lines = lines;
+        this.lineNumber = -1;
+        this.name = name;
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -65,6 +87,15 @@ public class AptReaderSource implements AptSource {
      * @throws org.apache.maven.doxia.module.apt.AptParseException if any.
      */
     public String getNextLine() throws AptParseException {
+        if (lines != null) {
+            if (!lines.next()) {
+                lines = null;
+                return null;
+            }
+            lineNumber = lines.getLineNumber();
+            return lines.getLine();
+        }
+
         if (reader == null) {
             return null;
         }
@@ -106,10 +137,21 @@ public class AptReaderSource implements AptSource {
         return lineNumber;
     }
 
+    /**
+     * Returns the lines of the source, positioned on the last line returned by {@link #getNextLine()}.
+     *
+     * @return the lines, or null if the source is read by a reader or all lines have been read.
+     */
+    SourceLines getLines() {
+        return lines;
+    }
+
     /**
      * Closes the reader associated with this AptReaderSource.
      */
     public void close() {
+        lines = null;
+
         if (reader == null) {
             return;
         }
@@ -20,7 +20,8 @@ package org.apache.maven.doxia.module.apt;
 
 import javax.swing.text.MutableAttributeSet;
 
-import java.io.PrintWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -33,6 +34,7 @@ import org.apache.maven.doxia.sink.SinkEventAttributes;
 import org.apache.maven.doxia.sink.impl.AbstractTextSink;
 import org.apache.maven.doxia.sink.impl.SinkEventAttributeSet;
 import org.apache.maven.doxia.sink.impl.SinkUtils;
+import org.apache.maven.doxia.sink.impl.SinkWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -47,12 +49,27 @@ import org.slf4j.LoggerFactory;
 public class AptSink extends AbstractTextSink implements AptMarkup {
     private static final Logger LOGGER = LoggerFactory.getLogger(AptSink.class);
 
+    /** The characters escaped in APT text, indexed by character. */
+    private static final boolean[] APT_ESCAPES = new boolean[128];
+
+    /** No escaped characters, EOLs are still unified. */
+    private static final boolean[] NO_ESCAPES = new boolean[0];
+
+    static {
+        for (char c : "\\~=-+*[]<>{}".toCharArray()) {
+            APT_ESCAPES[c] = true;
+        }
+    }
+
     // ----------------------------------------------------------------------
     // Instance fields
     // ----------------------------------------------------------------------
 
     /**  A buffer that holds the current text when headerFlag or bufferFlag set to <code>true</code>. */
-    private StringBuffer buffer;
+    private final StringBuilder buffer = new StringBuilder();
+
+    /**  The copy of the current text handed out by the deprecated {@link #getBuffer()}, or null. */
+    private StringBuffer legacyBuffer;
 
     /**  A buffer that holds the table caption. */
     private StringBuilder tableCaptionBuffer;
@@ -97,13 +114,13 @@ public class AptSink extends AbstractTextSink implements AptMarkup {
     private int cellCount;
 
     /**  The writer to use. */
-    private final PrintWriter writer;
+    private final SinkWriter writer;
 
     /**  justification of table cells. */
     private int[] cellJustif;
 
-    /**  a line of a row in a table. */
-    private String rowLine;
+    /**  the line before a row of a table, empty before the first row. */
+    private final StringBuilder rowLine = new StringBuilder();
 
     /**  listNestingIndent. */
     private String listNestingIndent;
@@ -125,7 +142,7 @@ public class AptSink extends AbstractTextSink implements AptMarkup {
      * You could use <code>newWriter</code> methods from {@link org.codehaus.plexus.util.WriterFactory}.
      */
     protected AptSink(Writer writer) {
-        this.writer = new PrintWriter(writer);
+        this.writer = new SinkWriter(writer);
         this.listStyles = new Stack<>();
 
         init();
@@ -134,10 +151,31 @@ public class AptSink extends AbstractTextSink implements AptMarkup {
     /**
      * Returns the buffer that holds the current text.
      *
-     * @return A StringBuffer.
+     * @return A StringBuilder.
+     * @since 2.0.0-M7
+     */
+    protected StringBuilder getTextBuilder() {
+        if (legacyBuffer != null) {
+            // take back what was done through the deprecated accessor
+            buffer.setLength(0);
+            buffer.append(legacyBuffer);
+            legacyBuffer = null;
+        }
+        return buffer;
+    }
+
+    /**
+     * Returns a copy of the buffer that holds the current text.
+     *
+     * @return A StringBuffer, changes to it are taken into account until the sink uses its buffer again.
+     * @deprecated use {@link #getTextBuilder()}, which is not synchronized.
      */
+    @Deprecated
     protected StringBuffer getBuffer() {
-        return buffer;
+        if (legacyBuffer == null) {
+            legacyBuffer = new StringBuffer(buffer);
+        }
+        return legacyBuffer;
     }
 
     /**
@@ -174,7 +212,7 @@ public class AptSink extends AbstractTextSink implements AptMarkup {
         this.gridFlag = false;
         this.cellCount = 0;
         this.cellJustif = null;
-        this.rowLine = null;
+        this.rowLine.setLength(0);
         this.listStyles.clear();
         this.inlineStack.clear();
     }
@@ -183,7 +221,8 @@ public class AptSink extends AbstractTextSink implements AptMarkup {
      * Reset the StringBuilder.
      */
     protected void resetBuffer() {
-        buffer = new StringBuffer();
+        buffer.setLength(0);
+        legacyBuffer = null;
     }
 
     /**
@@ -233,8 +272,8 @@ public class AptSink extends AbstractTextSink implements AptMarkup {
      * {@inheritDoc}
      */
     public void title_() {
-        if (buffer.length() > 0) {
-            title = buffer.toString();
+        if (getTextBuilder().length() > 0) {
+            title = getTextBuilder().toString();
             resetBuffer();
         }
     }
@@ -243,8 +282,8 @@ public class AptSink extends AbstractTextSink implements AptMarkup {
      * {@inheritDoc}
      */
     public void author_() {
-        if (buffer.length() > 0) {
-            authors.add(buffer.toString());
+        if (getTextBuilder().length() > 0) {
+            authors.add(getTextBuilder().toString());
             resetBuffer();
         }
     }
@@ -253,8 +292,8 @@ public class AptSink extends AbstractTextSink implements AptMarkup {
      * {@inheritDoc}
      */
     public void date_() {
-        if (buffer.length() > 0) {
-            date = buffer.toString();
+        if (getTextBuilder().length() > 0) {
+            date = getTextBuilder().toString();
             resetBuffer();
         }
     }
@@ -616,10 +655,10 @@ public class AptSink extends AbstractTextSink implements AptMarkup {
      * {@inheritDoc}
      */
     public void table_() {
-        if (rowLine != null) {
-            write(rowLine);
+        if (rowLine.length() > 0) {
+            writer.append(rowLine);
         }
-        rowLine = null;
+        rowLine.setLength(0);
 
         if (tableCaptionBuffer.length() > 0) {
             text(tableCaptionBuffer.toString() + EOL);
@@ -661,17 +700,18 @@ public class AptSink extends AbstractTextSink implements AptMarkup {
     public void tableRow_() {
         bufferFlag = false;
 
-        // write out the header row first, then the data in the buffer
+        // write out the header row first, then the data in the buffer:
+        // the row is only buffered until its number of cells is known
         buildRowLine();
 
-        write(rowLine);
+        writer.append(rowLine);
 
         // TODO: This will need to be more clever, for multi-line cells
         if (gridFlag) {
             write(TABLE_ROW_SEPARATOR_MARKUP);
         }
 
-        write(buffer.toString());
+        append(getTextBuilder(), NO_ESCAPES);
 
         resetBuffer();
 
@@ -683,28 +723,26 @@ public class AptSink extends AbstractTextSink implements AptMarkup {
 
     /** Construct a table row. */
     private void buildRowLine() {
-        StringBuilder rLine = new StringBuilder();
-        rLine.append(TABLE_ROW_START_MARKUP);
+        rowLine.setLength(0);
+        rowLine.append(TABLE_ROW_START_MARKUP);
 
         for (int i = 0; i < cellCount; i++) {
             if (cellJustif != null) {
                 switch (cellJustif[i]) {
                     case 1:
-                        rLine.append(TABLE_COL_LEFT_ALIGNED_MARKUP);
+                        rowLine.append(TABLE_COL_LEFT_ALIGNED_MARKUP);
                         break;
                     case 2:
-                        rLine.append(TABLE_COL_RIGHT_ALIGNED_MARKUP);
+                        rowLine.append(TABLE_COL_RIGHT_ALIGNED_MARKUP);
                         break;
                     default:
-                        rLine.append(TABLE_COL_CENTERED_ALIGNED_MARKUP);
+                        rowLine.append(TABLE_COL_CENTERED_ALIGNED_MARKUP);
                 }
             } else {
-                rLine.append(TABLE_COL_CENTERED_ALIGNED_MARKUP);
+                rowLine.append(TABLE_COL_CENTERED_ALIGNED_MARKUP);
             }
         }
-        rLine.append(EOL);
-
-        this.rowLine = rLine.toString();
+        rowLine.append(EOL);
     }
 
     /**
@@ -728,7 +766,7 @@ public class AptSink extends AbstractTextSink implements AptMarkup {
      */
     public void tableCell(boolean headerRow) {
         if (headerRow) {
-            buffer.append(TABLE_CELL_SEPARATOR_MARKUP);
+            getTextBuilder().append(TABLE_CELL_SEPARATOR_MARKUP);
         }
         tableCellFlag = true;
     }
@@ -752,7 +790,7 @@ public class AptSink extends AbstractTextSink implements AptMarkup {
      */
     private void endTableCell() {
         tableCellFlag = false;
-        buffer.append(TABLE_CELL_SEPARATOR_MARKUP);
+        getTextBuilder().append(TABLE_CELL_SEPARATOR_MARKUP);
         cellCount++;
     }
 
@@ -919,7 +957,7 @@ public class AptSink extends AbstractTextSink implements AptMarkup {
      */
     public void lineBreak() {
         if (headerFlag || bufferFlag) {
-            buffer.append(EOL);
+            getTextBuilder().append(EOL);
         } else if (verbatimFlag) {
             write(EOL);
         } else {
@@ -932,7 +970,7 @@ public class AptSink extends AbstractTextSink implements AptMarkup {
      */
     public void nonBreakingSpace() {
         if (headerFlag || bufferFlag) {
-            buffer.append(NON_BREAKING_SPACE_MARKUP);
+            getTextBuilder().append(NON_BREAKING_SPACE_MARKUP);
         } else {
             write(NON_BREAKING_SPACE_MARKUP);
         }
@@ -943,7 +981,7 @@ public class AptSink extends AbstractTextSink implements AptMarkup {
         if (tableCaptionFlag) {
             tableCaptionBuffer.append(text);
         } else if (headerFlag || bufferFlag) {
-            buffer.append(text);
+            getTextBuilder().append(text);
         } else if (verbatimFlag) {
             verbatimContent(text);
         } else {
@@ -979,9 +1017,9 @@ public class AptSink extends AbstractTextSink implements AptMarkup {
     protected void write(String text) {
         startFlag = false;
         if (tableCellFlag) {
-            buffer.append(text);
+            getTextBuilder().append(text);
         } else {
-            writer.write(unifyEOLs(text));
+            append(text, NO_ESCAPES);
         }
     }
 
@@ -991,7 +1029,7 @@ public class AptSink extends AbstractTextSink implements AptMarkup {
      * @param text The text to write.
      */
     protected void content(String text) {
-        write(escapeAPT(text));
+        escapeAPT(text);
     }
 
     /**
@@ -1000,7 +1038,7 @@ public class AptSink extends AbstractTextSink implements AptMarkup {
      * @param text The text to write.
      */
     protected void verbatimContent(String text) {
-        write(escapeAPT(text));
+        escapeAPT(text);
     }
 
     /**
@@ -1030,40 +1068,39 @@ public class AptSink extends AbstractTextSink implements AptMarkup {
      * \~, \=, \-, \+, \*, \[, \], \<, \>, \{, \}, \\
      * </pre>
      *
+     * The escaped text is written to the output, or to the current table cell.
+     *
      * @param text the String to escape, may be null
-     * @return the text escaped, "" if null String input
      */
-    private static String escapeAPT(String text) {
+    private void escapeAPT(String text) {
+        startFlag = false;
         if (text == null) {
-            return "";
+            return;
         }
 
-        int length = text.length();
-        StringBuilder buffer = new StringBuilder(length);
-
-        for (int i = 0; i < length; ++i) {
-            char c = text.charAt(i);
-            switch (c) { // 0080
-                case '\\':
-                case '~':
-                case '=':
-                case '-':
-                case '+':
-                case '*':
-                case '[':
-                case ']':
-                case '<':
-                case '>':
-                case '{':
-                case '}':
-                    buffer.append('\\');
-                    buffer.append(c);
-                    break;
-                default:
-                    buffer.append(c);
-            }
+        if (tableCellFlag) {
+            append(text, APT_ESCAPES, getTextBuilder());
+        } else {
+            append(text, APT_ESCAPES);
         }
+    }
 
-        return buffer.toString();
+    /**
+     * Writes a text to the output, with unified EOLs.
+     *
+     * @param text the text.
+     * @param escaped the characters to escape.
+     */
+    private void append(CharSequence text, boolean[] escaped) {
+        append(text, escaped, writer);
+    }
+
+    private static void append(CharSequence text, boolean[] escaped, Appendable out) {
+        try {
+            appendEscaped(text, escaped, out);
+        } catch (IOException e) {
+            // neither the sink writer nor a string builder throw checked exceptions
+            throw new UncheckedIOException(e);
+        }
     }
 }
@@ -22,14 +22,21 @@ import javax.inject.Inject;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.io.StringReader;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.util.Arrays;
 import java.util.Iterator;
 
+import org.apache.maven.doxia.Doxia;
+import org.apache.maven.doxia.macro.snippet.DelayedHttpServer;
+import org.apache.maven.doxia.metrics.JmxDoxiaMetrics;
+import org.apache.maven.doxia.metrics.MetricsRegistry;
 import org.apache.maven.doxia.parser.AbstractParserTest;
 import org.apache.maven.doxia.parser.ParseException;
 import org.apache.maven.doxia.parser.Parser;
 import org.apache.maven.doxia.sink.Sink;
+import org.apache.maven.doxia.sink.impl.SinkAdapter;
 import org.apache.maven.doxia.sink.impl.SinkEventAttributeSet;
 import org.apache.maven.doxia.sink.impl.SinkEventElement;
 import org.apache.maven.doxia.sink.impl.SinkEventTestingSink;
@@ -37,6 +44,7 @@ import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -47,6 +55,9 @@ public class AptParserTest extends AbstractParserTest {
     @Inject
     private AptParser parser;
 
+    @Inject
+    private Doxia doxia;
+
     protected Parser createParser() {
         return parser;
     }
@@ -75,6 +86,40 @@ public class AptParserTest extends AbstractParserTest {
         assertTrue(macro.contains("<modelVersion\\>4.0.0\\</modelVersion\\>"));
     }
 
+    @Test
+    public void testSnippetMacroPrefetch() throws Exception {
+        final int count = 4;
+        final long delay = 400;
+
+        try (DelayedHttpServer server = new DelayedHttpServer(delay)) {
+            StringBuilder text = new StringBuilder(" -----" + EOL + " Snippets" + EOL + " -----" + EOL + EOL);
+            for (int i = 0; i < count; i++) {
+                text.append("%{snippet|id=snippetId|ignoreDownloadError=false|url=")
+                        .append(server.url("/apt/" + i))
+                        .append("}")
+                        .append(EOL)
+                        .append(EOL);
+            }
+
+            SinkEventTestingSink sink = new SinkEventTestingSink();
+            long start = System.currentTimeMillis();
+            parser.parse(text.toString(), sink);
+            long duration = System.currentTimeMillis() - start;
+
+            StringBuilder snippets = new StringBuilder();
+            for (SinkEventElement event : sink.getEventList()) {
+                if ("text".equals(event.getName())) {
+                    snippets.append(event.getArgs()[0]);
+                }
+            }
+            for (int i = 0; i < count; i++) {
+                assertTrue(snippets.toString().contains("content of /apt/" + i));
+            }
+            assertEquals(count, server.getRequestCount());
+            assertTrue(duration < (count - 1) * delay, "snippets were not fetched concurrently: " + duration + "ms");
+        }
+    }
+
     @Test
     public void testCommentsBeforeTitle() throws Exception {
         String comments = parseFileToAptSink("test/comments");
@@ -483,6 +528,27 @@ public class AptParserTest extends AbstractParserTest {
         assertSinkEquals(it, "tableCell_", "tableRow_", "tableRows_", "table_", "body_");
     }
 
+    @Test
+    public void testMultiLineTableCells() throws Exception {
+        String text =
+                "*---+---+" + EOL + "|| first\\ | a |" + EOL + "|| second | b {{{#c}c}} |" + EOL + "*---+---+" + EOL;
+
+        SinkEventTestingSink sink = new SinkEventTestingSink();
+
+        parser.parse(text, sink);
+
+        Iterator<SinkEventElement> it = sink.getEventList().iterator();
+        assertSinkStartsWith(it, "head", "head_", "body", "table", "tableRows", "tableRow", "tableHeaderCell");
+        assertSinkEquals(it.next(), "text", "first\u00A0");
+        assertSinkStartsWith(it, "lineBreak");
+        assertSinkEquals(it.next(), "text", "second");
+        assertSinkStartsWith(it, "tableHeaderCell_", "tableCell");
+        assertSinkEquals(it.next(), "text", "a b ");
+        assertSinkEquals(it.next(), "link", "#c");
+        assertSinkEquals(it.next(), "text", "c");
+        assertSinkEquals(it, "link_", "tableCell_", "tableRow_", "tableRows_", "table_", "body_");
+    }
+
     @Test
     public void testLiteralAnchor() throws Exception {
         // DOXIA-397
@@ -503,6 +569,24 @@ public class AptParserTest extends AbstractParserTest {
         assertSinkEquals(it, "link_", "sectionTitle1_", "section1_", "body_");
     }
 
+    @Test
+    public void testInlineEscapes() throws Exception {
+        String text = " a\\x41\\u00e9\\101 \\{b\\}\t  c\\ d\\<e\\x4 {{{#x}f\\}g}}";
+
+        SinkEventTestingSink sink = new SinkEventTestingSink();
+
+        parser.parse(text, sink);
+
+        Iterator<SinkEventElement> it = sink.getEventList().iterator();
+        assertSinkStartsWith(it, "head", "head_", "body", "paragraph");
+        assertSinkEquals(it.next(), "text", "aA\u00e9A {b} c");
+        assertSinkStartsWith(it, "nonBreakingSpace");
+        assertSinkEquals(it.next(), "text", "d<e\\x4 ");
+        assertSinkEquals(it.next(), "link", "#x");
+        assertSinkEquals(it.next(), "text", "f}g");
+        assertSinkEquals(it, "link_", "paragraph_", "body_");
+    }
+
     @Test
     public void testMultipleAuthors() throws Exception {
         // DOXIA-691
@@ -521,6 +605,177 @@ public class AptParserTest extends AbstractParserTest {
         assertSinkEquals(sink.getEventList().get(8), "text", "Another author");
     }
 
+    @Test
+    public void testMetrics() throws Exception {
+        String source = "Title" + EOL + EOL + "  A paragraph." + EOL + EOL + "%{echo|text=macro}" + EOL + EOL
+                + "  Another paragraph." + EOL;
+
+        JmxDoxiaMetrics metrics = new JmxDoxiaMetrics();
+        MetricsRegistry.setMetrics(metrics);
+        try {
+            doxia.parse(new StringReader(source), "apt", new SinkAdapter(), "test.apt");
+        } finally {
+            MetricsRegistry.setMetrics(null);
+        }
+
+        assertEquals(1, metrics.getDocumentCount());
+        assertEquals(source.length(), metrics.getSourceLength());
+        assertEquals(1L, metrics.getMacroCounts().get("echo"));
+        assertTrue(metrics.getPhaseTimes().containsKey("PARSE"));
+        assertTrue(metrics.getSinkEventCounts().get("paragraph") >= 2);
+        assertEquals(1L, metrics.getSinkEventCounts().get("section1"));
+    }
+
+    @Test
+    public void testMetricsWithoutDoxia() throws Exception {
+        String source = "Title" + EOL + EOL + "%{toc}" + EOL + EOL + "* Section" + EOL + EOL + "  A paragraph." + EOL;
+
+        JmxDoxiaMetrics metrics = new JmxDoxiaMetrics();
+        MetricsRegistry.setMetrics(metrics);
+        try {
+            // as a site build does, the toc macro parses the document again
+            parser.parse(new StringReader(source), new SinkAdapter(), "test.apt");
+        } finally {
+            MetricsRegistry.setMetrics(null);
+        }
+
+        assertEquals(1, metrics.getDocumentCount());
+        assertEquals(source.length(), metrics.getSourceLength());
+        assertEquals(1L, metrics.getSinkEventCounts().get("section1"));
+    }
+
+    @Test
+    public void testStreamingWithoutSourceContent() throws Exception {
+        final int paragraphs = 100000;
+        final String paragraph = " Paragraph of a generated document." + EOL + EOL;
+
+        // generates the document while it is read, and counts the characters read so far
+        final int[] read = new int[1];
+        Reader source = new Reader() {
+            private int remaining = paragraphs;
+
+            private int position = paragraph.length();
+
+            @Override
+            public int read(char[] cbuf, int off, int len) {
+                if (position == paragraph.length()) {
+                    if (remaining == 0) {
+                        return -1;
+                    }
+                    remaining--;
+                    position = 0;
+                }
+                int n = Math.min(len, paragraph.length() - position);
+                paragraph.getChars(position, position + n, cbuf, off);
+                position += n;
+                read[0] += n;
+                return n;
+            }
+
+            @Override
+            public void close() {}
+        };
+
+        final int[] readAtFirstParagraph = {-1};
+        final int[] count = new int[1];
+        Sink sink = new SinkAdapter() {
+            @Override
+            public void paragraph() {
+                if (count[0]++ == 0) {
+                    readAtFirstParagraph[0] = read[0];
+                }
+            }
+        };
+
+        // without a macro manager no macro can need the source content
+        new AptParser().parse(source, sink);
+
+        assertEquals(paragraphs, count[0]);
+        assertEquals(paragraphs * paragraph.length(), read[0]);
+        assertTrue(
+                readAtFirstParagraph[0] < read[0] / 100,
+                "the document was buffered before parsing: " + readAtFirstParagraph[0] + " characters read");
+    }
+
+    @Test
+    public void testFindSections() {
+        String source = " -----" + EOL + " Title" + EOL + " -----" + EOL + EOL
+                + "Section 1" + EOL + EOL + "  Paragraph" + EOL + "Continued" + EOL + EOL
+                + "---" + EOL + "Verbatim" + EOL + EOL + "Verbatim" + EOL + "---" + EOL + EOL
+                + "Section 2" + EOL + EOL + "~~ comment" + EOL + "Section 3" + EOL + EOL
+                + "* Section 3.1" + EOL + EOL + "%{echo}" + EOL + "Section 4" + EOL + EOL
+                + "+-- verbatim" + EOL + "--- verbatim" + EOL + "+--" + EOL + "Section 5" + EOL;
+
+        int section2 = source.indexOf("Section 2");
+        int section3 = source.indexOf("Section 3");
+        int section4 = source.indexOf("Section 4");
+        int section5 = source.indexOf("Section 5");
+        assertEquals(
+                Arrays.asList(0, source.indexOf("Section 1"), section2, section3, section4, section5),
+                AptParser.findSections(source, 1));
+        assertEquals(Arrays.asList(0, section2, section5), AptParser.findSections(source, section2));
+        assertEquals(Arrays.asList(0), AptParser.findSections(source, source.length()));
+    }
+
+    @Test
+    public void testParallelSections() throws Exception {
+        StringBuilder source = new StringBuilder(" -----" + EOL + " Parallel" + EOL + " -----" + EOL + EOL);
+        source.append("  Preamble.").append(EOL).append(EOL);
+        for (int i = 0; i < 200; i++) {
+            source.append("Section ").append(i).append(EOL).append(EOL);
+            source.append("  Paragraph <<").append(i).append(">> with {{{http://maven.apache.org/}a link}}.");
+            source.append(EOL).append(EOL);
+            source.append("---").append(EOL).append("Not a section").append(EOL).append(EOL);
+            source.append("Not a section either")
+                    .append(EOL)
+                    .append("---")
+                    .append(EOL)
+                    .append(EOL);
+            source.append("* Sub section ").append(i).append(EOL).append(EOL);
+            source.append("  * item")
+                    .append(EOL)
+                    .append(EOL)
+                    .append("  * item")
+                    .append(EOL)
+                    .append(EOL);
+            source.append("~~ comment").append(EOL);
+            source.append("*--+--+")
+                    .append(EOL)
+                    .append("|a|b|")
+                    .append(EOL)
+                    .append("*--+--+")
+                    .append(EOL);
+            source.append(EOL);
+        }
+
+        String sequential = parseToApt(source.toString(), 1);
+        AptParser parallel = new AptParser();
+        parallel.setParallelism(4);
+        parallel.setParallelThreshold(0);
+        assertEquals(sequential, parseToApt(parallel, source.toString()));
+        assertTrue(AptParser.findSections(source, source.length() / 8).size() > 4);
+
+        // the error of a part is reported where it occurs in the document
+        source.append("Broken").append(EOL).append(EOL).append("  {{{missing").append(EOL);
+        ParseException sequentialError = assertThrows(ParseException.class, () -> parseToApt(source.toString(), 1));
+        ParseException parallelError =
+                assertThrows(ParseException.class, () -> parseToApt(parallel, source.toString()));
+        assertEquals(sequentialError.getLineNumber(), parallelError.getLineNumber());
+        assertEquals(sequentialError.getMessage(), parallelError.getMessage());
+    }
+
+    private static String parseToApt(String source, int parallelism) throws ParseException {
+        AptParser parser = new AptParser();
+        parser.setParallelism(parallelism);
+        return parseToApt(parser, source);
+    }
+
+    private static String parseToApt(AptParser parser, String source) throws ParseException {
+        StringWriter output = new StringWriter();
+        parser.parse(source, new AptSink(output));
+        return output.toString();
+    }
+
     protected String outputExtension() {
         return "apt";
     }
@@ -18,6 +18,7 @@
  */
 package org.apache.maven.doxia.module.apt;
 
+import java.io.StringWriter;
 import java.io.Writer;
 
 import org.apache.commons.lang3.StringUtils;
@@ -27,6 +28,7 @@ import org.apache.maven.doxia.sink.impl.AbstractSinkTest;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Test the <code>AptSink</code> class
@@ -395,6 +397,46 @@ public class AptSinkTest extends AbstractSinkTest {
         assertEquals(expected, getSinkContent(), "Wrong link or paragraph markup in table cell");
     }
 
+    /**
+     * Every row is preceded by a line for its own cells, the last line is repeated after the last row.
+     */
+    @Test
+    public void testTableRowLines() {
+        final Sink sink = getSink();
+        sink.table();
+        sink.tableRows(new int[] {Sink.JUSTIFY_LEFT, Sink.JUSTIFY_RIGHT}, true);
+        sink.tableRow();
+        sink.tableCell();
+        sink.text("a");
+        sink.tableCell_();
+        sink.tableCell();
+        sink.text("b");
+        sink.tableCell_();
+        sink.tableRow_();
+        sink.tableRow();
+        sink.tableCell();
+        sink.text("c\nd");
+        sink.tableCell_();
+        sink.tableRow_();
+        sink.tableRows_();
+        sink.table_();
+        sink.paragraph();
+        sink.text("[e]");
+        sink.paragraph_();
+        sink.flush();
+        sink.close();
+
+        String expected = EOL
+                + "*----+--:" + EOL
+                + "|a|b|" + EOL
+                + "*----+" + EOL
+                + "|c" + EOL + "d|" + EOL
+                + "*----+" + EOL
+                + EOL + " \\[e\\]" + EOL + EOL;
+
+        assertEquals(expected, getSinkContent(), "Wrong table row lines");
+    }
+
     @Test
     public void testTableCellsWithJustification() {
         final String linkTarget = "target";
@@ -441,4 +483,25 @@ public class AptSinkTest extends AbstractSinkTest {
 
         assertEquals(expected, getSinkContent(), "Wrong justification in table cells");
     }
+
+    /**
+     * Text appended through the deprecated buffer is taken back by the next text event.
+     */
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testDeprecatedBuffer() {
+        StringWriter writer = new StringWriter();
+        try (AptSink sink = new AptSink(writer)) {
+            sink.head();
+            sink.title();
+            sink.text("Title ");
+            sink.getBuffer().append("legacy");
+            sink.text(" text");
+            sink.title_();
+            sink.head_();
+        }
+
+        String content = writer.toString();
+        assertTrue(content.contains(" Title legacy text" + EOL), content);
+    }
 }
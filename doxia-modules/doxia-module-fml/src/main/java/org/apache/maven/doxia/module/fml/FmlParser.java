@@ -24,13 +24,12 @@ import javax.swing.text.html.HTML.Attribute;
 
 import java.io.IOException;
 import java.io.Reader;
-import java.io.StringReader;
 import java.io.StringWriter;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.Map;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.maven.doxia.macro.MacroExecutionException;
 import org.apache.maven.doxia.macro.MacroRequest;
@@ -40,7 +39,9 @@ import org.apache.maven.doxia.module.fml.model.Faqs;
 import org.apache.maven.doxia.module.fml.model.Part;
 import org.apache.maven.doxia.parser.AbstractXmlParser;
 import org.apache.maven.doxia.parser.ParseException;
+import org.apache.maven.doxia.parser.SourceBuffer;
 import org.apache.maven.doxia.sink.Sink;
+import org.apache.maven.doxia.sink.impl.RecordingSink;
 import org.apache.maven.doxia.sink.impl.SinkEventAttributeSet;
 import org.apache.maven.doxia.sink.impl.Xhtml5BaseSink;
 import org.apache.maven.doxia.util.DoxiaUtils;
@@ -74,8 +75,20 @@ public class FmlParser extends AbstractXmlParser implements FmlMarkup {
     /** Used to collect text events. */
     private StringBuilder buffer;
 
+    /** Parses the titles, questions and answers once, when they are read. */
+    private final FmlContentParser contentParser = new FmlContentParser();
+
+    /** The events of the part titles. */
+    private final Map<Part, RecordingSink> titles = new IdentityHashMap<>();
+
+    /** The events of the questions, replayed in the summary and in the content. */
+    private final Map<Faq, RecordingSink> questions = new IdentityHashMap<>();
+
+    /** The events of the answers. */
+    private final Map<Faq, RecordingSink> answers = new IdentityHashMap<>();
+
     /** The source content of the input reader. Used to pass into macros. */
-    private String sourceContent;
+    private SourceBuffer sourceContent;
 
     /** A macro name. */
     private String macroName;
@@ -85,20 +98,24 @@ public class FmlParser extends AbstractXmlParser implements FmlMarkup {
 
     /** {@inheritDoc} */
     public void parse(Reader source, Sink sink, String reference) throws ParseException {
+        if (parseMeasured(source, sink, reference)) {
+            return;
+        }
+
         this.faqs = null;
         this.sourceContent = null;
         init();
 
         try (Reader reader = source) {
-            StringWriter contentWriter = new StringWriter();
-            IOUtils.copy(reader, contentWriter);
-            sourceContent = contentWriter.toString();
+            sourceContent = SourceBuffer.read(reader);
         } catch (IOException ex) {
             throw new ParseException("Error reading the input source", ex);
         }
 
+        prefetchMacroElements(sourceContent, FmlParser::new);
+
         try {
-            Reader tmp = new StringReader(sourceContent);
+            Reader tmp = sourceContent.newReader();
 
             this.faqs = new Faqs();
 
@@ -109,6 +126,9 @@ public class FmlParser extends AbstractXmlParser implements FmlMarkup {
         } finally {
             this.faqs = null;
             this.sourceContent = null;
+            this.titles.clear();
+            this.questions.clear();
+            this.answers.clear();
             setSecondParsing(false);
             init();
         }
@@ -230,7 +250,7 @@ public class FmlParser extends AbstractXmlParser implements FmlMarkup {
 
             buffer.append(LESS_THAN).append(SLASH).append(parser.getName()).append(GREATER_THAN);
 
-            currentFaq.setQuestion(buffer.toString());
+            questions.put(currentFaq, parseContent(buffer));
 
             buffer = null;
         } else if (parser.getName().equals(ANSWER_TAG.toString())) {
@@ -241,7 +261,7 @@ public class FmlParser extends AbstractXmlParser implements FmlMarkup {
 
             buffer.append(LESS_THAN).append(SLASH).append(parser.getName()).append(GREATER_THAN);
 
-            currentFaq.setAnswer(buffer.toString());
+            answers.put(currentFaq, parseContent(buffer));
 
             buffer = null;
         } else if (parser.getName().equals(TITLE.toString())) {
@@ -252,7 +272,7 @@ public class FmlParser extends AbstractXmlParser implements FmlMarkup {
 
             buffer.append(LESS_THAN).append(SLASH).append(parser.getName()).append(GREATER_THAN);
 
-            currentPart.setTitle(buffer.toString());
+            titles.put(currentPart, parseContent(buffer));
 
             buffer = null;
         }
@@ -355,6 +375,24 @@ public class FmlParser extends AbstractXmlParser implements FmlMarkup {
         this.macroParameters = null;
     }
 
+    /**
+     * Parses a title, question or answer, so that its events can be emitted more than once without
+     * parsing it again.
+     *
+     * @param content the content, including its enclosing element.
+     * @return the events of the content.
+     * @throws XmlPullParserException if the content cannot be parsed.
+     */
+    private RecordingSink parseContent(CharSequence content) throws XmlPullParserException {
+        RecordingSink recording = new RecordingSink();
+        try {
+            contentParser.parse(content.toString(), recording.getSink());
+        } catch (ParseException e) {
+            throw new XmlPullParserException("Error parsing the content: " + e.getMessage(), null, e);
+        }
+        return recording;
+    }
+
     /**
      * TODO import from XdocParser, probably need to be generic.
      *
@@ -385,7 +423,7 @@ public class FmlParser extends AbstractXmlParser implements FmlMarkup {
     private void handleMacroEnd(StringBuilder buffer) throws MacroExecutionException {
         if (!isSecondParsing()) {
             if (StringUtils.isNotEmpty(macroName)) {
-                MacroRequest request = new MacroRequest(sourceContent, new FmlParser(), macroParameters, getBasedir());
+                MacroRequest request = MacroRequest.of(sourceContent, new FmlParser(), macroParameters, getBasedir());
 
                 try {
                     StringWriter sw = new StringWriter();
@@ -438,8 +476,6 @@ public class FmlParser extends AbstractXmlParser implements FmlMarkup {
      * @throws ParseException if something goes wrong.
      */
     private void writeFaqs(Sink sink) throws ParseException {
-        FmlContentParser xdocParser = new FmlContentParser();
-
         sink.head();
         sink.title();
         sink.text(faqs.getTitle());
@@ -459,10 +495,11 @@ public class FmlParser extends AbstractXmlParser implements FmlMarkup {
         // ----------------------------------------------------------------------
 
         for (Part part : faqs.getParts()) {
-            if (StringUtils.isNotEmpty(part.getTitle())) {
+            RecordingSink title = titles.get(part);
+            if (title != null) {
                 sink.paragraph();
                 sink.inline(SinkEventAttributeSet.Semantics.BOLD);
-                xdocParser.parse(part.getTitle(), sink);
+                title.replay(sink);
                 sink.inline_();
                 sink.paragraph_();
             }
@@ -473,11 +510,7 @@ public class FmlParser extends AbstractXmlParser implements FmlMarkup {
                 sink.numberedListItem();
                 sink.link("#" + faq.getId());
 
-                if (StringUtils.isNotEmpty(faq.getQuestion())) {
-                    xdocParser.parse(faq.getQuestion(), sink);
-                } else {
-                    throw new ParseException("Missing <question> for FAQ '" + faq.getId() + "'");
-                }
+                writeContent(questions.get(faq), "question", faq, sink);
 
                 sink.link_();
                 sink.numberedListItem_();
@@ -493,12 +526,13 @@ public class FmlParser extends AbstractXmlParser implements FmlMarkup {
         // ----------------------------------------------------------------------
 
         for (Part part : faqs.getParts()) {
-            if (StringUtils.isNotEmpty(part.getTitle())) {
+            RecordingSink title = titles.get(part);
+            if (title != null) {
                 sink.section1();
                 sink.anchor(part.getId());
                 sink.anchor_();
                 sink.sectionTitle1();
-                xdocParser.parse(part.getTitle(), sink);
+                title.replay(sink);
                 sink.sectionTitle1_();
             }
 
@@ -512,21 +546,13 @@ public class FmlParser extends AbstractXmlParser implements FmlMarkup {
 
                 sink.definedTerm();
 
-                if (StringUtils.isNotEmpty(faq.getQuestion())) {
-                    xdocParser.parse(faq.getQuestion(), sink);
-                } else {
-                    throw new ParseException("Missing <question> for FAQ '" + faq.getId() + "'");
-                }
+                writeContent(questions.get(faq), "question", faq, sink);
 
                 sink.definedTerm_();
 
                 sink.definition();
 
-                if (StringUtils.isNotEmpty(faq.getAnswer())) {
-                    xdocParser.parse(faq.getAnswer(), sink);
-                } else {
-                    throw new ParseException("Missing <answer> for FAQ '" + faq.getId() + "'");
-                }
+                writeContent(answers.get(faq), "answer", faq, sink);
 
                 if (faqs.isToplink()) {
                     writeTopLink(sink);
@@ -541,7 +567,7 @@ public class FmlParser extends AbstractXmlParser implements FmlMarkup {
 
             sink.definitionList_();
 
-            if (StringUtils.isNotEmpty(part.getTitle())) {
+            if (title != null) {
                 sink.section1_();
             }
         }
@@ -549,6 +575,22 @@ public class FmlParser extends AbstractXmlParser implements FmlMarkup {
         sink.body_();
     }
 
+    /**
+     * Writes the events of a question or answer.
+     *
+     * @param content the events, null if the FAQ has no such element.
+     * @param element the name of the element.
+     * @param faq the FAQ.
+     * @param sink The sink to consume the event.
+     * @throws ParseException if the FAQ has no such element.
+     */
+    private static void writeContent(RecordingSink content, String element, Faq faq, Sink sink) throws ParseException {
+        if (content == null) {
+            throw new ParseException("Missing <" + element + "> for FAQ '" + faq.getId() + "'");
+        }
+        content.replay(sink);
+    }
+
     /**
      * Writes a toplink element.
      *
@@ -25,7 +25,9 @@ import java.io.FileFilter;
 import java.io.FileReader;
 import java.io.Reader;
 import java.io.Writer;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.regex.Pattern;
 
 import org.apache.commons.io.IOUtils;
@@ -272,6 +274,39 @@ public class FmlParserTest extends AbstractParserTest {
         assertTrue(content.contains("<a id=\"macro-definition\"></a>" + EOL + "<dt>Macro Question</dt>"));
     }
 
+    @Test
+    public void testQuestionInSummaryAndContent() throws Exception {
+        String fml = "<faqs title=\"FAQ\"><part id=\"p\"><title>Part <b>one</b></title>"
+                + "<faq id=\"q\"><question>Why <code>x</code> &amp; <a href=\"#y\">y</a>?</question>"
+                + "<answer><p>Because.</p></answer></faq></part></faqs>";
+
+        SinkEventTestingSink sink = new SinkEventTestingSink();
+        parser.parse(fml, sink);
+
+        List<SinkEventElement> events = sink.getEventList();
+        List<String> summary = eventsBetween(events, "numberedListItem", "numberedListItem_");
+        List<String> content = eventsBetween(events, "definedTerm", "definedTerm_");
+        assertEquals(
+                "[link, text, inline, text, inline_, text, text, text, link, text, link_, text, link_]",
+                summary.toString());
+        assertEquals(summary.subList(1, summary.size() - 1), content);
+    }
+
+    private static List<String> eventsBetween(List<SinkEventElement> events, String start, String end) {
+        List<String> names = new ArrayList<>();
+        boolean inside = false;
+        for (SinkEventElement event : events) {
+            if (event.getName().equals(end)) {
+                break;
+            }
+            if (inside) {
+                names.add(event.getName());
+            }
+            inside |= event.getName().equals(start);
+        }
+        return names;
+    }
+
     private void assertTextEvent(SinkEventElement textEvt, String string) {
         assertEquals("text", textEvt.getName());
         assertEquals(string, textEvt.getArgs()[0]);
@@ -24,17 +24,21 @@ import javax.inject.Singleton;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.Callable;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
+import com.vladsch.flexmark.ast.FencedCodeBlock;
 import com.vladsch.flexmark.ast.Heading;
+import com.vladsch.flexmark.ast.HtmlBlock;
 import com.vladsch.flexmark.ast.HtmlCommentBlock;
 import com.vladsch.flexmark.ast.util.TextCollectingVisitor;
 import com.vladsch.flexmark.ext.abbreviation.AbbreviationExtension;
@@ -47,17 +51,21 @@ import com.vladsch.flexmark.ext.typographic.TypographicExtension;
 import com.vladsch.flexmark.ext.wikilink.WikiLinkExtension;
 import com.vladsch.flexmark.ext.yaml.front.matter.YamlFrontMatterExtension;
 import com.vladsch.flexmark.html.HtmlRenderer;
+import com.vladsch.flexmark.util.ast.Document;
 import com.vladsch.flexmark.util.ast.Node;
 import com.vladsch.flexmark.util.data.MutableDataSet;
-import org.apache.commons.io.IOUtils;
+import com.vladsch.flexmark.util.sequence.BasedSequence;
 import org.apache.maven.doxia.markup.HtmlMarkup;
 import org.apache.maven.doxia.markup.TextMarkup;
 import org.apache.maven.doxia.module.xhtml5.Xhtml5Parser;
 import org.apache.maven.doxia.parser.AbstractTextParser;
 import org.apache.maven.doxia.parser.ParseException;
+import org.apache.maven.doxia.parser.SourceBuffer;
 import org.apache.maven.doxia.sink.Sink;
 import org.apache.maven.doxia.util.HtmlTools;
 import org.codehaus.plexus.util.xml.pull.XmlPullParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * <p>
@@ -68,6 +76,11 @@ import org.codehaus.plexus.util.xml.pull.XmlPullParser;
  * which generates HTML content then delegates parsing of this content to a slightly modified Doxia Xhtml5 parser.
  * (before 1.8, the <a href="http://pegdown.org">PegDown library</a> was used)
  * </p>
+ * <p>
+ * Large documents can be {@link #setParallelism(int) converted in parallel}: the Markdown source is split at
+ * its level 1 headings, and the parts are converted to HTML at the same time. The HTML is parsed as a whole,
+ * since the sections it implies span the parts.
+ * </p>
  *
  * @author Vladimir Schneider
  * @author Julien Nicoulaud
@@ -76,6 +89,7 @@ import org.codehaus.plexus.util.xml.pull.XmlPullParser;
 @Singleton
 @Named("markdown")
 public class MarkdownParser extends AbstractTextParser implements TextMarkup {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MarkdownParser.class);
 
     /**
      * Regex that identifies a multimarkdown-style metadata section at the start of the document
@@ -167,6 +181,10 @@ public class MarkdownParser extends AbstractTextParser implements TextMarkup {
     /** {@inheritDoc} */
     @Override
     public void parse(Reader source, Sink sink, String reference) throws ParseException {
+        if (parseMeasured(source, sink, reference)) {
+            return;
+        }
+
         try {
             // Markdown to HTML (using flexmark-java library)
             String html = toHtml(source);
@@ -178,21 +196,189 @@ public class MarkdownParser extends AbstractTextParser implements TextMarkup {
         }
     }
 
-    private boolean processMetadataForHtml(StringBuilder html, StringBuilder source) {
-        final Map<String, List<String>> metadata;
+    /**
+     * Parses the sections of a large Markdown document in parallel.
+     *
+     * @param markdownText the Markdown source, without metadata.
+     * @return the documents of the parts, in document order, or <code>null</code> if the document cannot be split.
+     * @throws ParseException if the current thread is interrupted.
+     */
+    private List<Document> parseSections(CharSequence markdownText) throws ParseException {
+        List<Integer> starts = findSections(markdownText, getPartLength(markdownText.length()));
+        if (starts.size() < 2) {
+            return null;
+        }
+
+        List<Callable<Document>> parts = new ArrayList<>(starts.size());
+        for (int i = 0; i < starts.size(); i++) {
+            CharSequence part = markdownText.subSequence(
+                    starts.get(i), i + 1 < starts.size() ? starts.get(i + 1) : markdownText.length());
+            parts.add(() -> FLEXMARK_PARSER.parse(BasedSequence.of(part)));
+        }
+
+        List<Document> documents = parseParts(parts);
+        if (documents == null) {
+            return null;
+        }
+
+        for (int i = 0; i < documents.size(); i++) {
+            Document document = documents.get(i);
+            // reference and abbreviation definitions apply to the whole document
+            if (!com.vladsch.flexmark.parser.Parser.REFERENCES.get(document).isEmpty()
+                    || !AbbreviationExtension.ABBREVIATIONS.get(document).isEmpty()) {
+                LOGGER.debug("Converting Markdown sequentially, the document has reference definitions");
+                return null;
+            }
+            // the block a part ends with must not go on in the next part
+            Node last = document.getLastChild();
+            if (i + 1 < documents.size()
+                    && (last instanceof FencedCodeBlock
+                                    && ((FencedCodeBlock) last)
+                                            .getClosingMarker()
+                                            .isEmpty()
+                            || last instanceof HtmlBlock
+                            || last instanceof HtmlCommentBlock
+                                    && !last.getChars().toString().contains("-->"))) {
+                LOGGER.debug("Converting Markdown sequentially, a section starts within a block");
+                return null;
+            }
+        }
+        return documents;
+    }
+
+    /**
+     * Finds the level 1 headings where the Markdown source can be split into parts of at least the given length,
+     * so that the parts are converted to the same HTML as the whole source.
+     * The first heading stays in the first part, since it may give its title to the document. The other headings
+     * must follow an open line, and must not be in fenced code blocks or HTML comments.
+     * A heading that is taken for a split point while it is part of another block is detected once the parts
+     * are parsed, see {@link #parseSections(CharSequence)}.
+     *
+     * @param content the Markdown source.
+     * @param partLength the minimum length of a part.
+     * @return the offsets where the parts start, the first one is 0.
+     */
+    static List<Integer> findSections(CharSequence content, int partLength) {
+        List<Integer> starts = new ArrayList<>();
+        starts.add(0);
+
+        int length = content.length();
+        boolean headingSeen = false;
+        boolean openLine = true;
+        boolean comment = false;
+        char fence = 0;
+        int fenceLength = 0;
+        int fenceIndent = 0;
+        for (int lineStart = 0; lineStart < length; lineStart = nextLine(content, lineStart)) {
+            int lineEnd = lineEnd(content, lineStart);
+            int i = skipSpace(content, lineStart, lineEnd);
+            int indent = i - lineStart;
+            char c = i < lineEnd ? content.charAt(i) : 0;
+            int run = skip(content, i, lineEnd, c);
+
+            if (fence != 0) {
+                if (c == fence
+                        && run - i >= fenceLength
+                        && indent <= fenceIndent + 3
+                        && run == skipSpace(content, run, lineEnd)) {
+                    fence = 0;
+                }
+            } else if (comment) {
+                comment = indexOf(content, "-->", lineStart, lineEnd) < 0;
+            } else if (i == lineEnd) {
+                openLine = true;
+                continue;
+            } else if ((c == '`' || c == '~')
+                    && run - i >= 3
+                    && (c == '~' || indexOf(content, "`", run, lineEnd) < 0)) {
+                fence = c;
+                fenceLength = run - i;
+                fenceIndent = indent;
+            } else if (indent <= 3 && indexOf(content, "<!--", i, lineEnd) == i) {
+                comment = indexOf(content, "-->", i + 4, lineEnd) < 0;
+            } else if (indent == 0
+                    && c == '#'
+                    && run == i + 1
+                    && (run == lineEnd || skipSpace(content, run, lineEnd) > run)) {
+                if (headingSeen && openLine && lineStart - starts.get(starts.size() - 1) >= partLength) {
+                    starts.add(lineStart);
+                }
+                headingSeen = true;
+            }
+
+            openLine = false;
+        }
+        return starts;
+    }
+
+    private static int lineEnd(CharSequence content, int start) {
+        int i = start;
+        while (i < content.length() && content.charAt(i) != '\n' && content.charAt(i) != '\r') {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Returns the start of the next line, a line ends with \n, \r or \r\n.
+     */
+    private static int nextLine(CharSequence content, int start) {
+        int end = lineEnd(content, start);
+        if (end + 1 < content.length() && content.charAt(end) == '\r' && content.charAt(end + 1) == '\n') {
+            return end + 2;
+        }
+        return end + 1;
+    }
+
+    private static int skipSpace(CharSequence content, int start, int end) {
+        int i = start;
+        while (i < end && (content.charAt(i) == ' ' || content.charAt(i) == '\t')) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int skip(CharSequence content, int start, int end, char c) {
+        int i = start;
+        while (i < end && content.charAt(i) == c) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int indexOf(CharSequence content, String text, int start, int end) {
+        for (int i = start; i <= end - text.length(); i++) {
+            int j = 0;
+            while (j < text.length() && content.charAt(i + j) == text.charAt(j)) {
+                j++;
+            }
+            if (j == text.length()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Reads the metadata at the start of the source.
+     *
+     * @param source the Markdown source
+     * @param metadata receives the metadata
+     * @return the end of the metadata within the source
+     */
+    private int readMetadata(SourceBuffer source, Map<String, List<String>> metadata) {
         final int endOffset; // end of metadata within source
         // support two types of metadata:
-        if (source.toString().startsWith("---")) {
+        if (source.startsWith("---")) {
             // 1. YAML front matter (https://github.com/vsch/flexmark-java/wiki/Extensions#yaml-front-matter)
-            Node documentRoot = FLEXMARK_METADATA_PARSER.parse(source.toString());
+            Node documentRoot = FLEXMARK_METADATA_PARSER.parse(BasedSequence.of(source));
             YamlFrontMatterVisitor visitor = new YamlFrontMatterVisitor();
             visitor.visit(documentRoot);
-            metadata = visitor.getData();
+            metadata.putAll(visitor.getData());
             endOffset = visitor.getEndOffset();
         } else {
             // 2. Multimarkdown metadata (https://fletcher.github.io/MultiMarkdown-5/metadata.html), not yet supported
             // by Flexmark (https://github.com/vsch/flexmark-java/issues/550)
-            metadata = new LinkedHashMap<>();
             Matcher metadataMatcher = METADATA_SECTION_PATTERN.matcher(source);
             if (metadataMatcher.find()) {
                 String entry = metadataMatcher.group(0) + EOL;
@@ -207,11 +393,7 @@ public class MarkdownParser extends AbstractTextParser implements TextMarkup {
                 endOffset = 0;
             }
         }
-        if (endOffset > 0) {
-            // Trim the metadata from the source
-            source.delete(0, endOffset);
-        }
-        return writeHtmlMetadata(html, metadata);
+        return endOffset;
     }
 
     static String normalizeMultilineValue(String value) {
@@ -264,21 +446,26 @@ public class MarkdownParser extends AbstractTextParser implements TextMarkup {
      * @param source the Markdown source
      * @return HTML content generated by flexmark-java
      * @throws IOException passed through
+     * @throws ParseException if the current thread is interrupted while the document is converted in parallel
      */
-    String toHtml(Reader source) throws IOException {
+    String toHtml(Reader source) throws IOException, ParseException {
         // Read the source
-        StringBuilder markdownText = new StringBuilder(IOUtils.toString(source));
+        SourceBuffer sourceBuffer = SourceBuffer.read(source);
 
         // Now, build the HTML document
         StringBuilder html = new StringBuilder(1000);
         html.append("<html>");
         html.append("<head>");
 
-        boolean haveTitle = processMetadataForHtml(html, markdownText);
+        Map<String, List<String>> metadata = new LinkedHashMap<>();
+        int endOffset = readMetadata(sourceBuffer, metadata);
+        boolean haveTitle = writeHtmlMetadata(html, metadata);
 
         // Now is the time to parse the Markdown document
         // (after we've trimmed out the metadatas, and before we check for its headings)
-        Node documentRoot = FLEXMARK_PARSER.parse(markdownText.toString());
+        CharSequence markdownText = sourceBuffer.subSequence(endOffset, sourceBuffer.length());
+        List<Document> parts = isParallel(markdownText.length()) ? parseSections(markdownText) : null;
+        Node documentRoot = parts == null ? FLEXMARK_PARSER.parse(BasedSequence.of(markdownText)) : parts.get(0);
 
         // Special trick: if there is no title specified as a metadata in the header, we will use the first
         // heading as the document title
@@ -302,7 +489,23 @@ public class MarkdownParser extends AbstractTextParser implements TextMarkup {
         html.append("<body>");
 
         // Convert our Markdown document to HTML and append it to our HTML
-        FLEXMARK_HTML_RENDERER.render(documentRoot, html);
+        if (parts == null) {
+            FLEXMARK_HTML_RENDERER.render(documentRoot, html);
+        } else {
+            List<Callable<String>> renderings = new ArrayList<>(parts.size());
+            for (Node part : parts) {
+                renderings.add(() -> FLEXMARK_HTML_RENDERER.render(part));
+            }
+            List<String> rendered = parseParts(renderings);
+            if (rendered == null) {
+                // render the whole document sequentially, to report the error where it occurs
+                FLEXMARK_HTML_RENDERER.render(FLEXMARK_PARSER.parse(BasedSequence.of(markdownText)), html);
+            } else {
+                for (String rendering : rendered) {
+                    html.append(rendering);
+                }
+            }
+        }
 
         html.append("</body>");
         html.append("</html>");
@@ -18,7 +18,8 @@
  */
 package org.apache.maven.doxia.module.markdown;
 
-import java.io.PrintWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -30,6 +31,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.maven.doxia.sink.SinkEventAttributes;
 import org.apache.maven.doxia.sink.impl.AbstractTextSink;
 import org.apache.maven.doxia.sink.impl.SinkEventAttributeSet;
+import org.apache.maven.doxia.sink.impl.SinkWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,12 +43,27 @@ import org.slf4j.LoggerFactory;
 public class MarkdownSink extends AbstractTextSink implements MarkdownMarkup {
     private static final Logger LOGGER = LoggerFactory.getLogger(MarkdownSink.class);
 
+    /** The characters escaped in Markdown text, indexed by character. */
+    private static final boolean[] MARKDOWN_ESCAPES = new boolean[128];
+
+    /** No escaped characters, EOLs are still unified. */
+    private static final boolean[] NO_ESCAPES = new boolean[0];
+
+    static {
+        for (char c : "\\`*_{}[]()#+-.!".toCharArray()) {
+            MARKDOWN_ESCAPES[c] = true;
+        }
+    }
+
     // ----------------------------------------------------------------------
     // Instance fields
     // ----------------------------------------------------------------------
 
-    /**  A buffer that holds the current text when headerFlag or bufferFlag set to <code>true</code>. */
-    private StringBuffer buffer;
+    /**  A buffer that holds the current text when headerFlag set to <code>true</code>. */
+    private final StringBuilder buffer = new StringBuilder();
+
+    /**  The copy of the current text handed out by the deprecated {@link #getBuffer()}, or null. */
+    private StringBuffer legacyBuffer;
 
     /**  A buffer that holds the table caption. */
     private StringBuilder tableCaptionBuffer;
@@ -75,8 +92,8 @@ public class MarkdownSink extends AbstractTextSink implements MarkdownMarkup {
     /**  headerFlag. */
     private boolean headerFlag;
 
-    /**  bufferFlag. */
-    private boolean bufferFlag;
+    /**  tableRowFlag, the text of a table row is written unescaped. */
+    private boolean tableRowFlag;
 
     /**  itemFlag. */
     private boolean itemFlag;
@@ -91,7 +108,7 @@ public class MarkdownSink extends AbstractTextSink implements MarkdownMarkup {
     private int cellCount;
 
     /**  The writer to use. */
-    private final PrintWriter writer;
+    private final SinkWriter writer;
 
     /** {@code true} when last written character in {@link #writer} was a line separator, or writer is still at the beginning */
     private boolean isWriterAtStartOfNewLine;
@@ -99,9 +116,6 @@ public class MarkdownSink extends AbstractTextSink implements MarkdownMarkup {
     /**  justification of table cells. */
     private int[] cellJustif;
 
-    /**  a line of a row in a table. */
-    private String rowLine;
-
     /**  is header row */
     private boolean headerRow;
 
@@ -124,7 +138,7 @@ public class MarkdownSink extends AbstractTextSink implements MarkdownMarkup {
      * @param writer not null writer to write the result. <b>Should</b> be an UTF-8 Writer.
      */
     protected MarkdownSink(Writer writer) {
-        this.writer = new PrintWriter(writer);
+        this.writer = new SinkWriter(writer);
         isWriterAtStartOfNewLine = true;
         this.listStyles = new Stack<>();
 
@@ -134,12 +148,33 @@ public class MarkdownSink extends AbstractTextSink implements MarkdownMarkup {
     /**
      * Returns the buffer that holds the current text.
      *
-     * @return A StringBuffer.
+     * @return A StringBuilder.
+     * @since 2.0.0-M7
      */
-    protected StringBuffer getBuffer() {
+    protected StringBuilder getTextBuilder() {
+        if (legacyBuffer != null) {
+            // take back what was done through the deprecated accessor
+            buffer.setLength(0);
+            buffer.append(legacyBuffer);
+            legacyBuffer = null;
+        }
         return buffer;
     }
 
+    /**
+     * Returns a copy of the buffer that holds the current text.
+     *
+     * @return A StringBuffer, changes to it are taken into account until the sink uses its buffer again.
+     * @deprecated use {@link #getTextBuilder()}, which is not synchronized.
+     */
+    @Deprecated
+    protected StringBuffer getBuffer() {
+        if (legacyBuffer == null) {
+            legacyBuffer = new StringBuffer(buffer);
+        }
+        return legacyBuffer;
+    }
+
     /**
      * Used to determine whether we are in head mode.
      *
@@ -166,13 +201,12 @@ public class MarkdownSink extends AbstractTextSink implements MarkdownMarkup {
         this.tableCaptionFlag = false;
         this.tableCellFlag = false;
         this.headerFlag = false;
-        this.bufferFlag = false;
+        this.tableRowFlag = false;
         this.itemFlag = false;
         this.verbatimFlag = false;
         this.gridFlag = false;
         this.cellCount = 0;
         this.cellJustif = null;
-        this.rowLine = null;
         this.listStyles.clear();
         this.inlineStack.clear();
     }
@@ -181,7 +215,8 @@ public class MarkdownSink extends AbstractTextSink implements MarkdownMarkup {
      * Reset the StringBuilder.
      */
     protected void resetBuffer() {
-        buffer = new StringBuffer();
+        buffer.setLength(0);
+        legacyBuffer = null;
     }
 
     /**
@@ -227,24 +262,24 @@ public class MarkdownSink extends AbstractTextSink implements MarkdownMarkup {
 
     @Override
     public void title_() {
-        if (buffer.length() > 0) {
-            title = buffer.toString();
+        if (getTextBuilder().length() > 0) {
+            title = getTextBuilder().toString();
             resetBuffer();
         }
     }
 
     @Override
     public void author_() {
-        if (buffer.length() > 0) {
-            authors.add(buffer.toString());
+        if (getTextBuilder().length() > 0) {
+            authors.add(getTextBuilder().toString());
             resetBuffer();
         }
     }
 
     @Override
     public void date_() {
-        if (buffer.length() > 0) {
-            date = buffer.toString();
+        if (getTextBuilder().length() > 0) {
+            date = getTextBuilder().toString();
             resetBuffer();
         }
     }
@@ -490,27 +525,22 @@ public class MarkdownSink extends AbstractTextSink implements MarkdownMarkup {
 
     @Override
     public void tableRow() {
-        bufferFlag = true;
+        // the row is written as it comes, the start of the line still counts as the start of a new line
+        tableRowFlag = true;
         cellCount = 0;
+
+        write(TABLE_ROW_SEPARATOR_MARKUP);
     }
 
     @Override
     public void tableRow_() {
-        bufferFlag = false;
-
-        // write out the header row first, then the data in the buffer
-        buildRowLine();
-
-        write(TABLE_ROW_SEPARATOR_MARKUP);
-
-        write(buffer.toString());
-
-        resetBuffer();
+        tableRowFlag = false;
 
         write(EOL);
 
+        // the header row is followed by the line that separates it from the data
         if (headerRow) {
-            write(rowLine);
+            writeRowLine();
             headerRow = false;
         }
 
@@ -518,29 +548,28 @@ public class MarkdownSink extends AbstractTextSink implements MarkdownMarkup {
         cellCount = 0;
     }
 
-    /** Construct a table row. */
-    private void buildRowLine() {
-        StringBuilder rLine = new StringBuilder(TABLE_ROW_SEPARATOR_MARKUP);
+    /** Writes the line after the header row. */
+    private void writeRowLine() {
+        write(TABLE_ROW_SEPARATOR_MARKUP);
 
         for (int i = 0; i < cellCount; i++) {
             if (cellJustif != null) {
                 switch (cellJustif[i]) {
                     case 1:
-                        rLine.append(TABLE_COL_LEFT_ALIGNED_MARKUP);
+                        write(TABLE_COL_LEFT_ALIGNED_MARKUP);
                         break;
                     case 2:
-                        rLine.append(TABLE_COL_RIGHT_ALIGNED_MARKUP);
+                        write(TABLE_COL_RIGHT_ALIGNED_MARKUP);
                         break;
                     default:
-                        rLine.append(TABLE_COL_DEFAULT_ALIGNED_MARKUP);
+                        write(TABLE_COL_DEFAULT_ALIGNED_MARKUP);
                 }
             } else {
-                rLine.append(TABLE_COL_DEFAULT_ALIGNED_MARKUP);
+                write(TABLE_COL_DEFAULT_ALIGNED_MARKUP);
             }
         }
-        rLine.append(EOL);
 
-        this.rowLine = rLine.toString();
+        write(EOL);
     }
 
     @Override
@@ -577,7 +606,7 @@ public class MarkdownSink extends AbstractTextSink implements MarkdownMarkup {
      */
     private void endTableCell() {
         tableCellFlag = false;
-        buffer.append(TABLE_CELL_SEPARATOR_MARKUP);
+        write(TABLE_CELL_SEPARATOR_MARKUP);
         cellCount++;
     }
 
@@ -715,9 +744,9 @@ public class MarkdownSink extends AbstractTextSink implements MarkdownMarkup {
 
     @Override
     public void lineBreak() {
-        if (headerFlag || bufferFlag) {
-            buffer.append(EOL);
-        } else if (verbatimFlag) {
+        if (headerFlag) {
+            getTextBuilder().append(EOL);
+        } else if (tableRowFlag || verbatimFlag) {
             write(EOL);
         } else {
             write("" + SPACE + SPACE + EOL);
@@ -726,8 +755,8 @@ public class MarkdownSink extends AbstractTextSink implements MarkdownMarkup {
 
     @Override
     public void nonBreakingSpace() {
-        if (headerFlag || bufferFlag) {
-            buffer.append(NON_BREAKING_SPACE_MARKUP);
+        if (headerFlag) {
+            getTextBuilder().append(NON_BREAKING_SPACE_MARKUP);
         } else {
             write(NON_BREAKING_SPACE_MARKUP);
         }
@@ -737,9 +766,9 @@ public class MarkdownSink extends AbstractTextSink implements MarkdownMarkup {
     public void text(String text) {
         if (tableCaptionFlag) {
             tableCaptionBuffer.append(text);
-        } else if (headerFlag || bufferFlag) {
-            buffer.append(text);
-        } else if (verbatimFlag) {
+        } else if (headerFlag) {
+            getTextBuilder().append(text);
+        } else if (tableRowFlag || verbatimFlag) {
             verbatimContent(text);
         } else {
             content(text);
@@ -774,13 +803,7 @@ public class MarkdownSink extends AbstractTextSink implements MarkdownMarkup {
      */
     protected void write(String text) {
         startFlag = false;
-        if (tableCellFlag) {
-            buffer.append(text);
-        } else {
-            String unifiedText = unifyEOLs(text);
-            isWriterAtStartOfNewLine = unifiedText.endsWith(EOL);
-            writer.write(unifiedText);
-        }
+        append(text, NO_ESCAPES);
     }
 
     /**
@@ -789,7 +812,8 @@ public class MarkdownSink extends AbstractTextSink implements MarkdownMarkup {
      * @param text The text to write.
      */
     protected void content(String text) {
-        write(escapeMarkdown(text));
+        startFlag = false;
+        escapeMarkdown(text);
     }
 
     /**
@@ -824,45 +848,34 @@ public class MarkdownSink extends AbstractTextSink implements MarkdownMarkup {
      * \, `, *, _, {, }, [, ], (, ), #, +, -, ., !
      * </pre>
      *
+     * The escaped text is written to the output.
+     *
      * @param text the String to escape, may be null
-     * @return the text escaped, "" if null String input
      * @see <a href="https://daringfireball.net/projects/markdown/syntax#backslash">Backslash Escapes</a>
      */
-    private static String escapeMarkdown(String text) {
-        if (text == null) {
-            return "";
-        }
+    private void escapeMarkdown(String text) {
+        append(text == null ? "" : text, MARKDOWN_ESCAPES);
+    }
 
-        int length = text.length();
-        StringBuilder buffer = new StringBuilder(length);
-
-        for (int i = 0; i < length; ++i) {
-            char c = text.charAt(i);
-            switch (c) {
-                case '\\':
-                case '`':
-                case '*':
-                case '_':
-                case '{':
-                case '}':
-                case '[':
-                case ']':
-                case '(':
-                case ')':
-                case '#':
-                case '+':
-                case '-':
-                case '.':
-                case '!':
-                    buffer.append('\\');
-                    buffer.append(c);
-                    break;
-                default:
-                    buffer.append(c);
-            }
+    /**
+     * Writes a text to the output, with unified EOLs.
+     *
+     * @param text the text.
+     * @param escaped the characters to escape.
+     */
+    private void append(String text, boolean[] escaped) {
+        try {
+            appendEscaped(text, escaped, writer);
+        } catch (IOException e) {
+            // the sink writer does not throw checked exceptions
+            throw new UncheckedIOException(e);
         }
 
-        return buffer.toString();
+        if (!tableRowFlag) {
+            int length = text.length();
+            isWriterAtStartOfNewLine =
+                    length > 0 && (text.charAt(length - 1) == '\n' || text.charAt(length - 1) == '\r');
+        }
     }
 
     /**
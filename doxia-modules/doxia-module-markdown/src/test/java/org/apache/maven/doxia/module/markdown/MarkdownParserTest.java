@@ -22,9 +22,13 @@ import javax.inject.Inject;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.io.StringReader;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 
+import org.apache.maven.doxia.metrics.JmxDoxiaMetrics;
+import org.apache.maven.doxia.metrics.MetricsRegistry;
 import org.apache.maven.doxia.parser.AbstractParserTest;
 import org.apache.maven.doxia.parser.ParseException;
 import org.apache.maven.doxia.parser.Parser;
@@ -798,4 +802,69 @@ public class MarkdownParserTest extends AbstractParserTest {
                 "This apostrophe isn't a quote." + "This \u2018quoted text\u2019 isn't surrounded by apostrophes.",
                 content.toString());
     }
+
+    @Test
+    public void testFindSections() {
+        String source = "# Title\n\nText\n\n# One\n\n```\n\n# Not a heading\n```\n\n"
+                + "<!--\n\n# Not a heading\n-->\n\n#Not a heading\n\n## Two\n\n# Three\n"
+                + "Paragraph\n# Four\n\n    ```\n\n# Five\n";
+
+        assertEquals(
+                // indented fences may be in list items, they are never split
+                Arrays.asList(0, source.indexOf("# One"), source.indexOf("# Three")),
+                MarkdownParser.findSections(source, 1));
+        assertEquals(Arrays.asList(0), MarkdownParser.findSections(source, source.length()));
+    }
+
+    @Test
+    public void testParallelSections() throws Exception {
+        StringBuilder source = new StringBuilder("title: Parallel\n\n");
+        for (int i = 0; i < 100; i++) {
+            source.append("# Section ").append(i).append("\n\n");
+            source.append("Some *text* with 'quotes' and a [link](page")
+                    .append(i)
+                    .append(".html).\n\n");
+            source.append("```\n\n# not a heading\n```\n\n");
+            source.append("* item\n* item\n\n");
+            source.append("| a | b |\n|---|---|\n| ").append(i).append(" | x |\n\n");
+            source.append("## Sub section\n\n    indented\n\n");
+        }
+
+        String sequential = toHtml(source.toString(), 1);
+        assertTrue(MarkdownParser.findSections(source, source.length() / 8).size() > 4);
+        assertEquals(sequential, toHtml(source.toString(), 4));
+
+        // converted sequentially
+        source.append("<div>\n\n# Not a section\n</div>\n\n# After the block\n\n[link]: http://maven.apache.org\n");
+        assertEquals(toHtml(source.toString(), 1), toHtml(source.toString(), 4));
+    }
+
+    @Test
+    public void testMetrics() throws Exception {
+        String source = "# Title\n\nA paragraph.\n";
+
+        JmxDoxiaMetrics metrics = new JmxDoxiaMetrics();
+        MetricsRegistry.setMetrics(metrics);
+        try {
+            parser.parse(new StringReader(source), new SinkEventTestingSink(), "test.md");
+        } finally {
+            MetricsRegistry.setMetrics(null);
+        }
+
+        // the generated HTML is parsed as part of the Markdown document
+        assertEquals(1, metrics.getDocumentCount());
+        assertEquals(source.length(), metrics.getSourceLength());
+        assertEquals(1L, metrics.getSinkEventCounts().get("paragraph"));
+    }
+
+    private String toHtml(String source, int parallelism) throws IOException, ParseException {
+        parser.setParallelism(parallelism);
+        parser.setParallelThreshold(0);
+        try {
+            return parser.toHtml(new StringReader(source));
+        } finally {
+            parser.setParallelism(1);
+            parser.setParallelThreshold(MarkdownParser.DEFAULT_PARALLEL_THRESHOLD);
+        }
+    }
 }
@@ -23,6 +23,7 @@ import javax.inject.Inject;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
+import java.io.StringWriter;
 import java.io.Writer;
 
 import org.apache.commons.lang3.StringUtils;
@@ -36,6 +37,7 @@ import org.junit.jupiter.api.Test;
 import org.opentest4j.AssertionFailedError;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Test the <code>MarkdownSink</code> class
@@ -357,6 +359,47 @@ public class MarkdownSinkTest extends AbstractSinkTest {
         assertEquals(expected, getSinkContent(), "Wrong metadata section");
     }
 
+    /**
+     * Rows are written as they come, the line after the header row as soon as the header row ends.
+     */
+    @Test
+    public void testTableRowsWrittenAsTheyCome() {
+        final Sink sink = getSink();
+        sink.table();
+        sink.tableRows(null, false);
+        sink.tableRow();
+        sink.tableHeaderCell();
+        sink.text("a*b");
+        sink.tableHeaderCell_();
+        sink.tableHeaderCell();
+        sink.text("c");
+        sink.tableHeaderCell_();
+        sink.tableRow_();
+
+        String header = "|a*b|c|" + EOL + "|---|---|" + EOL;
+        assertEquals(header, getSinkContent(), "Wrong header row");
+
+        sink.tableRow();
+        sink.tableCell();
+        sink.text("d");
+        sink.lineBreak();
+        sink.text("e");
+        sink.tableCell_();
+
+        assertEquals(header + "|d" + EOL + "e|", getSinkContent(), "Cell not written at its end");
+
+        sink.tableRow_();
+        sink.tableRows_();
+        sink.table_();
+        sink.paragraph();
+        sink.text("f.g");
+        sink.paragraph_();
+        sink.flush();
+        sink.close();
+
+        assertEquals(header + "|d" + EOL + "e|" + EOL + "f\\.g" + EOL + EOL, getSinkContent(), "Wrong table");
+    }
+
     @Test
     public void testRoundtrip() throws IOException, ParseException {
         parseFile(parser, "test", getSink());
@@ -470,4 +513,25 @@ public class MarkdownSinkTest extends AbstractSinkTest {
 
         assertEquals(expected, getSinkContent(), "Wrong justification in table cells");
     }
+
+    /**
+     * Text appended through the deprecated buffer is taken back by the next text event.
+     */
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testDeprecatedBuffer() {
+        StringWriter writer = new StringWriter();
+        try (MarkdownSink sink = new MarkdownSink(writer)) {
+            sink.head();
+            sink.title();
+            sink.text("Title ");
+            sink.getBuffer().append("legacy");
+            sink.text(" text");
+            sink.title_();
+            sink.head_();
+        }
+
+        String content = writer.toString();
+        assertTrue(content.contains("title: Title legacy text" + EOL), content);
+    }
 }
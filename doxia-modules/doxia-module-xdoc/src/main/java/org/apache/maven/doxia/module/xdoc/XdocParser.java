@@ -24,17 +24,15 @@ import javax.swing.text.html.HTML.Attribute;
 
 import java.io.IOException;
 import java.io.Reader;
-import java.io.StringReader;
-import java.io.StringWriter;
 import java.util.HashMap;
 import java.util.Map;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.maven.doxia.macro.MacroExecutionException;
 import org.apache.maven.doxia.macro.MacroRequest;
 import org.apache.maven.doxia.macro.manager.MacroNotFoundException;
 import org.apache.maven.doxia.parser.ParseException;
+import org.apache.maven.doxia.parser.SourceBuffer;
 import org.apache.maven.doxia.parser.Xhtml5BaseParser;
 import org.apache.maven.doxia.sink.Sink;
 import org.apache.maven.doxia.sink.impl.SinkEventAttributeSet;
@@ -58,7 +56,7 @@ public class XdocParser extends Xhtml5BaseParser implements XdocMarkup {
     /**
      * The source content of the input reader. Used to pass into macros.
      */
-    private String sourceContent;
+    private SourceBuffer sourceContent;
 
     /**
      * Empty elements don't write a closing tag.
@@ -87,12 +85,14 @@ public class XdocParser extends Xhtml5BaseParser implements XdocMarkup {
 
     /** {@inheritDoc} */
     public void parse(Reader source, Sink sink, String reference) throws ParseException {
+        if (parseMeasured(source, sink, reference)) {
+            return;
+        }
+
         this.sourceContent = null;
 
         try (Reader reader = source) {
-            StringWriter contentWriter = new StringWriter();
-            IOUtils.copy(reader, contentWriter);
-            sourceContent = contentWriter.toString();
+            sourceContent = SourceBuffer.read(reader);
         } catch (IOException ex) {
             throw new ParseException("Error reading the input source", ex);
         }
@@ -100,8 +100,10 @@ public class XdocParser extends Xhtml5BaseParser implements XdocMarkup {
         // leave this at default (false) until everything is properly implemented, see DOXIA-226
         // setIgnorableWhitespace(true);
 
+        prefetchMacroElements(sourceContent, XdocParser::new);
+
         try {
-            super.parse(new StringReader(sourceContent), sink, reference);
+            super.parse(sourceContent.newReader(), sink, reference);
         } finally {
             this.sourceContent = null;
         }
@@ -283,7 +285,7 @@ public class XdocParser extends Xhtml5BaseParser implements XdocMarkup {
 
     private void handleMacroEnd(Sink sink) throws MacroExecutionException {
         if (!isSecondParsing() && StringUtils.isNotEmpty(macroName)) {
-            MacroRequest request = new MacroRequest(sourceContent, new XdocParser(), macroParameters, getBasedir());
+            MacroRequest request = MacroRequest.of(sourceContent, new XdocParser(), macroParameters, getBasedir());
 
             try {
                 executeMacro(macroName, request, sink);
@@ -179,7 +179,7 @@ public class XdocSink extends Xhtml5BaseSink implements XdocMarkup {
      * @see javax.swing.text.html.HTML.Tag#TITLE
      */
     public void title_() {
-        content(getTextBuffer().toString());
+        content(getTextBuilder().toString());
 
         writeEndTag(TITLE);
 
@@ -192,9 +192,9 @@ public class XdocSink extends Xhtml5BaseSink implements XdocMarkup {
      * @see XdocMarkup#AUTHOR_TAG
      */
     public void author_() {
-        if (getTextBuffer().length() > 0) {
+        if (getTextBuilder().length() > 0) {
             writeStartTag(AUTHOR_TAG);
-            String text = HtmlTools.escapeHTML(getTextBuffer().toString());
+            String text = HtmlTools.escapeHTML(getTextBuilder().toString());
             // hack: un-escape numerical entities that have been escaped above
             // note that numerical entities should really be written as one unicode character in the first place
             text = StringUtils.replace(text, "&amp;#", "&#");
@@ -210,9 +210,9 @@ public class XdocSink extends Xhtml5BaseSink implements XdocMarkup {
      * @see XdocMarkup#DATE_TAG
      */
     public void date_() {
-        if (getTextBuffer().length() > 0) {
+        if (getTextBuilder().length() > 0) {
             writeStartTag(DATE_TAG);
-            content(getTextBuffer().toString());
+            content(getTextBuilder().toString());
             writeEndTag(DATE_TAG);
             resetTextBuffer();
         }
@@ -29,6 +29,7 @@ import java.util.Iterator;
 import java.util.regex.Pattern;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.maven.doxia.macro.snippet.DelayedHttpServer;
 import org.apache.maven.doxia.parser.AbstractParserTest;
 import org.apache.maven.doxia.parser.ParseException;
 import org.apache.maven.doxia.parser.Parser;
@@ -372,6 +373,40 @@ public class XdocParserTest extends AbstractParserTest {
         assertParseException(sink, "<macro name=\"unknown\"></macro>");
     }
 
+    @Test
+    public void testSnippetMacroPrefetch() throws Exception {
+        final int count = 4;
+        final long delay = 400;
+
+        try (DelayedHttpServer server = new DelayedHttpServer(delay)) {
+            StringBuilder text = new StringBuilder("<document><body><section name=\"Snippets\">");
+            for (int i = 0; i < count; i++) {
+                text.append("<macro name=\"snippet\"><param name=\"id\" value=\"snippetId\"/>")
+                        .append("<param name=\"url\" value=\"")
+                        .append(server.url("/xdoc/" + i))
+                        .append("\"/><param name=\"ignoreDownloadError\" value=\"false\"/></macro>");
+            }
+            text.append("</section></body></document>");
+
+            SinkEventTestingSink sink = new SinkEventTestingSink();
+            long start = System.currentTimeMillis();
+            parser.parse(text.toString(), sink);
+            long duration = System.currentTimeMillis() - start;
+
+            StringBuilder snippets = new StringBuilder();
+            for (SinkEventElement event : sink.getEventList()) {
+                if ("text".equals(event.getName())) {
+                    snippets.append(event.getArgs()[0]);
+                }
+            }
+            for (int i = 0; i < count; i++) {
+                assertTrue(snippets.toString().contains("content of /xdoc/" + i));
+            }
+            assertEquals(count, server.getRequestCount());
+            assertTrue(duration < (count - 1) * delay, "snippets were not fetched concurrently: " + duration + "ms");
+        }
+    }
+
     private void assertParseException(Sink sink, String text) {
         assertThrows(ParseException.class, () -> parser.parse(text, sink), "Should not be parseable: '" + text + "'");
     }
@@ -24,17 +24,17 @@ import javax.swing.text.html.HTML.Attribute;
 
 import java.io.IOException;
 import java.io.Reader;
-import java.io.StringReader;
-import java.io.StringWriter;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.maven.doxia.macro.MacroExecutionException;
 import org.apache.maven.doxia.macro.MacroRequest;
 import org.apache.maven.doxia.macro.manager.MacroNotFoundException;
 import org.apache.maven.doxia.parser.ParseException;
+import org.apache.maven.doxia.parser.SourceBuffer;
 import org.apache.maven.doxia.parser.Xhtml5BaseParser;
 import org.apache.maven.doxia.sink.Sink;
 import org.apache.maven.doxia.sink.impl.SinkEventAttributeSet;
@@ -57,10 +57,13 @@ public class Xhtml5Parser extends Xhtml5BaseParser implements Xhtml5Markup {
     /** Empty elements don't write a closing tag. */
     private boolean isEmptyElement;
 
+    /** A comment that contains a macro. */
+    private static final Pattern MACRO_COMMENT_PATTERN = Pattern.compile("<!--\\s*(MACRO[^{]*\\{[^}]*\\})");
+
     /**
      * The source content of the input reader. Used to pass into macros.
      */
-    private String sourceContent;
+    private SourceBuffer sourceContent;
 
     /** {@inheritDoc} */
     protected void handleStartTag(XmlPullParser parser, Sink sink)
@@ -189,12 +192,34 @@ public class Xhtml5Parser extends Xhtml5BaseParser implements Xhtml5Markup {
 
     /** process macro embedded in XHTML commment */
     private void processMacro(String text, Sink sink) throws XmlPullParserException {
+        Map<String, Object> parameters = new HashMap<>();
+        String macroName = parseMacro(text, parameters);
+
+        MacroRequest request = MacroRequest.of(sourceContent, new Xhtml5Parser(), parameters, getBasedir());
+
+        try {
+            executeMacro(macroName, request, sink);
+        } catch (MacroExecutionException e) {
+            throw new XmlPullParserException("Unable to execute macro in the document: " + macroName);
+        } catch (MacroNotFoundException me) {
+            throw new XmlPullParserException("Macro not found: " + macroName);
+        }
+    }
+
+    /**
+     * Splits the text of a macro comment, <code>MACRO{name|key=value|...}</code>, into the macro name
+     * and its parameters.
+     *
+     * @param text the text of the comment
+     * @param parameters the map that receives the macro parameters
+     * @return the macro name
+     * @throws XmlPullParserException if a parameter is not a key=value pair
+     */
+    private static String parseMacro(String text, Map<String, Object> parameters) throws XmlPullParserException {
         String s = text.substring(text.indexOf('{') + 1, text.indexOf('}'));
         s = escapeForMacro(s);
         String[] params = StringUtils.split(s, "|");
-        String macroName = params[0];
 
-        Map<String, Object> parameters = new HashMap<>();
         for (int i = 1; i < params.length; i++) {
             String[] param = StringUtils.split(params[i], "=");
             if (param.length == 1) {
@@ -206,14 +231,28 @@ public class Xhtml5Parser extends Xhtml5BaseParser implements Xhtml5Markup {
             parameters.put(key, value);
         }
 
-        MacroRequest request = new MacroRequest(sourceContent, new Xhtml5Parser(), parameters, getBasedir());
+        return params[0];
+    }
 
-        try {
-            executeMacro(macroName, request, sink);
-        } catch (MacroExecutionException e) {
-            throw new XmlPullParserException("Unable to execute macro in the document: " + macroName);
-        } catch (MacroNotFoundException me) {
-            throw new XmlPullParserException("Macro not found: " + macroName);
+    /**
+     * Let all macros of the document start loading their resources in the background,
+     * before the document is parsed.
+     */
+    private void prefetchMacros() {
+        if (isSecondParsing() || !sourceContent.contains("MACRO")) {
+            return;
+        }
+
+        Matcher matcher = MACRO_COMMENT_PATTERN.matcher(sourceContent);
+        while (matcher.find()) {
+            Map<String, Object> parameters = new HashMap<>();
+            try {
+                String macroName = parseMacro(matcher.group(1), parameters);
+
+                prefetchMacro(macroName, MacroRequest.of(sourceContent, new Xhtml5Parser(), parameters, getBasedir()));
+            } catch (XmlPullParserException e) {
+                // reported when the comment is parsed
+            }
         }
     }
 
@@ -223,7 +262,7 @@ public class Xhtml5Parser extends Xhtml5BaseParser implements Xhtml5Markup {
      * @param s String
      * @return String
      */
-    private String escapeForMacro(String s) {
+    private static String escapeForMacro(String s) {
         if (s == null || s.length() < 1) {
             return s;
         }
@@ -244,7 +283,7 @@ public class Xhtml5Parser extends Xhtml5BaseParser implements Xhtml5Markup {
      * @param s String
      * @return String
      */
-    private String unescapeForMacro(String s) {
+    private static String unescapeForMacro(String s) {
         if (s == null || s.length() < 1) {
             return s;
         }
@@ -269,18 +308,22 @@ public class Xhtml5Parser extends Xhtml5BaseParser implements Xhtml5Markup {
 
     /** {@inheritDoc} */
     public void parse(Reader source, Sink sink, String reference) throws ParseException {
+        if (parseMeasured(source, sink, reference)) {
+            return;
+        }
+
         this.sourceContent = null;
 
         try (Reader reader = source) {
-            StringWriter contentWriter = new StringWriter();
-            IOUtils.copy(reader, contentWriter);
-            sourceContent = contentWriter.toString();
+            sourceContent = SourceBuffer.read(reader);
         } catch (IOException ex) {
             throw new ParseException("Error reading the input source", ex);
         }
 
+        prefetchMacros();
+
         try {
-            super.parse(new StringReader(sourceContent), sink, reference);
+            super.parse(sourceContent.newReader(), sink, reference);
         } finally {
             this.sourceContent = null;
         }
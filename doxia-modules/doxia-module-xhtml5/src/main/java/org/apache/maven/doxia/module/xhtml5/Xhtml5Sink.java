@@ -149,7 +149,7 @@ public class Xhtml5Sink extends Xhtml5BaseSink implements Xhtml5Markup {
      * @see javax.swing.text.html.HTML.Tag#TITLE
      */
     public void title_() {
-        content(getTextBuffer().toString());
+        content(getTextBuilder().toString());
 
         writeEndTag(TITLE);
 
@@ -162,10 +162,10 @@ public class Xhtml5Sink extends Xhtml5BaseSink implements Xhtml5Markup {
      * @see javax.swing.text.html.HTML.Tag#META
      */
     public void author_() {
-        if (getTextBuffer().length() > 0) {
+        if (getTextBuilder().length() > 0) {
             MutableAttributeSet att = new SinkEventAttributeSet();
             att.addAttribute(Attribute.NAME, "author");
-            String text = HtmlTools.escapeHTML(getTextBuffer().toString());
+            String text = HtmlTools.escapeHTML(getTextBuilder().toString());
             // hack: un-escape numerical entities that have been escaped above
             // note that numerical entities should really be added as one unicode character in the first place
             text = StringUtils.replace(text, "&amp;#", "&#");
@@ -183,10 +183,10 @@ public class Xhtml5Sink extends Xhtml5BaseSink implements Xhtml5Markup {
      * @see javax.swing.text.html.HTML.Tag#META
      */
     public void date_() {
-        if (getTextBuffer().length() > 0) {
+        if (getTextBuilder().length() > 0) {
             MutableAttributeSet att = new SinkEventAttributeSet();
             att.addAttribute(Attribute.NAME, "date");
-            att.addAttribute(Attribute.CONTENT, getTextBuffer().toString());
+            att.addAttribute(Attribute.CONTENT, getTextBuilder().toString());
 
             writeSimpleTag(META, att);
 